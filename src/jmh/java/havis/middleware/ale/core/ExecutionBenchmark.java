@@ -0,0 +1,117 @@
+package havis.middleware.ale.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the wake-up latency of one serial executor out of many idle
+ * executors, as used by reader controllers and callback handlers, for each
+ * execution mode. The number of live threads and the heap usage are reported
+ * as secondary results.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionBenchmark {
+
+	@Param({ "THREAD", "SHARED", "VIRTUAL" })
+	Execution.Mode mode;
+
+	@Param({ "100", "1000" })
+	int count;
+
+	Execution execution;
+	ExecutorService[] executors;
+	int next;
+
+	@Setup
+	public void setup() throws InterruptedException {
+		execution = new Execution(mode, 4);
+		executors = new ExecutorService[count];
+		for (int i = 0; i < count; i++) {
+			executors[i] = execution.newSerialExecutor("Benchmark " + i);
+		}
+		// start the threads of the executors
+		final CountDownLatch latch = new CountDownLatch(count);
+		for (ExecutorService executor : executors) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					latch.countDown();
+				}
+			});
+		}
+		latch.await();
+	}
+
+	/**
+	 * The footprint of the executors, taken at the start of each iteration
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+
+		/**
+		 * The number of live threads
+		 */
+		public long threads;
+
+		/**
+		 * The used heap in KiB
+		 */
+		public long heap;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+			MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+			this.threads = threads.getThreadCount();
+			heap = memory.getHeapMemoryUsage().getUsed() / 1024;
+		}
+	}
+
+	@Benchmark
+	public void wakeUp(Footprint footprint) throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		executors[next++ % count].execute(new Runnable() {
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		});
+		latch.await();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws InterruptedException {
+		for (ExecutorService executor : executors) {
+			executor.shutdown();
+		}
+		for (ExecutorService executor : executors) {
+			executor.awaitTermination(1, TimeUnit.SECONDS);
+		}
+		execution.dispose();
+	}
+}
@@ -0,0 +1,323 @@
+package havis.middleware.ale.core;
+
+import havis.middleware.ale.Connector;
+import havis.middleware.ale.base.exception.ALEException;
+import havis.middleware.ale.base.exception.DuplicateNameException;
+import havis.middleware.ale.base.exception.ImplementationException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.config.Config;
+import havis.middleware.ale.core.field.CommonField;
+import havis.middleware.ale.core.manager.LR;
+import havis.middleware.ale.core.reader.SimulatorReaderConnector;
+import havis.middleware.ale.core.report.ec.PrimaryKey;
+import havis.middleware.ale.core.report.ec.Tags;
+import havis.middleware.ale.reader.Property;
+import havis.middleware.ale.reader.ReaderConnector;
+import havis.middleware.ale.service.ECFieldSpec;
+import havis.middleware.ale.service.ECTime;
+import havis.middleware.ale.service.ec.ECBoundarySpec;
+import havis.middleware.ale.service.ec.ECFilterSpec;
+import havis.middleware.ale.service.ec.ECFilterSpec.IncludePatterns;
+import havis.middleware.ale.service.ec.ECGroupSpec;
+import havis.middleware.ale.service.ec.ECReportOutputFieldSpec;
+import havis.middleware.ale.service.ec.ECReportOutputSpec;
+import havis.middleware.ale.service.ec.ECReportOutputSpecExtension;
+import havis.middleware.ale.service.ec.ECReportOutputSpecExtension.FieldList;
+import havis.middleware.ale.service.ec.ECReportSetSpec;
+import havis.middleware.ale.service.ec.ECReportSpec;
+import havis.middleware.ale.service.ec.ECReportSpecExtension;
+import havis.middleware.ale.service.ec.ECReportSpecExtension.StatProfileNames;
+import havis.middleware.ale.service.ec.ECSpec;
+import havis.middleware.ale.service.ec.ECSpec.LogicalReaders;
+import havis.middleware.ale.service.ec.ECSpec.ReportSpecs;
+import havis.middleware.ale.service.ec.ECSpecExtension;
+import havis.middleware.ale.service.ec.ECSpecExtension.PrimaryKeyFields;
+import havis.middleware.ale.service.lr.LRProperty;
+import havis.middleware.ale.service.lr.LRSpec;
+import havis.util.monitor.Broker;
+import havis.util.monitor.Event;
+import havis.util.monitor.Source;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+/**
+ * Provides the synthetic workload of the benchmarks: a logical reader backed
+ * by a {@link SimulatorReaderConnector} which only reads when driven by the
+ * benchmark, a tag population and event cycle specifications of increasing
+ * complexity
+ */
+public class Workload {
+
+	/**
+	 * The name of the simulated logical reader
+	 */
+	public final static String READER = "Simulator";
+
+	/**
+	 * The complexity of the report specifications
+	 */
+	public enum Complexity {
+
+		/**
+		 * One current report with filter and EPC output
+		 */
+		SIMPLE,
+
+		/**
+		 * One current report with filter, groups, EPC, tag and raw output and
+		 * counts
+		 */
+		GROUPED,
+
+		/**
+		 * Current, additions and deletions reports with filter, groups, output
+		 * fields, statistic profiles and primary key fields
+		 */
+		COMPLEX;
+	}
+
+	private static boolean initialized;
+	private static volatile SimulatorReaderConnector connector;
+
+	/**
+	 * Disables persistence, installs the connector factory and defines the
+	 * simulated logical reader
+	 *
+	 * @throws ALEException
+	 *             if definition of the reader failed
+	 */
+	public static synchronized void init() throws ALEException {
+		if (!initialized) {
+			Config.setPersistMode(false);
+			Connector.createFactory(new Connector() {
+				@Override
+				public <S> S newInstance(Class<S> clazz, String type) throws ImplementationException {
+					if (clazz == ReaderConnector.class && SimulatorReaderConnector.TYPE.equals(type)) {
+						SimulatorReaderConnector instance = new SimulatorReaderConnector();
+						connector = instance;
+						return clazz.cast(instance);
+					}
+					return null;
+				}
+
+				@Override
+				public <S> List<String> getTypes(Class<S> clazz) throws ImplementationException {
+					return clazz == ReaderConnector.class ? Collections.singletonList(SimulatorReaderConnector.TYPE) : Collections.<String> emptyList();
+				}
+
+				@Override
+				public Broker getBroker() {
+					return new Broker() {
+						@Override
+						public void notify(Source source, Event event) {
+						}
+					};
+				}
+			});
+			try {
+				LR.getInstance().define(READER, reader(), false);
+			} catch (DuplicateNameException e) {
+				// already defined
+			}
+			initialized = true;
+		}
+	}
+
+	/**
+	 * Retrieves the last created simulator connector
+	 *
+	 * @return The connector
+	 */
+	public static SimulatorReaderConnector getConnector() {
+		return connector;
+	}
+
+	/**
+	 * Retrieves the connector properties of a simulator with a single tag in
+	 * the field which does not read on its own
+	 *
+	 * @return The properties
+	 */
+	public static Map<String, String> properties() {
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SimulatorReaderConnector.TAGS, "1");
+		properties.put(SimulatorReaderConnector.READ_RATE, "0");
+		properties.put(SimulatorReaderConnector.SEED, "0");
+		return properties;
+	}
+
+	/**
+	 * Creates the specification of a base reader using the simulator
+	 * connector
+	 *
+	 * @return The specification
+	 */
+	public static LRSpec reader() {
+		LRSpec spec = new LRSpec();
+		spec.setIsComposite(Boolean.FALSE);
+		spec.setProperties(new LRSpec.Properties());
+		spec.getProperties().getProperty().add(property(Property.ReaderType, SimulatorReaderConnector.TYPE));
+		for (Entry<String, String> entry : properties().entrySet()) {
+			spec.getProperties().getProperty().add(property(entry.getKey(), entry.getValue()));
+		}
+		return spec;
+	}
+
+	private static LRProperty property(String name, String value) {
+		LRProperty property = new LRProperty();
+		property.setName(name);
+		property.setValue(value);
+		return property;
+	}
+
+	/**
+	 * Creates a population of distinct SGTIN-96 tags. The item reference is
+	 * randomly chosen out of twice the pattern count, so that about half of
+	 * the tags pass the filters of {@link #spec(Complexity, int)}.
+	 *
+	 * @param population
+	 *            The number of tags
+	 * @param patterns
+	 *            The number of filter patterns
+	 * @return The tags
+	 */
+	public static Tag[] tags(int population, int patterns) {
+		Random random = new Random(0);
+		Tag[] tags = new Tag[population];
+		for (int i = 0; i < population; i++) {
+			byte[] tid = new byte[] { (byte) 0xE2, (byte) 0x80, 0x11, 0x00, (byte) (i >>> 24), (byte) (i >>> 16), (byte) (i >>> 8), (byte) i };
+			tags[i] = TagDecoder.getInstance().fromUrn(
+					String.format("urn:epc:tag:sgtin-96:3.0614141.%06d.%d", Integer.valueOf(random.nextInt(Math.max(patterns, 1) * 2)), Integer.valueOf(i)),
+					tid);
+		}
+		return tags;
+	}
+
+	/**
+	 * Creates the tags of two consecutive event cycles with a turnover of ten
+	 * percent, so that each report set contains tags. The tags are copied, so
+	 * each call returns independent data.
+	 *
+	 * @param tags
+	 *            The tag population
+	 * @param fields
+	 *            The primary key fields or null
+	 * @return The tags of the current cycle
+	 */
+	public static Tags datas(Tag[] tags, Iterable<CommonField> fields) {
+		Tags datas = new Tags();
+		int turnover = tags.length / 10;
+		for (int i = 0; i < tags.length - turnover; i++) {
+			add(datas, tags[i], fields);
+		}
+		datas.rotate();
+		datas.clear();
+		for (int i = turnover; i < tags.length; i++) {
+			add(datas, tags[i], fields);
+		}
+		return datas;
+	}
+
+	private static void add(Tags datas, Tag tag, Iterable<CommonField> fields) {
+		Tag copy = tag.clone();
+		PrimaryKey key = new PrimaryKey(copy, fields);
+		if (datas.get(key) == null) {
+			copy.stat(READER);
+			datas.add(key, copy);
+		}
+	}
+
+	/**
+	 * Creates an event cycle specification on the simulated reader
+	 *
+	 * @param complexity
+	 *            The complexity of the report specifications
+	 * @param patterns
+	 *            The number of include patterns of each filter
+	 * @return The specification
+	 */
+	public static ECSpec spec(Complexity complexity, int patterns) {
+		ECSpec spec = new ECSpec();
+		spec.setLogicalReaders(new LogicalReaders());
+		spec.getLogicalReaders().getLogicalReader().add(READER);
+		spec.setBoundarySpec(new ECBoundarySpec());
+		ECTime duration = new ECTime();
+		duration.setUnit("MS");
+		duration.setValue(1000);
+		spec.getBoundarySpec().setDuration(duration);
+		ECTime repeatPeriod = new ECTime();
+		repeatPeriod.setUnit("MS");
+		repeatPeriod.setValue(0);
+		spec.getBoundarySpec().setRepeatPeriod(repeatPeriod);
+		spec.setIncludeSpecInReports(Boolean.FALSE);
+		spec.setReportSpecs(new ReportSpecs());
+
+		spec.getReportSpecs().getReportSpec().add(report("current", "CURRENT", complexity, patterns));
+		if (complexity == Complexity.COMPLEX) {
+			spec.getReportSpecs().getReportSpec().add(report("additions", "ADDITIONS", complexity, patterns));
+			spec.getReportSpecs().getReportSpec().add(report("deletions", "DELETIONS", complexity, patterns));
+			spec.setExtension(new ECSpecExtension());
+			spec.getExtension().setPrimaryKeyFields(new PrimaryKeyFields());
+			spec.getExtension().getPrimaryKeyFields().getPrimaryKeyField().add("epc");
+		}
+		return spec;
+	}
+
+	private static ECReportSpec report(String name, String set, Complexity complexity, int patterns) {
+		ECReportSpec spec = new ECReportSpec();
+		spec.setReportName(name);
+		spec.setReportSet(new ECReportSetSpec());
+		spec.getReportSet().setSet(set);
+		spec.setReportIfEmpty(Boolean.TRUE);
+		spec.setReportOnlyOnChange(Boolean.FALSE);
+
+		if (patterns > 0) {
+			spec.setFilterSpec(new ECFilterSpec());
+			spec.getFilterSpec().setIncludePatterns(new IncludePatterns());
+			for (int i = 0; i < patterns; i++) {
+				spec.getFilterSpec().getIncludePatterns().getIncludePattern()
+						.add(String.format("urn:epc:pat:sgtin-96:3.0614141.%06d.*", Integer.valueOf(i * 2)));
+			}
+		}
+
+		ECReportOutputSpec output = new ECReportOutputSpec();
+		output.setIncludeEPC(Boolean.TRUE);
+		output.setIncludeTag(Boolean.valueOf(complexity != Complexity.SIMPLE));
+		output.setIncludeRawHex(Boolean.valueOf(complexity != Complexity.SIMPLE));
+		output.setIncludeRawDecimal(Boolean.FALSE);
+		output.setIncludeCount(Boolean.valueOf(complexity != Complexity.SIMPLE));
+		if (complexity != Complexity.SIMPLE) {
+			spec.setGroupSpec(new ECGroupSpec());
+			spec.getGroupSpec().getPattern().add("urn:epc:pat:sgtin-96:3.0614141.X.*");
+		}
+		if (complexity == Complexity.COMPLEX) {
+			output.setExtension(new ECReportOutputSpecExtension());
+			output.getExtension().setFieldList(new FieldList());
+			output.getExtension().getFieldList().getField().add(field("epcHex", "epc-hex"));
+			output.getExtension().getFieldList().getField().add(field("epcDecimal", "epc-decimal"));
+
+			spec.setExtension(new ECReportSpecExtension());
+			spec.getExtension().setStatProfileNames(new StatProfileNames());
+			spec.getExtension().getStatProfileNames().getStatProfileName().add("TagCount");
+			spec.getExtension().getStatProfileNames().getStatProfileName().add("ReaderNames");
+		}
+		spec.setOutput(output);
+		return spec;
+	}
+
+	private static ECReportOutputFieldSpec field(String name, String format) {
+		ECFieldSpec fieldSpec = new ECFieldSpec("epc");
+		fieldSpec.setDatatype("epc");
+		fieldSpec.setFormat(format);
+		ECReportOutputFieldSpec spec = new ECReportOutputFieldSpec();
+		spec.setName(name);
+		spec.setFieldspec(fieldSpec);
+		spec.setIncludeFieldSpecInReport(Boolean.FALSE);
+		return spec;
+	}
+}
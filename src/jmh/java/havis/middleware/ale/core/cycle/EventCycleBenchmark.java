@@ -0,0 +1,94 @@
+package havis.middleware.ale.core.cycle;
+
+import havis.middleware.ale.base.exception.ALEException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.Workload;
+import havis.middleware.ale.core.Workload.Complexity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link EventCycle#notify(String, Tag, havis.middleware.ale.core.reader.ReaderController)}
+ * for each tag seen by the reader and
+ * {@link EventCycle#notify(String, List, havis.middleware.ale.core.reader.ReaderController)}
+ * for the whole population as one inventory round. The cycle is set active
+ * without its thread and each pass over the tag population ends the cycle as
+ * the cycle thread does, so the tags alternate between first sightings and
+ * repeated sightings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCycleBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	int population;
+
+	@Param({ "1", "10", "100" })
+	int patterns;
+
+	@Param({ "SIMPLE", "GROUPED", "COMPLEX" })
+	Complexity complexity;
+
+	EventCycle cycle;
+	Tag[] tags;
+	int next;
+
+	@Setup
+	public void setup() throws ALEException {
+		Workload.init();
+		tags = Workload.tags(population, patterns);
+		cycle = new EventCycle("EventCycleBenchmark", Workload.spec(complexity, patterns));
+		cycle.state = havis.middleware.ale.base.State.ACTIVE;
+	}
+
+	@Benchmark
+	public void notifyTag() {
+		if (next == population) {
+			next = 0;
+			synchronized (cycle.datas) {
+				cycle.datas.rotate();
+				cycle.datas.clear();
+			}
+		}
+		cycle.notify(Workload.READER, tags[next++].clone(), null);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void notifyRound() {
+		synchronized (cycle.datas) {
+			cycle.datas.rotate();
+			cycle.datas.clear();
+		}
+		List<Tag> round = new ArrayList<>(population);
+		for (Tag tag : tags) {
+			round.add(tag.clone());
+		}
+		cycle.notify(Workload.READER, round, null);
+	}
+
+	@TearDown
+	public void tearDown() {
+		cycle.state = havis.middleware.ale.base.State.UNREQUESTED;
+		cycle.dispose();
+	}
+}
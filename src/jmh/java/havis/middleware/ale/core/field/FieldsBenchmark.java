@@ -0,0 +1,77 @@
+package havis.middleware.ale.core.field;
+
+import havis.middleware.ale.base.exception.ALEException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.Workload;
+import havis.middleware.ale.service.ECFieldSpec;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the formatting of the EPC field of a tag population by
+ * {@link Fields#toString(CommonField, byte[])} for each EPC format
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldsBenchmark {
+
+	@Param({ "100", "10000" })
+	int population;
+
+	@Param({ "epc-pure", "epc-tag", "epc-hex", "epc-decimal" })
+	String format;
+
+	CommonField field;
+	byte[][] epcs;
+	int next;
+
+	@Setup
+	public void setup() throws ALEException {
+		Workload.init();
+		ECFieldSpec spec = new ECFieldSpec("epc");
+		spec.setDatatype("epc");
+		spec.setFormat(format);
+		Fields.lock();
+		try {
+			field = Fields.getInstance().get(spec);
+			field.inc();
+		} finally {
+			Fields.unlock();
+		}
+		Tag[] tags = Workload.tags(population, 1);
+		epcs = new byte[population][];
+		for (int i = 0; i < population; i++) {
+			epcs[i] = tags[i].getEpc();
+		}
+	}
+
+	@Benchmark
+	public String format() {
+		if (next == population) {
+			next = 0;
+		}
+		return Fields.toString(field, epcs[next++]);
+	}
+
+	@TearDown
+	public void tearDown() {
+		field.dec();
+	}
+}
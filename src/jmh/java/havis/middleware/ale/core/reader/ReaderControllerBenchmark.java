@@ -0,0 +1,98 @@
+package havis.middleware.ale.core.reader;
+
+import havis.middleware.ale.base.exception.ALEException;
+import havis.middleware.ale.base.operation.tag.Field;
+import havis.middleware.ale.base.operation.tag.Operation;
+import havis.middleware.ale.base.operation.tag.OperationType;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.TagOperation;
+import havis.middleware.ale.core.Workload;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the round trip of a tag through the reader controller on the
+ * simulator connector: the execution of a write and read operation on the tag
+ * in the field as done by command cycles and the delivery of an inventoried
+ * tag to the caller of a defined tag operation as done for event cycles
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderControllerBenchmark {
+
+	private final static String NAME = "ReaderControllerBenchmark";
+
+	ReaderController controller;
+	SimulatorReaderConnector connector;
+	TagOperation inventory;
+	TagOperation execute;
+
+	final AtomicReference<CountDownLatch> latch = new AtomicReference<>();
+
+	private final Caller<Tag> caller = new Caller<Tag>() {
+		@Override
+		public void invoke(Tag tag, ReaderController controller) {
+			CountDownLatch latch = ReaderControllerBenchmark.this.latch.get();
+			if (latch != null) {
+				latch.countDown();
+			}
+		}
+	};
+
+	@Setup
+	public void setup() throws ALEException {
+		Workload.init();
+		controller = Reader.getInstance().get(NAME, SimulatorReaderConnector.TYPE, Workload.properties());
+		connector = Workload.getConnector();
+
+		inventory = new TagOperation(Collections.<Operation> emptyList(), null);
+		controller.define(inventory, caller, NAME);
+		controller.enable(inventory);
+
+		execute = new TagOperation(Arrays.asList(new Operation(1, OperationType.WRITE, new Field("userBank", 3, 0, 32), new byte[] { 0x01, 0x02, 0x03,
+				0x04 }), new Operation(2, OperationType.READ, new Field("userBank", 3, 0, 32))), null);
+	}
+
+	@Benchmark
+	public void execute() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		this.latch.set(latch);
+		controller.execute(NAME, execute, caller);
+		latch.await();
+	}
+
+	@Benchmark
+	public void inventory() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		this.latch.set(latch);
+		connector.inventory(1);
+		latch.await();
+	}
+
+	@TearDown
+	public void tearDown() throws ALEException {
+		controller.disable(inventory);
+		controller.undefine(inventory, NAME);
+		controller.dispose();
+	}
+}
@@ -0,0 +1,130 @@
+package havis.middleware.ale.core.report.ec;
+
+import havis.middleware.ale.base.exception.ALEException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.Workload;
+import havis.middleware.ale.core.Workload.Complexity;
+import havis.middleware.ale.core.report.Initiation;
+import havis.middleware.ale.core.report.ReportsInfo;
+import havis.middleware.ale.core.report.Termination;
+import havis.middleware.ale.core.subscriber.SubscriberController;
+import havis.middleware.ale.core.subscriber.SubscriberListener;
+import havis.middleware.ale.service.ec.ECReport;
+import havis.middleware.ale.service.ec.ECReports;
+import havis.middleware.ale.service.ec.ECSpec;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the primary key of a tag, the key lookup, the generation of one
+ * report by {@link Report#get(List)} and the generation of the report set by
+ * {@link Reports#run()} including the hand off to the report thread and the
+ * delivery to a poll listener
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportsBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	int population;
+
+	@Param({ "1", "10", "100" })
+	int patterns;
+
+	@Param({ "SIMPLE", "GROUPED", "COMPLEX" })
+	Complexity complexity;
+
+	Reports reports;
+	Report report;
+	Tag[] tags;
+	Tags datas;
+	List<Tag> current;
+	PrimaryKey probe = new PrimaryKey();
+	int next;
+
+	@Setup
+	public void setup() throws ALEException {
+		Workload.init();
+		ECSpec spec = Workload.spec(complexity, patterns);
+		reports = new Reports("ReportsBenchmark", spec);
+		report = new Report(spec.getReportSpecs().getReportSpec().get(0));
+		tags = Workload.tags(population, patterns);
+		datas = Workload.datas(tags, reports.getFields());
+		Tags snapshot = datas.clone();
+		snapshot.merge();
+		current = snapshot.getCurrent();
+	}
+
+	/**
+	 * The tags of a new cycle for each report set generation, since the
+	 * generation merges and clears the tags
+	 */
+	@State(Scope.Thread)
+	public static class Cycle {
+
+		Tags datas;
+
+		@Setup(Level.Invocation)
+		public void setup(ReportsBenchmark benchmark) {
+			datas = Workload.datas(benchmark.tags, benchmark.reports.getFields()).clone();
+		}
+	}
+
+	private Tag nextTag() {
+		if (next == population) {
+			next = 0;
+		}
+		return tags[next++];
+	}
+
+	@Benchmark
+	public long primaryKey() {
+		return probe.set(nextTag(), reports.getFields()).hash();
+	}
+
+	@Benchmark
+	public Tag lookup() {
+		return datas.get(probe.set(nextTag(), reports.getFields()));
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public ECReport report() {
+		return report.get(current);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public ECReports run(Cycle cycle) {
+		SubscriberListener<ECReports> listener = new SubscriberListener<ECReports>(1);
+		reports.enqueue(new ReportsInfo<ECReports, Tags>(new SubscriberController[] { listener }, cycle.datas, new Date(), 1000, Initiation.REPEAT_PERIOD,
+				null, Termination.DURATION, null));
+		return listener.dequeue();
+	}
+
+	@TearDown
+	public void tearDown() {
+		report.dispose();
+		reports.dispose();
+	}
+}
@@ -0,0 +1,90 @@
+package havis.middleware.ale.core.report.ec;
+
+import havis.middleware.ale.base.exception.ALEException;
+import havis.middleware.ale.core.Workload;
+import havis.middleware.ale.core.Workload.Complexity;
+import havis.middleware.ale.core.report.Initiation;
+import havis.middleware.ale.core.report.ReportsInfo;
+import havis.middleware.ale.core.report.Termination;
+import havis.middleware.ale.core.subscriber.SubscriberController;
+import havis.middleware.ale.core.subscriber.SubscriberListener;
+import havis.middleware.ale.service.ec.ECReports;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures the JSON and XML serialization of an event cycle report set as
+ * delivered to subscribers
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	private final static QName NAME = new QName("urn:epcglobal:ale:xsd:1", "ECReports");
+
+	@Param({ "100", "1000", "10000" })
+	int population;
+
+	@Param({ "SIMPLE", "GROUPED", "COMPLEX" })
+	Complexity complexity;
+
+	ECReports ecReports;
+	ObjectMapper mapper;
+	JAXBContext context;
+
+	@Setup
+	public void setup() throws ALEException, JAXBException {
+		Workload.init();
+		Reports reports = new Reports("SerializationBenchmark", Workload.spec(complexity, 10));
+		try {
+			SubscriberListener<ECReports> listener = new SubscriberListener<ECReports>(1);
+			reports.enqueue(new ReportsInfo<ECReports, Tags>(new SubscriberController[] { listener }, Workload.datas(Workload.tags(population, 10),
+					reports.getFields()).clone(), new Date(), 1000, Initiation.REPEAT_PERIOD, null, Termination.DURATION, null));
+			ecReports = listener.dequeue();
+		} finally {
+			reports.dispose();
+		}
+		mapper = new ObjectMapper();
+		context = JAXBContext.newInstance(ECReports.class);
+	}
+
+	@Benchmark
+	public byte[] json() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(ecReports);
+	}
+
+	@Benchmark
+	public byte[] xml() throws JAXBException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		Marshaller marshaller = context.createMarshaller();
+		marshaller.marshal(new JAXBElement<ECReports>(NAME, ECReports.class, ecReports), stream);
+		return stream.toByteArray();
+	}
+}
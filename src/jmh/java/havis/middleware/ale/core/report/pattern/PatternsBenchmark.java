@@ -0,0 +1,98 @@
+package havis.middleware.ale.core.report.pattern;
+
+import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.Tag.Property;
+import havis.middleware.ale.core.TagDecoder;
+import havis.middleware.tdt.TdtTagInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the linear pattern scan with the compiled {@link PatternIndex} on
+ * the tag URI and on the EPC bits for a growing number of disjoint filter
+ * patterns
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternsBenchmark {
+
+	private final static int TAGS = 1024;
+
+	@Param({ "1", "10", "100", "500" })
+	int count;
+
+	Queue<IPattern> patterns;
+	PatternIndex index;
+	Tag[] tags;
+	TdtTagInfo[] infos;
+	int next;
+
+	@Setup
+	public void setup() throws ValidationException {
+		List<String> list = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			list.add(String.format("urn:epc:pat:sgtin-96:3.0614141.%06d.*", Integer.valueOf(i * 2)));
+		}
+		patterns = Patterns.pattern(PatternType.FILTER, list);
+		index = PatternIndex.compile(patterns);
+
+		Random random = new Random(0);
+		tags = new Tag[TAGS];
+		infos = new TdtTagInfo[TAGS];
+		for (int i = 0; i < TAGS; i++) {
+			Tag tag = tags[i] = TagDecoder.getInstance().fromUrn(
+					String.format("urn:epc:tag:sgtin-96:3.0614141.%06d.%d", Integer.valueOf(random.nextInt(count * 2)),
+							Integer.valueOf(random.nextInt(1000000))));
+			infos[i] = tag.<TdtTagInfo> getProperty(Property.TAG_INFO);
+		}
+	}
+
+	private TdtTagInfo next() {
+		return infos[next++ & (TAGS - 1)];
+	}
+
+	private Tag nextTag() {
+		return tags[next++ & (TAGS - 1)];
+	}
+
+	@Benchmark
+	public boolean linear() {
+		TdtTagInfo info = next();
+		for (IPattern pattern : patterns) {
+			if (pattern.match(info, null))
+				return true;
+		}
+		return false;
+	}
+
+	@Benchmark
+	public boolean index() {
+		return index.match(next());
+	}
+
+	@Benchmark
+	public boolean bits() {
+		return index.match(nextTag());
+	}
+}
@@ -9,6 +9,7 @@ import havis.middleware.ale.base.operation.port.PortObservation;
 import havis.middleware.ale.base.operation.port.PortOperation;
 import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.base.operation.tag.TagOperation;
+import havis.middleware.ale.core.reader.BatchCaller;
 import havis.middleware.ale.core.reader.Caller;
 import havis.middleware.ale.core.reader.Reader;
 import havis.middleware.ale.core.reader.ReaderController;
@@ -243,11 +244,16 @@ public class BaseReader extends LogicalReader {
 			final Caller<Tag> callback, String name)
 			throws ImplementationException, ValidationException {
 		if (isTagSmoothingEnabled()) {
-			controller.define(operation, new Caller<Tag>() {
+			controller.define(operation, new BatchCaller<Tag>() {
 				@Override
 				public void invoke(Tag tag, ReaderController controller) {
 					tagSmoothingHandler.process(tag, callback, controller);
 				}
+
+				@Override
+				public void invoke(List<Tag> tags, ReaderController controller) {
+					tagSmoothingHandler.process(tags, callback, controller);
+				}
 			}, name);
 		} else {
 			controller.define(operation, callback, name);
@@ -14,7 +14,9 @@ import havis.middleware.ale.base.operation.port.PortOperation;
 import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.base.operation.tag.TagOperation;
 import havis.middleware.ale.core.manager.LR;
+import havis.middleware.ale.core.reader.BatchCaller;
 import havis.middleware.ale.core.reader.Caller;
+import havis.middleware.ale.core.reader.Callers;
 import havis.middleware.ale.core.reader.ReaderController;
 import havis.middleware.ale.reader.Property;
 import havis.middleware.ale.service.lr.LRSpec;
@@ -23,7 +25,10 @@ import havis.middleware.ale.service.rc.RCConfig;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -33,6 +38,13 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class CompositeReader extends LogicalReader {
 
+	/**
+	 * Property for the window in milliseconds in which reads of the same tag
+	 * by the component readers are merged into one, 0 disables the
+	 * deduplication
+	 */
+	public static final String DEDUPLICATION_WINDOW = "DeduplicationWindow";
+
 	/**
 	 * Readers lock
 	 */
@@ -53,6 +65,21 @@ public class CompositeReader extends LogicalReader {
 	 */
 	protected short antenna = 0;
 
+	/**
+	 * Deduplication window defined for this composite reader
+	 */
+	protected int deduplicationWindow = 0;
+
+	/**
+	 * Executor to release deduplicated tags
+	 */
+	private ExecutorService deduplicationExecutor;
+
+	/**
+	 * Deduplicators by operation and parent
+	 */
+	private Map<String, TagDeduplicator> deduplicators = new ConcurrentHashMap<>();
+
 	/**
 	 * Initializes a new instance of the
 	 * Havis.Middleware.ALE.LogicalReader.CompositeReader class.
@@ -72,6 +99,7 @@ public class CompositeReader extends LogicalReader {
 		this.set(spec);
 		try {
 			this.detectAntennaRestriction();
+			this.detectDeduplication();
 		} catch (Exception e) {
 			this.removeAll();
 			throw e;
@@ -178,6 +206,7 @@ public class CompositeReader extends LogicalReader {
 			case Property.ObservedTimeThreshold:
 			case Property.ObservedCountThreshold:
 			case Property.LostTimeout:
+			case DEDUPLICATION_WINDOW:
 				break;
 			default:
 				throw new ValidationException("Property '" + property.getKey()
@@ -208,6 +237,7 @@ public class CompositeReader extends LogicalReader {
             boolean success = false;
             try {
                 this.detectAntennaRestriction();
+                this.detectDeduplication();
                 success = true;
             } finally {
                 if (!success) { // reset if validation failed
@@ -223,6 +253,14 @@ public class CompositeReader extends LogicalReader {
 	@Override
     protected void undefineReader() {
 		this.removeAll();
+		for (TagDeduplicator deduplicator : deduplicators.values()) {
+			deduplicator.dispose();
+		}
+		deduplicators.clear();
+		if (deduplicationExecutor != null) {
+			deduplicationExecutor.shutdownNow();
+			deduplicationExecutor = null;
+		}
 	}
 
 	/**
@@ -341,28 +379,46 @@ public class CompositeReader extends LogicalReader {
 	 * @throws ValidationException
 	 */
 	@Override
-	protected void defineCurrent(TagOperation operation, final Caller<Tag> callback, String name) throws ImplementationException, ValidationException {
+	protected void defineCurrent(TagOperation operation, Caller<Tag> target, String name) throws ImplementationException, ValidationException {
 		List<LogicalReader> list = new ArrayList<>();
 		String id = name + "-" + this.guid;
+		// merge the reads of all component readers before the callback, a
+		// deduplicator passes the reads through without window, but takes a
+		// window set by a later update
+		final TagDeduplicator callback = new TagDeduplicator(deduplicationWindow, target, deduplicationExecutor);
+		TagDeduplicator previous = deduplicators.put(id + "-" + operation.getId(), callback);
+		if (previous != null) {
+			previous.dispose();
+		}
 		try {
 			for (LogicalReader reader : readers) {
 				if (isTagSmoothingEnabled()) {
-					reader.define(operation, new Caller<Tag>() {
+					reader.define(operation, new BatchCaller<Tag>() {
 						@Override
 						public void invoke(Tag tag, ReaderController controller) {
 							if (antennaRestrictionCheck(tag)) {
 								tagSmoothingHandler.process(tag, callback, controller);
 							}
 						}
+
+						@Override
+						public void invoke(List<Tag> tags, ReaderController controller) {
+							tagSmoothingHandler.process(antennaRestrictionFilter(tags), callback, controller);
+						}
 					}, id);
 				} else if (restricted) {
-					reader.define(operation, new Caller<Tag>() {
+					reader.define(operation, new BatchCaller<Tag>() {
 						@Override
 						public void invoke(Tag tag, ReaderController controller) {
 							if (antennaRestrictionCheck(tag)) {
 								callback.invoke(tag, controller);
 							}
 						}
+
+						@Override
+						public void invoke(List<Tag> tags, ReaderController controller) {
+							Callers.invoke(callback, antennaRestrictionFilter(tags), controller);
+						}
 					}, id);
 				} else {
 					reader.define(operation, callback, id);
@@ -373,10 +429,26 @@ public class CompositeReader extends LogicalReader {
 			for (LogicalReader reader : list) {
 				reader.undefine(operation, id);
 			}
+			dispose(operation, id);
 			throw e;
 		}
 	}
 
+	/**
+	 * Disposes the deduplicator of the reader operation
+	 *
+	 * @param operation
+	 *            The operation
+	 * @param id
+	 *            The id of the parent
+	 */
+	private void dispose(TagOperation operation, String id) {
+		TagDeduplicator deduplicator = deduplicators.remove(id + "-" + operation.getId());
+		if (deduplicator != null) {
+			deduplicator.dispose();
+		}
+	}
+
 	/**
 	 * Undefines the reader operation <paramref name="operation"/> at this
 	 * logical.
@@ -393,6 +465,7 @@ public class CompositeReader extends LogicalReader {
 		for (LogicalReader reader : readers) {
 			reader.undefine(operation, id);
 		}
+		dispose(operation, id);
 	}
 
 	/**
@@ -582,6 +655,43 @@ public class CompositeReader extends LogicalReader {
 		this.restricted = restricted;
 	}
 
+	/**
+	 * Retrieves the deduplication window of this composite reader and applies
+	 * it to the existing deduplicators
+	 *
+	 * @throws ValidationException
+	 */
+	private void detectDeduplication() throws ValidationException {
+		int window = 0;
+		String value = this.properties.get(DEDUPLICATION_WINDOW);
+		if (value != null) {
+			try {
+				window = Integer.parseInt(value);
+				if (window < 0) {
+					throw new NumberFormatException();
+				}
+			} catch (NumberFormatException e) {
+				throw new ValidationException("Property " + DEDUPLICATION_WINDOW + " must be a positive integer value!");
+			}
+		}
+		if (window > 0) {
+			if (deduplicationExecutor == null) {
+				deduplicationExecutor = Execution.getInstance().newSerialExecutor(this.getClass().getSimpleName() + " " + this.name + " deduplicate()");
+			}
+			for (TagDeduplicator deduplicator : deduplicators.values()) {
+				deduplicator.setWindow(window, deduplicationExecutor);
+			}
+		} else if (deduplicationExecutor != null) {
+			// release the held tags before the executor terminates
+			for (TagDeduplicator deduplicator : deduplicators.values()) {
+				deduplicator.setWindow(0, deduplicationExecutor);
+			}
+			deduplicationExecutor.shutdown();
+			deduplicationExecutor = null;
+		}
+		this.deduplicationWindow = window;
+	}
+
 	/**
 	 * Verifies if an Tag matches the antenna restriction.
 	 *
@@ -599,4 +709,24 @@ public class CompositeReader extends LogicalReader {
 		}
 		return false;
 	}
+
+	/**
+	 * Retrieves the tags which match the antenna restriction.
+	 *
+	 * @param tags
+	 *            The tags to match
+	 * @return Returns the matching tags in order
+	 */
+	private List<Tag> antennaRestrictionFilter(List<Tag> tags) {
+		if (!this.restricted) {
+			return tags;
+		}
+		List<Tag> list = new ArrayList<>(tags.size());
+		for (Tag tag : tags) {
+			if (antennaRestrictionCheck(tag)) {
+				list.add(tag);
+			}
+		}
+		return list;
+	}
 }
@@ -0,0 +1,349 @@
+package havis.middleware.ale.core;
+
+import havis.middleware.utils.threading.NamedThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class provides the threads and executors of cycles, reader
+ * controllers and callback handlers according to the execution mode, which
+ * can be set by the system property {@value #MODE}:
+ * <ul>
+ * <li>thread: each loop and executor owns a platform thread, timer executors
+ * share a pool (default)</li>
+ * <li>shared: executors run on a shared carrier pool in submission order
+ * and occupy a carrier only while they have work, the size of the pool kept
+ * alive when idle can be set by {@value #CARRIERS}, the maximum size by
+ * {@value #MAX_CARRIERS} and the number of tasks waiting for a carrier by
+ * {@value #QUEUE_SIZE}</li>
+ * <li>virtual: each loop and executor owns a virtual thread, if the runtime
+ * supports virtual threads, shared mode otherwise</li>
+ * </ul>
+ */
+public class Execution {
+
+	private final static Logger log = Logger.getLogger(Execution.class.getName());
+
+	private static final String MODE = "havis.middleware.ale.execution";
+	private static final String CARRIERS = "havis.middleware.ale.execution.carriers";
+	private static final String MAX_CARRIERS = "havis.middleware.ale.execution.maxCarriers";
+	private static final String QUEUE_SIZE = "havis.middleware.ale.execution.queueSize";
+
+	/**
+	 * The execution modes
+	 */
+	public enum Mode {
+		THREAD, SHARED, VIRTUAL;
+	}
+
+	private static Execution instance = new Execution(mode(System.getProperty(MODE)), Integer.getInteger(CARRIERS,
+			Math.max(4, Runtime.getRuntime().availableProcessors())).intValue(), Integer.getInteger(MAX_CARRIERS, 256).intValue(), Integer.getInteger(
+			QUEUE_SIZE, 1024).intValue());
+
+	/**
+	 * Retrieves the static instance
+	 *
+	 * @return The static instance
+	 */
+	public static Execution getInstance() {
+		return instance;
+	}
+
+	private static Mode mode(String value) {
+		if (value != null) {
+			try {
+				return Mode.valueOf(value.trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				log.log(Level.WARNING, "Unknown execution mode {0}, using thread mode", value);
+			}
+		}
+		return Mode.THREAD;
+	}
+
+	private final Mode mode;
+	private final int carriers, maxCarriers, queueSize;
+	private final Method builder, name, factory;
+	private volatile ExecutorService pool;
+	private volatile ExecutorService timers;
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param mode
+	 *            The requested mode
+	 * @param carriers
+	 *            The number of carriers kept alive in shared mode
+	 */
+	public Execution(Mode mode, int carriers) {
+		this(mode, carriers, 256, 1024);
+	}
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param mode
+	 *            The requested mode
+	 * @param carriers
+	 *            The number of carriers kept alive in shared mode
+	 * @param maxCarriers
+	 *            The maximum number of carriers in shared mode
+	 * @param queueSize
+	 *            The maximum number of tasks waiting for a carrier in shared
+	 *            mode
+	 */
+	public Execution(Mode mode, int carriers, int maxCarriers, int queueSize) {
+		this.carriers = Math.max(carriers, 1);
+		this.maxCarriers = Math.max(maxCarriers, this.carriers);
+		this.queueSize = Math.max(queueSize, 1);
+		Method builder = null, name = null, factory = null;
+		if (mode == Mode.VIRTUAL) {
+			try {
+				// Thread.ofVirtual().name(name).factory() since Java 21
+				builder = Thread.class.getMethod("ofVirtual");
+				Class<?> clazz = Class.forName("java.lang.Thread$Builder");
+				name = clazz.getMethod("name", String.class);
+				factory = clazz.getMethod("factory");
+			} catch (ReflectiveOperationException e) {
+				log.log(Level.WARNING, "Virtual threads are not supported, using shared mode");
+				mode = Mode.SHARED;
+			}
+		}
+		this.mode = mode;
+		this.builder = builder;
+		this.name = name;
+		this.factory = factory;
+	}
+
+	/**
+	 * Retrieves the effective mode
+	 *
+	 * @return The mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Creates a new unstarted thread for a loop which blocks while waiting
+	 * i.e. a cycle. Loops can not share carriers, so shared mode uses a
+	 * platform thread.
+	 *
+	 * @param runnable
+	 *            The loop
+	 * @param name
+	 *            The thread name
+	 * @return The thread
+	 */
+	public Thread newThread(Runnable runnable, String name) {
+		if (mode == Mode.VIRTUAL) {
+			return virtual(name).newThread(runnable);
+		}
+		return new Thread(runnable, name);
+	}
+
+	/**
+	 * Creates a new executor which runs its tasks one after another in
+	 * submission order
+	 *
+	 * @param name
+	 *            The thread name
+	 * @return The executor
+	 */
+	public ExecutorService newSerialExecutor(String name) {
+		switch (mode) {
+		case SHARED:
+			return new SerialExecutor(pool());
+		case VIRTUAL:
+			return Executors.newSingleThreadExecutor(virtual(name));
+		default:
+			return Executors.newSingleThreadExecutor(new NamedThreadFactory(name));
+		}
+	}
+
+	/**
+	 * Creates a new executor for short tasks handed off from a timer, which
+	 * runs its tasks one after another in submission order. Timer executors
+	 * share their carriers, so an idle executor does not own a platform
+	 * thread.
+	 *
+	 * @param name
+	 *            The thread name
+	 * @return The executor
+	 */
+	public ExecutorService newTimerExecutor(String name) {
+		switch (mode) {
+		case SHARED:
+			return new SerialExecutor(pool());
+		case VIRTUAL:
+			return Executors.newSingleThreadExecutor(virtual(name));
+		default:
+			return new SerialExecutor(timers());
+		}
+	}
+
+	private ThreadFactory virtual(String name) {
+		try {
+			return (ThreadFactory) factory.invoke(this.name.invoke(builder.invoke(null), name));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Failed to create virtual thread factory", e);
+		}
+	}
+
+	/**
+	 * Returns the shared carrier pool. It keeps the configured number of
+	 * carriers and adds carriers up to the maximum while more executors are
+	 * busy, i.e. blocked on a reader, which are removed again after one
+	 * minute idle time.
+	 */
+	private ExecutorService pool() {
+		ExecutorService pool = this.pool;
+		if (pool == null) {
+			synchronized (this) {
+				if ((pool = this.pool) == null) {
+					final AtomicInteger count = new AtomicInteger();
+					this.pool = pool = new CarrierPool(carriers, maxCarriers, queueSize, new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, Execution.class.getSimpleName() + " carrier " + count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+				}
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * Returns the shared pool of the timer executors in thread mode. Threads
+	 * are added while more timer executors are busy, i.e. waiting for the
+	 * lock of a cycle, and removed again after one minute idle time.
+	 */
+	private ExecutorService timers() {
+		ExecutorService timers = this.timers;
+		if (timers == null) {
+			synchronized (this) {
+				if ((timers = this.timers) == null) {
+					final AtomicInteger count = new AtomicInteger();
+					this.timers = timers = Executors.newCachedThreadPool(new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, Execution.class.getSimpleName() + " timer " + count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+				}
+			}
+		}
+		return timers;
+	}
+
+	/**
+	 * Shuts down the shared carrier and timer pools, i.e. on tests
+	 */
+	public void dispose() {
+		synchronized (this) {
+			if (pool != null) {
+				pool.shutdown();
+				pool = null;
+			}
+			if (timers != null) {
+				timers.shutdown();
+				timers = null;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Execution [mode=" + mode + ", carriers=" + carriers + ", maxCarriers=" + maxCarriers + ", queueSize=" + queueSize + "]";
+	}
+
+	/**
+	 * The shared carrier pool. A task waits in the bounded queue only while
+	 * all carriers are busy and no further carrier can be added. If the queue
+	 * is full as well, the submitting thread runs the task itself.
+	 */
+	private static class CarrierPool extends ThreadPoolExecutor {
+
+		/**
+		 * The number of tasks queued or running
+		 */
+		private final AtomicInteger submitted = new AtomicInteger();
+
+		CarrierPool(int carriers, int maxCarriers, int queueSize, ThreadFactory factory) {
+			super(carriers, maxCarriers, 60, TimeUnit.SECONDS, new CarrierQueue(queueSize), factory);
+			((CarrierQueue) getQueue()).pool = this;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			submitted.incrementAndGet();
+			try {
+				super.execute(command);
+			} catch (RejectedExecutionException e) {
+				if (isShutdown()) {
+					submitted.decrementAndGet();
+					throw e;
+				}
+				// the maximum was reached meanwhile or the queue is full
+				if (!((CarrierQueue) getQueue()).force(command)) {
+					try {
+						command.run();
+					} finally {
+						submitted.decrementAndGet();
+					}
+				}
+			}
+		}
+
+		@Override
+		protected void afterExecute(Runnable r, Throwable t) {
+			submitted.decrementAndGet();
+		}
+	}
+
+	/**
+	 * The queue of the carrier pool, which refuses tasks while the pool can
+	 * still add a carrier, so that the pool grows before tasks have to wait
+	 */
+	private static class CarrierQueue extends LinkedBlockingQueue<Runnable> {
+
+		private static final long serialVersionUID = 1L;
+
+		private transient volatile CarrierPool pool;
+
+		CarrierQueue(int capacity) {
+			super(capacity);
+		}
+
+		@Override
+		public boolean offer(Runnable task) {
+			CarrierPool pool = this.pool;
+			if (pool != null) {
+				int size = pool.getPoolSize();
+				// no idle carrier, but another one can be added
+				if ((pool.submitted.get() > size) && (size < pool.getMaximumPoolSize())) {
+					return false;
+				}
+			}
+			return super.offer(task);
+		}
+
+		boolean force(Runnable task) {
+			return super.offer(task);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package havis.middleware.ale.core;
+
+import havis.middleware.ale.exit.Exits;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implements an executor which runs its tasks one after another in
+ * submission order on a shared carrier executor. No carrier thread is
+ * occupied while the queue is empty. A carrier runs a limited number of tasks
+ * before it is handed back, so busy executors can not starve others.
+ */
+class SerialExecutor extends AbstractExecutorService {
+
+	private static final int BATCH = 64;
+
+	private final Executor carrier;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final CountDownLatch terminated = new CountDownLatch(1);
+	private volatile boolean shutdown;
+	private volatile Thread worker;
+
+	private final Runnable drain = new Runnable() {
+		@Override
+		public void run() {
+			worker = Thread.currentThread();
+			try {
+				for (int i = 0; i < BATCH; i++) {
+					Runnable task = tasks.poll();
+					if (task == null) {
+						break;
+					}
+					try {
+						task.run();
+					} catch (Throwable e) {
+						Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Task failed: " + e.getMessage(), e);
+					}
+				}
+			} finally {
+				worker = null;
+				// clear interrupt of shutdownNow before the carrier is reused
+				Thread.interrupted();
+				running.set(false);
+			}
+			if (!tasks.isEmpty()) {
+				schedule();
+			} else {
+				tryTerminate();
+			}
+		}
+	};
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param carrier
+	 *            The shared carrier executor
+	 */
+	SerialExecutor(Executor carrier) {
+		this.carrier = carrier;
+	}
+
+	private void schedule() {
+		if (running.compareAndSet(false, true)) {
+			try {
+				carrier.execute(drain);
+			} catch (RejectedExecutionException e) {
+				running.set(false);
+				throw e;
+			}
+		}
+	}
+
+	private synchronized void tryTerminate() {
+		if (shutdown && tasks.isEmpty() && !running.get()) {
+			terminated.countDown();
+		}
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		synchronized (this) {
+			if (shutdown) {
+				throw new RejectedExecutionException("Executor was shut down");
+			}
+			tasks.add(command);
+		}
+		schedule();
+	}
+
+	@Override
+	public void shutdown() {
+		synchronized (this) {
+			shutdown = true;
+		}
+		tryTerminate();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		shutdown();
+		List<Runnable> list = new ArrayList<>();
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			list.add(task);
+		}
+		Thread worker = this.worker;
+		if (worker != null) {
+			worker.interrupt();
+		}
+		tryTerminate();
+		return list;
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return terminated.getCount() == 0;
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return terminated.await(timeout, unit);
+	}
+}
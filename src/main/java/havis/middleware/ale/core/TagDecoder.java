@@ -3,7 +3,6 @@ package havis.middleware.ale.core;
 import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.base.operation.tag.Tag.Decoder;
 import havis.middleware.ale.base.operation.tag.Tag.Property;
-import havis.middleware.misc.TdtWrapper;
 import havis.middleware.tdt.TdtTagInfo;
 import havis.middleware.tdt.TdtTranslationException;
 
@@ -26,14 +25,14 @@ public class TagDecoder implements Decoder<byte[]> {
 	@Override
 	public Object decode(int bank, byte[] data) {
 		try {
-			return TdtWrapper.getTdt().translate(data);
+			return TdtCache.getInstance().translate(data);
 		} catch (TdtTranslationException e) {
 			return null;
 		}
 	}
 
 	public byte[] decodeUrn(String urn) throws TdtTranslationException {
-		TdtTagInfo info = TdtWrapper.getTdt().translate(urn);
+		TdtTagInfo info = TdtCache.getInstance().translate(urn);
 		return info.getEpcData();
 	}
 
@@ -41,7 +40,7 @@ public class TagDecoder implements Decoder<byte[]> {
 		TdtTagInfo tagInfo = null;
 		byte[] epc = null;
 		try {
-			tagInfo = TdtWrapper.getTdt().translate(urn);
+			tagInfo = TdtCache.getInstance().translate(urn);
 			epc = tagInfo.getEpcData();
 		} catch (TdtTranslationException e) {
 			// ignore
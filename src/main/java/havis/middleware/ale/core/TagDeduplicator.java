@@ -0,0 +1,303 @@
+package havis.middleware.ale.core;
+
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.cycle.TimingWheel;
+import havis.middleware.ale.core.reader.BatchCaller;
+import havis.middleware.ale.core.reader.Caller;
+import havis.middleware.ale.core.reader.Callers;
+import havis.middleware.ale.core.reader.ReaderController;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Collapses the reads of the same tag by the component readers of a composite
+ * reader. A tag is held for the deduplication window after its first read.
+ * Reads within the window are merged by keeping the read with the strongest
+ * sighting, from any reader or antenna. Afterwards the merged read is passed
+ * to the callback once, with the controller of the kept read. Held tags are
+ * released on the executor only, triggered by the next read after the window
+ * or by a timer, so that they are passed to the callback in the order of
+ * their first read. With a window of zero, reads are passed through once no
+ * tags are held anymore.
+ */
+public class TagDeduplicator implements BatchCaller<Tag> {
+
+	/**
+	 * A held tag
+	 */
+	private static class Entry {
+		Tag tag;
+		ReaderController controller;
+		final long deadline;
+
+		Entry(Tag tag, ReaderController controller, long deadline) {
+			this.tag = tag;
+			this.controller = controller;
+			this.deadline = deadline;
+		}
+	}
+
+	private final Caller<Tag> callback;
+	private long window;
+	private Executor executor;
+
+	private final Map<Tag, Entry> entries = new HashMap<>();
+	private final Queue<Entry> queue = new ArrayDeque<>();
+	private TimingWheel.Timeout timeout;
+	/**
+	 * Whether the release is queued or running on the executor
+	 */
+	private boolean releasing;
+	private boolean disposed;
+
+	private final Runnable release = new Runnable() {
+		@Override
+		public void run() {
+			release();
+		}
+	};
+
+	private final Runnable expire = new Runnable() {
+		@Override
+		public void run() {
+			synchronized (TagDeduplicator.this) {
+				if ((timeout != null) && timeout.isExpired()) {
+					timeout = null;
+				}
+				if (releasing) {
+					return;
+				}
+				releasing = true;
+			}
+			release();
+		}
+	};
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param window
+	 *            The deduplication window in milliseconds
+	 * @param callback
+	 *            The callback for the merged reads
+	 * @param executor
+	 *            The executor to release the held tags
+	 */
+	public TagDeduplicator(long window, Caller<Tag> callback, Executor executor) {
+		this.window = window;
+		this.callback = callback;
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the deduplication window and the executor. Held tags keep their
+	 * deadline. With a window of zero, all held tags are released on the
+	 * given executor.
+	 *
+	 * @param window
+	 *            The deduplication window in milliseconds
+	 * @param executor
+	 *            The executor to release the held tags
+	 */
+	public synchronized void setWindow(long window, Executor executor) {
+		this.window = window;
+		this.executor = executor;
+		if (window == 0) {
+			if (timeout != null) {
+				timeout.cancel();
+				timeout = null;
+			}
+			dispatch(Long.MAX_VALUE);
+		}
+	}
+
+	@Override
+	public void invoke(Tag tag, ReaderController controller) {
+		long now = System.currentTimeMillis();
+		synchronized (this) {
+			if (!pass()) {
+				hold(tag, controller, now);
+				dispatch(now);
+				return;
+			}
+		}
+		callback.invoke(tag, controller);
+	}
+
+	@Override
+	public void invoke(List<Tag> tags, ReaderController controller) {
+		long now = System.currentTimeMillis();
+		synchronized (this) {
+			if (!pass()) {
+				for (Tag tag : tags) {
+					hold(tag, controller, now);
+				}
+				dispatch(now);
+				return;
+			}
+		}
+		Callers.invoke(callback, tags, controller);
+	}
+
+	/**
+	 * Returns whether the reads are passed through, which is the case
+	 * without window and held tags
+	 */
+	private boolean pass() {
+		return (window == 0) && queue.isEmpty() && !releasing && !disposed;
+	}
+
+	/**
+	 * Returns whether the sighting of the tag is stronger than the sighting of
+	 * the held tag
+	 *
+	 * @param tag
+	 *            The tag
+	 * @param held
+	 *            The held tag
+	 * @return True if the tag has the stronger sighting, false otherwise
+	 */
+	static boolean isStronger(Tag tag, Tag held) {
+		if (tag.getSighting() == null) {
+			return false;
+		}
+		return (held.getSighting() == null) || (tag.getSighting().getStrength() > held.getSighting().getStrength());
+	}
+
+	private void hold(Tag tag, ReaderController controller, long now) {
+		if (disposed) {
+			return;
+		}
+		Entry entry = entries.get(tag);
+		if (entry == null) {
+			entry = new Entry(tag, controller, now + window);
+			entries.put(tag, entry);
+			queue.add(entry);
+			if ((timeout == null) && (window > 0)) {
+				schedule(window);
+			}
+		} else if (isStronger(tag, entry.tag)) {
+			entry.tag = tag;
+			entry.controller = controller;
+		}
+	}
+
+	/**
+	 * Queues the release on the executor if a held tag is due and the
+	 * release is not already queued
+	 *
+	 * @param now
+	 *            The current time
+	 */
+	private void dispatch(long now) {
+		Entry entry = queue.peek();
+		if (!releasing && !disposed && (entry != null) && (entry.deadline <= now)) {
+			releasing = true;
+			try {
+				executor.execute(release);
+			} catch (RejectedExecutionException e) {
+				// disposed
+				releasing = false;
+			}
+		}
+	}
+
+	private void schedule(long delay) {
+		final Executor executor = this.executor;
+		timeout = TimingWheel.getInstance().schedule(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					executor.execute(expire);
+				} catch (RejectedExecutionException e) {
+					// disposed
+				}
+			}
+		}, delay);
+	}
+
+	/**
+	 * Passes the tags held longer than the window to the callback in the order
+	 * of their first read, until no held tag is due
+	 */
+	private void release() {
+		boolean completed = false;
+		try {
+			while (releaseDue()) {
+				// continue with the tags which got due meanwhile
+			}
+			completed = true;
+		} finally {
+			if (!completed) {
+				synchronized (this) {
+					releasing = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Passes the due tags to the callback
+	 *
+	 * @return True if tags were passed, false if no tag was due
+	 */
+	private boolean releaseDue() {
+		List<Entry> released = null;
+		synchronized (this) {
+			long now = window > 0 ? System.currentTimeMillis() : Long.MAX_VALUE;
+			Entry entry;
+			while (((entry = queue.peek()) != null) && (entry.deadline <= now)) {
+				queue.poll();
+				entries.remove(entry.tag);
+				if (released == null) {
+					released = new ArrayList<>();
+				}
+				released.add(entry);
+			}
+			if (released == null) {
+				releasing = false;
+				if ((timeout == null) && (entry != null) && !disposed) {
+					schedule(entry.deadline - now);
+				}
+				return false;
+			}
+			if (timeout != null) {
+				timeout.cancel();
+				timeout = null;
+			}
+		}
+		// invoke once per run of tags with the same controller
+		List<Tag> tags = new ArrayList<>(released.size());
+		ReaderController controller = released.get(0).controller;
+		for (Entry entry : released) {
+			if (entry.controller != controller) {
+				Callers.invoke(callback, tags, controller);
+				tags = new ArrayList<>(released.size());
+				controller = entry.controller;
+			}
+			tags.add(entry.tag);
+		}
+		Callers.invoke(callback, tags, controller);
+		return true;
+	}
+
+	/**
+	 * Discards the held tags
+	 */
+	public synchronized void dispose() {
+		disposed = true;
+		if (timeout != null) {
+			timeout.cancel();
+			timeout = null;
+		}
+		entries.clear();
+		queue.clear();
+	}
+}
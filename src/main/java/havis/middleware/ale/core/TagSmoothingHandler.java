@@ -2,11 +2,64 @@ package havis.middleware.ale.core;
 
 import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.core.reader.Caller;
+import havis.middleware.ale.core.reader.Callers;
 import havis.middleware.ale.core.reader.ReaderController;
-import havis.middleware.utils.generic.LinkedHashSet;
-import havis.middleware.utils.generic.Predicate;
 
-public class TagSmoothingHandler implements Predicate<TagSmoothingEntry> {
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tag smoothing of a logical reader. The state of each tag is held in an open
+ * addressing table of primitive arrays, so processing a tag does not allocate.
+ * Tags which may time out are chained into time buckets by their deadline.
+ * Buckets are collected as time passes, tags whose deadline moved on are
+ * chained again, so expiry is amortized over the processed tags.
+ */
+public class TagSmoothingHandler {
+
+    /**
+     * Listener for the state transitions of tags. The listener is called
+     * while processing tags and must return quickly.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a tag becomes observed
+         *
+         * @param tag
+         *            the tag
+         */
+        void observed(Tag tag);
+
+        /**
+         * Called when an observed tag was not seen within the lost timeout
+         *
+         * @param tag
+         *            the last seen tag
+         */
+        void lost(Tag tag);
+
+        /**
+         * Called when a tag was not seen within the glimpsed timeout before it
+         * became observed
+         *
+         * @param tag
+         *            the last seen tag
+         */
+        void glimpsed(Tag tag);
+    }
+
+    private final static int INITIAL_CAPACITY = 64;
+    private final static int MAX_BUCKETS = 4096;
+
+    private final static byte FREE = 0;
+    private final static byte GLIMPSED = 1;
+    private final static byte OBSERVED = 2;
+    private final static byte REMOVED = 3;
+
+    private final static int END = -1;
+    private final static int UNLINKED = -2;
 
     /**
      * Tag smoothing glimpsed timeout defined for this logical reader
@@ -28,9 +81,21 @@ public class TagSmoothingHandler implements Predicate<TagSmoothingEntry> {
      */
     final Integer lostTimeout;
 
-    private LinkedHashSet<TagSmoothingEntry> observedEntries = new LinkedHashSet<>();
+    private Listener listener;
 
-    private LinkedHashSet<TagSmoothingEntry> unobservedEntries = new LinkedHashSet<>();
+    private Tag[] tags;
+    private int[] hashes;
+    private byte[] states;
+    private long[] firstSeen;
+    private long[] lastSeen;
+    private int[] counts;
+    private int[] links;
+    private int size;
+    private int used;
+
+    private final long resolution;
+    private final int[] buckets;
+    private long tick;
 
     /**
      * Creates a new tag smoothing handler
@@ -49,6 +114,43 @@ public class TagSmoothingHandler implements Predicate<TagSmoothingEntry> {
         this.observedTimeThreshold = observedTimeThreshold;
         this.observedCountThreshold = observedCountThreshold;
         this.lostTimeout = lostTimeout;
+
+        // a bucket spans an eighth of the shortest timeout, the buckets span
+        // the longest timeout, later deadlines are chained again
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (Integer timeout : new Integer[] { glimpsedTimeout, lostTimeout }) {
+            if (timeout != null) {
+                min = Math.min(min, timeout.longValue());
+                max = Math.max(max, timeout.longValue());
+            }
+        }
+        this.resolution = min == Long.MAX_VALUE ? 1 : Math.max(1, min / 8);
+        int count = 1;
+        while ((count < MAX_BUCKETS) && (count * resolution <= max)) {
+            count <<= 1;
+        }
+        this.buckets = new int[count];
+        Arrays.fill(this.buckets, END);
+        this.tick = System.currentTimeMillis() / resolution;
+        init(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Sets the listener for the state transitions
+     *
+     * @param listener
+     *            the listener or null
+     */
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the number of tags held in glimpsed or observed state
+     */
+    synchronized int size() {
+        return size;
     }
 
     /**
@@ -62,63 +164,229 @@ public class TagSmoothingHandler implements Predicate<TagSmoothingEntry> {
      *            the controller to pass
      */
     public void process(Tag tag, Caller<Tag> callback, ReaderController controller) {
-        this.unobservedEntries.remove(this);
-        this.observedEntries.remove(this);
+        if (observe(tag)) {
+            callback.invoke(tag, controller);
+        }
+    }
 
-        TagSmoothingEntry entry = new TagSmoothingEntry(tag);
-        entry = addOrMoveToEnd(entry);
+    /**
+     * Process the specified tags and pass the observed tags to the callback at
+     * once
+     *
+     * @param tags
+     *            the tags to process
+     * @param callback
+     *            the callback to use for the observed tags
+     * @param controller
+     *            the controller to pass
+     */
+    public void process(List<Tag> tags, Caller<Tag> callback, ReaderController controller) {
+        List<Tag> observed = new ArrayList<>(tags.size());
+        for (Tag tag : tags) {
+            if (observe(tag)) {
+                observed.add(tag);
+            }
+        }
+        Callers.invoke(callback, observed, controller);
+    }
+
+    private synchronized boolean observe(Tag tag) {
+        long now = System.currentTimeMillis();
+        advance(now);
 
-        if (seen(entry)) {
+        int hash = hash(tag);
+        int index = find(tag, hash);
+        if (index < 0) {
+            index = insert(tag, hash, now);
+        } else if (now > deadline(index)) {
+            // expired, but the bucket was not collected yet
+            expire(index);
+            reset(index, now);
+        }
+        tags[index] = tag;
+        counts[index]++;
+        lastSeen[index] = now;
+
+        boolean observed = states[index] == OBSERVED;
+        if (!observed
+                && (((this.observedCountThreshold != null) && (counts[index] >= this.observedCountThreshold.intValue())) || ((this.observedTimeThreshold != null) && ((now - firstSeen[index]) >= this.observedTimeThreshold
+                        .longValue())))) {
+            states[index] = OBSERVED;
+            observed = true;
+            if (listener != null) {
+                listener.observed(tag);
+            }
+        }
+        if (links[index] == UNLINKED) {
+            link(index);
+        }
+        if (observed) {
             tag.setTimeout(this.lostTimeout != null ? this.lostTimeout.intValue() : 0);
-            callback.invoke(tag, controller);
         }
+        return observed;
     }
 
-    private TagSmoothingEntry addOrMoveToEnd(TagSmoothingEntry entry) {
-        if (this.observedEntries.containsKey(entry)) { // was it already observed
-            entry = this.observedEntries.update(entry);
-        } else {
-            // might be an unobserved entry or a new one
-            entry = this.unobservedEntries.update(entry);
+    private void init(int capacity) {
+        tags = new Tag[capacity];
+        hashes = new int[capacity];
+        states = new byte[capacity];
+        firstSeen = new long[capacity];
+        lastSeen = new long[capacity];
+        counts = new int[capacity];
+        links = new int[capacity];
+        Arrays.fill(links, UNLINKED);
+        size = 0;
+        used = 0;
+    }
+
+    private static int hash(Tag tag) {
+        int h = tag.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int find(Tag tag, int hash) {
+        int mask = tags.length - 1;
+        for (int index = hash & mask;; index = (index + 1) & mask) {
+            switch (states[index]) {
+            case FREE:
+                return -1;
+            case REMOVED:
+                break;
+            default:
+                if ((hashes[index] == hash) && tags[index].equals(tag)) {
+                    return index;
+                }
+                break;
+            }
+        }
+    }
+
+    private int insert(Tag tag, int hash, long now) {
+        if ((used + 1) * 2 > tags.length) {
+            rehash();
+        }
+        int mask = tags.length - 1;
+        int index = hash & mask;
+        while ((states[index] != FREE) && (states[index] != REMOVED)) {
+            index = (index + 1) & mask;
+        }
+        if (states[index] == FREE) {
+            used++;
         }
-        return entry;
+        size++;
+        tags[index] = tag;
+        hashes[index] = hash;
+        reset(index, now);
+        return index;
     }
 
-    private void switchToObserved(TagSmoothingEntry entry) {
-        unobservedEntries.remove(entry);
-        entry.setObserved(true);
-        observedEntries.add(entry, entry);
+    private void reset(int index, long now) {
+        states[index] = GLIMPSED;
+        firstSeen[index] = now;
+        lastSeen[index] = now;
+        counts[index] = 0;
     }
 
-    private boolean seen(TagSmoothingEntry entry) {
-        entry.seen();
+    private void rehash() {
+        Tag[] tags = this.tags;
+        int[] hashes = this.hashes;
+        byte[] states = this.states;
+        long[] firstSeen = this.firstSeen;
+        long[] lastSeen = this.lastSeen;
+        int[] counts = this.counts;
 
-        if (entry.isObserved()) {
-            return true;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < size * 4) {
+            capacity <<= 1;
         }
+        init(capacity);
+        Arrays.fill(buckets, END);
 
-        if (((this.observedCountThreshold != null) && (entry.getSeenCount() >= this.observedCountThreshold.intValue()))
-                || ((this.observedTimeThreshold != null) && ((entry.getLastSeen() - entry.getFirstSeen()) >= this.observedTimeThreshold.longValue()))) {
-            switchToObserved(entry);
-            return true;
+        int mask = capacity - 1;
+        for (int i = 0; i < tags.length; i++) {
+            if ((states[i] == GLIMPSED) || (states[i] == OBSERVED)) {
+                int index = hashes[i] & mask;
+                while (this.states[index] != FREE) {
+                    index = (index + 1) & mask;
+                }
+                this.tags[index] = tags[i];
+                this.hashes[index] = hashes[i];
+                this.states[index] = states[i];
+                this.firstSeen[index] = firstSeen[i];
+                this.lastSeen[index] = lastSeen[i];
+                this.counts[index] = counts[i];
+                size++;
+                used++;
+                link(index);
+            }
+        }
+    }
+
+    /**
+     * Returns the time after which the entry expires
+     */
+    private long deadline(int index) {
+        Integer timeout = states[index] == OBSERVED ? this.lostTimeout : this.glimpsedTimeout;
+        return timeout != null ? lastSeen[index] + timeout.longValue() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Chains the entry into the bucket of its deadline
+     */
+    private void link(int index) {
+        long deadline = deadline(index);
+        if (deadline == Long.MAX_VALUE) {
+            links[index] = UNLINKED;
         } else {
-            return false;
+            int bucket = (int) (Math.max((deadline + 1) / resolution, tick) & (buckets.length - 1));
+            links[index] = buckets[bucket];
+            buckets[bucket] = index;
         }
     }
 
     /**
-     * Implementation of the remove predicate
-     *
-     * @param entry
-     *            the tag to check for removal
-     * @return true if the tag can be removed, false otherwise
+     * Collects the buckets of all elapsed ticks
      */
-    @Override
-    public boolean invoke(TagSmoothingEntry entry) {
-        if (entry.isObserved()) {
-            return (this.lostTimeout != null && (System.currentTimeMillis() - entry.getLastSeen()) > this.lostTimeout.longValue());
+    private void advance(long now) {
+        long current = now / resolution;
+        if (current - tick >= buckets.length) {
+            tick = current;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                collect(bucket, now);
+            }
         } else {
-            return (this.glimpsedTimeout != null && (System.currentTimeMillis() - entry.getLastSeen()) > this.glimpsedTimeout.longValue());
+            for (; tick < current; tick++) {
+                collect((int) (tick & (buckets.length - 1)), now);
+            }
+        }
+        tick = current;
+    }
+
+    private void collect(int bucket, long now) {
+        int index = buckets[bucket];
+        buckets[bucket] = END;
+        while (index != END) {
+            int next = links[index];
+            links[index] = UNLINKED;
+            if (now > deadline(index)) {
+                expire(index);
+                states[index] = REMOVED;
+                tags[index] = null;
+                size--;
+            } else {
+                link(index);
+            }
+            index = next;
+        }
+    }
+
+    private void expire(int index) {
+        if (listener != null) {
+            if (states[index] == OBSERVED) {
+                listener.lost(tags[index]);
+            } else {
+                listener.glimpsed(tags[index]);
+            }
         }
     }
 }
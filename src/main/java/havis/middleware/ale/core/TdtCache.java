@@ -0,0 +1,239 @@
+package havis.middleware.ale.core;
+
+import havis.middleware.misc.TdtWrapper;
+import havis.middleware.tdt.TdtTagInfo;
+import havis.middleware.tdt.TdtTranslationException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class provides a process wide, size bounded cache of TDT translations
+ * by EPC bytes or URN. Tags which stay in the field are translated once
+ * instead of once per cycle and report. The cache is divided into segments
+ * with least recently used eviction each, to reduce lock contention between
+ * concurrent cycles. The capacity can be set by the system property
+ * {@value #CACHE_SIZE}, a capacity of zero disables the cache.
+ */
+public class TdtCache {
+
+	private static final String CACHE_SIZE = "havis.middleware.ale.tdt.cacheSize";
+
+	private static final int SEGMENTS = 16;
+
+	private static TdtCache instance = new TdtCache(Integer.getInteger(CACHE_SIZE, 4096).intValue());
+
+	/**
+	 * Retrieves the static instance
+	 *
+	 * @return The static instance
+	 */
+	public static TdtCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Clears the cache and the counters, i.e. after the TDT definitions were
+	 * reset
+	 */
+	public static void reset() {
+		instance.clear();
+	}
+
+	private final int capacity;
+	private final Segment[] segments;
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param capacity
+	 *            The maximum number of cached translations
+	 */
+	TdtCache(int capacity) {
+		this.capacity = Math.max(capacity, 0);
+		segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment((this.capacity + SEGMENTS - 1) / SEGMENTS);
+		}
+	}
+
+	/**
+	 * A segment with least recently used eviction
+	 */
+	private static class Segment extends LinkedHashMap<Object, TdtTagInfo> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, TdtTagInfo> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	/**
+	 * The key of EPC bytes
+	 */
+	private static class Key {
+
+		private final byte[] data;
+		private final int hashCode;
+
+		Key(byte[] data) {
+			this.data = data;
+			this.hashCode = Arrays.hashCode(data);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj == this) || ((obj instanceof Key) && Arrays.equals(data, ((Key) obj).data));
+		}
+	}
+
+	/**
+	 * Translates the EPC bytes
+	 *
+	 * @param data
+	 *            The EPC bytes
+	 * @return The tag info
+	 * @throws TdtTranslationException
+	 *             if translation failed
+	 */
+	public TdtTagInfo translate(byte[] data) throws TdtTranslationException {
+		if ((capacity == 0) || (data == null)) {
+			return TdtWrapper.getTdt().translate(data);
+		}
+		Key key = new Key(data);
+		TdtTagInfo info = get(key);
+		if (info == null) {
+			info = TdtWrapper.getTdt().translate(data);
+			if (info != null) {
+				put(new Key(data.clone()), info);
+			}
+		}
+		return info;
+	}
+
+	/**
+	 * Translates the URN
+	 *
+	 * @param urn
+	 *            The URN
+	 * @return The tag info
+	 * @throws TdtTranslationException
+	 *             if translation failed
+	 */
+	public TdtTagInfo translate(String urn) throws TdtTranslationException {
+		if ((capacity == 0) || (urn == null)) {
+			return TdtWrapper.getTdt().translate(urn);
+		}
+		TdtTagInfo info = get(urn);
+		if (info == null) {
+			info = TdtWrapper.getTdt().translate(urn);
+			if (info != null) {
+				put(urn, info);
+			}
+		}
+		return info;
+	}
+
+	private Segment segment(Object key) {
+		int h = key.hashCode();
+		return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+	}
+
+	private TdtTagInfo get(Object key) {
+		Segment segment = segment(key);
+		TdtTagInfo info;
+		synchronized (segment) {
+			info = segment.get(key);
+		}
+		if (info == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return info;
+	}
+
+	private void put(Object key, TdtTagInfo info) {
+		Segment segment = segment(key);
+		synchronized (segment) {
+			segment.put(key, info);
+		}
+	}
+
+	/**
+	 * Clears the cache and the counters
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Retrieves the maximum number of cached translations
+	 *
+	 * @return The capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Retrieves the current number of cached translations
+	 *
+	 * @return The size
+	 */
+	public int getSize() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Retrieves the number of translations served from cache
+	 *
+	 * @return The hit count
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Retrieves the number of translations not found in cache
+	 *
+	 * @return The miss count
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "TdtCache [capacity=" + capacity + ", size=" + getSize() + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+	}
+}
@@ -9,6 +9,18 @@ import havis.middleware.ale.exit.Exits;
 import havis.middleware.utils.threading.ThreadManager;
 
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -25,6 +37,9 @@ public class Config {
 
 	private static final String DEFAULT_CONFIG = "havis/middleware/ale/core/config/default.json";
 	private static final String CONFIG_FILE_NAME = "havis.middleware.ale.config";
+	private static final String PERSIST_DELAY = "havis.middleware.ale.config.persistDelay";
+	private static final String JOURNAL = "havis.middleware.ale.config.journal";
+	private static final String JOURNAL_SIZE = "havis.middleware.ale.config.journalSize";
 
 	private static String fileName = "conf/ale.json";
 
@@ -38,6 +53,18 @@ public class Config {
 
 	private volatile static boolean persist = true;
 
+	private static long delay = Long.getLong(PERSIST_DELAY, 1000).longValue();
+
+	private volatile static boolean dirty;
+
+	private static AtomicBoolean scheduled = new AtomicBoolean();
+
+	private static volatile ScheduledExecutorService writer;
+
+	private static Journal journal;
+
+	private static long journalSize = Long.getLong(JOURNAL_SIZE, 1024 * 1024).longValue();
+
 	private static void init() {
         String fileNameFromProperty = System.getProperty(CONFIG_FILE_NAME);
         if (fileNameFromProperty != null) {
@@ -49,9 +76,12 @@ public class Config {
 
 	// load config
         file = new File(Config.fileName);
+        long checksum = 0;
         try {
             if (file.exists()) {
-                instance = mapper.readValue(file, ConfigType.class);
+                byte[] data = Files.readAllBytes(file.toPath());
+                instance = mapper.readValue(data, ConfigType.class);
+                checksum = Journal.checksum(data);
             } else {
                 instance = mapper.readValue(Config.class.getClassLoader().getResourceAsStream(DEFAULT_CONFIG), ConfigType.class);
             }
@@ -59,6 +89,19 @@ public class Config {
         	Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to load config: " + e.getMessage(), e);
         }
         
+        // replay depot changes since last snapshot
+        if (Boolean.parseBoolean(System.getProperty(JOURNAL, "true"))) {
+            journal = new Journal(new File(Config.fileName + ".journal"), mapper);
+            try {
+                int count = journal.replay(instance, checksum);
+                if (count > 0) {
+                    log.log(Level.FINE, "Replayed {0} journal records.", Integer.valueOf(count));
+                }
+            } catch (Exception e) {
+                Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to replay journal: " + e.getMessage(), e);
+            }
+        }
+
         setDefaults(instance);
         setSettings(instance);
 	}
@@ -108,9 +151,29 @@ public class Config {
     }
 
 	public static void reset() {
+		flush();
+		lock.lock();
+		try {
+			if (journal != null) {
+				journal.close();
+				journal = null;
+			}
+		} finally {
+			lock.unlock();
+		}
 		instance = null;
 	}
 
+	/**
+	 * Retrieves the directory of the configuration file, i.e. to keep data
+	 * next to the configuration
+	 *
+	 * @return The directory
+	 */
+	public static File getDirectory() {
+		return new File(System.getProperty(CONFIG_FILE_NAME, fileName)).getAbsoluteFile().getParentFile();
+	}
+
 	public static boolean isPersistMode() {
 		return persist;
 	}
@@ -137,26 +200,275 @@ public class Config {
 		Tag.setExtended(extended);
 	}
 
+    /**
+     * Marks the configuration as changed. The configuration is written to
+     * file once per persistence window, which can be set in milliseconds by
+     * the system property {@value #PERSIST_DELAY}, by a background writer
+     * off the calling thread. Changes within the same window are coalesced
+     * into a single write. A window of zero writes the configuration
+     * immediately on the calling thread.
+     */
     public static void serialize() {
         if (persist) {
-            lock.lock();
-            try {
-                ConfigType config = getInstance();
-                File tmpFile = null;
+            if (delay > 0) {
+                dirty = true;
+                if (scheduled.compareAndSet(false, true)) {
+                    getWriter().schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            scheduled.set(false);
+                            flush();
+                        }
+                    }, delay, TimeUnit.MILLISECONDS);
+                }
+            } else {
+                write();
+            }
+        }
+    }
+
+    /**
+     * Writes the pending changes to file immediately, i.e. on shutdown. A non
+     * empty journal is compacted into the snapshot.
+     */
+    public static void flush() {
+        if (dirty || (persist && journal != null && journal.size() > 0)) {
+            write();
+        }
+    }
+
+    /**
+     * Adds an entry to a depot list of the configuration and appends the
+     * operation to the journal
+     *
+     * @param list
+     *            The depot list
+     * @param entry
+     *            The entry
+     */
+    public static <E> void add(List<E> list, E entry) {
+        add(list, entry, true);
+    }
+
+    /**
+     * Adds an entry to a depot list of the configuration. Appends the
+     * operation to the journal only when specified, a non persistent entry is
+     * only written with the next snapshot.
+     *
+     * @param list
+     *            The depot list
+     * @param entry
+     *            The entry
+     * @param persist
+     *            whether to journal the operation
+     */
+    public static <E> void add(List<E> list, E entry, boolean persist) {
+        lock.lock();
+        try {
+            list.add(entry);
+            if (persist) {
+                journal(Journal.ADD, list, list.size() - 1, entry);
+            } else {
+                diverged = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an entry from a depot list of the configuration and appends the
+     * operation to the journal
+     *
+     * @param list
+     *            The depot list
+     * @param entry
+     *            The entry
+     * @return True if the entry was removed, false otherwise
+     */
+    public static <E> boolean remove(List<E> list, E entry) {
+        return remove(list, entry, true);
+    }
+
+    /**
+     * Removes an entry from a depot list of the configuration. Appends the
+     * operation to the journal only when specified.
+     *
+     * @param list
+     *            The depot list
+     * @param entry
+     *            The entry
+     * @param persist
+     *            whether to journal the operation
+     * @return True if the entry was removed, false otherwise
+     */
+    public static <E> boolean remove(List<E> list, E entry, boolean persist) {
+        lock.lock();
+        try {
+            int index = list.indexOf(entry);
+            if (index > -1) {
+                list.remove(index);
+                if (persist) {
+                    journal(Journal.REMOVE, list, index, null);
+                } else {
+                    diverged = true;
+                }
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the current state of a changed entry of a depot list to the
+     * journal
+     *
+     * @param list
+     *            The depot list
+     * @param entry
+     *            The changed entry
+     */
+    public static void update(List<?> list, Object entry) {
+        lock.lock();
+        try {
+            int index = -1;
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) == entry) {
+                    index = i;
+                    break;
+                }
+            }
+            journal(Journal.SET, list, index, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a depot list operation to the journal. Falls back to a snapshot
+     * if the journal is disabled or the list is not part of the
+     * configuration or the lists differ from the journal by a non persistent
+     * operation. Compacts the journal into a snapshot if the journal exceeds
+     * the size, which can be set in bytes by the system property
+     * {@value #JOURNAL_SIZE}. Records are synced to disk by the background
+     * writer, once for all records appended in the meantime.
+     */
+    private static void journal(byte op, List<?> list, int index, Object entry) {
+        if (persist) {
+            boolean written = false;
+            if ((journal != null) && (index > -1) && !diverged) {
                 try {
-                    tmpFile = File.createTempFile(Config.file.getName(), ".bak", Config.file.getParentFile());
-                    mapper.writerWithDefaultPrettyPrinter().writeValue(tmpFile, config);
-                    tmpFile.renameTo(Config.file);
+                    written = journal.append(instance, op, list, index, entry);
                 } catch (Exception e) {
-                	Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to save config: " + e.getMessage(), e);
-					if (tmpFile != null && tmpFile.exists()) {
-						// clean up temp file
-						tmpFile.delete();
-					}
+                    Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to write journal: " + e.getMessage(), e);
+                }
+            }
+            if (!written || (journal.size() > journalSize)) {
+                serialize();
+            } else {
+                sync();
+            }
+        }
+    }
+
+    /**
+     * Syncs the appended journal records to disk on the background writer.
+     * Records appended until the writer runs are synced at once
+     */
+    private static void sync() {
+        if (syncing.compareAndSet(false, true)) {
+            getWriter().execute(new Runnable() {
+                @Override
+                public void run() {
+                    syncing.set(false);
+                    FileDescriptor descriptor = null;
+                    lock.lock();
+                    try {
+                        if (journal != null) {
+                            descriptor = journal.flush();
+                        }
+                    } catch (IOException e) {
+                        Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to write journal: " + e.getMessage(), e);
+                    } finally {
+                        lock.unlock();
+                    }
+                    // sync outside the lock, appending continues meanwhile
+                    if (descriptor != null && descriptor.valid()) {
+                        try {
+                            descriptor.sync();
+                        } catch (IOException e) {
+                            // an invalid descriptor was closed by a snapshot
+                            if (descriptor.valid()) {
+                                Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to sync journal: " + e.getMessage(), e);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private static ScheduledExecutorService getWriter() {
+        if (writer == null) {
+            lock.lock();
+            try {
+                if (writer == null) {
+                    writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, Config.class.getName());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
                 }
             } finally {
                 lock.unlock();
             }
         }
+        return writer;
+    }
+
+    private static void write() {
+        lock.lock();
+        try {
+            dirty = false;
+            ConfigType config = getInstance();
+            byte[] data;
+            try {
+                data = mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(config);
+            } catch (Exception e) {
+                if (delay > 0 && (e instanceof ConcurrentModificationException || e.getCause() instanceof ConcurrentModificationException)) {
+                    // configuration was modified while writing, retry with next window
+                    log.log(Level.FINE, "Configuration modified during serialization, retrying");
+                    serialize();
+                } else {
+                    Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to save config: " + e.getMessage(), e);
+                }
+                return;
+            }
+            File tmpFile = null;
+            try {
+                tmpFile = File.createTempFile(Config.file.getName(), ".bak", Config.file.getParentFile());
+                try (OutputStream stream = new FileOutputStream(tmpFile)) {
+                    stream.write(data);
+                }
+                if (tmpFile.renameTo(Config.file) && (journal != null)) {
+                    // snapshot contains all journaled changes
+                    journal.reset(Journal.checksum(data));
+                    diverged = false;
+                }
+            } catch (Exception e) {
+                Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to save config: " + e.getMessage(), e);
+                if (tmpFile != null && tmpFile.exists()) {
+                    // clean up temp file
+                    tmpFile.delete();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 }
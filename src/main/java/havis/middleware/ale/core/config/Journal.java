@@ -0,0 +1,449 @@
+package havis.middleware.ale.core.config;
+
+import havis.middleware.ale.config.AssociationType;
+import havis.middleware.ale.config.CacheType;
+import havis.middleware.ale.config.CommandCycleType;
+import havis.middleware.ale.config.ConfigType;
+import havis.middleware.ale.config.CycleType;
+import havis.middleware.ale.config.EventCycleType;
+import havis.middleware.ale.config.FieldType;
+import havis.middleware.ale.config.LogicalReaderType;
+import havis.middleware.ale.config.PortCycleType;
+import havis.middleware.ale.config.RandomType;
+import havis.middleware.ale.config.ServiceType;
+import havis.middleware.ale.config.SubscriberType;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This class implements the append-only journal of depot list operations.
+ * Each record is framed by length and checksum and contains the operation,
+ * the path of the depot list within the configuration, the list index, the
+ * list size after the operation and the affected entry. The journal starts
+ * with the checksum of the configuration snapshot it is based on. It is
+ * replayed on top of that snapshot on startup and reset after each snapshot.
+ * A journal of an older snapshot, i.e. after a crash between writing the
+ * snapshot and resetting the journal, is discarded.
+ */
+class Journal {
+
+	private final static Logger log = Logger.getLogger(Journal.class.getName());
+
+	/**
+	 * Adds an entry at the end of a list
+	 */
+	final static byte ADD = 1;
+
+	/**
+	 * Replaces the entry at an index
+	 */
+	final static byte SET = 2;
+
+	/**
+	 * Removes the entry at an index
+	 */
+	final static byte REMOVE = 3;
+
+	/**
+	 * The journal header magic
+	 */
+	private final static int MAGIC = 0x414C454A;
+
+	/**
+	 * The header length
+	 */
+	private final static int HEADER = 12;
+
+	/**
+	 * The paths of the depot lists
+	 */
+	private final static String[] ROOTS = new String[] { "ec", "cc.cache", "cc.association", "cc.random", "cc.commandCycle", "pc", "lr", "tm" };
+
+	private final File file;
+	private final ObjectMapper mapper;
+	private FileOutputStream stream;
+	private DataOutputStream out;
+	private long checksum;
+	private long size;
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param file
+	 *            The journal file
+	 * @param mapper
+	 *            The mapper to serialize the entries
+	 */
+	Journal(File file, ObjectMapper mapper) {
+		this.file = file;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Returns the checksum of snapshot data
+	 *
+	 * @param data
+	 *            The snapshot data
+	 * @return The checksum
+	 */
+	static long checksum(byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		return crc.getValue();
+	}
+
+	/**
+	 * Retrieves the current size of the journal records in bytes
+	 *
+	 * @return The size
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 * Appends an operation on a depot list to the journal
+	 *
+	 * @param config
+	 *            The configuration
+	 * @param op
+	 *            The operation
+	 * @param list
+	 *            The list after the operation
+	 * @param index
+	 *            The index of the entry
+	 * @param entry
+	 *            The entry or null on remove
+	 * @return True if the record was written, false if the list is not part
+	 *         of the configuration
+	 * @throws IOException
+	 *             if writing failed
+	 */
+	boolean append(ConfigType config, byte op, List<?> list, int index, Object entry) throws IOException {
+		String path = path(config, list);
+		if (path == null) {
+			return false;
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream body = new DataOutputStream(buffer);
+		body.writeByte(op);
+		body.writeUTF(path);
+		body.writeInt(index);
+		body.writeInt(list.size());
+		if (entry != null) {
+			body.write(mapper.writeValueAsBytes(entry));
+		}
+		byte[] data = buffer.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(data);
+
+		if (out == null) {
+			if (file.length() < HEADER) {
+				reset(checksum);
+			}
+			stream = new FileOutputStream(file, true);
+			out = new DataOutputStream(stream);
+		}
+		out.writeInt(data.length);
+		out.writeInt((int) crc.getValue());
+		out.write(data);
+		out.flush();
+		size += 8 + data.length;
+		return true;
+	}
+
+	/**
+	 * Flushes the appended records and provides the descriptor of the journal
+	 * file to sync them to disk. Records are appended without syncing, so that
+	 * a batch of records is synced at once.
+	 *
+	 * @return The descriptor or null if no record was appended
+	 * @throws IOException
+	 *             if flushing failed
+	 */
+	FileDescriptor flush() throws IOException {
+		if (out == null) {
+			return null;
+		}
+		out.flush();
+		return stream.getFD();
+	}
+
+	/**
+	 * Replays the journal on the configuration. A torn or corrupt record at
+	 * the end of the journal, i.e. after a crash while writing, is cut off.
+	 *
+	 * @param config
+	 *            The configuration snapshot
+	 * @param checksum
+	 *            The checksum of the snapshot
+	 * @return The number of applied records
+	 * @throws IOException
+	 *             if reading failed
+	 */
+	int replay(ConfigType config, long checksum) throws IOException {
+		this.checksum = checksum;
+		if (file.length() < HEADER) {
+			size = 0;
+			return 0;
+		}
+		int count = 0;
+		long position = HEADER;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if ((in.readInt() != MAGIC) || (in.readLong() != checksum)) {
+				log.log(Level.FINE, "Discarding journal of another snapshot");
+				in.close();
+				reset(checksum);
+				return 0;
+			}
+			while (true) {
+				int length, checksum;
+				byte[] data;
+				try {
+					length = in.readInt();
+					checksum = in.readInt();
+					if ((length < 0) || (length > file.length() - position - 8)) {
+						break;
+					}
+					data = new byte[length];
+					in.readFully(data);
+				} catch (EOFException e) {
+					break;
+				}
+				CRC32 crc = new CRC32();
+				crc.update(data);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+				if (apply(config, data)) {
+					count++;
+				}
+				position += 8 + length;
+			}
+		}
+		if (position < file.length()) {
+			log.log(Level.WARNING, "Cutting off corrupt journal tail at position {0}", Long.valueOf(position));
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.setLength(position);
+			}
+		}
+		size = position - HEADER;
+		return count;
+	}
+
+	/**
+	 * Applies a single record
+	 *
+	 * @param config
+	 *            The configuration
+	 * @param data
+	 *            The record
+	 * @return True if the record was applied, false if it was skipped
+	 * @throws IOException
+	 *             if the entry could not be read
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean apply(ConfigType config, byte[] data) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		byte op = in.readByte();
+		String path = in.readUTF();
+		int index = in.readInt();
+		int size = in.readInt();
+		List<Object> list = (List<Object>) list(config, path);
+		if (list == null) {
+			log.log(Level.WARNING, "Skipping journal record for unknown list {0}", path);
+			return false;
+		}
+		int offset = data.length - in.available();
+		switch (op) {
+		case ADD:
+			// skip records which do not fit the list
+			if ((list.size() == size - 1) && (index == list.size())) {
+				list.add(mapper.readValue(data, offset, data.length - offset, type(path)));
+				return true;
+			}
+			break;
+		case SET:
+			if ((index >= 0) && (index < list.size())) {
+				list.set(index, mapper.readValue(data, offset, data.length - offset, type(path)));
+				return true;
+			}
+			break;
+		case REMOVE:
+			if ((list.size() == size + 1) && (index >= 0) && (index < list.size())) {
+				list.remove(index);
+				return true;
+			}
+			break;
+		}
+		log.log(Level.FINE, "Skipping journal record {0} on {1} at {2}", new Object[] { Byte.valueOf(op), path, Integer.valueOf(index) });
+		return false;
+	}
+
+	/**
+	 * Resets the journal, i.e. after a snapshot was written
+	 *
+	 * @param checksum
+	 *            The checksum of the snapshot
+	 * @throws IOException
+	 *             if writing failed
+	 */
+	void reset(long checksum) throws IOException {
+		close();
+		try (DataOutputStream stream = new DataOutputStream(new FileOutputStream(file, false))) {
+			stream.writeInt(MAGIC);
+			stream.writeLong(checksum);
+		}
+		this.checksum = checksum;
+		size = 0;
+	}
+
+	/**
+	 * Closes the journal file
+	 */
+	void close() {
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				log.log(Level.FINE, "Failed to close journal", e);
+			}
+			out = null;
+			stream = null;
+		}
+	}
+
+	/**
+	 * Returns the path of a depot list within the configuration
+	 *
+	 * @param config
+	 *            The configuration
+	 * @param list
+	 *            The list
+	 * @return The path i.e. "ec" for event cycles or "ec/2" for the
+	 *         subscribers of the third event cycle, null if list is not part
+	 *         of the configuration
+	 */
+	static String path(ConfigType config, List<?> list) {
+		for (String root : ROOTS) {
+			List<?> entries = root(config, root);
+			if (entries == null) {
+				continue;
+			}
+			if (entries == list) {
+				return root;
+			}
+			for (int i = 0; i < entries.size(); i++) {
+				if ((entries.get(i) instanceof CycleType) && (subscribers((CycleType) entries.get(i)) == list)) {
+					return root + "/" + i;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the depot list by path
+	 *
+	 * @param config
+	 *            The configuration
+	 * @param path
+	 *            The path
+	 * @return The list or null if path is unknown
+	 */
+	static List<?> list(ConfigType config, String path) {
+		int i = path.indexOf('/');
+		List<?> entries = root(config, i < 0 ? path : path.substring(0, i));
+		if ((i < 0) || (entries == null)) {
+			return entries;
+		}
+		try {
+			Object entry = entries.get(Integer.parseInt(path.substring(i + 1)));
+			return entry instanceof CycleType ? subscribers((CycleType) entry) : null;
+		} catch (NumberFormatException | IndexOutOfBoundsException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the entry type of the depot list by path
+	 *
+	 * @param path
+	 *            The path
+	 * @return The entry type
+	 */
+	static Class<?> type(String path) {
+		if (path.indexOf('/') > -1) {
+			return SubscriberType.class;
+		}
+		switch (path) {
+		case "ec":
+			return EventCycleType.class;
+		case "cc.cache":
+			return CacheType.class;
+		case "cc.association":
+			return AssociationType.class;
+		case "cc.random":
+			return RandomType.class;
+		case "cc.commandCycle":
+			return CommandCycleType.class;
+		case "pc":
+			return PortCycleType.class;
+		case "lr":
+			return LogicalReaderType.class;
+		case "tm":
+			return FieldType.class;
+		default:
+			return null;
+		}
+	}
+
+	private static List<?> root(ConfigType config, String root) {
+		// null if the section is not configured
+		ServiceType service = config.getService();
+		if (service == null) {
+			return null;
+		}
+		switch (root) {
+		case "ec":
+			return service.getEc() == null || service.getEc().getEventCycles() == null ? null : service.getEc().getEventCycles().getEventCycle();
+		case "cc.cache":
+			return service.getCc() == null || service.getCc().getCaches() == null ? null : service.getCc().getCaches().getCache();
+		case "cc.association":
+			return service.getCc() == null || service.getCc().getAssociations() == null ? null : service.getCc().getAssociations().getAssociation();
+		case "cc.random":
+			return service.getCc() == null || service.getCc().getRandoms() == null ? null : service.getCc().getRandoms().getRandom();
+		case "cc.commandCycle":
+			return service.getCc() == null || service.getCc().getCommandCycles() == null ? null : service.getCc().getCommandCycles().getCommandCycle();
+		case "pc":
+			return service.getPc() == null || service.getPc().getPortCycles() == null ? null : service.getPc().getPortCycles().getPortCycle();
+		case "lr":
+			return service.getLr() == null || service.getLr().getLogicalReaders() == null ? null : service.getLr().getLogicalReaders().getLogicalReader();
+		case "tm":
+			return service.getTm() == null || service.getTm().getFields() == null ? null : service.getTm().getFields().getField();
+		default:
+			return null;
+		}
+	}
+
+	private static List<SubscriberType> subscribers(CycleType cycle) {
+		return cycle.getSubscribers() == null ? null : cycle.getSubscribers().getSubscriber();
+	}
+}
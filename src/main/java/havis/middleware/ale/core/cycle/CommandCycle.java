@@ -275,7 +275,8 @@ public class CommandCycle extends TagCycle<CCSpec, CCReports, Reports, Tags> {
     }
 
     /**
-     * Notifies cycle about a tag.
+     * Processes a tag seen by one of the registered readers. Tags are
+     * discarded once the tag count is reached.
      *
      * @param reader
      *            Name of the logical reader who has seen the tag
@@ -285,60 +286,39 @@ public class CommandCycle extends TagCycle<CCSpec, CCReports, Reports, Tags> {
      *            The reader controller
      */
     @Override
-    protected void notify(String reader, Tag tag, ReaderController controller) {
-        while (isActive()) {
-            try {
-                if (lock.tryLock(50, TimeUnit.MILLISECONDS)) {
-                    try {
-                        if (termination != Termination.COUNT) {
-                            if (isActive()) {
-                                synchronized (datas) {
-                                    super.notify(reader, tag, controller);
-
-                                    if((tag.getEpc() != null && tag.getEpc().length > 0) && (!Tag.isExtended() || (tag.getTid() != null && tag.getTid().length > 0))) {
-                                        // is this tag seen the first time
-                                        if (datas.removeLifetimeExceededAndCheckWhetherSeen(tag)) {
-                                        	Tag t = datas.get(tag);
-    										if (t != null) {
-    											t.stat(reader, tag);
-    										}
-                                        } else {
-                                            onFiltered(name, reader, tag);
-                                            TagOperation operation = reports.getTagOperation(tag);
-                                            if (operation != null) {
-                                                datas.add(tag, null);
-                                                tag.stat(reader);
-                                                if ((tagsProcessedCount > 0) && (datas.getCount() >= tagsProcessedCount)) {
-                                                    termination = Termination.COUNT;
-                                                    condition.signal();
-                                                } else if (interval > 0) {
-                                                	rescheduleIntervalTimer(interval);
-                                                }
-                                                if (operation.getOperations().size() > 0) {
-                                                    execute((Tags) datas.clone(), reader, tag, controller, operation);
-                                                } else {
-                                                    tag.setCompleted(true);
-    
-                                                    if (datas.get(tag) == null)
-                                                        datas.put(tag, tag);
-                                                    else
-                                                        tag = datas.get(tag);
-    
-                                                    datas.pulse();
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                            break;
-                        }
-                    } finally {
-                        lock.unlock();
+    protected void process(String reader, Tag tag, ReaderController controller) {
+        if (termination != Termination.COUNT && (tag.getEpc() != null && tag.getEpc().length > 0) && (!Tag.isExtended() || (tag.getTid() != null && tag.getTid().length > 0))) {
+            // is this tag seen the first time
+            if (datas.removeLifetimeExceededAndCheckWhetherSeen(tag)) {
+            	Tag t = datas.get(tag);
+				if (t != null) {
+					t.stat(reader, tag);
+				}
+            } else {
+                onFiltered(name, reader, tag);
+                TagOperation operation = reports.getTagOperation(tag);
+                if (operation != null) {
+                    datas.add(tag, null);
+                    tag.stat(reader);
+                    if ((tagsProcessedCount > 0) && (datas.getCount() >= tagsProcessedCount)) {
+                        termination = Termination.COUNT;
+                        condition.signal();
+                    } else if (interval > 0) {
+                    	rescheduleIntervalTimer(interval);
+                    }
+                    if (operation.getOperations().size() > 0) {
+                        execute((Tags) datas.clone(), reader, tag, controller, operation);
+                    } else {
+                        tag.setCompleted(true);
+
+                        if (datas.get(tag) == null)
+                            datas.put(tag, tag);
+                        else
+                            tag = datas.get(tag);
+
+                        datas.pulse();
                     }
                 }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
             }
         }
     }
@@ -5,6 +5,7 @@ import havis.middleware.ale.base.exception.ImplementationException;
 import havis.middleware.ale.base.exception.InvalidURIException;
 import havis.middleware.ale.base.exception.NoSuchNameException;
 import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.core.Execution;
 import havis.middleware.ale.core.LogicalReader;
 import havis.middleware.ale.core.manager.LR;
 import havis.middleware.ale.core.reader.ReaderController;
@@ -13,6 +14,7 @@ import havis.middleware.ale.core.report.IReports;
 import havis.middleware.ale.core.report.Initiation;
 import havis.middleware.ale.core.report.ReportsInfo;
 import havis.middleware.ale.core.report.Termination;
+import havis.middleware.ale.core.subscriber.DefaultSubscriberController;
 import havis.middleware.ale.core.subscriber.Subscriber;
 import havis.middleware.ale.core.subscriber.SubscriberController;
 import havis.middleware.ale.core.subscriber.SubscriberListener;
@@ -27,9 +29,9 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -98,12 +100,12 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 	/**
 	 * Retrieves the interval timer
 	 */
-	protected Timer intervalTimer;
+	protected TimingWheel.Timeout intervalTimer;
 
 	/**
 	 * Retrieves the timer for starting the cycle
 	 */
-	protected Timer startTimer;
+	protected TimingWheel.Timeout startTimer;
 
 	/**
 	 * Retrieves the queue
@@ -165,6 +167,12 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 	 */
 	protected Thread thread;
 
+	/**
+	 * Retrieves the executor of the timer tasks. Tasks on the timing wheel must
+	 * not wait for the cycle lock, they hand off to this executor.
+	 */
+	protected ExecutorService executor;
+
 	private long lastCycleTriggeredTime = -1;
 
 	private long nextCycleTriggeredTime = -1;
@@ -190,7 +198,8 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 		datas = create();
 		state = State.UNREQUESTED;
 		onStateChanged(name, state);
-		thread = new Thread(this, this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]"));
+		thread = Execution.getInstance().newThread(this, this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]"));
+		executor = Execution.getInstance().newTimerExecutor(this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]") + " timer");
 	}
 
 	protected abstract void onStateChanged(String name, State state);
@@ -214,35 +223,52 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 		nextCycleDurationDueTime = -1;
 	}
 
+	/**
+	 * Creates a timer task which runs the task on the executor of the cycle
+	 *
+	 * @param task
+	 *            The task
+	 * @return The timer task
+	 */
+	protected Runnable handOff(final Runnable task) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				try {
+					executor.execute(task);
+				} catch (RejectedExecutionException e) {
+					// disposed
+				}
+			}
+		};
+	}
+
 	/**
 	 * Reschedule the interval timer
 	 * @param delay the delay
 	 */
 	protected void rescheduleIntervalTimer(long delay) {
-		// TODO: don't use timer: http://stackoverflow.com/questions/32001/resettable-java-timer
 		if (this.intervalTimer != null) {
 			this.intervalTimer.cancel();
 		}
-		this.intervalTimer = new Timer(this.getClass().getSimpleName() + ".intervalTimer " + (this.name != null ? this.name : "[no name]"));
-		this.intervalTimer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                interrupt();
-            }
-		}, delay);
+		this.intervalTimer = TimingWheel.getInstance().schedule(handOff(new Runnable() {
+			@Override
+			public void run() {
+				interrupt();
+			}
+		}), delay);
 	}
 
 	private void rescheduleStartTimer(Date time) {
 		if (this.startTimer != null) {
 			this.startTimer.cancel();
 		}
-		this.startTimer = new Timer(this.getClass().getSimpleName() + ".startTimer " + (this.name != null ? this.name : "[no name]"));
-		this.startTimer.schedule(new TimerTask() {
+		this.startTimer = TimingWheel.getInstance().schedule(handOff(new Runnable() {
 			@Override
 			public void run() {
 				start(CommonCycle.this);
 			}
-		}, time);
+		}), time);
 	}
 
 	/**
@@ -468,6 +494,9 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 
 		onCycleStarted(name);
 
+		// data published while the cycle was evaluated
+		drain();
+
 		if (interval > 0) {
 			rescheduleIntervalTimer(interval);
 		}
@@ -487,6 +516,9 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 			onCycleFailed(name, "Cycle interrupted unacceptably [Duration]", e);
 		}
 
+		// data published while the lock was taken
+		drain();
+
 		onEvaluateStarted(name);
 
 		synchronized (datas) {
@@ -532,6 +564,10 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 				}
 			}
 		}
+		if (state != State.ACTIVE) {
+			// discard data published while the cycle was evaluated
+			drain();
+		}
 		remove();
 	}
 
@@ -822,9 +858,21 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 
 	/**
 	 * Disposes this instance. Disposes all triggers and un-defines all reader
-	 * operations.
+	 * operations. Discards the undelivered reports of the subscribers.
 	 */
 	public void dispose() {
+		dispose(false);
+	}
+
+	/**
+	 * Disposes this instance. Disposes all triggers and un-defines all reader
+	 * operations.
+	 * 
+	 * @param keep
+	 *            whether to keep the undelivered reports of the subscribers
+	 *            on disk, i.e. on shutdown
+	 */
+	public void dispose(boolean keep) {
 		boolean locked = false;
 		try {
 			locked = lock.tryLock(100, TimeUnit.MILLISECONDS);
@@ -871,7 +919,7 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 						e.printStackTrace();
 					}
 				}
-				disposeSubscribers();
+				disposeSubscribers(keep);
 				undefine();
 			}
 		} finally {
@@ -883,9 +931,10 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 		}
 		this.trigger.clear();
 		unlock();
+		executor.shutdown();
 	}
 
-	private void disposeSubscribers() {
+	private void disposeSubscribers(boolean keep) {
 		subscribersLock.lock();
 		try {
 			int pass = 0;
@@ -901,7 +950,11 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 					} else if (pass == 1 && subscriber.isErrorState() || pass > 1) {
 						// first dispose all subscribers in error state, then
 						// all others
-						subscriber.dispose();
+						if (subscriber instanceof DefaultSubscriberController) {
+							((DefaultSubscriberController) subscriber).dispose(keep);
+						} else {
+							subscriber.dispose();
+						}
 						it.remove();
 					}
 				}
@@ -923,6 +976,13 @@ public abstract class CommonCycle<Spec, Result extends havis.middleware.ale.serv
 	 */
 	protected abstract void notify(String reader, Data data, ReaderController controller);
 
+	/**
+	 * Drains the data published to the cycle. Called by the cycle thread while
+	 * holding the cycle lock.
+	 */
+	protected void drain() {
+	}
+
 	/**
 	 * Clears cycle run data
 	 */
@@ -21,9 +21,6 @@ import havis.middleware.ale.service.ec.ECSpec;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.TimeUnit;
 
 /**
  * This is a implementation of the event cycle specified in ALE 1.1.1 (5.2)
@@ -32,7 +29,12 @@ public class EventCycle extends TagCycle<ECSpec, ECReports, Reports, Tags> {
 
     boolean whenDataAvailable; // report immediately if one filter match
 
-    private Timer dataAvailableTimer = null;
+    private TimingWheel.Timeout dataAvailableTimer = null;
+
+    /**
+     * The reused key to look up tags, guarded by the data lock
+     */
+    private final PrimaryKey probe = new PrimaryKey();
 
     /**
      * Creates new instance. Validates boundary specification.
@@ -222,8 +224,8 @@ public class EventCycle extends TagCycle<ECSpec, ECReports, Reports, Tags> {
     }
 
     /**
-     * Notifies the cycle about a tag. This method is called each time one of
-     * the registers Readers sees one tag before any filtering or collection.
+     * Processes a tag. This method is called each time one of the registered
+     * readers sees one tag before any filtering or collection.
      *
      * @param reader
      *            Name of logical reader who has seen the tag
@@ -233,54 +235,35 @@ public class EventCycle extends TagCycle<ECSpec, ECReports, Reports, Tags> {
      *            The operable
      */
     @Override
-    protected void notify(String reader, Tag tag, ReaderController controller) {
-        while (isActive()) {
-            try {
-                if (lock.tryLock(50, TimeUnit.MILLISECONDS)) {
-                    try {
-                        if (isActive()) {
-                            synchronized (datas) {
-                                super.notify(reader, tag, controller);
-
-                                if((tag.getEpc() != null && tag.getEpc().length > 0) && (!Tag.isExtended() || (tag.getTid() != null && tag.getTid().length > 0))) {
-                                    PrimaryKey key = new PrimaryKey(tag, reports.getFields());
+    protected void process(String reader, Tag tag, ReaderController controller) {
+        if((tag.getEpc() != null && tag.getEpc().length > 0) && (!Tag.isExtended() || (tag.getTid() != null && tag.getTid().length > 0))) {
+            PrimaryKey key = probe.set(tag, reports.getFields());
 
-                                    if (key.match()) {
-                                        // is this tag seen the first time
-                                        if (datas.contains(key)) {
-                                            Tag t = datas.get(key);
-                                            t.stat(reader, tag);
-                                            if (!t.isCompleted()) {
-                                                t.apply(tag);
-                                                t.setCompleted(reports.isCompleted(t));
-                                            }
-                                        } else {
-                                            onFiltered(name, reader, tag);
-                                            Boolean match = reports.match(tag);
-                                            if (match != null) {
-                                                tag.stat(reader);
-                                                datas.add(key, tag);
-                                                tag.setCompleted(reports.isCompleted(tag));
-                                                if (Boolean.TRUE.equals(match)) {
-                                                    if (whenDataAvailable && !isDataAvailableTimerScheduled()) {
-                                                        scheduleDataAvailableTimer();
-                                                    } else if (interval > 0) {
-                                                    	rescheduleIntervalTimer(interval);
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
+            if (key.match()) {
+                // is this tag seen the first time
+                Tag t = datas.get(key);
+                if (t != null) {
+                    t.stat(reader, tag);
+                    if (!t.isCompleted()) {
+                        t.apply(tag);
+                        t.setCompleted(reports.isCompleted(t));
+                    }
+                } else {
+                    onFiltered(name, reader, tag);
+                    Boolean match = reports.match(tag);
+                    if (match != null) {
+                        tag.stat(reader);
+                        datas.add(key.copy(), tag);
+                        tag.setCompleted(reports.isCompleted(tag));
+                        if (Boolean.TRUE.equals(match)) {
+                            if (whenDataAvailable && !isDataAvailableTimerScheduled()) {
+                                scheduleDataAvailableTimer();
+                            } else if (interval > 0) {
+                            	rescheduleIntervalTimer(interval);
                             }
                         }
-                        break;
-                    } finally {
-                        lock.unlock();
                     }
                 }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
             }
         }
 	}
@@ -291,8 +274,7 @@ public class EventCycle extends TagCycle<ECSpec, ECReports, Reports, Tags> {
 
 	private void scheduleDataAvailableTimer() {
 		int readerCycleDuration = Math.max(0, Config.getInstance().getGlobal().getReaderCycle().getDuration());
-		this.dataAvailableTimer = new Timer(this.getClass().getSimpleName() + ".dataAvailableTimer " + (this.name != null ? this.name : "[no name]"));
-		this.dataAvailableTimer.schedule(new TimerTask() {
+		this.dataAvailableTimer = TimingWheel.getInstance().schedule(handOff(new Runnable() {
 			@Override
 			public void run() {
 				lock.lock();
@@ -303,7 +285,7 @@ public class EventCycle extends TagCycle<ECSpec, ECReports, Reports, Tags> {
 					lock.unlock();
 				}
 			}
-		}, readerCycleDuration);
+		}), readerCycleDuration);
 	}
 
 	private void cancelDataAvailableTimer() {
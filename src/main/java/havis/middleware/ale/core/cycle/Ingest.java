@@ -0,0 +1,241 @@
+package havis.middleware.ale.core.cycle;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock free ring buffer which takes the data reported to a cycle.
+ * Readers publish concurrently without blocking and the holder of the cycle
+ * lock drains the buffer. Each slot carries a sequence number which tells
+ * producers and the consumer whether the slot is free or filled, so no lock
+ * is needed on either side. If the buffer is full the overflow policy decides
+ * whether the oldest or the newest data is dropped or whether the publisher
+ * has to wait.
+ *
+ * @param <T>
+ *            The data type
+ */
+public class Ingest<T> {
+
+	/**
+	 * The behavior of a full buffer
+	 */
+	public enum Overflow {
+		/**
+		 * Drop the oldest data to make room for the new data
+		 */
+		DROP_OLDEST,
+		/**
+		 * Drop the new data
+		 */
+		DROP_NEWEST,
+		/**
+		 * Let the publisher wait until the buffer was drained
+		 */
+		BLOCK;
+
+		/**
+		 * Retrieves the overflow policy by name, i.e. "drop-oldest"
+		 *
+		 * @param name
+		 *            The name
+		 * @return The policy, {@link #BLOCK} if name is null or unknown
+		 */
+		public static Overflow get(String name) {
+			if (name != null) {
+				for (Overflow overflow : values()) {
+					if (overflow.name().replace('_', '-').equalsIgnoreCase(name.trim())) {
+						return overflow;
+					}
+				}
+			}
+			return BLOCK;
+		}
+	}
+
+	private final Object[] buffer;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final Overflow overflow;
+
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong drained = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong blocked = new AtomicLong();
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param capacity
+	 *            The capacity, rounded up to the next power of two
+	 * @param overflow
+	 *            The overflow policy
+	 */
+	public Ingest(int capacity, Overflow overflow) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		this.buffer = new Object[size];
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+		this.mask = size - 1;
+		this.overflow = overflow;
+	}
+
+	/**
+	 * Publishes the data according to the overflow policy
+	 *
+	 * @param data
+	 *            The data
+	 * @return False if the buffer is full and the policy is
+	 *         {@link Overflow#BLOCK}, i.e. the publisher has to drain or wait
+	 *         and retry, true otherwise
+	 */
+	public boolean publish(T data) {
+		if (offer(data)) {
+			return true;
+		}
+		switch (overflow) {
+		case DROP_OLDEST:
+			do {
+				if (take() != null) {
+					dropped.incrementAndGet();
+				}
+			} while (!offer(data));
+			return true;
+		case DROP_NEWEST:
+			dropped.incrementAndGet();
+			return true;
+		default:
+			blocked.incrementAndGet();
+			return false;
+		}
+	}
+
+	/**
+	 * Drops data which could not be published, i.e. by a waiting publisher
+	 * when the cycle became inactive
+	 */
+	void drop() {
+		dropped.incrementAndGet();
+	}
+
+	/**
+	 * Retrieves and removes the oldest data
+	 *
+	 * @return The data or null if the buffer is empty
+	 */
+	public T poll() {
+		T data = take();
+		if (data != null) {
+			drained.incrementAndGet();
+		}
+		return data;
+	}
+
+	private boolean offer(T data) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					buffer[index] = data;
+					sequences.set(index, position + 1);
+					published.incrementAndGet();
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T take() {
+		long position = head.get();
+		while (true) {
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - (position + 1);
+			if (difference == 0) {
+				if (head.compareAndSet(position, position + 1)) {
+					T data = (T) buffer[index];
+					buffer[index] = null;
+					sequences.set(index, position + mask + 1);
+					return data;
+				}
+				position = head.get();
+			} else if (difference < 0) {
+				return null;
+			} else {
+				position = head.get();
+			}
+		}
+	}
+
+	/**
+	 * Returns if the buffer is empty
+	 *
+	 * @return True if no data is pending, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Retrieves the number of pending data
+	 */
+	public int size() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, buffer.length));
+	}
+
+	/**
+	 * Retrieves the capacity
+	 */
+	public int getCapacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * Retrieves the overflow policy
+	 */
+	public Overflow getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * Retrieves the number of published data
+	 */
+	public long getPublished() {
+		return published.get();
+	}
+
+	/**
+	 * Retrieves the number of drained data
+	 */
+	public long getDrained() {
+		return drained.get();
+	}
+
+	/**
+	 * Retrieves the number of data dropped due to overflow
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Retrieves the number of times a publisher found the buffer full and had
+	 * to wait
+	 */
+	public long getBlocked() {
+		return blocked.get();
+	}
+}
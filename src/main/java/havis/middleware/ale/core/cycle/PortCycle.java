@@ -322,7 +322,7 @@ public class PortCycle extends TagCycle<PCSpec, PCReports, Reports, Events> {
     }
 
     /**
-     * Notifies the cycle about a tag.
+     * Processes a tag seen by one of the registered readers.
      *
      * @param reader
      *            Name of logical reader who has send the result
@@ -332,43 +332,25 @@ public class PortCycle extends TagCycle<PCSpec, PCReports, Reports, Events> {
      *            The controller
      */
     @Override
-    protected void notify(String reader, Tag tag, ReaderController controller) {
-        while (isActive()) {
-            try {
-                if (lock.tryLock(50, TimeUnit.MILLISECONDS)) {
-                    try {
-                        if (isActive()) {
-                            synchronized (datas) {
-                                super.notify(reader, tag, controller);
-
-                                if((tag.getEpc() != null && tag.getEpc().length > 0) && (!Tag.isExtended() || (tag.getTid() != null && tag.getTid().length > 0))) {
-                                	// TODO: TDT decode happens here, this should be optimized
-                                	// maybe make event not rely on URI but on Tag.equals/hashCode
-                                    Event event = new Event(tag);
-    
-                                    // is this tag seen the first time
-                                    if (datas.contains(event)) {
-    									Event e = datas.get(event);
-    									if (e != null) {
-    										e.stat(event, reader);
-    									}
-                                    } else {
-                                        onFiltered(name, reader, tag);
-                                        List<Operation> operations = reports.getPortOperation(tag);
-                                        if (operations != null) {
-                                            event.stat(event, reader);
-                                            notify(reader, event, operations);
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                        break;
-                    } finally {
-                        lock.unlock();
-                    }
+    protected void process(String reader, Tag tag, ReaderController controller) {
+        if((tag.getEpc() != null && tag.getEpc().length > 0) && (!Tag.isExtended() || (tag.getTid() != null && tag.getTid().length > 0))) {
+        	// TODO: TDT decode happens here, this should be optimized
+        	// maybe make event not rely on URI but on Tag.equals/hashCode
+            Event event = new Event(tag);
+
+            // is this tag seen the first time
+            if (datas.contains(event)) {
+				Event e = datas.get(event);
+				if (e != null) {
+					e.stat(event, reader);
+				}
+            } else {
+                onFiltered(name, reader, tag);
+                List<Operation> operations = reports.getPortOperation(tag);
+                if (operations != null) {
+                    event.stat(event, reader);
+                    notify(reader, event, operations);
                 }
-            } catch (InterruptedException e) {
             }
         }
     }
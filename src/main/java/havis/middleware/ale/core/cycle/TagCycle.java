@@ -7,16 +7,29 @@ import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.base.operation.tag.TagOperation;
 import havis.middleware.ale.core.LogicalReader;
 import havis.middleware.ale.core.TagDecoder;
-import havis.middleware.ale.core.reader.Caller;
+import havis.middleware.ale.core.reader.BatchCaller;
 import havis.middleware.ale.core.reader.ReaderController;
 import havis.middleware.ale.core.report.IDatas;
 import havis.middleware.ale.core.report.IReports;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * This class implements a common tag cycle
+ * This class implements a common tag cycle. Tags reported by the readers are
+ * published to the {@link Ingest} of the cycle without waiting for the cycle
+ * lock. The holder of the lock drains the ingest, i.e. the publishing reader
+ * thread if the lock is free or the cycle thread at the start and the end of
+ * the cycle. If the lock is held elsewhere, the holder may already have
+ * drained, so draining is handed off to the executor of the cycle which waits
+ * for the lock. The capacity of the ingest can be set by the system property
+ * {@value #INGEST_SIZE} and the overflow policy by {@value #INGEST_OVERFLOW}
+ * (drop-oldest, drop-newest or block).
  *
  * @param <Spec>
  *            The specification type
@@ -30,6 +43,56 @@ import java.util.List;
 public abstract class TagCycle<Spec, Result extends havis.middleware.ale.service.IReports, Reports extends IReports<Result, Tags>, Tags extends IDatas>
 		extends CommonCycle<Spec, Result, Reports, Tags, Tag> {
 
+	private static final String INGEST_SIZE = "havis.middleware.ale.cycle.ingestSize";
+	private static final String INGEST_OVERFLOW = "havis.middleware.ale.cycle.ingestOverflow";
+
+	/**
+	 * Time a publisher waits for the ingest to be drained if the overflow
+	 * policy is block
+	 */
+	private static final long BLOCK_WAIT = TimeUnit.MICROSECONDS.toNanos(100);
+
+	/**
+	 * A tag reported by a reader
+	 */
+	private static class Item {
+
+		final String reader;
+		final Tag tag;
+		final ReaderController controller;
+
+		Item(String reader, Tag tag, ReaderController controller) {
+			this.reader = reader;
+			this.tag = tag;
+			this.controller = controller;
+		}
+	}
+
+	/**
+	 * The ingest of reported tags
+	 */
+	private final Ingest<Item> ingest = new Ingest<Item>(Integer.getInteger(INGEST_SIZE, 4096).intValue(), Ingest.Overflow.get(System
+			.getProperty(INGEST_OVERFLOW)));
+
+	/**
+	 * Whether draining was handed off to the executor and did not start yet
+	 */
+	private final AtomicBoolean handedOff = new AtomicBoolean();
+
+	private final Runnable drainTask = new Runnable() {
+		@Override
+		public void run() {
+			handedOff.set(false);
+			lock.lock();
+			try {
+				drain();
+			} finally {
+				lock.unlock();
+			}
+			consume();
+		}
+	};
+
 	/**
 	 * Creates a new instance. Keep parameters and initializes class parameters
 	 *
@@ -46,6 +109,26 @@ public abstract class TagCycle<Spec, Result extends havis.middleware.ale.service
 
 	protected abstract void onFiltered(String name, String reader, Tag tag);
 
+	/**
+	 * Processes a reported tag. Called while holding the cycle lock and the
+	 * datas of an active cycle.
+	 *
+	 * @param reader
+	 *            Name of the logical reader who has seen the tag
+	 * @param tag
+	 *            The tag
+	 * @param controller
+	 *            The reader controller
+	 */
+	protected abstract void process(String reader, Tag tag, ReaderController controller);
+
+	/**
+	 * Retrieves the ingest, i.e. to read its metrics
+	 */
+	public Ingest<?> getIngest() {
+		return ingest;
+	}
+
 	/**
 	 * Retrieves the reader operation
 	 */
@@ -65,11 +148,16 @@ public abstract class TagCycle<Spec, Result extends havis.middleware.ale.service
 				try {
 					for (LogicalReader logicalReader : logicalReaders) {
 						final String name = logicalReader.getName();
-						logicalReader.define(getTagOperation(), new Caller<Tag>() {
+						logicalReader.define(getTagOperation(), new BatchCaller<Tag>() {
 							@Override
 							public void invoke(Tag tag, ReaderController controller) {
 								TagCycle.this.notify(name, tag, controller);
 							}
+
+							@Override
+							public void invoke(List<Tag> tags, ReaderController controller) {
+								TagCycle.this.notify(name, tags, controller);
+							}
 						}, this.guid);
 						list.add(logicalReader);
 					}
@@ -152,8 +240,97 @@ public abstract class TagCycle<Spec, Result extends havis.middleware.ale.service
 		}
 	}
 
+	/**
+	 * Notifies the cycle about a tag.
+	 *
+	 * @param reader
+	 *            Name of the logical reader who has seen the tag
+	 * @param tag
+	 *            The tag
+	 * @param controller
+	 *            The reader controller
+	 */
 	@Override
 	protected void notify(String reader, Tag tag, ReaderController controller) {
-		onNotifyStarted(name, reader, TagDecoder.getInstance().enable(tag));
+		notify(reader, Collections.singletonList(tag), controller);
+	}
+
+	/**
+	 * Notifies the cycle about the tags of one notification round. The tags
+	 * are published to the ingest and drained at once if the cycle lock is
+	 * free. Returns without waiting for the lock otherwise.
+	 *
+	 * @param reader
+	 *            Name of the logical reader who has seen the tags
+	 * @param tags
+	 *            The tags in the order they were seen
+	 * @param controller
+	 *            The reader controller
+	 */
+	protected void notify(String reader, List<Tag> tags, ReaderController controller) {
+		if (isActive()) {
+			for (Tag tag : tags) {
+				publish(new Item(reader, tag, controller));
+			}
+			consume();
+		}
+	}
+
+	private void publish(Item item) {
+		while (!ingest.publish(item)) {
+			consume();
+			if (!isActive()) {
+				ingest.drop();
+				return;
+			}
+			LockSupport.parkNanos(BLOCK_WAIT);
+		}
+	}
+
+	/**
+	 * Drains the ingest while the cycle lock is free. Hands off to the
+	 * executor otherwise, since the holder of the lock may have polled the
+	 * ingest before the data was published.
+	 */
+	private void consume() {
+		while (!ingest.isEmpty()) {
+			if (lock.tryLock()) {
+				try {
+					drain();
+				} finally {
+					lock.unlock();
+				}
+			} else {
+				if (handedOff.compareAndSet(false, true)) {
+					try {
+						executor.execute(drainTask);
+					} catch (RejectedExecutionException e) {
+						// disposed
+						handedOff.set(false);
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Drains the ingest. Tags are processed if the cycle is active and
+	 * discarded otherwise.
+	 */
+	@Override
+	protected void drain() {
+		Item item;
+		if (isActive()) {
+			synchronized (datas) {
+				while ((item = ingest.poll()) != null) {
+					onNotifyStarted(name, item.reader, TagDecoder.getInstance().enable(item.tag));
+					process(item.reader, item.tag, item.controller);
+				}
+			}
+		} else {
+			while (ingest.poll() != null) {
+			}
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,307 @@
+package havis.middleware.ale.core.cycle;
+
+import havis.middleware.ale.exit.Exits;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class implements a hashed timing wheel shared by all cycles for
+ * interval, start and data available timers. A single daemon thread advances
+ * the wheel by one bucket per tick and runs the expired tasks, so tasks must
+ * be short, i.e. signal a condition. Scheduling and cancellation are lock
+ * free and only enqueue the timeout for the wheel thread. The thread parks
+ * while no timeout is pending. The tick resolution in milliseconds can be set
+ * by the system property {@value #TICK} and the number of buckets by
+ * {@value #SIZE}.
+ */
+public class TimingWheel {
+
+	private static final String TICK = "havis.middleware.ale.cycle.tick";
+	private static final String SIZE = "havis.middleware.ale.cycle.wheelSize";
+
+	private static TimingWheel instance = new TimingWheel(Long.getLong(TICK, 10).longValue(), Integer.getInteger(SIZE, 512).intValue());
+
+	/**
+	 * Retrieves the static instance
+	 *
+	 * @return The static instance
+	 */
+	public static TimingWheel getInstance() {
+		return instance;
+	}
+
+	/**
+	 * A scheduled task which can be cancelled
+	 */
+	public static class Timeout {
+
+		private static final int PENDING = 0;
+		private static final int CANCELLED = 1;
+		private static final int EXPIRED = 2;
+
+		private final TimingWheel wheel;
+		private final Runnable task;
+		private final long deadline;
+		private final AtomicInteger state = new AtomicInteger(PENDING);
+
+		private long rounds;
+		private Bucket bucket;
+		private Timeout previous, next;
+
+		private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+			this.wheel = wheel;
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Cancels the timeout. A task which is already running is not
+		 * interrupted.
+		 *
+		 * @return True if the timeout was pending, false otherwise
+		 */
+		public boolean cancel() {
+			if (state.compareAndSet(PENDING, CANCELLED)) {
+				wheel.cancelled.add(this);
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Returns whether the timeout was cancelled
+		 *
+		 * @return True if cancelled, false otherwise
+		 */
+		public boolean isCancelled() {
+			return state.get() == CANCELLED;
+		}
+
+		/**
+		 * Returns whether the task was run
+		 *
+		 * @return True if expired, false otherwise
+		 */
+		public boolean isExpired() {
+			return state.get() == EXPIRED;
+		}
+
+		private void expire() {
+			if (state.compareAndSet(PENDING, EXPIRED)) {
+				try {
+					task.run();
+				} catch (Throwable e) {
+					Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Timer task failed: " + e.getMessage(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A bucket of timeouts, linked in both directions
+	 */
+	private static class Bucket {
+
+		private Timeout head, tail;
+
+		void add(Timeout timeout) {
+			timeout.bucket = this;
+			if (head == null) {
+				head = tail = timeout;
+			} else {
+				tail.next = timeout;
+				timeout.previous = tail;
+				tail = timeout;
+			}
+		}
+
+		Timeout remove(Timeout timeout) {
+			Timeout next = timeout.next;
+			if (timeout.previous != null) {
+				timeout.previous.next = next;
+			}
+			if (timeout.next != null) {
+				timeout.next.previous = timeout.previous;
+			}
+			if (timeout == head) {
+				head = next;
+			}
+			if (timeout == tail) {
+				tail = timeout.previous;
+			}
+			timeout.previous = timeout.next = null;
+			timeout.bucket = null;
+			return next;
+		}
+	}
+
+	private final long tick;
+	private final Bucket[] buckets;
+	private final int mask;
+	private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+	private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final long start = System.nanoTime();
+
+	private volatile Thread thread;
+	private long ticks;
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param tick
+	 *            The tick resolution in milliseconds
+	 * @param size
+	 *            The number of buckets, rounded up to a power of two
+	 */
+	TimingWheel(long tick, int size) {
+		this.tick = TimeUnit.MILLISECONDS.toNanos(Math.max(tick, 1));
+		size = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+		buckets = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			buckets[i] = new Bucket();
+		}
+		mask = size - 1;
+	}
+
+	/**
+	 * Schedules a task
+	 *
+	 * @param task
+	 *            The task
+	 * @param delay
+	 *            The delay in milliseconds
+	 * @return The timeout
+	 */
+	public Timeout schedule(Runnable task, long delay) {
+		Timeout timeout = new Timeout(this, task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0)));
+		pending.incrementAndGet();
+		scheduled.add(timeout);
+		Thread thread = this.thread;
+		if (thread == null) {
+			thread = start();
+		}
+		LockSupport.unpark(thread);
+		return timeout;
+	}
+
+	/**
+	 * Schedules a task
+	 *
+	 * @param task
+	 *            The task
+	 * @param time
+	 *            The time to run the task
+	 * @return The timeout
+	 */
+	public Timeout schedule(Runnable task, Date time) {
+		return schedule(task, time.getTime() - System.currentTimeMillis());
+	}
+
+	/**
+	 * Retrieves the number of pending timeouts
+	 *
+	 * @return The number of pending timeouts
+	 */
+	public int getPending() {
+		return pending.get();
+	}
+
+	/**
+	 * Retrieves the tick resolution
+	 *
+	 * @return The tick resolution in milliseconds
+	 */
+	public long getTick() {
+		return TimeUnit.NANOSECONDS.toMillis(tick);
+	}
+
+	private synchronized Thread start() {
+		if (thread == null) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					TimingWheel.this.run();
+				}
+			}, TimingWheel.class.getName());
+			thread.setDaemon(true);
+			this.thread = thread;
+			thread.start();
+		}
+		return thread;
+	}
+
+	private void run() {
+		ticks = (System.nanoTime() - start) / tick;
+		while (true) {
+			if (pending.get() == 0) {
+				// all buckets are empty, skip the idle ticks
+				LockSupport.park(this);
+				ticks = (System.nanoTime() - start) / tick;
+				continue;
+			}
+			long deadline = start + (ticks + 1) * tick;
+			long now;
+			while ((now = System.nanoTime()) < deadline) {
+				LockSupport.parkNanos(this, deadline - now);
+			}
+			purge();
+			transfer();
+			expire(buckets[(int) (ticks & mask)], deadline);
+			ticks++;
+		}
+	}
+
+	/**
+	 * Puts the scheduled timeouts into their buckets
+	 */
+	private void transfer() {
+		Timeout timeout;
+		while ((timeout = scheduled.poll()) != null) {
+			if (timeout.state.get() == Timeout.CANCELLED) {
+				pending.decrementAndGet();
+				continue;
+			}
+			long due = Math.max((timeout.deadline - start) / tick, ticks);
+			timeout.rounds = (due - ticks) / buckets.length;
+			buckets[(int) (due & mask)].add(timeout);
+		}
+	}
+
+	/**
+	 * Removes the cancelled timeouts from their buckets
+	 */
+	private void purge() {
+		Timeout timeout;
+		while ((timeout = cancelled.poll()) != null) {
+			// not yet transferred timeouts are dropped on transfer
+			if (timeout.bucket != null) {
+				timeout.bucket.remove(timeout);
+				pending.decrementAndGet();
+			}
+		}
+	}
+
+	private void expire(Bucket bucket, long deadline) {
+		Timeout timeout = bucket.head;
+		while (timeout != null) {
+			if (timeout.rounds <= 0 && timeout.deadline <= deadline) {
+				Timeout next = bucket.remove(timeout);
+				pending.decrementAndGet();
+				timeout.expire();
+				timeout = next;
+			} else if (timeout.isCancelled()) {
+				// removed by purge
+				timeout = timeout.next;
+			} else {
+				timeout.rounds--;
+				timeout = timeout.next;
+			}
+		}
+	}
+}
@@ -160,8 +160,7 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 	}
 
 	/**
-	 * Adds a new entry and returns the new created id. Serializes the
-	 * configuration
+	 * Adds a new entry and returns the new created id. Journals the change
 	 *
 	 * @param entry
 	 *            The entry
@@ -172,28 +171,36 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 	}
 
 	/**
-	 * Adds a new entry and returns the new created id. Serializes the
-	 * configuration only when specified.
+	 * Adds a new entry and returns the new created id. Journals the change
+	 * only when specified, a non persistent entry is only written with the
+	 * next snapshot.
 	 * 
 	 * @param entry
 	 *            The entry
 	 * @param persist
-	 *            whether to serialize the configuration
+	 *            whether to journal the change
 	 * @return The id
 	 */
 	protected UUID add(E entry, boolean persist) {
-		list.add(entry);
+		Config.add(list, entry, persist);
 		UUID guid = UUID.randomUUID();
 		dict.put(guid, entry);
 		if (entry.isEnable()) {
 			names.put(entry.getName(), guid);
 		}
-		if (persist) {
-			Config.serialize();
-		}
 		return guid;
 	}
 
+	/**
+	 * Journals the current state of a changed entry
+	 *
+	 * @param entry
+	 *            The entry
+	 */
+	protected void persist(E entry) {
+		Config.update(list, entry);
+	}
+
 	/**
 	 * Adds a new entry by specification and returns the new created id as
 	 * string
@@ -283,7 +290,7 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 	 * Updates the specification of an entry by id. If specification is of
 	 * common type, try to update the name or the enable state. Tries to disable
 	 * specification before updating or updating specification before enabling.
-	 * Serializes the configuration
+	 * Journals the change
 	 *
 	 * @param id
 	 *            The id
@@ -342,7 +349,7 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 						}
 					}
 				}
-				Config.serialize();
+				persist(dict.get(id));
 			}
 		} finally {
 			updateLock.unlock();
@@ -351,7 +358,7 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 
 	/**
 	 * Removes an entry by name, even when it's disabled and doesn't persist the
-	 * configuration
+	 * configuration. The change is not journaled
 	 * 
 	 * @param name The name
 	 * @return the depot entry
@@ -364,7 +371,7 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 			names.remove(name);
 			entry = dict.get(id);
 			if (entry != null) {
-				list.remove(entry);
+				Config.remove(list, entry, false);
 			}
 			dict.remove(id);
 		} else {
@@ -374,7 +381,7 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 					id = pair.getKey();
 					entry = pair.getValue();
 					if (entry != null) {
-						list.remove(entry);
+						Config.remove(list, entry, false);
 					}
 					break;
 				}
@@ -387,7 +394,7 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 	}
 
 	/**
-	 * Removes entry by id. Serializes the configuration
+	 * Removes entry by id. Journals the change
 	 * 
 	 * @param id
 	 *            The unique id
@@ -400,15 +407,14 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 				setEnable(t, false);
 				names.remove(t.getName());
 			}
-			list.remove(t);
+			Config.remove(list, t);
 			dict.remove(id);
-			Config.serialize();
 		}
 	}
 
 	/**
 	 * Removes entry by name and provides the id of the removed entry.
-	 * Serializes the configuration
+	 * Journals the change
 	 *
 	 * @param name
 	 *            The name
@@ -420,12 +426,11 @@ public abstract class Depot<E extends DepotType, S extends MCSpec> {
 			names.remove(name);
 			E t = dict.get(id);
 			if (t != null) {
-				list.remove(t);
+				Config.remove(list, t);
 			} else {
 				Exits.Log.logp(Exits.Level.Warning, Exits.Common.Name, Exits.Common.Warning, "Failed to remove unknown id {0}", id);
 			}
 			dict.remove(id);
-			Config.serialize();
 		}
 		return id;
 	}
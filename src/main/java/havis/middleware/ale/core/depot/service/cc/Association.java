@@ -130,7 +130,7 @@ public class Association extends Depot<AssociationType, MCAssociationSpec> {
 				AssociationType association = getType(id);
 				if (association != null) {
 					association.setEntries(new AssocTableEntryList(entries));
-					Config.serialize();
+					persist(association);
 				}
 			} catch (NoSuchIdException e) {
 				Exits.Log.logp(Exits.Level.Warning, Exits.Common.Name, Exits.Common.Warning, "Association table not found: " + e.getMessage(), e);
@@ -128,7 +128,7 @@ public class Cache extends Depot<CacheType, MCCacheSpec> {
 				CacheType cache = getType(id);
 				if (cache != null) {
 					cache.setPatterns(new EPCPatternList(patterns));
-					Config.serialize();
+					persist(cache);
 				}
 			} catch (NoSuchIdException e) {
 				Exits.Log.logp(Exits.Level.Warning, Exits.Common.Name, Exits.Common.Warning, "EPC cache not found: " + e.getMessage(), e);
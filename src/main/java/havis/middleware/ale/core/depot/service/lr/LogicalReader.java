@@ -208,7 +208,7 @@ public class LogicalReader extends
 		if ((spec.getSpec() != null)) {
 			LR.getInstance().update(entry.getName(), spec.getSpec(), false);
 			entry.setSpec(spec.getSpec());
-			Config.serialize();
+			persist(entry);
 			return true;
 		} else {
 			return false;
@@ -5,6 +5,7 @@ import havis.middleware.ale.base.exception.ValidationException;
 import havis.middleware.ale.base.operation.tag.result.ReadResult;
 import havis.middleware.ale.core.Name;
 import havis.middleware.ale.core.TagDecoder;
+import havis.middleware.ale.core.TdtCache;
 import havis.middleware.ale.core.config.Config;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.ale.service.IFieldSpec;
@@ -13,7 +14,6 @@ import havis.middleware.ale.service.tm.TMFixedFieldSpec;
 import havis.middleware.ale.service.tm.TMSpec;
 import havis.middleware.ale.service.tm.TMVariableFieldListSpec;
 import havis.middleware.ale.service.tm.TMVariableFieldSpec;
-import havis.middleware.misc.TdtWrapper;
 import havis.middleware.tdt.TdtTagInfo;
 import havis.middleware.tdt.TdtTranslationException;
 import havis.middleware.utils.data.Calculator;
@@ -743,7 +743,7 @@ public class Fields {
 			break;
 		case EPC:
 			try {
-				TdtTagInfo info = TdtWrapper.getTdt().translate(bytes.getValue());
+				TdtTagInfo info = TdtCache.getInstance().translate(bytes.getValue());
 				if (info != null) {
 					switch (format) {
 					case EPC_PURE:
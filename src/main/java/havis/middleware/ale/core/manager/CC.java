@@ -226,7 +226,7 @@ public class CC extends CycleManager<CommandCycle> {
 								+ "' already subscribed to command cycle '"
 								+ name + "'");
 					} else {
-						cycle.add(Subscriber.getInstance().get(uri, properties, CCReports.class));
+						cycle.add(Subscriber.getInstance().get(name, uri, properties, CCReports.class));
 						if (persist)
 							depot.add(name, uri);
 					}
@@ -437,19 +437,34 @@ public class CC extends CycleManager<CommandCycle> {
 		try {
 			try {
 				SubscriberListener<CCReports> subscriber = new SubscriberListener<CCReports>(1);
-				CommandCycle cycle = new CommandCycle(null, spec);
+				String key = key(spec);
+				long generation = generation();
+				CommandCycle cycle = borrow(key);
+				boolean cached = cycle != null;
+				if (!cached) {
+					cycle = new CommandCycle(null, spec);
+				}
 				if (cycle.isParameterized()) {
 					cycle.dispose();
 					throw new ParameterForbiddenException("Command cycle is parameterized");
 				} else {
+					boolean completed = false;
 					try {
 						addVolatileCycle(cycle);
-						cycle.start();
+						if (!cached) {
+							cycle.start();
+						}
 						cycle.add(subscriber);
-						return subscriber.dequeue();
+						CCReports reports = subscriber.dequeue();
+						completed = true;
+						return reports;
 					} finally {
 						removeVolatileCycle(cycle);
-						cycle.dispose();
+						if (completed) {
+							release(key, cycle, generation);
+						} else {
+							cycle.dispose();
+						}
 					}
 				}
 			} catch (ParameterForbiddenException | ValidationException e) {
@@ -9,27 +9,174 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
- * Base cycle manager
+ * Base cycle manager. Keeps the idle cycles of immediate calls in a least
+ * recently used cache by the content of their specification, so that a
+ * repeated immediate call skips validation, compilation and the definition of
+ * the reader operations. The cache is invalidated whenever logical reader, tag
+ * memory, EPC cache, association table or random number generator
+ * definitions change.
  * 
  * @param <T>
  *            the type of cycle to manage
  */
 public class CycleManager<T extends CommonCycle<?, ?, ?, ?, ?>> {
 
+	private static final String IMMEDIATE_CACHE_SIZE = "havis.middleware.ale.cycle.immediateCacheSize";
+
+	/**
+	 * The maximum number of idle immediate cycles of each manager, can be set
+	 * by the system property {@value #IMMEDIATE_CACHE_SIZE}. No cycles are
+	 * kept if set to 0.
+	 */
+	private static final int immediateCacheSize = Integer.getInteger(IMMEDIATE_CACHE_SIZE, 32).intValue();
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	/**
+	 * The current manager instances by type
+	 */
+	private static final Map<Class<?>, CycleManager<?>> managers = new ConcurrentHashMap<>();
+
 	protected Lock lock = new ReentrantLock();
 	protected Map<String, T> cycles;
 
 	private Lock volatileCyclesLock = new ReentrantLock();
 	private List<T> volatileCycles;
 
+	/**
+	 * The idle immediate cycles by specification content in access order,
+	 * also the monitor for the generation
+	 */
+	private final LinkedHashMap<String, T> immediateCycles = new LinkedHashMap<>(16, 0.75f, true);
+	private long generation;
+
 	protected CycleManager() {
 		super();
 		cycles = new LinkedHashMap<>();
 		volatileCycles = new ArrayList<>();
+		managers.put(getClass(), this);
+	}
+
+	/**
+	 * Invalidates the cached immediate cycles of all managers. Must be called
+	 * before logical reader, tag memory or command cycle data definitions
+	 * change, since the cached cycles keep their references.
+	 */
+	public static void invalidateAll() {
+		for (CycleManager<?> manager : managers.values()) {
+			manager.invalidate();
+		}
+	}
+
+	/**
+	 * Disposes all cached immediate cycles
+	 */
+	public void invalidate() {
+		List<T> list;
+		synchronized (immediateCycles) {
+			generation++;
+			list = new ArrayList<>(immediateCycles.values());
+			immediateCycles.clear();
+		}
+		for (T cycle : list) {
+			dispose(cycle);
+		}
+	}
+
+	/**
+	 * Computes the cache key of a specification
+	 *
+	 * @param spec
+	 *            The specification
+	 * @return The key or null if the specification can not be cached
+	 */
+	protected String key(Object spec) {
+		if (immediateCacheSize > 0 && spec != null) {
+			try {
+				return spec.getClass().getName() + mapper.writeValueAsString(spec);
+			} catch (Exception e) {
+				// not cacheable
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieves the generation of the immediate cache, which has to be passed
+	 * to {@link #release(String, CommonCycle, long)}
+	 */
+	protected long generation() {
+		synchronized (immediateCycles) {
+			return generation;
+		}
+	}
+
+	/**
+	 * Takes an idle cycle from the immediate cache for exclusive use
+	 *
+	 * @param key
+	 *            The key of the specification or null
+	 * @return The started cycle or null if none is cached
+	 */
+	protected T borrow(String key) {
+		if (key != null) {
+			synchronized (immediateCycles) {
+				T cycle = immediateCycles.get(key);
+				// the cycle may still be finishing its last run
+				if (cycle != null && !cycle.isBusy()) {
+					immediateCycles.remove(key);
+					return cycle;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a started cycle to the immediate cache. Disposes the cycle if
+	 * it can not be cached.
+	 *
+	 * @param key
+	 *            The key of the specification or null
+	 * @param cycle
+	 *            The cycle
+	 * @param generation
+	 *            The generation of the cache when the cycle was created or
+	 *            taken
+	 */
+	protected void release(String key, T cycle, long generation) {
+		T evicted = cycle;
+		if (key != null) {
+			synchronized (immediateCycles) {
+				if (generation == this.generation && !immediateCycles.containsKey(key)) {
+					immediateCycles.put(key, cycle);
+					evicted = null;
+					if (immediateCycles.size() > immediateCacheSize) {
+						Iterator<T> it = immediateCycles.values().iterator();
+						evicted = it.next();
+						it.remove();
+					}
+				}
+			}
+		}
+		if (evicted != null) {
+			dispose(evicted);
+		}
+	}
+
+	private void dispose(T cycle) {
+		try {
+			cycle.dispose();
+		} catch (Exception e) {
+			Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to dispose cycle: " + e.getMessage(), e);
+		}
 	}
 
 	protected void addVolatileCycle(T cycle) {
@@ -68,15 +215,17 @@ public class CycleManager<T extends CommonCycle<?, ?, ?, ?, ?>> {
 	}
 
 	/**
-	 * Disposes instance
+	 * Disposes instance, i.e. on shutdown. The undelivered reports of the
+	 * subscribers are kept on disk
 	 */
 	public void dispose() {
 		disposeVolatileCycles();
+		invalidate();
 		lock.lock();
 		try {
 			for (Entry<String, T> pair : cycles.entrySet()) {
 				try {
-					pair.getValue().dispose();
+					pair.getValue().dispose(true);
 				} catch (Exception e) {
 					Exits.Log.logp(Exits.Level.Error, Exits.Common.Name, Exits.Common.Error, "Failed to dispose cycle: " + e.getMessage(), e);
 				}
@@ -16,6 +16,7 @@ import havis.middleware.ale.core.subscriber.Subscriber;
 import havis.middleware.ale.core.subscriber.SubscriberController;
 import havis.middleware.ale.core.subscriber.SubscriberListener;
 import havis.middleware.ale.exit.Exits;
+import havis.middleware.ale.service.ec.ECReportSpec;
 import havis.middleware.ale.service.ec.ECReports;
 import havis.middleware.ale.service.ec.ECSpec;
 
@@ -225,7 +226,7 @@ public class EC extends CycleManager<EventCycle> {
 							+ "' already subscribed to event cycle '" + name
 							+ "'");
 				} else {
-					cycle.add(Subscriber.getInstance().get(uri, properties, ECReports.class));
+					cycle.add(Subscriber.getInstance().get(name, uri, properties, ECReports.class));
 					if (persist)
 						depot.add(name, uri);
 				}
@@ -396,15 +397,30 @@ public class EC extends CycleManager<EventCycle> {
 		try {
 			try {
 				SubscriberListener<ECReports> subscriber = new SubscriberListener<ECReports>(1);
-				EventCycle cycle = new EventCycle(null, spec);
+				String key = isCacheable(spec) ? key(spec) : null;
+				long generation = generation();
+				EventCycle cycle = borrow(key);
+				boolean cached = cycle != null;
+				if (!cached) {
+					cycle = new EventCycle(null, spec);
+				}
+				boolean completed = false;
 				try {
 					addVolatileCycle(cycle);
-					cycle.start();
+					if (!cached) {
+						cycle.start();
+					}
 					cycle.add(subscriber);
-					return subscriber.dequeue();
+					ECReports reports = subscriber.dequeue();
+					completed = true;
+					return reports;
 				} finally {
 					removeVolatileCycle(cycle);
-					cycle.dispose();
+					if (completed) {
+						release(key, cycle, generation);
+					} else {
+						cycle.dispose();
+					}
 				}
 			} catch (ValidationException | ImplementationException e) {
 				throw e;
@@ -417,6 +433,21 @@ public class EC extends CycleManager<EventCycle> {
 		}
 	}
 
+	/**
+	 * Returns if the cycle of an immediate call can be reused. Reports only on
+	 * change would depend on the previous call.
+	 */
+	private static boolean isCacheable(ECSpec spec) {
+		if (spec.getReportSpecs() != null && spec.getReportSpecs().getReportSpec() != null) {
+			for (ECReportSpec reportSpec : spec.getReportSpecs().getReportSpec()) {
+				if (reportSpec.isReportOnlyOnChange()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Gets the list of subscribers from event cycle <paramref name="name"/>
 	 *
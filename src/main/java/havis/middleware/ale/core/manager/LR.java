@@ -178,6 +178,8 @@ public class LR {
 	 *             instance or not free
 	 */
 	public void remove(String name) throws ImplementationException {
+		// release the readers locked by cached immediate cycles
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			LogicalReader reader = readers.get(name);
@@ -215,6 +217,7 @@ public class LR {
 			ValidationException, NoSuchNameException, ReaderLoopException,
 			ImmutableReaderException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.LR.Name, Exits.Service.LR.Update, "Update {0} {1}", new Object[] { name, spec });
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -253,6 +256,7 @@ public class LR {
 			throws ImplementationException, NoSuchNameException,
 			InUseException, ImmutableReaderException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.LR.Name, Exits.Service.LR.Undefine, "Undefine {0}", name);
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -340,6 +344,7 @@ public class LR {
 			ImplementationException, InUseException, ValidationException,
 			ReaderLoopException, ImmutableReaderException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.LR.Name, Exits.Service.LR.AddReaders, "Add readers {0} {1}", new Object[] { name, readers });
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -382,6 +387,7 @@ public class LR {
 			ImplementationException, InUseException, ValidationException,
 			ReaderLoopException, ImmutableReaderException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.LR.Name, Exits.Service.LR.SetReaders, "Set readers {0} {1}", new Object[] { name, readers });
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -423,6 +429,7 @@ public class LR {
 			throws NoSuchNameException, NonCompositeReaderException,
 			ImplementationException, InUseException, ImmutableReaderException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.LR.Name, Exits.Service.LR.RemoveReaders, "Remove readers {0} {1}", new Object[] { name, readers });
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -462,6 +469,7 @@ public class LR {
 			boolean persist) throws ImplementationException, InUseException,
 			ValidationException, NoSuchNameException, ImmutableReaderException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.LR.Name, Exits.Service.LR.SetProperties, "Set properties {0} {1}", new Object[] { name, properties });
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -234,7 +234,7 @@ public class PC extends CycleManager<PortCycle> {
 							+ "' already subscribed to port cycle '" + name
 							+ "'");
 				} else {
-					cycle.add(Subscriber.getInstance().get(uri, properties, PCReports.class));
+					cycle.add(Subscriber.getInstance().get(name, uri, properties, PCReports.class));
 					if (persist)
 						depot.add(name, uri);
 				}
@@ -404,15 +404,30 @@ public class PC extends CycleManager<PortCycle> {
 		try {
 			try {
 				SubscriberListener<PCReports> subscriber = new SubscriberListener<PCReports>(1);
-				PortCycle cycle = new PortCycle(null, spec);
+				String key = key(spec);
+				long generation = generation();
+				PortCycle cycle = borrow(key);
+				boolean cached = cycle != null;
+				if (!cached) {
+					cycle = new PortCycle(null, spec);
+				}
+				boolean completed = false;
 				try {
 					addVolatileCycle(cycle);
-					cycle.start();
+					if (!cached) {
+						cycle.start();
+					}
 					cycle.add(subscriber);
-					return subscriber.dequeue();
+					PCReports reports = subscriber.dequeue();
+					completed = true;
+					return reports;
 				} finally {
 					removeVolatileCycle(cycle);
-					cycle.dispose();
+					if (completed) {
+						release(key, cycle, generation);
+					} else {
+						cycle.dispose();
+					}
 				}
 			} catch (ValidationException | ImplementationException e) {
 				throw e;
@@ -74,6 +74,7 @@ public class TM {
 			throws DuplicateNameException, ValidationException,
 			ImplementationException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.TM.Name, Exits.Service.TM.Define, "Define {0} {1}", new Object[] { name, spec });
+		CycleManager.invalidateAll();
         try {
             lock.lock();
             try {
@@ -132,6 +133,7 @@ public class TM {
 	public void undefine(String name, boolean persist)
 			throws NoSuchNameException, InUseException, ImplementationException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.TM.Name, Exits.Service.TM.Undefine, "Undefine {0}", name);
+		CycleManager.invalidateAll();
 		try {
             lock.lock();
             try {
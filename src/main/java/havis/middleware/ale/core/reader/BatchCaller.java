@@ -0,0 +1,26 @@
+package havis.middleware.ale.core.reader;
+
+import havis.middleware.ale.base.operation.Data;
+
+import java.util.List;
+
+/**
+ * Delegate for reporting reader results which accepts all results of one
+ * notification round at once
+ * 
+ * @param <T>
+ *            The data type
+ */
+public interface BatchCaller<T extends Data> extends Caller<T> {
+
+	/**
+	 * Invokes the caller once for a list of results in the order they were
+	 * reported
+	 * 
+	 * @param list
+	 *            The data list
+	 * @param controller
+	 *            The controller
+	 */
+	void invoke(List<T> list, ReaderController controller);
+}
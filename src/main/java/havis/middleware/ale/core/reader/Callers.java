@@ -0,0 +1,37 @@
+package havis.middleware.ale.core.reader;
+
+import havis.middleware.ale.base.operation.Data;
+
+import java.util.List;
+
+/**
+ * Provides the invocation of callers with a list of results
+ */
+public final class Callers {
+
+	private Callers() {
+	}
+
+	/**
+	 * Invokes the caller with the list. A {@link BatchCaller} is invoked once,
+	 * any other caller is invoked for each element of the list.
+	 * 
+	 * @param caller
+	 *            The caller
+	 * @param list
+	 *            The data list
+	 * @param controller
+	 *            The controller
+	 */
+	public static <T extends Data> void invoke(Caller<T> caller, List<T> list, ReaderController controller) {
+		if (list.size() > 0) {
+			if (caller instanceof BatchCaller) {
+				((BatchCaller<T>) caller).invoke(list, controller);
+			} else {
+				for (T t : list) {
+					caller.invoke(t, controller);
+				}
+			}
+		}
+	}
+}
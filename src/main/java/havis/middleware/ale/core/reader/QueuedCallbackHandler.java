@@ -6,22 +6,45 @@ import havis.middleware.ale.base.message.MessageHandler;
 import havis.middleware.ale.base.operation.Data;
 import havis.middleware.ale.base.operation.port.Port;
 import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.Execution;
 import havis.middleware.ale.core.config.Config;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.utils.threading.Pipeline;
 import havis.util.monitor.ReaderEvent;
 import havis.util.monitor.ReaderSource;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Implements the callback handler interface
+ * Implements the callback handler interface. Notifications are processed in
+ * order by one loop per pipeline or, in shared execution mode, by one serial
+ * executor per pipeline. Pending tag notifications are drained in batches and
+ * consecutive notifications of the same operation are handed to the receiver
+ * as one list, i.e. one inventory round. The maximum batch size can be set by
+ * the system property {@value #BATCH_SIZE}.
  */
 public class QueuedCallbackHandler implements CallbackHandler {
 
+	private static final String BATCH_SIZE = "havis.middleware.ale.reader.batchSize";
+
+	private static final int batchSize = Math.max(1, Integer.getInteger(BATCH_SIZE, 1024).intValue());
+
+	/**
+	 * Marks the end of the tag queue
+	 */
+	private static final Notify DISPOSED = new Notify(0, null);
+
 	private static final int MIN_PORT = 11000;
 
 	// array index + MIN_PORT = used port
@@ -33,9 +56,11 @@ public class QueuedCallbackHandler implements CallbackHandler {
 	// default timeout of 60s until a port is really free
 	private static final long PORT_BLOCKED_DELAY = 60500;
 
-	private Pipeline<Notify> tagPipeline = new Pipeline<>();
+	private BlockingQueue<Notify> tagQueue = new LinkedBlockingQueue<>();
+	private AtomicBoolean tagScheduled = new AtomicBoolean();
 	private Pipeline<Notify> portPipeline = new Pipeline<>();
 	private Thread portThread, tagThread;
+	private ExecutorService portExecutor, tagExecutor;
 
 	private MessageHandler messageHandler;
 	private ReaderSource source;
@@ -51,20 +76,26 @@ public class QueuedCallbackHandler implements CallbackHandler {
 		this.source = source;
 		receivers = new HashMap<>();
 
-		tagThread = new Thread(new Runnable() {
-			@Override
-			public void run() {
-				processTagNotifications();
-			}
-		}, this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]") + " tag notify()");
-		tagThread.start();
-		portThread = new Thread(new Runnable() {
-			@Override
-			public void run() {
-				processPortNotifications();
-			}
-		}, this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]") + " port notify()");
-		portThread.start();
+		Execution execution = Execution.getInstance();
+		if (execution.getMode() == Execution.Mode.SHARED) {
+			tagExecutor = execution.newSerialExecutor(this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]") + " tag notify()");
+			portExecutor = execution.newSerialExecutor(this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]") + " port notify()");
+		} else {
+			tagThread = execution.newThread(new Runnable() {
+				@Override
+				public void run() {
+					processTagNotifications();
+				}
+			}, this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]") + " tag notify()");
+			tagThread.start();
+			portThread = execution.newThread(new Runnable() {
+				@Override
+				public void run() {
+					processPortNotifications();
+				}
+			}, this.getClass().getSimpleName() + " " + (this.name != null ? this.name : "[no name]") + " port notify()");
+			portThread.start();
+		}
 	}
 
 	@Override
@@ -141,7 +172,10 @@ public class QueuedCallbackHandler implements CallbackHandler {
 				Exits.Log.logp(Exits.Level.Detail, Exits.Reader.Controller.Callback.Name, Exits.Reader.Controller.Callback.NotifyTag, "{0} received {1}",
 						new Object[] { name, tag.tag() });
 			}
-			tagPipeline.enqueue(new Notify(id, tag));
+			tagQueue.offer(new Notify(id, tag));
+			if (tagExecutor != null) {
+				scheduleTagNotifications();
+			}
 		}
 	}
 
@@ -150,7 +184,7 @@ public class QueuedCallbackHandler implements CallbackHandler {
 		if (port != null) {
 			Exits.Log.logp(Exits.Level.Detail, Exits.Reader.Controller.Callback.Name, Exits.Reader.Controller.Callback.NotifyPort, "{0} received {1}",
 					new Object[] { name, port.port() });
-			portPipeline.enqueue(new Notify(id, port));
+			enqueue(portPipeline, portExecutor, new Notify(id, port));
 		}
 	}
 
@@ -165,8 +199,64 @@ public class QueuedCallbackHandler implements CallbackHandler {
 		Connector.getFactory().getBroker().notify(this.source, event);
 	}
 
+	private void enqueue(Pipeline<Notify> pipeline, ExecutorService executor, final Notify notify) {
+		if (executor == null) {
+			pipeline.enqueue(notify);
+		} else {
+			try {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						process(notify);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// disposed
+			}
+		}
+	}
+
+	private void scheduleTagNotifications() {
+		if (tagScheduled.compareAndSet(false, true)) {
+			try {
+				tagExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						List<Notify> batch = new ArrayList<>();
+						tagQueue.drainTo(batch, batchSize);
+						try {
+							process(batch);
+						} finally {
+							tagScheduled.set(false);
+							if (!tagQueue.isEmpty()) {
+								scheduleTagNotifications();
+							}
+						}
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// disposed
+			}
+		}
+	}
+
 	public void processTagNotifications() {
-		while (processNotifications(tagPipeline)) {
+		List<Notify> batch = new ArrayList<>();
+		while (true) {
+			try {
+				batch.add(tagQueue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			tagQueue.drainTo(batch, batchSize - 1);
+			int index = batch.indexOf(DISPOSED);
+			if (index < 0) {
+				process(batch);
+				batch.clear();
+			} else {
+				process(batch.subList(0, index));
+				return;
+			}
 		}
 	}
 
@@ -178,28 +268,74 @@ public class QueuedCallbackHandler implements CallbackHandler {
 	private boolean processNotifications(Pipeline<Notify> pipeline) {
 		Notify notify = pipeline.dequeue();
 		if (notify != null) {
+			process(notify);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Processes the notifications in order. Consecutive notifications for the
+	 * same receiver are received as one list.
+	 * 
+	 * @param batch
+	 *            The notifications
+	 */
+	private void process(List<Notify> batch) {
+		int start = 0;
+		while (start < batch.size()) {
+			long id = batch.get(start).getId();
+			int end = start + 1;
+			while ((end < batch.size()) && (batch.get(end).getId() == id)) {
+				end++;
+			}
 			@SuppressWarnings("unchecked")
-			Receiver<Data> receiver = (Receiver<Data>) get(notify.getId());
+			Receiver<Data> receiver = (Receiver<Data>) get(id);
 			if (receiver != null) {
-				receiver.receive(notify.getData());
+				if (end - start == 1) {
+					receiver.receive(batch.get(start).getData());
+				} else {
+					List<Data> list = new ArrayList<>(end - start);
+					for (int i = start; i < end; i++) {
+						list.add(batch.get(i).getData());
+					}
+					receiver.receive(list);
+				}
 			}
-			return true;
+			start = end;
+		}
+	}
+
+	private void process(Notify notify) {
+		@SuppressWarnings("unchecked")
+		Receiver<Data> receiver = (Receiver<Data>) get(notify.getId());
+		if (receiver != null) {
+			receiver.receive(notify.getData());
 		}
-		return false;
 	}
 
 	@Override
 	public void dispose() {
-		tagPipeline.dispose();
 		try {
-			tagThread.join();
+			if (tagThread != null) {
+				tagQueue.offer(DISPOSED);
+				tagThread.join();
+			} else {
+				tagExecutor.shutdown();
+				tagExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
 
 		portPipeline.dispose();
 		try {
-			portThread.join();
+			if (portThread != null) {
+				portThread.join();
+			} else {
+				portExecutor.shutdown();
+				portExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
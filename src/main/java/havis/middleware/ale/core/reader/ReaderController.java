@@ -13,13 +13,13 @@ import havis.middleware.ale.base.operation.tag.Filter;
 import havis.middleware.ale.base.operation.tag.Operation;
 import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.base.operation.tag.TagOperation;
+import havis.middleware.ale.core.Execution;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.ale.reader.Capability;
 import havis.middleware.ale.reader.Prefix;
 import havis.middleware.ale.reader.Property;
 import havis.middleware.ale.reader.ReaderConnector;
 import havis.middleware.ale.service.rc.RCConfig;
-import havis.middleware.utils.threading.NamedThreadFactory;
 import havis.util.monitor.ReconnectError;
 import havis.util.monitor.VisibilityChanged;
 
@@ -27,11 +27,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -51,6 +51,21 @@ public class ReaderController implements MessageHandler {
 	private static final int DEFAULT_EXECUTE_TIMEOUT = 3000;
 	private static final int DEFAULT_RECONNECT_DELAY = 2000;
 	private static final boolean DEFAULT_OPTIMIZE_WRITE_OPERATIONS = true;
+	private static final int DEFAULT_WINDOW = 1;
+	private static final boolean DEFAULT_MULTIPLEX = false;
+
+	/**
+	 * Controller property for the maximum number of tag operations in flight
+	 * on the reader, tag operations are executed one after another by default
+	 */
+	public static final String WINDOW = Prefix.Controller + "Window";
+
+	/**
+	 * Controller property to share one physical tag operation between all
+	 * defined tag operations without filter which only read fields, see
+	 * {@link SharedTagOperator}
+	 */
+	public static final String MULTIPLEX = Prefix.Controller + "Multiplex";
 
 	private long id;
 	private String name;
@@ -66,9 +81,10 @@ public class ReaderController implements MessageHandler {
 	private CallbackHandler callbackHandler;
 
 	private Map<Integer, TagOperator> operators;
+	private SharedTagOperator shared;
 	private Map<Integer, PortObservator> observators;
 
-	private ExecutorService portExecutor, tagExecutor, reconnectExecutor;
+	private ExecutorService portExecutor, tagExecutor, timeoutExecutor, reconnectExecutor;
 	private Runnable reconnectCommand = new Runnable() {
 		@Override
 		public void run() {
@@ -83,8 +99,16 @@ public class ReaderController implements MessageHandler {
 	private int executeTimeout = DEFAULT_EXECUTE_TIMEOUT;
 	private int reconnectDelay = DEFAULT_RECONNECT_DELAY;
 	private boolean optimizeWriteOperations = DEFAULT_OPTIMIZE_WRITE_OPERATIONS;
+	private volatile int window = DEFAULT_WINDOW;
+	private boolean multiplex = DEFAULT_MULTIPLEX;
 	private Lock lock = new ReentrantLock();
 
+	/**
+	 * The monitor for the tag operations in flight
+	 */
+	private final Object flight = new Object();
+	private int inflight;
+
 	/**
 	 * Initializes a new instance of the ReaderController class, using a set
 	 * of parameters that specify which {@link ReaderConnector} implementation
@@ -104,12 +128,14 @@ public class ReaderController implements MessageHandler {
 			ValidationException {
 		this.name = name;
 
-		portExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory(this.getClass().getSimpleName() + " "
-				+ (this.name != null ? this.name : "[no name]") + " port execute()"));
-		tagExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory(this.getClass().getSimpleName() + " "
-				+ (this.name != null ? this.name : "[no name]") + " tag execute()"));
-		reconnectExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory(this.getClass().getSimpleName() + " "
-				+ (this.name != null ? this.name : "[no name]") + " reconnect()"));
+		portExecutor = Execution.getInstance().newSerialExecutor(this.getClass().getSimpleName() + " "
+				+ (this.name != null ? this.name : "[no name]") + " port execute()");
+		tagExecutor = Execution.getInstance().newSerialExecutor(this.getClass().getSimpleName() + " "
+				+ (this.name != null ? this.name : "[no name]") + " tag execute()");
+		timeoutExecutor = Execution.getInstance().newSerialExecutor(this.getClass().getSimpleName() + " "
+				+ (this.name != null ? this.name : "[no name]") + " tag timeout()");
+		reconnectExecutor = Execution.getInstance().newSerialExecutor(this.getClass().getSimpleName() + " "
+				+ (this.name != null ? this.name : "[no name]") + " reconnect()");
 
 		this.connector = connector;
 		this.properties = properties;
@@ -318,6 +344,39 @@ public class ReaderController implements MessageHandler {
 		} else {
 			this.optimizeWriteOperations = DEFAULT_OPTIMIZE_WRITE_OPERATIONS;
 		}
+		String window = properties.get(WINDOW);
+		if (window != null) {
+			try {
+				int value = Integer.parseInt(window);
+				if (value < 1) {
+					throw new ValidationException("'Window' property value should be a positive number");
+				}
+				setWindow(value);
+			} catch (NumberFormatException e) {
+				throw new ValidationException("Could not parse 'Window' property value. " + e.getMessage());
+			}
+		} else {
+			setWindow(DEFAULT_WINDOW);
+		}
+		String multiplex = properties.get(MULTIPLEX);
+		if (multiplex != null) {
+			if (multiplex.equalsIgnoreCase(Boolean.TRUE.toString())) {
+				this.multiplex = true;
+			} else if (multiplex.equalsIgnoreCase(Boolean.FALSE.toString())) {
+				this.multiplex = false;
+			} else {
+				throw new ValidationException("Could not parse 'Multiplex' property value.");
+			}
+		} else {
+			this.multiplex = DEFAULT_MULTIPLEX;
+		}
+	}
+
+	private void setWindow(int window) {
+		synchronized (flight) {
+			this.window = window;
+			flight.notifyAll();
+		}
 	}
 
 	/**
@@ -336,6 +395,8 @@ public class ReaderController implements MessageHandler {
 			case Property.Controller.OptimizeWriteOperations:
 			case Property.Controller.ReconnectDelay:
 			case Property.Controller.Timeout:
+			case WINDOW:
+			case MULTIPLEX:
 				break;
 			default:
 				if (property.getKey().startsWith(Prefix.Controller)) {
@@ -369,7 +430,9 @@ public class ReaderController implements MessageHandler {
 	}
 
 	/**
-	 * Method to define a new tag operation on the reader connector.
+	 * Method to define a new tag operation on the reader connector. If
+	 * multiplexing is enabled, tag operations which are shareable are merged
+	 * into one physical tag operation.
 	 *
 	 * @param operation
 	 *            The tag operation to define
@@ -388,10 +451,25 @@ public class ReaderController implements MessageHandler {
 			connect();
 			TagOperator operator = operators.get(Integer.valueOf(operation.getId()));
 			if (operator == null) {
-				operator = new TagOperator(this.callbackHandler, next(), this, connector, operation);
-				operators.put(Integer.valueOf(operation.getId()), operator);
+				if (multiplex && SharedTagOperator.isShareable(operation)) {
+					if (shared == null) {
+						shared = new SharedTagOperator(this.callbackHandler, next(), this, connector);
+					}
+					operator = shared;
+				} else {
+					operator = new TagOperator(this.callbackHandler, next(), this, connector, operation);
+				}
 			}
-			operator.put(name, caller);
+			try {
+				operator.put(operation, name, caller);
+			} catch (ValidationException | ImplementationException e) {
+				if (!operator.hasCallers()) {
+					dispose(operator);
+					disconnect();
+				}
+				throw e;
+			}
+			operators.put(Integer.valueOf(operation.getId()), operator);
 		} finally {
 			lock.unlock();
 		}
@@ -412,11 +490,13 @@ public class ReaderController implements MessageHandler {
 			lock.lock();
 			TagOperator operator = operators.get(Integer.valueOf(operation.getId()));
 			if (operator != null) {
-				operator.remove(name); // remove caller
-				if (!operator.hasCallers()) {
+				operator.remove(operation, name); // remove caller
+				if (!operator.hasCallers(operation)) {
 					// no callers left, remove operation
 					operators.remove(Integer.valueOf(operation.getId()));
-					operator.dispose();
+					if (!operator.hasCallers()) {
+						dispose(operator);
+					}
 					disconnect();
 				}
 			}
@@ -425,6 +505,20 @@ public class ReaderController implements MessageHandler {
 		}
 	}
 
+	/**
+	 * Disposes a tag operator without callers
+	 *
+	 * @param operator
+	 *            The tag operator
+	 * @throws ImplementationException
+	 */
+	private void dispose(TagOperator operator) throws ImplementationException {
+		if (operator == shared) {
+			shared = null;
+		}
+		operator.dispose();
+	}
+
 	/**
 	 * Method to enable a tag operation on the reader connector.After this
 	 * method the reader connector will report result using the given callback
@@ -439,7 +533,7 @@ public class ReaderController implements MessageHandler {
 			lock.lock();
 			TagOperator operator = operators.get(Integer.valueOf(operation.getId()));
 			if (operator != null) {
-				operator.enable();
+				operator.enable(operation);
 			}
 		} finally {
 			lock.unlock();
@@ -459,7 +553,7 @@ public class ReaderController implements MessageHandler {
 			lock.lock();
 			TagOperator operator = operators.get(Integer.valueOf(operation.getId()));
 			if (operator != null) {
-				operator.disable();
+				operator.disable(operation);
 			}
 		} finally {
 			lock.unlock();
@@ -469,7 +563,8 @@ public class ReaderController implements MessageHandler {
 	/**
 	 * Method to define a tag operation and execute it once. This method will
 	 * enqueue the tag operation which will be later processed by the run method
-	 * of this class.
+	 * of this class. If the window is greater than one, the operation is
+	 * started without waiting for the results of previous operations.
 	 *
 	 * @param name
 	 *            The logical reader name
@@ -508,10 +603,20 @@ public class ReaderController implements MessageHandler {
 									executeTimeout, optimizeWriteOperations, errorState);
 							executor.execute();
 						}
-					} else {
+					} else if (window <= 1) {
 						TagExecutor executor = new TagExecutor(callbackHandler, next(), ReaderController.this, connector, name, caller, operation,
 								executeTimeout, optimizeWriteOperations, errorState);
 						executor.execute();
+					} else if (acquire()) {
+						// pipelined, the result is correlated by the operation id
+						TagExecutor executor = new TagExecutor(callbackHandler, next(), ReaderController.this, connector, name, caller, operation,
+								executeTimeout, optimizeWriteOperations, errorState);
+						executor.start(timeoutExecutor, new Runnable() {
+							@Override
+							public void run() {
+								release();
+							}
+						});
 					}
 				}
 			});
@@ -520,6 +625,33 @@ public class ReaderController implements MessageHandler {
 		}
 	}
 
+	/**
+	 * Waits until the number of tag operations in flight is below the window
+	 *
+	 * @return False if interrupted, true otherwise
+	 */
+	private boolean acquire() {
+		synchronized (flight) {
+			while (inflight >= window) {
+				try {
+					flight.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			inflight++;
+			return true;
+		}
+	}
+
+	private void release() {
+		synchronized (flight) {
+			inflight--;
+			flight.notifyAll();
+		}
+	}
+
 	/**
 	 * Defines a port observation on a reader connector.
 	 *
@@ -662,7 +794,8 @@ public class ReaderController implements MessageHandler {
 		connected = false;
         lock.lock();
         try {
-            for (TagOperator operator : operators.values()) {
+            // shared operators are mapped by several tag operations
+            for (TagOperator operator : new HashSet<>(operators.values())) {
                 try {
                 	operator.dispose();
                 } catch (Exception e) {
@@ -670,6 +803,7 @@ public class ReaderController implements MessageHandler {
                 }
             }
             operators.clear();
+            shared = null;
             for (PortObservator observator : observators.values()) {
                 try {
                 	observator.dispose();
@@ -682,6 +816,7 @@ public class ReaderController implements MessageHandler {
             lock.unlock();
         }
         tagExecutor.shutdownNow();
+        timeoutExecutor.shutdownNow();
         portExecutor.shutdownNow();
         reconnectExecutor.shutdownNow();
         Connector.getFactory().getBroker().notify(this.connector, new VisibilityChanged(new Date(), false));
@@ -5,6 +5,8 @@ import havis.middleware.ale.base.operation.Data;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.ale.reader.ReaderConnector;
 
+import java.util.List;
+
 public abstract class Receiver<T extends Data> {
 
 	private CallbackHandler callbackHandler;
@@ -27,6 +29,18 @@ public abstract class Receiver<T extends Data> {
 
 	public abstract void receive(T data);
 
+	/**
+	 * Receives the data of one notification round in order
+	 * 
+	 * @param list
+	 *            The data list
+	 */
+	public void receive(List<T> list) {
+		for (T data : list) {
+			receive(data);
+		}
+	}
+
 	public void error(String name, String text, Exception e) {
 		Exits.Log.logp(Exits.Level.Error, Exits.Reader.Controller.Name, Exits.Reader.Controller.Error, text + ": " + e.getMessage(), e);
 	}
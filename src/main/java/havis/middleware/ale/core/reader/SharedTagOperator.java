@@ -0,0 +1,344 @@
+package havis.middleware.ale.core.reader;
+
+import havis.middleware.ale.base.exception.ImplementationException;
+import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.base.operation.tag.Field;
+import havis.middleware.ale.base.operation.tag.Operation;
+import havis.middleware.ale.base.operation.tag.OperationType;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.TagOperation;
+import havis.middleware.ale.base.operation.tag.result.Result;
+import havis.middleware.ale.reader.ReaderConnector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tag operator which shares one physical tag operation between several tag
+ * operations of different cycles. The physical tag operation reads the union
+ * of the fields of all member operations. Each result is demultiplexed to the
+ * callers of every enabled member, using the operation identifiers of the
+ * member. Only tag operations without filter which consist of read operations
+ * can be shared, see {@link #isShareable(TagOperation)}. The physical tag
+ * operation is redefined whenever a field is added to or removed from the
+ * union, which disables it for a moment and thereby interrupts the reads of
+ * all members.
+ */
+class SharedTagOperator extends TagOperator {
+
+	/**
+	 * A tag operation sharing the physical tag operation
+	 */
+	private static class Member {
+		final Map<String, Caller<Tag>> callers = new ConcurrentHashMap<>();
+		final Integer[] ids;
+		final Integer[] physical;
+		final String[] fields;
+		volatile boolean enabled;
+
+		Member(Integer[] ids, Integer[] physical, String[] fields) {
+			this.ids = ids;
+			this.physical = physical;
+			this.fields = fields;
+		}
+	}
+
+	/**
+	 * A physical read operation and the number of member operations using it
+	 */
+	private static class Slot {
+		final Operation operation;
+		int count;
+
+		Slot(Operation operation) {
+			this.operation = operation;
+		}
+	}
+
+	private final Map<Integer, Member> members = new HashMap<>();
+	private final Map<String, Slot> slots = new LinkedHashMap<>();
+	private volatile List<Member> snapshot = Collections.emptyList();
+	private boolean defined;
+	private int next;
+
+	SharedTagOperator(CallbackHandler callbackHandler, long id, ReaderController controller, ReaderConnector connector) {
+		super(callbackHandler, id, controller, connector);
+	}
+
+	/**
+	 * Returns whether the tag operation can share a physical tag operation
+	 *
+	 * @param operation
+	 *            The tag operation
+	 * @return True if the tag operation has no filter and only reads fields
+	 */
+	static boolean isShareable(TagOperation operation) {
+		if ((operation.getFilter() != null) && (operation.getFilter().size() > 0)) {
+			return false;
+		}
+		if (operation.getOperations() != null) {
+			for (Operation op : operation.getOperations()) {
+				if ((op.getType() != OperationType.READ) || (op.getField() == null)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static String key(Field field) {
+		return field.getBank() + ":" + field.getOffset() + ":" + field.getLength();
+	}
+
+	@Override
+	void put(TagOperation operation, String name, Caller<Tag> caller) throws ValidationException, ImplementationException {
+		Integer key = Integer.valueOf(operation.getId());
+		Member member = members.get(key);
+		if (member == null) {
+			List<Operation> operations = operation.getOperations() != null ? operation.getOperations() : Collections.<Operation> emptyList();
+			Integer[] ids = new Integer[operations.size()];
+			Integer[] physical = new Integer[operations.size()];
+			String[] fields = new String[operations.size()];
+			// the first member defines the physical tag operation
+			boolean changed = members.isEmpty();
+			for (int i = 0; i < ids.length; i++) {
+				Operation op = operations.get(i);
+				fields[i] = key(op.getField());
+				Slot slot = slots.get(fields[i]);
+				if (slot == null) {
+					slot = new Slot(new Operation(++next, OperationType.READ, op.getField()));
+					slots.put(fields[i], slot);
+					changed = true;
+				}
+				slot.count++;
+				ids[i] = Integer.valueOf(op.getId());
+				physical[i] = Integer.valueOf(slot.operation.getId());
+			}
+			member = new Member(ids, physical, fields);
+			members.put(key, member);
+			update();
+			if (changed) {
+				try {
+					redefine();
+				} catch (ValidationException | ImplementationException e) {
+					drop(key);
+					try {
+						redefine();
+					} catch (Exception f) {
+						error(controller.getName(), "An error occurred while restoring shared tag operation", f);
+					}
+					throw e;
+				}
+			}
+		}
+		member.callers.put(name, caller);
+	}
+
+	@Override
+	void remove(TagOperation operation, String name) {
+		Integer key = Integer.valueOf(operation.getId());
+		Member member = members.get(key);
+		if (member != null) {
+			member.callers.remove(name);
+			if (member.callers.isEmpty() && drop(key)) {
+				try {
+					redefine();
+				} catch (Exception e) {
+					error(controller.getName(), "An error occurred while redefining shared tag operation", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes a member
+	 *
+	 * @param key
+	 *            The member key
+	 * @return True if the physical tag operation changed, false otherwise
+	 */
+	private boolean drop(Integer key) {
+		Member member = members.remove(key);
+		boolean changed = false;
+		for (String field : member.fields) {
+			Slot slot = slots.get(field);
+			if ((slot != null) && (--slot.count == 0)) {
+				slots.remove(field);
+				changed = true;
+			}
+		}
+		update();
+		return changed || members.isEmpty();
+	}
+
+	private void update() {
+		snapshot = new ArrayList<>(members.values());
+	}
+
+	private boolean isEnabled() {
+		for (Member member : members.values()) {
+			if (member.enabled) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces the physical tag operation by the union of the current slots
+	 * and enables it again if any member is enabled
+	 */
+	private void redefine() throws ValidationException, ImplementationException {
+		disable();
+		undefine();
+		if (members.size() > 0) {
+			List<Operation> operations = new ArrayList<>(slots.size());
+			for (Slot slot : slots.values()) {
+				operations.add(slot.operation);
+			}
+			operation = new TagOperation(operations, null);
+			define();
+			if (isEnabled()) {
+				enable();
+			}
+		}
+	}
+
+	@Override
+	protected void define() throws ValidationException, ImplementationException {
+		super.define();
+		defined = true;
+	}
+
+	@Override
+	protected void undefine() throws ImplementationException {
+		if (defined) {
+			defined = false;
+			super.undefine();
+		}
+	}
+
+	@Override
+	boolean hasCallers(TagOperation operation) {
+		return members.containsKey(Integer.valueOf(operation.getId()));
+	}
+
+	@Override
+	public boolean hasCallers() {
+		return members.size() > 0;
+	}
+
+	@Override
+	void enable(TagOperation operation) {
+		Member member = members.get(Integer.valueOf(operation.getId()));
+		if (member != null) {
+			member.enabled = true;
+			enable();
+		}
+	}
+
+	@Override
+	void disable(TagOperation operation) {
+		Member member = members.get(Integer.valueOf(operation.getId()));
+		if (member != null) {
+			member.enabled = false;
+			if (!isEnabled()) {
+				disable();
+			}
+		}
+	}
+
+	/**
+	 * Creates a copy of the tag with the results of the member
+	 *
+	 * @param tag
+	 *            The tag of the physical tag operation
+	 * @param member
+	 *            The member
+	 * @return The tag of the member
+	 */
+	private static Tag demultiplex(Tag tag, Member member) {
+		Tag copy = tag.clone();
+		Map<Integer, Result> result = new HashMap<>();
+		if (tag.getResult() != null) {
+			for (int i = 0; i < member.ids.length; i++) {
+				Result r = tag.getResult().get(member.physical[i]);
+				if (r != null) {
+					result.put(member.ids[i], r);
+				}
+			}
+		}
+		copy.setResult(result);
+		return copy;
+	}
+
+	@Override
+	public void receive(Tag tag) {
+		if (active && (tag != null) && isValid(tag)) {
+			for (Member member : snapshot) {
+				if (member.enabled) {
+					Tag t = demultiplex(tag, member);
+					for (Entry<String, Caller<Tag>> caller : member.callers.entrySet()) {
+						try {
+							caller.getValue().invoke(t, controller);
+						} catch (Exception e) {
+							error(caller.getKey(), "An error occurred while notifying tag", e);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void receive(List<Tag> list) {
+		if (active) {
+			List<Tag> tags = new ArrayList<>(list.size());
+			for (Tag tag : list) {
+				if ((tag != null) && isValid(tag)) {
+					tags.add(tag);
+				}
+			}
+			if (tags.size() > 0) {
+				for (Member member : snapshot) {
+					if (member.enabled) {
+						List<Tag> demultiplexed = new ArrayList<>(tags.size());
+						for (Tag tag : tags) {
+							demultiplexed.add(demultiplex(tag, member));
+						}
+						for (Entry<String, Caller<Tag>> caller : member.callers.entrySet()) {
+							if (caller.getValue() instanceof BatchCaller) {
+								try {
+									((BatchCaller<Tag>) caller.getValue()).invoke(demultiplexed, controller);
+								} catch (Exception e) {
+									error(caller.getKey(), "An error occurred while notifying tags", e);
+								}
+							} else {
+								for (Tag tag : demultiplexed) {
+									try {
+										caller.getValue().invoke(tag, controller);
+									} catch (Exception e) {
+										error(caller.getKey(), "An error occurred while notifying tag", e);
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void dispose() throws ImplementationException {
+		members.clear();
+		update();
+		super.dispose();
+	}
+}
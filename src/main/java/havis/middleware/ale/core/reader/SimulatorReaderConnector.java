@@ -0,0 +1,795 @@
+package havis.middleware.ale.core.reader;
+
+import havis.middleware.ale.base.exception.ImplementationException;
+import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.base.operation.port.Pin;
+import havis.middleware.ale.base.operation.port.Port;
+import havis.middleware.ale.base.operation.port.PortObservation;
+import havis.middleware.ale.base.operation.port.PortOperation;
+import havis.middleware.ale.base.operation.port.result.Result.State;
+import havis.middleware.ale.base.operation.tag.Field;
+import havis.middleware.ale.base.operation.tag.Operation;
+import havis.middleware.ale.base.operation.tag.Sighting;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.TagOperation;
+import havis.middleware.ale.base.operation.tag.result.FaultResult;
+import havis.middleware.ale.base.operation.tag.result.KillResult;
+import havis.middleware.ale.base.operation.tag.result.LockResult;
+import havis.middleware.ale.base.operation.tag.result.PasswordResult;
+import havis.middleware.ale.base.operation.tag.result.ReadResult;
+import havis.middleware.ale.base.operation.tag.result.Result;
+import havis.middleware.ale.base.operation.tag.result.ResultState;
+import havis.middleware.ale.base.operation.tag.result.WriteResult;
+import havis.middleware.ale.core.Execution;
+import havis.middleware.ale.core.cycle.TimingWheel;
+import havis.middleware.ale.exit.Exits;
+import havis.middleware.ale.reader.Callback;
+import havis.middleware.ale.reader.Capability;
+import havis.middleware.ale.reader.Prefix;
+import havis.middleware.ale.reader.ReaderConnector;
+import havis.middleware.ale.service.rc.RCConfig;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reader connector which simulates a reader with a population of tags in its
+ * field, for load tests of the whole path from the reader controller to the
+ * reports. The connector is selected by the reader type {@link #TYPE} and
+ * configured by the connector properties of the logical reader:
+ * <ul>
+ * <li>{@link #TAGS}: number of tags in the field, default 100</li>
+ * <li>{@link #READ_RATE}: tag reads per second, default 100</li>
+ * <li>{@link #EPC_SCHEME}: SGTIN-96, SSCC-96, GIAI-96 or RANDOM, default
+ * SGTIN-96</li>
+ * <li>{@link #USER_MEMORY}: size of the user memory in bytes, default 64</li>
+ * <li>{@link #ANTENNAS}: comma separated read weights of the antennas, default
+ * 1</li>
+ * <li>{@link #RSSI_MIN}, {@link #RSSI_MAX}: range of the signal strength,
+ * default -70 to -40</li>
+ * <li>{@link #LATENCY}: delay of executed tag and port operations in
+ * milliseconds, default 0</li>
+ * <li>{@link #SEED}: seed of the random values</li>
+ * </ul>
+ * While connected and a tag operation is enabled, the tags are read round
+ * robin at the read rate. Each read applies the enabled tag operations to the
+ * memory of the tag. Executed tag operations apply to the next tag in the
+ * field which matches the EPC given by the filter. Port operations read and
+ * write simulated pins, changes are reported to the enabled port observations.
+ */
+public class SimulatorReaderConnector implements ReaderConnector {
+
+	/**
+	 * The reader type of this connector
+	 */
+	public final static String TYPE = "Simulator";
+
+	public final static String TAGS = Prefix.Connector + "Tags";
+	public final static String READ_RATE = Prefix.Connector + "ReadRate";
+	public final static String EPC_SCHEME = Prefix.Connector + "EpcScheme";
+	public final static String USER_MEMORY = Prefix.Connector + "UserMemory";
+	public final static String ANTENNAS = Prefix.Connector + "Antennas";
+	public final static String RSSI_MIN = Prefix.Connector + "RssiMin";
+	public final static String RSSI_MAX = Prefix.Connector + "RssiMax";
+	public final static String LATENCY = Prefix.Connector + "Latency";
+	public final static String SEED = Prefix.Connector + "Seed";
+
+	/**
+	 * The EPC schemes of the simulated tags
+	 */
+	enum Scheme {
+		SGTIN_96, SSCC_96, GIAI_96, RANDOM;
+	}
+
+	private final static int RESERVED = 0;
+	private final static int EPC = 1;
+	private final static int TID = 2;
+	private final static int USER = 3;
+
+	private final static int COMPANY_PREFIX = 614141;
+	private final static int ITEM_REFERENCE = 812345;
+
+	/**
+	 * The period of the inventory loop in milliseconds
+	 */
+	private final static int PERIOD = 10;
+
+	/**
+	 * A simulated tag
+	 */
+	static class SimulatedTag {
+		final byte[][] banks = new byte[4][];
+		boolean killed;
+
+		synchronized byte[] getEpc() {
+			byte[] bank = banks[EPC];
+			int length = Math.min(((bank[2] & 0xFF) >>> 3) * 2, bank.length - 4);
+			return Arrays.copyOfRange(bank, 4, 4 + length);
+		}
+
+		synchronized byte[] getTid() {
+			return banks[TID].clone();
+		}
+	}
+
+	private Callback callback;
+	private String name = TYPE;
+
+	private final Map<Long, TagOperation> operations = new ConcurrentHashMap<>();
+	private final Map<Long, TagOperation> enabled = new ConcurrentHashMap<>();
+	private final Map<Long, PortObservation> observations = new ConcurrentHashMap<>();
+	private final Map<Long, PortObservation> observed = new ConcurrentHashMap<>();
+	private final Map<String, Byte> pins = new ConcurrentHashMap<>();
+
+	private volatile SimulatedTag[] population = new SimulatedTag[0];
+	private volatile int readRate = 100;
+	private volatile int[] antennas = new int[] { 1 };
+	private volatile int rssiMin = -70;
+	private volatile int rssiMax = -40;
+	private volatile int latency;
+	private volatile Random random = new Random();
+
+	private volatile boolean connected;
+	private Thread thread;
+	private ExecutorService executor;
+	private int next;
+
+	/**
+	 * Creates a new instance with the default population
+	 */
+	public SimulatorReaderConnector() {
+		try {
+			setProperties(new HashMap<String, String>());
+		} catch (ValidationException e) {
+			// defaults are valid
+		}
+	}
+
+	private static int parse(Map<String, String> properties, String key, int value, int min) throws ValidationException {
+		String property = properties.get(key);
+		if (property != null) {
+			try {
+				value = Integer.parseInt(property.trim());
+			} catch (NumberFormatException e) {
+				throw new ValidationException("Could not parse '" + key + "' property value. " + e.getMessage());
+			}
+			if (value < min) {
+				throw new ValidationException("'" + key + "' property value should be at least " + min);
+			}
+		}
+		return value;
+	}
+
+	private static int[] parseAntennas(String property) throws ValidationException {
+		String[] values = property.split(",");
+		int[] weights = new int[values.length];
+		int total = 0;
+		for (int i = 0; i < values.length; i++) {
+			try {
+				weights[i] = Integer.parseInt(values[i].trim());
+			} catch (NumberFormatException e) {
+				throw new ValidationException("Could not parse '" + ANTENNAS + "' property value. " + e.getMessage());
+			}
+			if (weights[i] < 0) {
+				throw new ValidationException("'" + ANTENNAS + "' property value should contain positive weights");
+			}
+			total += weights[i];
+		}
+		if (total == 0) {
+			throw new ValidationException("'" + ANTENNAS + "' property value should contain at least one weight above zero");
+		}
+		return weights;
+	}
+
+	@Override
+	public void setProperties(Map<String, String> properties) throws ValidationException {
+		int tags = parse(properties, TAGS, 100, 0);
+		int readRate = parse(properties, READ_RATE, 100, 0);
+		int userMemory = parse(properties, USER_MEMORY, 64, 0);
+		int rssiMin = parse(properties, RSSI_MIN, -70, -1000);
+		int rssiMax = parse(properties, RSSI_MAX, -40, rssiMin);
+		int latency = parse(properties, LATENCY, 0, 0);
+
+		Scheme scheme = Scheme.SGTIN_96;
+		String value = properties.get(EPC_SCHEME);
+		if (value != null) {
+			try {
+				scheme = Scheme.valueOf(value.trim().toUpperCase().replace('-', '_'));
+			} catch (IllegalArgumentException e) {
+				throw new ValidationException("Unknown '" + EPC_SCHEME + "' property value '" + value + "'");
+			}
+		}
+
+		int[] antennas = new int[] { 1 };
+		value = properties.get(ANTENNAS);
+		if (value != null) {
+			antennas = parseAntennas(value);
+		}
+
+		Random random = new Random();
+		value = properties.get(SEED);
+		if (value != null) {
+			try {
+				random = new Random(Long.parseLong(value.trim()));
+			} catch (NumberFormatException e) {
+				throw new ValidationException("Could not parse '" + SEED + "' property value. " + e.getMessage());
+			}
+		}
+
+		SimulatedTag[] population = new SimulatedTag[tags];
+		for (int i = 0; i < tags; i++) {
+			population[i] = create(i, scheme, userMemory, random);
+		}
+
+		synchronized (this) {
+			this.random = random;
+			this.population = population;
+			this.next = 0;
+		}
+		this.readRate = readRate;
+		this.antennas = antennas;
+		this.rssiMin = rssiMin;
+		this.rssiMax = rssiMax;
+		this.latency = latency;
+	}
+
+	/**
+	 * Creates a simulated tag
+	 *
+	 * @param index
+	 *            The index of the tag in the population
+	 * @param scheme
+	 *            The EPC scheme
+	 * @param userMemory
+	 *            The size of the user memory in bytes
+	 * @param random
+	 *            The random values
+	 * @return The tag
+	 */
+	static SimulatedTag create(int index, Scheme scheme, int userMemory, Random random) {
+		SimulatedTag tag = new SimulatedTag();
+		tag.banks[RESERVED] = new byte[8];
+
+		// stored CRC, PC and 128 bits of EPC memory, 96 bits are used
+		byte[] epc = new byte[4 + 16];
+		int serial = index + 1;
+		switch (scheme) {
+		case SGTIN_96:
+			put(epc, 32, 8, 0x30);
+			put(epc, 40, 3, 1);
+			put(epc, 43, 3, 5);
+			put(epc, 46, 24, COMPANY_PREFIX);
+			put(epc, 70, 20, ITEM_REFERENCE);
+			put(epc, 90, 38, serial);
+			break;
+		case SSCC_96:
+			put(epc, 32, 8, 0x31);
+			put(epc, 40, 3, 0);
+			put(epc, 43, 3, 5);
+			put(epc, 46, 24, COMPANY_PREFIX);
+			put(epc, 70, 34, serial);
+			break;
+		case GIAI_96:
+			put(epc, 32, 8, 0x34);
+			put(epc, 40, 3, 0);
+			put(epc, 43, 3, 5);
+			put(epc, 46, 24, COMPANY_PREFIX);
+			put(epc, 70, 58, serial);
+			break;
+		default:
+			byte[] bytes = new byte[12];
+			random.nextBytes(bytes);
+			System.arraycopy(bytes, 0, epc, 4, bytes.length);
+			break;
+		}
+		// six words of EPC
+		put(epc, 16, 16, 6 << 11);
+		crc(epc);
+		tag.banks[EPC] = epc;
+
+		// allocation class, mask designer and model followed by a serial
+		byte[] tid = new byte[12];
+		tid[0] = (byte) 0xE2;
+		for (int i = 4; i < 8; i++) {
+			tid[i] = (byte) random.nextInt(256);
+		}
+		put(tid, 64, 32, index);
+		tag.banks[TID] = tid;
+
+		tag.banks[USER] = new byte[userMemory];
+		return tag;
+	}
+
+	/**
+	 * Sets the stored CRC of the EPC bank
+	 */
+	private static void crc(byte[] bank) {
+		int length = Math.min(((bank[2] & 0xFF) >>> 3) * 2, bank.length - 4);
+		int crc = 0xFFFF;
+		for (int i = 2; i < 4 + length; i++) {
+			crc ^= (bank[i] & 0xFF) << 8;
+			for (int j = 0; j < 8; j++) {
+				crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+			}
+		}
+		put(bank, 0, 16, ~crc & 0xFFFF);
+	}
+
+	/**
+	 * Writes the lowest bits of the value into the data
+	 */
+	private static void put(byte[] data, int offset, int length, long value) {
+		for (int i = 0; i < length; i++) {
+			set(data, offset + i, ((value >>> (length - 1 - i)) & 1) != 0);
+		}
+	}
+
+	private static boolean get(byte[] data, int bit) {
+		return (data[bit >> 3] & (0x80 >>> (bit & 7))) != 0;
+	}
+
+	private static void set(byte[] data, int bit, boolean value) {
+		if (value) {
+			data[bit >> 3] |= 0x80 >>> (bit & 7);
+		} else {
+			data[bit >> 3] &= ~(0x80 >>> (bit & 7));
+		}
+	}
+
+	/**
+	 * Reads bits of a bank
+	 */
+	static byte[] read(byte[] bank, int offset, int length) {
+		byte[] data = new byte[(length + 7) / 8];
+		for (int i = 0; i < length; i++) {
+			set(data, i, get(bank, offset + i));
+		}
+		return data;
+	}
+
+	/**
+	 * Writes bits to a bank
+	 */
+	static void write(byte[] bank, int offset, int length, byte[] data) {
+		for (int i = 0; i < length; i++) {
+			set(bank, offset + i, get(data, i));
+		}
+	}
+
+	/**
+	 * Applies the operations to the memory of the tag. Operations after the
+	 * first failed operation are not applied and have no result.
+	 *
+	 * @param tag
+	 *            The tag
+	 * @param operation
+	 *            The tag operation
+	 * @return The results by operation identifier
+	 */
+	static Map<Integer, Result> apply(SimulatedTag tag, TagOperation operation) {
+		Map<Integer, Result> results = new HashMap<>();
+		if (operation.getOperations() != null) {
+			synchronized (tag) {
+				for (Operation op : operation.getOperations()) {
+					Result result = apply(tag, op);
+					results.put(Integer.valueOf(op.getId()), result);
+					if (result.getState() != ResultState.SUCCESS) {
+						break;
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	private static Result apply(SimulatedTag tag, Operation op) {
+		Field field = op.getField();
+		byte[] bank = (field != null) && (field.getBank() >= 0) && (field.getBank() < tag.banks.length) ? tag.banks[field.getBank()] : null;
+		switch (op.getType()) {
+		case READ:
+			if (bank == null) {
+				return new FaultResult(ResultState.FIELD_NOT_FOUND_ERROR);
+			} else {
+				int length = field.getLength() > 0 ? field.getLength() : bank.length * 8 - field.getOffset();
+				if ((field.getOffset() < 0) || (length < 0) || (field.getOffset() + length > bank.length * 8)) {
+					return new FaultResult(ResultState.OUT_OF_RANGE_ERROR);
+				}
+				return new ReadResult(ResultState.SUCCESS, read(bank, field.getOffset(), length));
+			}
+		case WRITE:
+			if ((bank == null) || (op.getData() == null)) {
+				return new FaultResult(ResultState.FIELD_NOT_FOUND_ERROR);
+			} else {
+				int length = field.getLength() > 0 ? Math.min(field.getLength(), op.getData().length * 8) : op.getData().length * 8;
+				if ((field.getOffset() < 0) || (field.getOffset() + length > bank.length * 8) || (field.getBank() == TID)) {
+					return new FaultResult(ResultState.OUT_OF_RANGE_ERROR);
+				}
+				write(bank, field.getOffset(), length, op.getData());
+				if (field.getBank() == EPC) {
+					crc(bank);
+				}
+				return new WriteResult(ResultState.SUCCESS);
+			}
+		case KILL:
+			tag.killed = true;
+			return new KillResult(ResultState.SUCCESS);
+		case LOCK:
+			return new LockResult(ResultState.SUCCESS);
+		case PASSWORD:
+			return new PasswordResult(ResultState.SUCCESS);
+		default:
+			return new FaultResult(ResultState.OP_NOT_POSSIBLE_ERROR);
+		}
+	}
+
+	/**
+	 * Creates the tag reported for a simulated tag
+	 */
+	private Tag report(SimulatedTag simulated, short antenna, int strength, Map<Integer, Result> results) {
+		Tag tag = new Tag(simulated.getEpc());
+		tag.setTid(simulated.getTid());
+		tag.setSighting(new Sighting(name, antenna, strength));
+		tag.setResult(results);
+		return tag;
+	}
+
+	private short antenna() {
+		int[] weights = this.antennas;
+		int total = 0;
+		for (int weight : weights) {
+			total += weight;
+		}
+		int value = random.nextInt(total);
+		for (int i = 0; i < weights.length; i++) {
+			value -= weights[i];
+			if (value < 0) {
+				return (short) (i + 1);
+			}
+		}
+		return (short) weights.length;
+	}
+
+	private int strength() {
+		return rssiMin + random.nextInt(rssiMax - rssiMin + 1);
+	}
+
+	/**
+	 * Reads the next tags of the population for each enabled tag operation
+	 *
+	 * @param count
+	 *            The number of reads
+	 */
+	void inventory(int count) {
+		for (int i = 0; i < count; i++) {
+			SimulatedTag simulated;
+			synchronized (this) {
+				if (population.length == 0) {
+					return;
+				}
+				simulated = population[next];
+				next = (next + 1) % population.length;
+			}
+			if (!simulated.killed) {
+				short antenna = antenna();
+				int strength = strength();
+				for (Entry<Long, TagOperation> entry : enabled.entrySet()) {
+					Tag tag = report(simulated, antenna, strength, apply(simulated, entry.getValue()));
+					callback.notify(entry.getKey().longValue(), tag);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Executes the tag operation on the next tag in the field which matches
+	 * the filter
+	 */
+	private Tag execute(TagOperation operation) {
+		boolean filtered = (operation.getFilter() != null) && (operation.getFilter().size() > 0);
+		byte[] epc = filtered ? new Tag(operation.getFilter()).getEpc() : null;
+		SimulatedTag[] population = this.population;
+		int start;
+		synchronized (this) {
+			start = next;
+		}
+		for (int i = 0; i < population.length; i++) {
+			SimulatedTag simulated = population[(start + i) % population.length];
+			if (!simulated.killed && ((epc == null) || Arrays.equals(epc, simulated.getEpc()))) {
+				Tag tag = report(simulated, antenna(), strength(), apply(simulated, operation));
+				tag.setCompleted(true);
+				return tag;
+			}
+		}
+		// no tag in the field
+		Tag tag = new Tag(operation.getFilter());
+		tag.setResult(new HashMap<Integer, Result>());
+		tag.setCompleted(true);
+		return tag;
+	}
+
+	/**
+	 * Runs the task on the executor after the latency
+	 */
+	private void delay(final Runnable task) throws ValidationException {
+		final ExecutorService executor = this.executor;
+		if (!connected || (executor == null)) {
+			throw new ValidationException("Reader '" + name + "' is not connected");
+		}
+		try {
+			if (latency > 0) {
+				TimingWheel.getInstance().schedule(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							executor.execute(task);
+						} catch (RejectedExecutionException e) {
+							// disconnected
+						}
+					}
+				}, latency);
+			} else {
+				executor.execute(task);
+			}
+		} catch (RejectedExecutionException e) {
+			throw new ValidationException("Reader '" + name + "' is not connected");
+		}
+	}
+
+	private final Runnable loop = new Runnable() {
+		@Override
+		public void run() {
+			long last = System.nanoTime();
+			double credit = 0;
+			while (connected) {
+				try {
+					Thread.sleep(PERIOD);
+				} catch (InterruptedException e) {
+					break;
+				}
+				long now = System.nanoTime();
+				int rate = readRate;
+				if (enabled.isEmpty()) {
+					credit = 0;
+				} else {
+					// catch up with at most one second of reads
+					credit = Math.min(credit + (now - last) * (double) rate / 1000000000, Math.max(rate, 1));
+					int count = (int) credit;
+					credit -= count;
+					try {
+						inventory(count);
+					} catch (Exception e) {
+						Exits.Log.logp(Exits.Level.Error, Exits.Reader.Controller.Name, Exits.Reader.Controller.Error, "Reader " + name
+								+ " failed to simulate inventory", e);
+					}
+				}
+				last = now;
+			}
+		}
+	};
+
+	@Override
+	public String getCapability(String name) throws ValidationException {
+		if (Capability.LostEPCOnWrite.equals(name)) {
+			return Boolean.FALSE.toString();
+		}
+		throw new ValidationException("Unknown capability '" + name + "'");
+	}
+
+	@Override
+	public synchronized void connect() throws ValidationException, ImplementationException {
+		if (!connected) {
+			if (callback == null) {
+				throw new ImplementationException("No callback set");
+			}
+			name = callback.getName();
+			connected = true;
+			executor = Execution.getInstance().newSerialExecutor(TYPE + " " + name);
+			thread = Execution.getInstance().newThread(loop, TYPE + " " + name);
+			thread.start();
+		}
+	}
+
+	@Override
+	public void disconnect() throws ImplementationException {
+		Thread thread;
+		synchronized (this) {
+			if (!connected) {
+				return;
+			}
+			connected = false;
+			executor.shutdown();
+			executor = null;
+			thread = this.thread;
+			this.thread = null;
+		}
+		thread.interrupt();
+		if (thread != Thread.currentThread()) {
+			try {
+				thread.join(PERIOD * 10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void defineTagOperation(long id, TagOperation operation) throws ValidationException {
+		operations.put(Long.valueOf(id), operation);
+	}
+
+	@Override
+	public void undefineTagOperation(long id) {
+		enabled.remove(Long.valueOf(id));
+		operations.remove(Long.valueOf(id));
+	}
+
+	@Override
+	public void enableTagOperation(long id) throws ImplementationException {
+		TagOperation operation = operations.get(Long.valueOf(id));
+		if (operation == null) {
+			throw new ImplementationException("Unknown tag operation " + id);
+		}
+		enabled.put(Long.valueOf(id), operation);
+	}
+
+	@Override
+	public void disableTagOperation(long id) {
+		enabled.remove(Long.valueOf(id));
+	}
+
+	@Override
+	public void executeTagOperation(final long id, final TagOperation operation) throws ValidationException {
+		delay(new Runnable() {
+			@Override
+			public void run() {
+				callback.notify(id, execute(operation));
+			}
+		});
+	}
+
+	@Override
+	public void abortTagOperation(long id) {
+		// results of aborted operations are ignored by the caller
+	}
+
+	@Override
+	public void definePortObservation(long id, PortObservation observation) throws ValidationException {
+		observations.put(Long.valueOf(id), observation);
+	}
+
+	@Override
+	public void undefinePortObservation(long id) {
+		observed.remove(Long.valueOf(id));
+		observations.remove(Long.valueOf(id));
+	}
+
+	@Override
+	public void enablePortObservation(long id) throws ImplementationException {
+		PortObservation observation = observations.get(Long.valueOf(id));
+		if (observation == null) {
+			throw new ImplementationException("Unknown port observation " + id);
+		}
+		observed.put(Long.valueOf(id), observation);
+	}
+
+	@Override
+	public void disablePortObservation(long id) {
+		observed.remove(Long.valueOf(id));
+	}
+
+	private static String key(Pin pin) {
+		return pin.getType() + ":" + pin.getId();
+	}
+
+	private byte state(Pin pin) {
+		Byte state = pins.get(key(pin));
+		return state != null ? state.byteValue() : 0;
+	}
+
+	/**
+	 * Sets the state of the pin and reports a change to the enabled port
+	 * observations
+	 */
+	private void state(Pin pin, byte state) {
+		Byte previous = pins.put(key(pin), Byte.valueOf(state));
+		if ((previous != null ? previous.byteValue() : 0) != state) {
+			for (Long id : observed.keySet()) {
+				Map<Integer, havis.middleware.ale.base.operation.port.result.Result> result = new HashMap<>();
+				result.put(Integer.valueOf(0), new havis.middleware.ale.base.operation.port.result.ReadResult(State.SUCCESS, state));
+				Port port = new Port();
+				port.setPin(pin);
+				port.setResult(result);
+				callback.notify(id.longValue(), port);
+			}
+		}
+	}
+
+	/**
+	 * Simulates a change of an input pin
+	 *
+	 * @param id
+	 *            The pin identifier
+	 * @param state
+	 *            The new state
+	 */
+	public void input(int id, byte state) {
+		state(new Pin(id, Pin.Type.INPUT), state);
+	}
+
+	private Port execute(PortOperation operation) {
+		Map<Integer, havis.middleware.ale.base.operation.port.result.Result> result = new HashMap<>();
+		if (operation.getOperations() != null) {
+			for (final havis.middleware.ale.base.operation.port.Operation op : operation.getOperations()) {
+				switch (op.getType()) {
+				case READ:
+					result.put(Integer.valueOf(op.getId()), new havis.middleware.ale.base.operation.port.result.ReadResult(State.SUCCESS, state(op.getPin())));
+					break;
+				case WRITE:
+					final byte previous = state(op.getPin());
+					state(op.getPin(), op.getData() != null ? op.getData().byteValue() : 0);
+					if ((op.getDuration() != null) && (op.getDuration().longValue() > 0)) {
+						// pulse, restore the previous state afterwards
+						final ExecutorService executor = this.executor;
+						TimingWheel.getInstance().schedule(new Runnable() {
+							@Override
+							public void run() {
+								try {
+									executor.execute(new Runnable() {
+										@Override
+										public void run() {
+											state(op.getPin(), previous);
+										}
+									});
+								} catch (RejectedExecutionException e) {
+									// disconnected
+								}
+							}
+						}, op.getDuration().longValue());
+					}
+					result.put(Integer.valueOf(op.getId()), new havis.middleware.ale.base.operation.port.result.Result(State.SUCCESS));
+					break;
+				}
+			}
+		}
+		Port port = new Port();
+		port.setResult(result);
+		port.setCompleted(true);
+		return port;
+	}
+
+	@Override
+	public void executePortOperation(final long id, final PortOperation operation) throws ValidationException {
+		delay(new Runnable() {
+			@Override
+			public void run() {
+				callback.notify(id, execute(operation));
+			}
+		});
+	}
+
+	@Override
+	public RCConfig getConfig() {
+		return new RCConfig();
+	}
+
+	@Override
+	public void setCallback(Callback callback) {
+		this.callback = callback;
+	}
+
+	@Override
+	public void dispose() throws ImplementationException {
+		disconnect();
+		enabled.clear();
+		operations.clear();
+		observed.clear();
+		observations.clear();
+		pins.clear();
+	}
+}
@@ -9,6 +9,7 @@ import havis.middleware.ale.base.operation.tag.result.FaultResult;
 import havis.middleware.ale.base.operation.tag.result.Result;
 import havis.middleware.ale.base.operation.tag.result.ResultState;
 import havis.middleware.ale.base.operation.tag.result.WriteResult;
+import havis.middleware.ale.core.cycle.TimingWheel;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.ale.reader.ReaderConnector;
 
@@ -18,9 +19,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Executes a tag operation once. The operation is either executed blocking by
+ * {@link #execute()} or started by {@link #start(ExecutorService, Runnable)}
+ * without waiting for the result, so that several operations can be in flight
+ * on one reader. Results are correlated by the operation id, each execution
+ * completes exactly once by result, timeout or error.
+ */
 public class TagExecutor extends Executor<Tag> {
 
 	private TagOperation operation;
@@ -29,6 +39,9 @@ public class TagExecutor extends Executor<Tag> {
 	private Map<Integer, WriteResult> optimizedWriteResults;
 	private AtomicBoolean errorState;
 	private CountDownLatch received = new CountDownLatch(1);
+	private AtomicBoolean completed = new AtomicBoolean(false);
+	private Runnable completion;
+	private TimingWheel.Timeout timeout;
 
 	public TagExecutor(CallbackHandler callbackHandler, long id, ReaderController controller, ReaderConnector connector, String name, Caller<Tag> caller,
 			TagOperation operation, int timeoutMs, boolean optimizeWriteOperations, AtomicBoolean errorState) {
@@ -48,7 +61,7 @@ public class TagExecutor extends Executor<Tag> {
 						TagOperation tagOperation = getTagOperation();
 						this.connector.executeTagOperation(this.id, tagOperation);
 						// wait here for the result
-						if (!received()) {
+						if (!received() && completed.compareAndSet(false, true)) {
 							Exits.Log.logp(Exits.Level.Warning, Exits.Reader.Controller.Name, Exits.Reader.Controller.Warning,
 									"Reader {0} failed to send result for tag operation after " + this.timeoutMs + " ms",
 									new Object[] { this.controller.getName(), tagOperation });
@@ -87,6 +100,101 @@ public class TagExecutor extends Executor<Tag> {
 		}
 	}
 
+	/**
+	 * Starts the execution without waiting for the result. The completion is
+	 * run once after the result was reported to the caller.
+	 *
+	 * @param timeouts
+	 *            The executor to handle a timeout
+	 * @param completion
+	 *            The completion
+	 */
+	public void start(final ExecutorService timeouts, Runnable completion) {
+		this.completion = completion;
+		if (this.controller.isConnected()) {
+			if (!this.errorState.get()) {
+				try {
+					final TagOperation tagOperation = getTagOperation();
+					this.timeout = TimingWheel.getInstance().schedule(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								timeouts.execute(new Runnable() {
+									@Override
+									public void run() {
+										timeout(tagOperation);
+									}
+								});
+							} catch (RejectedExecutionException e) {
+								// controller was disposed
+								complete();
+							}
+						}
+					}, this.timeoutMs);
+					this.connector.executeTagOperation(this.id, tagOperation);
+				} catch (ValidationException e) {
+					// not connected anymore
+					if (completed.compareAndSet(false, true)) {
+						sendEmptyResult();
+						complete();
+					}
+				} catch (Exception e) {
+					if (completed.compareAndSet(false, true)) {
+						Exits.Log.logp(Exits.Level.Error, Exits.Reader.Controller.Name, Exits.Reader.Controller.Error, "Reader "
+								+ this.controller.getName() + " failed to execute tag operation", e);
+						sendFaultResult();
+						complete();
+					}
+				}
+			} else {
+				// already in error state
+				completed.set(true);
+				sendFaultResult();
+				complete();
+			}
+		} else {
+			// not connected
+			completed.set(true);
+			sendEmptyResult();
+			complete();
+		}
+	}
+
+	private void timeout(TagOperation tagOperation) {
+		if (completed.compareAndSet(false, true)) {
+			Exits.Log.logp(Exits.Level.Warning, Exits.Reader.Controller.Name, Exits.Reader.Controller.Warning,
+					"Reader {0} failed to send result for tag operation after " + this.timeoutMs + " ms",
+					new Object[] { this.controller.getName(), tagOperation });
+			this.errorState.set(true);
+			if (this.id > 0) {
+				try {
+					this.connector.abortTagOperation(this.id);
+				} catch (Exception e) {
+					Exits.Log.logp(Exits.Level.Error, Exits.Reader.Controller.Name, Exits.Reader.Controller.Error, "Reader "
+							+ this.controller.getName() + " failed to abort tag operation", e);
+				}
+			}
+			try {
+				sendFaultResult();
+			} finally {
+				complete();
+			}
+		}
+	}
+
+	/**
+	 * Releases the resources of a started execution
+	 */
+	private void complete() {
+		if (this.timeout != null) {
+			this.timeout.cancel();
+		}
+		removeCallback();
+		if (this.completion != null) {
+			this.completion.run();
+		}
+	}
+
 	private TagOperation getTagOperation() {
 		this.optimizedWriteResults = new HashMap<>();
 		if (this.optimizeWriteOperations && this.operation.getOperations() != null && this.operation.getOperations().size() > 0) {
@@ -142,7 +250,7 @@ public class TagExecutor extends Executor<Tag> {
 
 	@Override
 	public void receive(Tag tag) {
-		if (this.errorState.get()) {
+		if (this.errorState.get() || !completed.compareAndSet(false, true)) {
 			// ignore
 		} else {
 			this.errorState.set(false);
@@ -176,6 +284,9 @@ public class TagExecutor extends Executor<Tag> {
 				this.caller.invoke(tag, this.controller);
 			} finally {
 				received.countDown();
+				if (this.completion != null) {
+					complete();
+				}
 			}
 		}
 	}
@@ -6,6 +6,8 @@ import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.base.operation.tag.TagOperation;
 import havis.middleware.ale.reader.ReaderConnector;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map.Entry;
 
 public class TagOperator extends Operator<Tag> {
@@ -24,11 +26,77 @@ public class TagOperator extends Operator<Tag> {
 		}
 	}
 
+	/**
+	 * Creates a new instance without defining the tag operation
+	 */
+	protected TagOperator(CallbackHandler callbackHandler, long id, ReaderController controller, ReaderConnector connector) {
+		super(callbackHandler, id, controller, connector);
+	}
+
+	/**
+	 * Adds a caller for a tag operation
+	 *
+	 * @param operation
+	 *            The tag operation
+	 * @param name
+	 *            The logical reader name
+	 * @param caller
+	 *            The caller
+	 * @throws ValidationException
+	 * @throws ImplementationException
+	 */
+	void put(TagOperation operation, String name, Caller<Tag> caller) throws ValidationException, ImplementationException {
+		put(name, caller);
+	}
+
+	/**
+	 * Removes a caller of a tag operation
+	 *
+	 * @param operation
+	 *            The tag operation
+	 * @param name
+	 *            The logical reader name
+	 */
+	void remove(TagOperation operation, String name) {
+		remove(name);
+	}
+
+	/**
+	 * Returns whether the tag operation has callers left
+	 *
+	 * @param operation
+	 *            The tag operation
+	 * @return True if callers are left, false otherwise
+	 */
+	boolean hasCallers(TagOperation operation) {
+		return hasCallers();
+	}
+
+	/**
+	 * Enables the tag operation
+	 *
+	 * @param operation
+	 *            The tag operation
+	 */
+	void enable(TagOperation operation) {
+		enable();
+	}
+
+	/**
+	 * Disables the tag operation
+	 *
+	 * @param operation
+	 *            The tag operation
+	 */
+	void disable(TagOperation operation) {
+		disable();
+	}
+
 	@Override
 	public void receive(Tag tag) {
 		if (active) {
 			if (tag != null) {
-				if ((tag.getEpc() != null) && !(Tag.isExtended() && (tag.getTid() == null))) {
+				if (isValid(tag)) {
 
 					for (Entry<String, Caller<Tag>> caller : callers.entrySet()) {
 						try {
@@ -43,11 +111,46 @@ public class TagOperator extends Operator<Tag> {
 		}
 	}
 
-	private void define() throws ValidationException, ImplementationException {
+	@Override
+	public void receive(List<Tag> list) {
+		if (active) {
+			List<Tag> tags = new ArrayList<>(list.size());
+			for (Tag tag : list) {
+				if ((tag != null) && isValid(tag)) {
+					tags.add(tag);
+				}
+			}
+			if (tags.size() > 0) {
+				for (Entry<String, Caller<Tag>> caller : callers.entrySet()) {
+					if (caller.getValue() instanceof BatchCaller) {
+						try {
+							((BatchCaller<Tag>) caller.getValue()).invoke(tags, controller);
+						} catch (Exception e) {
+							error(caller.getKey(), "An error occurred while notifying tags", e);
+						}
+					} else {
+						for (Tag tag : tags) {
+							try {
+								caller.getValue().invoke(tag, controller);
+							} catch (Exception e) {
+								error(caller.getKey(), "An error occurred while notifying tag", e);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	protected boolean isValid(Tag tag) {
+		return (tag.getEpc() != null) && !(Tag.isExtended() && (tag.getTid() == null));
+	}
+
+	protected void define() throws ValidationException, ImplementationException {
 		connector.defineTagOperation(id, operation);
 	}
 
-	private void undefine() throws ImplementationException {
+	protected void undefine() throws ImplementationException {
 		connector.undefineTagOperation(id);
 	}
 
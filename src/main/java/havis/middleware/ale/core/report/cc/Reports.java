@@ -10,6 +10,8 @@ import havis.middleware.ale.core.report.Initiation;
 import havis.middleware.ale.core.report.ReportsInfo;
 import havis.middleware.ale.core.report.Termination;
 import havis.middleware.ale.core.report.cc.data.Parameters;
+import havis.middleware.ale.core.subscriber.DefaultSubscriberController;
+import havis.middleware.ale.core.subscriber.Payloads;
 import havis.middleware.ale.core.subscriber.SubscriberController;
 import havis.middleware.ale.core.subscriber.SubscriberListener;
 import havis.middleware.ale.exit.Exits;
@@ -28,6 +30,8 @@ import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import javax.xml.namespace.QName;
+
 /**
  * This class will be used to generate a set of reports as specified : ALE 1.1.1
  * (9.4). Currently it only validates basically any {@link CCCmdSpec} within
@@ -36,6 +40,8 @@ import java.util.concurrent.LinkedBlockingQueue;
  */
 public class Reports implements Task, IReports<CCReports, Tags> {
 
+	private final static QName NAME = new QName("urn:epcglobal:ale:xsd:1", "CCReports");
+
 	private String name;
 	private CCSpec spec;
 	private BlockingQueue<ReportsInfo<CCReports, Tags>> queue;
@@ -217,9 +223,11 @@ public class Reports implements Task, IReports<CCReports, Tags> {
 					Exits.Log.logp(Exits.Level.Detail, Exits.Core.Cycle.CommandCycle.Name, Exits.Core.Cycle.CommandCycle.Deliver, "Cycle {0} delivered {1}",
 							new Object[] { this.name, ccReports });
 					if (ccReports.getCmdReports().getCmdReport().size() > 0) {
-						// deliver report to each subscriber
+						// deliver report to each subscriber, encoded once per
+						// format for stream subscribers
+						Payloads payloads = Payloads.of(ccReports, NAME);
 						for (SubscriberController subscriber : info.getSubscribers()) {
-							subscriber.enqueue(ccReports);
+							DefaultSubscriberController.deliver(subscriber, ccReports, payloads);
 						}
 					} else {
 						// deliver report only to poll or immediate
@@ -9,6 +9,7 @@ import havis.middleware.ale.base.exception.InvalidAssocTableEntryException;
 import havis.middleware.ale.base.exception.InvalidEPCException;
 import havis.middleware.ale.base.exception.InvalidPatternException;
 import havis.middleware.ale.base.exception.NoSuchNameException;
+import havis.middleware.ale.core.manager.CycleManager;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.ale.service.cc.AssocTableEntry;
 import havis.middleware.ale.service.cc.AssocTableSpec;
@@ -97,6 +98,7 @@ public class Associations {
 			throws InvalidAssocTableEntryException,
 			AssocTableValidationException, DuplicateNameException, ImplementationException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.CC.Association.Name, Exits.Service.CC.Association.Define, "Define {0} {1} {2}", new Object[] { name, spec, entries });
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -133,6 +135,8 @@ public class Associations {
 	public void undefine(String name, boolean persist)
 			throws NoSuchNameException, InUseException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.CC.Association.Name, Exits.Service.CC.Association.Undefine, "Undefine {0}", name);
+		// cached immediate cycles hold references
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
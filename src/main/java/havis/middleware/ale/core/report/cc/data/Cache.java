@@ -12,6 +12,7 @@ import havis.middleware.ale.core.field.Characters;
 import havis.middleware.ale.core.field.FieldDatatype;
 import havis.middleware.ale.core.field.FieldFormat;
 import havis.middleware.ale.core.report.pattern.IPattern;
+import havis.middleware.ale.core.report.pattern.Pattern;
 import havis.middleware.ale.core.report.pattern.PatternType;
 import havis.middleware.ale.core.report.pattern.Patterns;
 import havis.middleware.ale.exit.Exits;
@@ -91,12 +92,15 @@ public class Cache implements Data {
 						return new Bytes(ResultState.EPC_CACHE_DEPLETED);
 					}
 				}
-				byte[] bytes;
-				try {
-					bytes = TagDecoder.getInstance().decodeUrn(next);
-				} catch (TdtTranslationException e) {
-					Exits.Log.logp(Exits.Level.Warning, Exits.Common.Name, Exits.Common.Warning, "TDT translation failed: " + e.getMessage(), e);
-					return null;
+				// encode bits directly if supported by scheme
+				byte[] bytes = pattern instanceof Pattern ? ((Pattern) pattern).encode() : null;
+				if (bytes == null) {
+					try {
+						bytes = TagDecoder.getInstance().decodeUrn(next);
+					} catch (TdtTranslationException e) {
+						Exits.Log.logp(Exits.Level.Warning, Exits.Common.Name, Exits.Common.Warning, "TDT translation failed: " + e.getMessage(), e);
+						return null;
+					}
 				}
 				return new Bytes(FieldDatatype.EPC, bytes, bytes.length * 8);
 			} finally {
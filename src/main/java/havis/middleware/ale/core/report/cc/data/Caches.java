@@ -5,6 +5,7 @@ import havis.middleware.ale.base.exception.EPCCacheSpecValidationException;
 import havis.middleware.ale.base.exception.InUseException;
 import havis.middleware.ale.base.exception.InvalidPatternException;
 import havis.middleware.ale.base.exception.NoSuchNameException;
+import havis.middleware.ale.core.manager.CycleManager;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.ale.service.cc.EPCCacheSpec;
 
@@ -87,6 +88,7 @@ public class Caches {
 			boolean persist) throws DuplicateNameException,
 			InvalidPatternException, EPCCacheSpecValidationException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.CC.Cache.Name, Exits.Service.CC.Cache.Define, "Define {0} {1} {2}", new Object[] { name, spec, patterns });
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -122,6 +124,8 @@ public class Caches {
 	public List<String> undefine(String name, boolean persist)
 			throws InUseException, NoSuchNameException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.CC.Cache.Name, Exits.Service.CC.Cache.Undefine, "Undefine {0}", name);
+		// cached immediate cycles hold references
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
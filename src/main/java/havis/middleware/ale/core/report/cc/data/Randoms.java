@@ -4,6 +4,7 @@ import havis.middleware.ale.base.exception.DuplicateNameException;
 import havis.middleware.ale.base.exception.InUseException;
 import havis.middleware.ale.base.exception.NoSuchNameException;
 import havis.middleware.ale.base.exception.RNGValidationException;
+import havis.middleware.ale.core.manager.CycleManager;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.ale.service.cc.RNGSpec;
 
@@ -82,6 +83,7 @@ public class Randoms {
 	public void define(String name, RNGSpec spec, boolean persist)
 			throws DuplicateNameException, RNGValidationException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.CC.Random.Name, Exits.Service.CC.Random.Define, "Define {0} {1}", new Object[] { name, spec });
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -118,6 +120,8 @@ public class Randoms {
 	public void undefine(String name, boolean persist) throws InUseException,
 			NoSuchNameException {
 		Exits.Log.logp(Exits.Level.Detail, Exits.Service.CC.Random.Name, Exits.Service.CC.Random.Undefine, "Undefine {0}", name);
+		// cached immediate cycles hold references
+		CycleManager.invalidateAll();
 		try {
 			lock.lock();
 			try {
@@ -0,0 +1,276 @@
+package havis.middleware.ale.core.report.ec;
+
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.service.ECFieldSpec;
+import havis.middleware.ale.service.ECFilterListMember;
+import havis.middleware.ale.service.ec.ECFilterSpec;
+import havis.middleware.ale.service.ec.ECGroupSpec;
+import havis.middleware.ale.service.ec.ECReportGroupListMember;
+import havis.middleware.ale.service.ec.ECReportOutputFieldSpec;
+import havis.middleware.ale.service.ec.ECReportOutputSpec;
+import havis.middleware.ale.service.ec.ECReportSpec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluation plan of the reports of one event cycle specification. Reports
+ * with equal filter, group or output specifications share one slot, so that
+ * the filter match, the group names and the report member of a tag are
+ * computed once per report set generation by the first report of the slot and
+ * reused by the other reports. A typical specification combines additions,
+ * deletions and current reports with the same filter and output.
+ */
+class Plan {
+
+	private final static byte UNKNOWN = 0;
+	private final static byte TRUE = 1;
+	private final static byte FALSE = 2;
+	private final static byte NULL = 3;
+
+	/**
+	 * The slot indexes of each report, filter, group and member
+	 */
+	private final Map<Report, int[]> slots;
+
+	/**
+	 * The first report of each filter slot
+	 */
+	private final List<Report> filters;
+
+	private final int groups;
+	private final int members;
+
+	private Plan(Map<Report, int[]> slots, List<Report> filters, int groups, int members) {
+		this.slots = slots;
+		this.filters = filters;
+		this.groups = groups;
+		this.members = members;
+	}
+
+	/**
+	 * Creates the plan for the reports
+	 *
+	 * @param reports
+	 *            The reports
+	 * @return The plan or null if the reports share nothing
+	 */
+	static Plan create(List<Report> reports) {
+		Map<String, Integer> filterKeys = new HashMap<>();
+		Map<String, Integer> groupKeys = new HashMap<>();
+		Map<String, Integer> memberKeys = new HashMap<>();
+		List<Report> filters = new ArrayList<>();
+		Map<Report, int[]> slots = new IdentityHashMap<>();
+		int grouped = 0;
+		for (Report report : reports) {
+			ECReportSpec spec = report.getSpec();
+			Integer filter = filterKeys.get(key(spec.getFilterSpec()));
+			if (filter == null) {
+				filter = Integer.valueOf(filters.size());
+				filterKeys.put(key(spec.getFilterSpec()), filter);
+				filters.add(report);
+			}
+			int group = -1;
+			if (report.group != null) {
+				grouped++;
+				group = slot(groupKeys, key(spec.getGroupSpec()));
+			}
+			slots.put(report, new int[] { filter.intValue(), group, slot(memberKeys, key(report)) });
+		}
+		if ((filters.size() < reports.size()) || (groupKeys.size() < grouped) || (memberKeys.size() < reports.size())) {
+			return new Plan(slots, filters, groupKeys.size(), memberKeys.size());
+		}
+		return null;
+	}
+
+	private static int slot(Map<String, Integer> keys, String key) {
+		Integer slot = keys.get(key);
+		if (slot == null) {
+			slot = Integer.valueOf(keys.size());
+			keys.put(key, slot);
+		}
+		return slot.intValue();
+	}
+
+	private static String key(ECFieldSpec spec) {
+		return spec == null ? "" : spec.getFieldname() + "/" + spec.getDatatype() + "/" + spec.getFormat();
+	}
+
+	private static String key(ECFilterSpec spec) {
+		StringBuilder key = new StringBuilder();
+		if (spec != null) {
+			if (spec.getIncludePatterns() != null) {
+				key.append("+").append(spec.getIncludePatterns().getIncludePattern());
+			}
+			if (spec.getExcludePatterns() != null) {
+				key.append("-").append(spec.getExcludePatterns().getExcludePattern());
+			}
+			if (spec.getExtension() != null && spec.getExtension().getFilterList() != null) {
+				for (ECFilterListMember member : spec.getExtension().getFilterList().getFilter()) {
+					key.append(member.getIncludeExclude()).append(key(member.getFieldspec()))
+							.append(member.getPatList() != null ? member.getPatList().getPat() : null);
+				}
+			}
+		}
+		return key.toString();
+	}
+
+	private static String key(ECGroupSpec spec) {
+		return spec.getPattern() + key(spec.getExtension() == null ? null : spec.getExtension().getFieldspec());
+	}
+
+	private static String key(Report report) {
+		ECReportSpec spec = report.getSpec();
+		ECReportOutputSpec output = spec.getOutput();
+		StringBuilder key = new StringBuilder();
+		key.append(output.isIncludeEPC() ? 'E' : '-').append(output.isIncludeTag() ? 'T' : '-').append(output.isIncludeRawHex() ? 'H' : '-')
+				.append(output.isIncludeRawDecimal() ? 'D' : '-').append(spec.getExtension() != null ? 'X' : '-')
+				.append(output.getExtension() != null ? 'X' : '-');
+		if (report.fields != null) {
+			for (ECReportOutputFieldSpec fieldSpec : output.getExtension().getFieldList().getField()) {
+				key.append(fieldSpec.getName()).append(key(fieldSpec.getFieldspec())).append(fieldSpec.isIncludeFieldSpecInReport());
+			}
+		}
+		if (report.stats != null) {
+			key.append(spec.getExtension().getStatProfileNames().getStatProfileName());
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Retrieves the first report of each distinct filter
+	 *
+	 * @return The reports
+	 */
+	List<Report> getFilters() {
+		return filters;
+	}
+
+	/**
+	 * Creates the cache for one report set generation
+	 *
+	 * @param sets
+	 *            The tag lists of the report set
+	 * @return The cache
+	 */
+	@SafeVarargs
+	final Cache cache(List<Tag>... sets) {
+		return new Cache(sets);
+	}
+
+	/**
+	 * The results of one tag
+	 */
+	private static class Results {
+		byte[] matches;
+		List<String>[] names;
+		ECReportGroupListMember[] members;
+	}
+
+	/**
+	 * The results of one report set generation. The entries are created for
+	 * all tags in advance, so that the cache can be read concurrently as long
+	 * as each tag is used by one thread at once.
+	 */
+	class Cache {
+
+		private final Map<Tag, Results> results = new IdentityHashMap<>();
+
+		@SafeVarargs
+		private Cache(List<Tag>... sets) {
+			for (List<Tag> tags : sets) {
+				for (Tag tag : tags) {
+					if (!results.containsKey(tag)) {
+						results.put(tag, new Results());
+					}
+				}
+			}
+		}
+
+		/**
+		 * Returns if the tag matches the filter of the report
+		 *
+		 * @param report
+		 *            The report
+		 * @param tag
+		 *            The tag
+		 * @return The match result
+		 */
+		Boolean match(Report report, Tag tag) {
+			Results results = this.results.get(tag);
+			if (results == null) {
+				return report.filter.match(tag);
+			}
+			if (results.matches == null) {
+				results.matches = new byte[filters.size()];
+			}
+			int slot = slots.get(report)[0];
+			switch (results.matches[slot]) {
+			case UNKNOWN:
+				Boolean match = filters.get(slot).filter.match(tag);
+				results.matches[slot] = match == null ? NULL : match.booleanValue() ? TRUE : FALSE;
+				return match;
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			default:
+				return null;
+			}
+		}
+
+		/**
+		 * Retrieves the group names of the tag
+		 *
+		 * @param report
+		 *            The report with group
+		 * @param tag
+		 *            The tag
+		 * @return The group names
+		 */
+		@SuppressWarnings("unchecked")
+		List<String> name(Report report, Tag tag) {
+			Results results = this.results.get(tag);
+			if (results == null) {
+				return report.group.name(tag);
+			}
+			if (results.names == null) {
+				results.names = new List[groups];
+			}
+			int slot = slots.get(report)[1];
+			List<String> name = results.names[slot];
+			if (name == null) {
+				results.names[slot] = name = report.group.name(tag);
+			}
+			return name;
+		}
+
+		/**
+		 * Retrieves the report member of the tag
+		 *
+		 * @param report
+		 *            The report
+		 * @param tag
+		 *            The tag
+		 * @return The member or null if the report contains no members
+		 */
+		ECReportGroupListMember member(Report report, Tag tag) {
+			Results results = this.results.get(tag);
+			if (results == null) {
+				return report.member(tag);
+			}
+			if (results.members == null) {
+				results.members = new ECReportGroupListMember[members];
+			}
+			int slot = slots.get(report)[2];
+			ECReportGroupListMember member = results.members[slot];
+			if (member == null) {
+				results.members[slot] = member = report.member(tag);
+			}
+			return member;
+		}
+	}
+}
@@ -6,16 +6,54 @@ import havis.middleware.ale.base.operation.tag.result.Result;
 import havis.middleware.ale.base.operation.tag.result.ResultState;
 import havis.middleware.ale.core.field.CommonField;
 import havis.middleware.ale.core.field.FieldDatatype;
-import havis.middleware.utils.data.Comparison;
+
+import java.util.Arrays;
+import java.util.Map;
 
 /**
- * Implements primary key
+ * Implements primary key. The values of the primary key fields are packed
+ * into words once, each value prefixed by a header word with the bit length
+ * or a marker for a missing or failed result. Keys are compared by a 64 bit
+ * hash and the packed words. An instance can be reused for lookups by
+ * {@link #set(Tag, Iterable)} and {@link #copy()} to store it.
  */
 public class PrimaryKey {
 
+	/**
+	 * The tag has no result map
+	 */
+	private final static long NO_RESULT = -1;
+
+	/**
+	 * The field has no result or no data
+	 */
+	private final static long ABSENT = -2;
+
+	/**
+	 * The field has a successful result which is not a read result
+	 */
+	private final static long NO_DATA = -3;
+
+	/**
+	 * The field has a failed result, the state ordinal is subtracted
+	 */
+	private final static long FAILED = -16;
+
+	private final static byte[] EMPTY = new byte[0];
+
 	private Tag tag;
 	private Iterable<CommonField> fields;
-	private int hashCode = 0;
+	private long[] words;
+	private int length;
+	private long hash;
+
+	/**
+	 * Creates a new instance without a value, i.e. to be reused by
+	 * {@link #set(Tag, Iterable)}
+	 */
+	public PrimaryKey() {
+		words = new long[4];
+	}
 
 	/**
 	 * Creates a new instance
@@ -26,8 +64,149 @@ public class PrimaryKey {
 	 *            The fields
 	 */
 	public PrimaryKey(Tag tag, Iterable<CommonField> fields) {
+		this();
+		set(tag, fields);
+	}
+
+	private PrimaryKey(PrimaryKey key) {
+		tag = key.tag;
+		fields = key.fields;
+		words = Arrays.copyOf(key.words, key.length);
+		length = key.length;
+		hash = key.hash;
+	}
+
+	/**
+	 * Sets the value of the key from the tag
+	 *
+	 * @param tag
+	 *            The tag
+	 * @param fields
+	 *            The fields
+	 * @return This instance
+	 */
+	public PrimaryKey set(Tag tag, Iterable<CommonField> fields) {
 		this.tag = tag;
 		this.fields = fields;
+		length = 0;
+		Map<Integer, Result> results = tag.getResult();
+		if (results == null) {
+			append(NO_RESULT);
+		} else if (fields == null) {
+			append(tag.getEpc());
+		} else {
+			int id = 1;
+			for (CommonField field : fields) {
+				if ("epc".equals(field.getName())) {
+					append(tag.getEpc());
+				} else if (Tag.isExtended() && "tidBank".equals(field.getName())) {
+					append(tag.getTid());
+				} else {
+					Result result = results.get(Integer.valueOf(id++));
+					if (result == null) {
+						append(ABSENT);
+					} else if (result.getState() != ResultState.SUCCESS) {
+						append(FAILED - result.getState().ordinal());
+					} else if (!(result instanceof ReadResult)) {
+						append(NO_DATA);
+					} else {
+						byte[] data = ((ReadResult) result).getData();
+						if (data == null) {
+							data = EMPTY;
+						}
+						if (field.getLength() == 0) {
+							append(data, field.getOffset() % 16, data.length * 8 - field.getOffset() % 16, data.length * 8);
+						} else {
+							append(data, field.getOffset() % 16, field.getLength(), field.getLength());
+						}
+					}
+				}
+			}
+		}
+		hash = hash(words, length);
+		return this;
+	}
+
+	/**
+	 * Returns a copy of the key, i.e. to store a reused key
+	 *
+	 * @return The copy
+	 */
+	public PrimaryKey copy() {
+		return new PrimaryKey(this);
+	}
+
+	/**
+	 * Retrieves the 64 bit hash of the key
+	 *
+	 * @return The hash
+	 */
+	public long hash() {
+		return hash;
+	}
+
+	private void append(long word) {
+		if (length == words.length) {
+			words = Arrays.copyOf(words, length * 2);
+		}
+		words[length++] = word;
+	}
+
+	private void append(byte[] data) {
+		if (data == null) {
+			append(ABSENT);
+		} else {
+			append(data, 0, data.length * 8, data.length * 8);
+		}
+	}
+
+	/**
+	 * Appends the header and the bits of data from offset. Bits beyond the
+	 * data are zero.
+	 */
+	private void append(byte[] data, int offset, int count, long header) {
+		append(header);
+		for (int i = 0; i < count; i += 64) {
+			int n = Math.min(64, count - i);
+			int bytes = (n + 7) / 8;
+			long word = 0;
+			for (int j = 0; j < bytes; j++) {
+				word = (word << 8) | octet(data, offset + i + j * 8);
+			}
+			word <<= (8 - bytes) * 8;
+			if (n < 64) {
+				word &= -1L << (64 - n);
+			}
+			append(word);
+		}
+	}
+
+	/**
+	 * Returns the eight bits at the bit position
+	 */
+	private static int octet(byte[] data, int bit) {
+		int index = bit >> 3, shift = bit & 7;
+		int high = index < data.length ? data[index] & 0xFF : 0;
+		if (shift == 0) {
+			return high;
+		}
+		int low = index + 1 < data.length ? data[index + 1] & 0xFF : 0;
+		return ((high << shift) | (low >>> (8 - shift))) & 0xFF;
+	}
+
+	private static long hash(long[] words, int length) {
+		long h = length;
+		for (int i = 0; i < length; i++) {
+			h = (h ^ words[i]) * 0x9E3779B97F4A7C15L;
+			h ^= h >>> 32;
+		}
+		// finalizer of MurmurHash3
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
 	}
 
 	/**
@@ -69,77 +248,13 @@ public class PrimaryKey {
 	 * @return True, if value is equal, false otherwise
 	 */
 	protected boolean equals(PrimaryKey primaryKey) {
-		if ((primaryKey.tag.getResult() != null)
-				&& (this.tag.getResult() != null)) {
-			if (fields == null) {
-				return this.tag.getEpc().length == primaryKey.tag.getEpc().length
-						&& Comparison.equal(this.tag.getEpc(),
-								primaryKey.tag.getEpc(),
-								this.tag.getEpc().length * 8);
-			} else {
-				int id = 1;
-				for (CommonField field : fields) {
-					if ("epc".equals(field.getName())) {
-                        if (this.tag.getEpc().length != primaryKey.tag.getEpc().length
-                                || !Comparison.equal(this.tag.getEpc(), primaryKey.tag.getEpc(), this.tag.getEpc().length * 8))
-							return false;
-					} else {
-						if (Tag.isExtended()
-								&& "tidBank".equals(field.getName())) {
-                            if (this.tag.getTid().length != primaryKey.tag.getTid().length
-                                    || !Comparison.equal(this.tag.getTid(), primaryKey.tag.getTid(), this.tag.getTid().length * 8))
-                                return false;
-						} else {
-							Result left = primaryKey.tag.getResult().get(Integer.valueOf(id));
-							Result right = this.tag.getResult().get(Integer.valueOf(id));
-							if (left != null && right != null) {
-								if ((left.getState() == ResultState.SUCCESS)
-										&& (right.getState() == ResultState.SUCCESS)) {
-									if ((left instanceof ReadResult)
-											&& (right instanceof ReadResult)) {
-										if (field.getLength() == 0) {
-											if (((ReadResult) left).getData().length != ((ReadResult) right)
-													.getData().length)
-												return false;
-											if (!Comparison
-													.equal(((ReadResult) left)
-															.getData(),
-															((ReadResult) right)
-																	.getData(),
-															((ReadResult) left)
-																	.getData().length * 8,
-															field.getOffset() % 16))
-												return false;
-										} else {
-											if (!Comparison.equal(
-													((ReadResult) left)
-															.getData(),
-													((ReadResult) right)
-															.getData(), field
-															.getLength(), field
-															.getOffset() % 16))
-												return false;
-										}
-									} else {
-										return false;
-									}
-								} else {
-									if (left.getState() != right.getState())
-										return false;
-								}
-							} else {
-								if (left != right)
-									return false;
-							}
-							id++;
-						}
-					}
-				}
-			}
-		} else {
-		    // if only one result is null
-			if (primaryKey.tag.getResult() != this.tag.getResult())
+		if ((hash != primaryKey.hash) || (length != primaryKey.length)) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (words[i] != primaryKey.words[i]) {
 				return false;
+			}
 		}
 		return true;
 	}
@@ -150,7 +265,7 @@ public class PrimaryKey {
 	 * @return True, if equal, false otherwise
 	 */
 	@Override
-    public boolean equals(Object obj) {
+	public boolean equals(Object obj) {
 		return (obj == this) || ((obj instanceof PrimaryKey) && equals((PrimaryKey) obj));
 	}
 
@@ -160,49 +275,8 @@ public class PrimaryKey {
 	 * @return The hash code
 	 */
 	@Override
-    public int hashCode() {
-		if (hashCode == 0) {
-			if (tag.getResult() != null) {
-				if (fields == null) {
-				    if (tag.getEpc() != null) {
-				        hashCode = Comparison.hashCode(tag.getEpc());
-				    }
-				} else {
-					int id = 0;
-					for (CommonField field : fields) {
-						if ("epc".equals(field.getName())) {
-							hashCode ^= Comparison.hashCode(tag.getEpc());
-						} else {
-							if (Tag.isExtended()
-									&& "tidBank".equals(field.getName())) {
-								hashCode ^= Comparison.hashCode(tag.getTid());
-							} else {
-								Result result;
-								if ((result = tag.getResult().get(Integer.valueOf(++id))) != null) {
-									if ((result.getState() == ResultState.SUCCESS)
-											&& (result instanceof ReadResult)
-											&& (((ReadResult) result).getData() != null)) {
-										byte[] data = ((ReadResult) result)
-												.getData();
-										if (field.getLength() % 16 > 0
-												|| field.getOffset() % 16 > 0) {
-											hashCode ^= Comparison.hashCode(
-															data,
-															field.getOffset() % 16,
-															field.getLength() > 0 ? field.getLength() : data.length * 8);
-										} else {
-											hashCode ^= Comparison
-													.hashCode(data);
-										}
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-		}
-		return hashCode;
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
 	}
 
 	@Override
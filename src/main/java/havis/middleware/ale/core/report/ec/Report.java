@@ -43,6 +43,7 @@ import havis.middleware.utils.data.Calculator;
 import havis.middleware.utils.data.Converter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +56,20 @@ import java.util.Map.Entry;
  */
 class Report {
 
+	/**
+	 * The default and the named groups collected from a part of the tags
+	 */
+	static class Groups {
+
+		final ECReportGroup group;
+		final Map<String, ECReportGroup> groups;
+
+		Groups(ECReportGroup group, Map<String, ECReportGroup> groups) {
+			this.group = group;
+			this.groups = groups;
+		}
+	}
+
 	/**
 	 * This enumeration specified the different report set types
 	 */
@@ -318,11 +333,35 @@ class Report {
 	 * @return The report
 	 */
 	ECReport get(List<Tag> tags) {
-		// create new report
-		ECReport report = new ECReport();
-		// assign report name
-		report.setReportName(spec.getReportName());
+		return get(tags, null);
+	}
 
+	/**
+	 * Gets the complete report depending on given tags and report
+	 * specification using the results of other reports of the same plan
+	 *
+	 * @param tags
+	 *            The list of unfiltered tags to report
+	 * @param cache
+	 *            The cache of the evaluation plan or null
+	 * @return The report
+	 */
+	ECReport get(List<Tag> tags, Plan.Cache cache) {
+		return merge(Collections.singletonList(collect(tags, cache)));
+	}
+
+	/**
+	 * Collects the groups of a part of the tags. Each tag has to pass the
+	 * filters. Parts of a tag list can be collected concurrently as long as
+	 * each tag belongs to one part only.
+	 *
+	 * @param tags
+	 *            The list of unfiltered tags
+	 * @param cache
+	 *            The cache of the evaluation plan or null
+	 * @return The groups
+	 */
+	Groups collect(List<Tag> tags, Plan.Cache cache) {
 		// instantiate default group
 		ECReportGroup ecReportGroup = getGroup();
 
@@ -335,121 +374,15 @@ class Report {
 
 		if (tags.size() > 0) {
 			for (Tag tag : tags) {
-				if (Boolean.TRUE.equals(filter.match(tag))) {
+				if (Boolean.TRUE.equals(cache != null ? cache.match(this, tag) : filter.match(tag))) {
 
-					ECReportGroupListMember member = null;
-
-					if (output.isIncludeEPC()
-							|| output.isIncludeTag()
-							|| output.isIncludeRawDecimal()
-							|| output.isIncludeRawHex()
-							|| (spec.getExtension() != null || output
-									.getExtension() != null)) {
-						member = new ECReportGroupListMember();
-
-						// look for epc infos to include
-
-						if (output.isIncludeEPC()) {
-							String value = null;
-							try {
-								value = tag.<TdtTagInfo> getProperty(Property.TAG_INFO).getUriId();
-							} catch (TdtTranslationException e) {
-							}
-							member.setEpc(new EPC(value));
-						}
-						if (output.isIncludeTag()) {
-							String value = null;
-							try {
-								value = tag.<TdtTagInfo> getProperty(Property.TAG_INFO).getUriTag();
-							} catch (TdtTranslationException e) {
-							}
-							member.setTag(new EPC(value));
-						}
-						if (output.isIncludeRawHex()) {
-							String value = null;
-							try {
-								value = tag.<TdtTagInfo> getProperty(Property.TAG_INFO).getUriRawHex();
-							} catch (TdtTranslationException e) {
-							}
-							member.setRawHex(new EPC(value));
-						}
-						if (output.isIncludeRawDecimal()) {
-							int length = tag.<TdtTagInfo> getProperty(Property.TAG_INFO).isEpcGlobal() ? tag.<TdtTagInfo> getProperty(Property.TAG_INFO)
-									.getLength() : tag.getLength() * 16;
-							member.setRawDecimal(new EPC("urn:epc:raw:" + length + "." + Converter.toDecimalString(Calculator.strip(tag.getEpc(), 0, length))));
-						}
-
-						// member extensions
-						if ((fields != null) || (this.stats != null)) {
-							member.setExtension(new ECReportGroupListMemberExtension());
-
-							// append field list
-							if (fields != null) {
-								List<ECReportMemberField> list = new ArrayList<ECReportMemberField>();
-								if ((tag.getResult() != null) && (tag.getResult().size() > 0)) {
-									int i = -1;
-									for (final ECReportOutputFieldSpec fieldSpec : output.getExtension().getFieldList().getField()) {
-										final CommonField field = fields.get(++i);
-										final Result result = tag.getResult().get(Integer.valueOf(operations.get(i).getId()));
-										if (result != null) {
-    										if (field.getBase() instanceof VariableField) {
-    											// variable field
-    											boolean foundField = false;
-    											if (result instanceof ReadResult && result.getState() == ResultState.SUCCESS && ((ReadResult) result).getData() != null) {
-    												// decode item data
-    												if (!tag.hasItemData(field.getBank())) {
-    													tag.decodeItemData(field.getBank(), ((ReadResult) result).getData(), ISODecoder.getInstance());
-    												}
-    												ItemData itemData = tag.getItemData(field.getBank());
-
-    												if (itemData != null) {
-    													OID oid = ((VariableField) field.getBase()).getOID();
-        												for (Entry<String, String> entry : itemData.getDataElements()) {
-															if (oid.matches(entry.getKey())) {
-																foundField = true;
-																list.add(createMemberField(fieldSpec, field, "@" + field.getBank() + "." + entry.getKey(), entry.getValue()));
-        													}
-        												}
-    												}
-    											}
-
-												if (!foundField) {
-													// field was not found
-													list.add(createMemberField(fieldSpec, field, null, null));
-												}
-    										} else {
-    											// fixed field
-    											list.add(createMemberField(fieldSpec, field, null, getMemberFieldValue(field, result)));
-    										}
-										}
-									}
-								}
-                                member.getExtension().setECReportMemberFieldList(list);
-							}
-
-							// append statistic data
-							if (this.stats != null) {
-								List<ECTagStat> stats = new ArrayList<ECTagStat>();
-								for (Reader<ECTagStat, Statistics> stat : this.stats) {
-									switch (stat.getProfile()) {
-									case ReportConstants.TagTimestampsProfileName:
-									case ReportConstants.TagCountProfileName:
-									case ReportConstants.ReaderNamesProfileName:
-									case ReportConstants.ReaderSightingSignalsProfileName:
-										stats.add(stat.getStat(tag));
-										break;
-									}
-								}
-								member.getExtension().setECTagStatList(stats);
-							}
-						}
-					}
+					ECReportGroupListMember member = cache != null ? cache.member(this, tag) : member(tag);
 
 					List<String> name;
 					// determine report group names if group definition is null
 					// or returned count of group names is null add member to
 					// default group, add member to named group otherwise
-					if ((group == null) || (name = group.name(tag)).size() == 0) {
+					if ((group == null) || (name = cache != null ? cache.name(this, tag) : group.name(tag)).size() == 0) {
 						// Add member to default group
 						if (member instanceof ECReportGroupListMember)
 							ecReportGroup.getGroupList().getMember()
@@ -485,6 +418,173 @@ class Report {
 				}
 			}
 		}
+		return new Groups(ecReportGroup, ecReportGroups);
+	}
+
+	/**
+	 * Returns if the groups of the report contain a member for each tag
+	 *
+	 * @return True if the output specification requests any member data,
+	 *         false if only counts are reported
+	 */
+	boolean hasMembers() {
+		ECReportOutputSpec output = spec.getOutput();
+		return output.isIncludeEPC()
+				|| output.isIncludeTag()
+				|| output.isIncludeRawDecimal()
+				|| output.isIncludeRawHex()
+				|| (spec.getExtension() != null || output
+						.getExtension() != null);
+	}
+
+	/**
+	 * Creates the report member of a tag depending on the output
+	 * specification
+	 *
+	 * @param tag
+	 *            The tag
+	 * @return The member or null if the report contains no members
+	 */
+	ECReportGroupListMember member(Tag tag) {
+		ECReportOutputSpec output = spec.getOutput();
+		ECReportGroupListMember member = null;
+
+		if (hasMembers()) {
+			member = new ECReportGroupListMember();
+
+			// look for epc infos to include
+
+			if (output.isIncludeEPC()) {
+				String value = null;
+				try {
+					value = tag.<TdtTagInfo> getProperty(Property.TAG_INFO).getUriId();
+				} catch (TdtTranslationException e) {
+				}
+				member.setEpc(new EPC(value));
+			}
+			if (output.isIncludeTag()) {
+				String value = null;
+				try {
+					value = tag.<TdtTagInfo> getProperty(Property.TAG_INFO).getUriTag();
+				} catch (TdtTranslationException e) {
+				}
+				member.setTag(new EPC(value));
+			}
+			if (output.isIncludeRawHex()) {
+				String value = null;
+				try {
+					value = tag.<TdtTagInfo> getProperty(Property.TAG_INFO).getUriRawHex();
+				} catch (TdtTranslationException e) {
+				}
+				member.setRawHex(new EPC(value));
+			}
+			if (output.isIncludeRawDecimal()) {
+				int length = tag.<TdtTagInfo> getProperty(Property.TAG_INFO).isEpcGlobal() ? tag.<TdtTagInfo> getProperty(Property.TAG_INFO)
+						.getLength() : tag.getLength() * 16;
+				member.setRawDecimal(new EPC("urn:epc:raw:" + length + "." + Converter.toDecimalString(Calculator.strip(tag.getEpc(), 0, length))));
+			}
+
+			// member extensions
+			if ((fields != null) || (this.stats != null)) {
+				member.setExtension(new ECReportGroupListMemberExtension());
+
+				// append field list
+				if (fields != null) {
+					List<ECReportMemberField> list = new ArrayList<ECReportMemberField>();
+					if ((tag.getResult() != null) && (tag.getResult().size() > 0)) {
+						int i = -1;
+						for (final ECReportOutputFieldSpec fieldSpec : output.getExtension().getFieldList().getField()) {
+							final CommonField field = fields.get(++i);
+							final Result result = tag.getResult().get(Integer.valueOf(operations.get(i).getId()));
+							if (result != null) {
+    										if (field.getBase() instanceof VariableField) {
+    											// variable field
+    											boolean foundField = false;
+    											if (result instanceof ReadResult && result.getState() == ResultState.SUCCESS && ((ReadResult) result).getData() != null) {
+    												// decode item data
+    												if (!tag.hasItemData(field.getBank())) {
+    													tag.decodeItemData(field.getBank(), ((ReadResult) result).getData(), ISODecoder.getInstance());
+    												}
+    												ItemData itemData = tag.getItemData(field.getBank());
+
+    												if (itemData != null) {
+    													OID oid = ((VariableField) field.getBase()).getOID();
+        												for (Entry<String, String> entry : itemData.getDataElements()) {
+												if (oid.matches(entry.getKey())) {
+													foundField = true;
+													list.add(createMemberField(fieldSpec, field, "@" + field.getBank() + "." + entry.getKey(), entry.getValue()));
+        													}
+        												}
+    												}
+    											}
+
+									if (!foundField) {
+										// field was not found
+										list.add(createMemberField(fieldSpec, field, null, null));
+									}
+    										} else {
+    											// fixed field
+    											list.add(createMemberField(fieldSpec, field, null, getMemberFieldValue(field, result)));
+    										}
+							}
+						}
+					}
+                                member.getExtension().setECReportMemberFieldList(list);
+				}
+
+				// append statistic data
+				if (this.stats != null) {
+					List<ECTagStat> stats = new ArrayList<ECTagStat>();
+					for (Reader<ECTagStat, Statistics> stat : this.stats) {
+						switch (stat.getProfile()) {
+						case ReportConstants.TagTimestampsProfileName:
+						case ReportConstants.TagCountProfileName:
+						case ReportConstants.ReaderNamesProfileName:
+						case ReportConstants.ReaderSightingSignalsProfileName:
+							stats.add(stat.getStat(tag));
+							break;
+						}
+					}
+					member.getExtension().setECTagStatList(stats);
+				}
+			}
+		}
+		return member;
+	}
+
+	/**
+	 * Gets the complete report from the groups collected for consecutive parts
+	 * of the tags. Members and counts of the groups are appended in the order
+	 * of the parts.
+	 *
+	 * @param parts
+	 *            The groups of each part, at least one
+	 * @return The report
+	 */
+	ECReport merge(List<Groups> parts) {
+		// create new report
+		ECReport report = new ECReport();
+		// assign report name
+		report.setReportName(spec.getReportName());
+
+		ECReportOutputSpec output = spec.getOutput();
+
+		ECReportGroup ecReportGroup = parts.get(0).group;
+		Map<String, ECReportGroup> ecReportGroups = parts.get(0).groups;
+		for (int i = 1; i < parts.size(); i++) {
+			Groups part = parts.get(i);
+			append(ecReportGroup, part.group);
+			if (ecReportGroups != null) {
+				for (Entry<String, ECReportGroup> entry : part.groups.entrySet()) {
+					ECReportGroup g = ecReportGroups.get(entry.getKey());
+					if (g == null) {
+						ecReportGroups.put(entry.getKey(), entry.getValue());
+					} else {
+						append(g, entry.getValue());
+					}
+				}
+			}
+		}
 
         // Add default group if not empty
         if ((ecReportGroup.getGroupList().getMember().size() > 0) || (output.isIncludeCount() && (ecReportGroup.getGroupCount().getCount() > 0))) {
@@ -511,6 +611,13 @@ class Report {
 		return report;
 	}
 
+	private void append(ECReportGroup group, ECReportGroup part) {
+		group.getGroupList().getMember().addAll(part.getGroupList().getMember());
+		if (spec.getOutput().isIncludeCount()) {
+			group.getGroupCount().setCount(group.getGroupCount().getCount() + part.getGroupCount().getCount());
+		}
+	}
+
 	private String getMemberFieldValue(CommonField field, Result result) {
 		if (result instanceof ReadResult && result.getState() == ResultState.SUCCESS && ((ReadResult) result).getData() != null) {
 			return Fields.toString(field, ((ReadResult) result).getData());
@@ -532,10 +639,21 @@ class Report {
 	 * @return true if the report has changed, false otherwise
 	 */
     public boolean processChanged(List<Tag> tags) {
+        return processChanged(tags, null);
+    }
+
+	/**
+	 * Process whether the report has changed using the filter results of other
+	 * reports of the same plan
+	 * @param tags the tags
+	 * @param cache the cache of the evaluation plan or null
+	 * @return true if the report has changed, false otherwise
+	 */
+    boolean processChanged(List<Tag> tags, Plan.Cache cache) {
         // reset local hashCode
         int hashCode = 1;
         for (Tag tag : tags) {
-            if (Boolean.TRUE.equals(filter.match(tag))) {
+            if (Boolean.TRUE.equals(cache != null ? cache.match(this, tag) : filter.match(tag))) {
                 // building hashCode for comparison
                 if (spec.isReportOnlyOnChange()) {
                     hashCode *= 31 + tag.hashCode();
@@ -13,6 +13,8 @@ import havis.middleware.ale.core.report.IReports;
 import havis.middleware.ale.core.report.Initiation;
 import havis.middleware.ale.core.report.ReportsInfo;
 import havis.middleware.ale.core.report.Termination;
+import havis.middleware.ale.core.subscriber.DefaultSubscriberController;
+import havis.middleware.ale.core.subscriber.Format;
 import havis.middleware.ale.core.subscriber.SubscriberController;
 import havis.middleware.ale.core.subscriber.SubscriberListener;
 import havis.middleware.ale.exit.Exits;
@@ -26,25 +28,45 @@ import havis.middleware.utils.threading.ThreadManager;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * This class is used to generate a report set as specified in ALE 1.1.1 (8.3).
  * It validates the name, filters and each report. It allows to enqueue a
  * {@link ReportsInfo} and implements the {@link Runnable} interface to generate
- * asynchrony event cycle reports
+ * asynchrony event cycle reports. If the system property {@value #PARALLEL} is
+ * true, the reports are evaluated on the common fork join pool: the tags of
+ * each report set are split into chunks and each chunk is collected for all
+ * reports of the set by one task, so that a tag is never used by two threads
+ * at once. The chunk size can be set by the system property
+ * {@value #CHUNK_SIZE}.
  */
 public class Reports implements Task, IReports<ECReports, Tags> {
 
+	private static final String PARALLEL = "havis.middleware.ale.report.parallel";
+	private static final String CHUNK_SIZE = "havis.middleware.ale.report.chunkSize";
+
+	private static final boolean parallel = Boolean.getBoolean(PARALLEL);
+	private static final int chunkSize = Math.max(1, Integer.getInteger(CHUNK_SIZE, 256).intValue());
+
 	private String name;
 	private ECSpec spec;
 	private BlockingQueue<ReportsInfo<ECReports, Tags>> queue;
 	private List<Report> reports;
 
+	/**
+	 * The evaluation plan, null if the reports share nothing
+	 */
+	private Plan plan;
+
 	/**
 	 * Retrieves the primary key fields
 	 */
@@ -136,6 +158,7 @@ public class Reports implements Task, IReports<ECReports, Tags> {
 				}
 
 				readerOperation = new TagOperation(operations, null);
+				plan = Plan.create(reports);
 			} catch (ValidationException e) {
 				dispose();
 				throw e;
@@ -202,13 +225,7 @@ public class Reports implements Task, IReports<ECReports, Tags> {
                     this.queue.notify();
 
     			// initialize reports
-    			ECReports ecReports = new ECReports(new BigDecimal(1),
-    					info.getDate(), name, info.getDate(), Config.getInstance()
-    							.getGlobal().getAleid(),
-    					info.getTotalMilliseconds(), Initiation.toString(info
-    							.getInitiation()), info.getInitiator(),
-    					Termination.toString(info.getTermination()),
-    					info.getTerminator());
+    			ECReports ecReports = create(info);
 
     			// send empty report to each outstanding all poll call
     			if ((info.getTermination() == Termination.UNDEFINE)
@@ -219,27 +236,24 @@ public class Reports implements Task, IReports<ECReports, Tags> {
     					subscriber.enqueue(ecReports);
     				}
     			} else {
-    				Map<PrimaryKey, Tag> past = info.getDatas().getPast();
-    				Map<PrimaryKey, Tag> present = info.getDatas().getPresent();
-
-    				List<Tag> additions = new ArrayList<Tag>();
-    				List<Tag> current = new ArrayList<Tag>();
-    				List<Tag> deletions = new ArrayList<Tag>();
-
-    				// separate additions, current and deletions
-    				for (Entry<PrimaryKey, Tag> pair : present.entrySet()) {
-    					Tag t = past.get(pair.getKey());
-    					if (t != null) {
-    						pair.getValue().merge(t);
+    				Tags datas = info.getDatas();
+    				datas.merge();
+
+    				// additions, current and deletions
+    				List<Tag> additions = datas.getAdditions();
+    				List<Tag> current = datas.getCurrent();
+    				List<Tag> deletions = datas.getDeletions();
+
+    				// determine whether subscribers take the report objects or
+    				// the reports encoded in their wire format
+    				SubscriberController[] subscribers = info.getSubscribers();
+    				boolean objects = false, streams = false;
+    				for (SubscriberController subscriber : subscribers) {
+    					Format format = subscriber instanceof DefaultSubscriberController ? ((DefaultSubscriberController) subscriber).getFormat() : null;
+    					if (format == null) {
+    						objects = true;
     					} else {
-    						additions.add(pair.getValue());
-    					}
-    					current.add(pair.getValue());
-    				}
-    				for (Entry<PrimaryKey, Tag> pair : past.entrySet()) {
-    					if (!present.containsKey(pair.getKey())) {
-    						pair.getValue().clear();
-    						deletions.add(pair.getValue());
+    						streams = true;
     					}
     				}
 
@@ -251,7 +265,18 @@ public class Reports implements Task, IReports<ECReports, Tags> {
     					ecReports.setECSpec(spec);
     				}
 
+    				ReportsWriter writer = null;
     				if (reports != null) {
+    					Plan.Cache cache = plan != null ? plan.cache(current, deletions) : null;
+    					if (streams) {
+    						// write the reports directly for stream subscribers
+    						ECReports header = create(info);
+    						if (spec.isIncludeSpecInReports()) {
+    							header.setECSpec(spec);
+    						}
+    						writer = new ReportsWriter(header, cache);
+    					}
+    					Map<Report, ECReport> evaluated = objects && parallel ? evaluate(additions, current, deletions, cache) : null;
     					for (Report report : reports) {
     						List<Tag> tags;
     						switch (report.getSet()) {
@@ -272,15 +297,19 @@ public class Reports implements Task, IReports<ECReports, Tags> {
     						boolean changed = false;
     						if (report.getSpec().isReportOnlyOnChange())
         						// see ALE spec 2401-2403, change must be calculated in any case
-    							changed = report.processChanged(current /* see ALE spec 2401-2402 */);
+    							changed = report.processChanged(current /* see ALE spec 2401-2402 */, cache);
 
     						// check if at least one reportSpec says reportIfEmpty
-    						if (report.getSpec().isReportIfEmpty()
-    								|| (tags.size() > 0)) {
-    							ECReport ecReport = report.get(tags);
-    							if ((report.getSpec().isReportIfEmpty() || ecReport.getGroup().size() > 0)
-    									&& (!report.getSpec().isReportOnlyOnChange() || changed)) {
-    								ecReports.getReports().getReport().add(ecReport);
+    						if ((report.getSpec().isReportIfEmpty() || (tags.size() > 0))
+    								&& (!report.getSpec().isReportOnlyOnChange() || changed)) {
+    							if (writer != null) {
+    								writer.add(report, tags);
+    							}
+    							if (objects) {
+    								ECReport ecReport = evaluated != null ? evaluated.get(report) : report.get(tags, cache);
+    								if (report.getSpec().isReportIfEmpty() || ecReport.getGroup().size() > 0) {
+    									ecReports.getReports().getReport().add(ecReport);
+    								}
     							}
     						}
     					}
@@ -288,21 +317,14 @@ public class Reports implements Task, IReports<ECReports, Tags> {
 
     				Exits.Log.logp(Exits.Level.Detail, Exits.Core.Cycle.EventCycle.Name, Exits.Core.Cycle.EventCycle.Deliver,
     						"Cycle {0} delivered {1}", new Object[] { this.name, ecReports });
-    				if (ecReports.getReports().getReport().size() > 0) {
-    					// deliver report to each subscriber
-    					for (SubscriberController subscriber : info
-    							.getSubscribers()) {
-    						subscriber.enqueue(ecReports);
-    					}
-    				} else {
-    					// deliver report only to poll or immediate
-    					for (SubscriberController subscriber : info
-    							.getSubscribers()) {
-    						if (subscriber instanceof SubscriberListener) {
-    							subscriber.enqueue(ecReports);
-    						} else {
-    							subscriber.dec();
-    						}
+    				boolean empty = objects ? ecReports.getReports().getReport().size() == 0 : (writer == null) || (writer.size() == 0);
+    				for (SubscriberController subscriber : subscribers) {
+    					if (!empty || (subscriber instanceof SubscriberListener)) {
+    						// deliver report to each subscriber, empty reports
+    						// only to poll or immediate
+    						DefaultSubscriberController.deliver(subscriber, ecReports, writer);
+    					} else {
+    						subscriber.dec();
     					}
     				}
     			}
@@ -316,6 +338,114 @@ public class Reports implements Task, IReports<ECReports, Tags> {
 		}
 	}
 
+	/**
+	 * Creates the report set without reports
+	 *
+	 * @param info
+	 *            The report info
+	 * @return The report set
+	 */
+	private ECReports create(ReportsInfo<ECReports, Tags> info) {
+		return new ECReports(new BigDecimal(1), info.getDate(), name, info.getDate(), Config.getInstance().getGlobal().getAleid(),
+				info.getTotalMilliseconds(), Initiation.toString(info.getInitiation()), info.getInitiator(),
+				Termination.toString(info.getTermination()), info.getTerminator());
+	}
+
+	/**
+	 * Collects a chunk of tags for a list of reports
+	 */
+	private static class Chunk implements Callable<Report.Groups[]> {
+
+		private final List<Report> reports;
+		private final List<Tag> tags;
+		private final Plan.Cache cache;
+
+		Chunk(List<Report> reports, List<Tag> tags, Plan.Cache cache) {
+			this.reports = reports;
+			this.tags = tags;
+			this.cache = cache;
+		}
+
+		@Override
+		public Report.Groups[] call() {
+			Report.Groups[] groups = new Report.Groups[reports.size()];
+			for (int i = 0; i < groups.length; i++) {
+				groups[i] = reports.get(i).collect(tags, cache);
+			}
+			return groups;
+		}
+	}
+
+	/**
+	 * Evaluates the reports of each report set in parallel
+	 *
+	 * @param additions
+	 *            The additions
+	 * @param current
+	 *            The current tags
+	 * @param deletions
+	 *            The deletions
+	 * @param cache
+	 *            The cache of the evaluation plan or null
+	 * @return The report of each report which has to be evaluated
+	 */
+	private Map<Report, ECReport> evaluate(List<Tag> additions, List<Tag> current, List<Tag> deletions, Plan.Cache cache)
+			throws InterruptedException, ExecutionException {
+		Map<Report, ECReport> result = new IdentityHashMap<>();
+		evaluate(Report.Set.ADDITIONS, additions, cache, result);
+		evaluate(Report.Set.CURRENT, current, cache, result);
+		evaluate(Report.Set.DELETIONS, deletions, cache, result);
+		return result;
+	}
+
+	/**
+	 * Evaluates the reports of one report set. Each chunk of tags is collected
+	 * for all reports by one task and the groups of the chunks are merged in
+	 * order afterwards.
+	 *
+	 * @param set
+	 *            The report set
+	 * @param tags
+	 *            The tags of the report set
+	 * @param cache
+	 *            The cache of the evaluation plan or null
+	 * @param result
+	 *            The map to put the reports to
+	 */
+	private void evaluate(Report.Set set, List<Tag> tags, Plan.Cache cache, Map<Report, ECReport> result) throws InterruptedException, ExecutionException {
+		List<Report> list = new ArrayList<>();
+		for (Report report : reports) {
+			if ((report.getSet() == set) && (report.getSpec().isReportIfEmpty() || (tags.size() > 0))) {
+				list.add(report);
+			}
+		}
+		if (list.size() > 0) {
+			List<Chunk> tasks = new ArrayList<>();
+			int start = 0;
+			do {
+				tasks.add(new Chunk(list, tags.subList(start, Math.min(tags.size(), start + chunkSize)), cache));
+				start += chunkSize;
+			} while (start < tags.size());
+
+			List<Report.Groups[]> chunks = new ArrayList<>(tasks.size());
+			if (tasks.size() == 1) {
+				chunks.add(tasks.get(0).call());
+			} else {
+				for (Future<Report.Groups[]> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+					chunks.add(future.get());
+				}
+			}
+
+			for (int i = 0; i < list.size(); i++) {
+				List<Report.Groups> parts = new ArrayList<>(chunks.size());
+				for (Report.Groups[] groups : chunks) {
+					parts.add(groups[i]);
+				}
+				result.put(list.get(i), list.get(i).merge(parts));
+			}
+		}
+	}
+
 	/**
 	 * Returns if a tag match to one filter of any contains reports
 	 *
@@ -325,7 +455,7 @@ public class Reports implements Task, IReports<ECReports, Tags> {
 	 */
 	public Boolean match(Tag tag) {
 		Boolean match = Boolean.FALSE;
-		for (Report report : reports) {
+		for (Report report : plan != null ? plan.getFilters() : reports) {
 			Boolean m = report.getFilter().match(tag);
 			if (Boolean.TRUE.equals(m))
 				return Boolean.TRUE;
@@ -364,6 +494,7 @@ public class Reports implements Task, IReports<ECReports, Tags> {
 				report.dispose();
 	}
 			reports = null;
+			plan = null;
 		}
 		if (fields != null) {
 			for (CommonField field : fields) {
@@ -0,0 +1,452 @@
+package havis.middleware.ale.core.report.ec;
+
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.subscriber.Format;
+import havis.middleware.ale.core.subscriber.Payloads;
+import havis.middleware.ale.service.ec.ECReport;
+import havis.middleware.ale.service.ec.ECReportGroup;
+import havis.middleware.ale.service.ec.ECReportGroupListMember;
+import havis.middleware.ale.service.ec.ECReports;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.dom.DOMResult;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes an event cycle report set directly from the tags of a cycle to a
+ * stream. Instead of building the complete report object tree, the tags of
+ * each group are indexed in a first pass and each member is created, written
+ * and released one after another, so that the memory needed does not depend
+ * on the output of the reports. The structure around the members is taken
+ * from the report objects without members, so the output is the same as
+ * written for the complete report set by JAXB or the default object mapper.
+ * The tags must not be used by another thread while writing, so the report
+ * set is encoded once per format on the report thread.
+ */
+public class ReportsWriter extends Payloads {
+
+	private final static QName NAME = new QName("urn:epcglobal:ale:xsd:1", "ECReports");
+	private final static QName REPORT = new QName("report");
+	private final static QName MEMBER = new QName("member");
+
+	private final static ObjectMapper mapper = new ObjectMapper();
+	private final static ObjectWriter json = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+	private static JAXBContext context;
+
+	/**
+	 * Retrieves the JAXB context
+	 */
+	private synchronized static JAXBContext getContext() throws JAXBException {
+		if (context == null) {
+			context = JAXBContext.newInstance(ECReports.class);
+		}
+		return context;
+	}
+
+	/**
+	 * Indexes of the tags of a group
+	 */
+	private static class Indexes {
+		int[] values = new int[16];
+		int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+	}
+
+	/**
+	 * A report and its tags
+	 */
+	private static class Part {
+		final Report report;
+		final List<Tag> tags;
+
+		/**
+		 * The tags of the default group
+		 */
+		final Indexes group = new Indexes();
+
+		/**
+		 * The tags of the named groups in order of appearance
+		 */
+		final Map<String, Indexes> groups = new LinkedHashMap<String, Indexes>();
+
+		Part(Report report, List<Tag> tags) {
+			this.report = report;
+			this.tags = tags;
+		}
+
+		boolean isEmpty() {
+			return (group.size == 0) && groups.isEmpty();
+		}
+	}
+
+	/**
+	 * Writes a part of the output at the place of an element or field
+	 */
+	private interface Hole {
+		void write() throws IOException, JAXBException, XMLStreamException;
+	}
+
+	private final ECReports header;
+	private final Plan.Cache cache;
+	private final List<Part> parts = new ArrayList<Part>();
+	private boolean prepared;
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param header
+	 *            The report set, reports will be replaced
+	 * @param cache
+	 *            The cache of the evaluation plan or null
+	 */
+	ReportsWriter(ECReports header, Plan.Cache cache) {
+		this.header = header;
+		this.header.setReports(new ECReports.Reports());
+		this.cache = cache;
+	}
+
+	/**
+	 * Adds a report
+	 *
+	 * @param report
+	 *            The report
+	 * @param tags
+	 *            The unfiltered tags of the report
+	 */
+	void add(Report report, List<Tag> tags) {
+		parts.add(new Part(report, tags));
+	}
+
+	/**
+	 * Filters and groups the tags of each report once
+	 */
+	private void prepare() {
+		if (!prepared) {
+			for (Part part : parts) {
+				for (int i = 0; i < part.tags.size(); i++) {
+					Tag tag = part.tags.get(i);
+					if (Boolean.TRUE.equals(cache != null ? cache.match(part.report, tag) : part.report.filter.match(tag))) {
+						List<String> name = part.report.group == null ? Collections.<String> emptyList() : cache != null ? cache.name(part.report, tag)
+								: part.report.group.name(tag);
+						if (name.size() == 0) {
+							part.group.add(i);
+						} else {
+							for (String n : name) {
+								Indexes indexes = part.groups.get(n);
+								if (indexes == null) {
+									part.groups.put(n, indexes = new Indexes());
+								}
+								indexes.add(i);
+							}
+						}
+					}
+				}
+			}
+			for (Iterator<Part> iterator = parts.iterator(); iterator.hasNext();) {
+				Part part = iterator.next();
+				if (part.isEmpty() && !part.report.getSpec().isReportIfEmpty()) {
+					iterator.remove();
+				}
+			}
+			prepared = true;
+		}
+	}
+
+	/**
+	 * Returns the number of reports which will be written
+	 *
+	 * @return The number of reports
+	 */
+	public int size() {
+		prepare();
+		return parts.size();
+	}
+
+	/**
+	 * Writes the report set in the given format to the stream
+	 *
+	 * @param stream
+	 *            The stream
+	 * @param format
+	 *            The format
+	 * @throws IOException
+	 *             if writing failed
+	 */
+	@Override
+	public void write(OutputStream stream, Format format) throws IOException {
+		prepare();
+		switch (format) {
+		case XML:
+			try {
+				writeXml(stream);
+			} catch (JAXBException | XMLStreamException e) {
+				throw new IOException(e);
+			}
+			break;
+		case JSON:
+			writeJson(stream);
+			break;
+		}
+	}
+
+	private void writeXml(OutputStream stream) throws JAXBException, XMLStreamException, IOException {
+		final Marshaller marshaller = getContext().createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+		final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(stream, "UTF-8");
+		writer.writeStartDocument("UTF-8", "1.0");
+
+		copy(element(marshaller, new JAXBElement<ECReports>(NAME, ECReports.class, header)), writer, "reports", new Hole() {
+			@Override
+			public void write() throws IOException, JAXBException, XMLStreamException {
+				for (final Part part : parts) {
+					copy(element(marshaller, new JAXBElement<ECReport>(REPORT, ECReport.class, report(part))), writer, null, new Hole() {
+						@Override
+						public void write() throws IOException, JAXBException, XMLStreamException {
+							writeXml(part, marshaller, writer);
+						}
+					});
+				}
+			}
+		});
+		writer.writeEndDocument();
+		writer.flush();
+		writer.close();
+	}
+
+	private void writeXml(final Part part, final Marshaller marshaller, final XMLStreamWriter writer) throws IOException, JAXBException,
+			XMLStreamException {
+		for (final Entry<String, Indexes> entry : groups(part)) {
+			copy(element(marshaller, new JAXBElement<ECReportGroup>(new QName("group"), ECReportGroup.class, group(part, entry))), writer,
+					"groupList", new Hole() {
+						@Override
+						public void write() throws JAXBException {
+							Indexes indexes = entry.getValue();
+							for (int i = 0; i < indexes.size; i++) {
+								marshaller.marshal(new JAXBElement<ECReportGroupListMember>(MEMBER, ECReportGroupListMember.class, part.report
+										.member(part.tags.get(indexes.values[i]))), writer);
+							}
+						}
+					});
+		}
+	}
+
+	/**
+	 * Marshals an object to a DOM element
+	 */
+	private static Element element(Marshaller marshaller, JAXBElement<?> element) throws JAXBException {
+		DOMResult result = new DOMResult();
+		marshaller.marshal(element, result);
+		return ((Document) result.getNode()).getDocumentElement();
+	}
+
+	/**
+	 * Copies a DOM element to the stream writer. The content of the child
+	 * element with the given name is written by the hole instead, if name is
+	 * null the hole is written before the children.
+	 */
+	private static void copy(Element element, XMLStreamWriter writer, String name, Hole hole) throws IOException, JAXBException,
+			XMLStreamException {
+		writer.writeStartElement(prefix(element), element.getLocalName(), uri(element));
+		NamedNodeMap attributes = element.getAttributes();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			Attr attribute = (Attr) attributes.item(i);
+			if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())) {
+				if (XMLConstants.XMLNS_ATTRIBUTE.equals(attribute.getName())) {
+					writer.writeDefaultNamespace(attribute.getValue());
+				} else {
+					writer.writeNamespace(attribute.getLocalName(), attribute.getValue());
+				}
+			} else if (attribute.getNamespaceURI() != null) {
+				writer.writeAttribute(prefix(attribute), attribute.getNamespaceURI(), attribute.getLocalName(), attribute.getValue());
+			} else {
+				writer.writeAttribute(attribute.getLocalName() != null ? attribute.getLocalName() : attribute.getName(), attribute.getValue());
+			}
+		}
+		if (name == null && hole != null) {
+			hole.write();
+		}
+		for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+			switch (node.getNodeType()) {
+			case Node.ELEMENT_NODE:
+				if (hole != null && name != null && name.equals(node.getLocalName())) {
+					Element child = (Element) node;
+					writer.writeStartElement(prefix(child), child.getLocalName(), uri(child));
+					hole.write();
+					writer.writeEndElement();
+				} else {
+					copy((Element) node, writer, null, null);
+				}
+				break;
+			case Node.TEXT_NODE:
+			case Node.CDATA_SECTION_NODE:
+				writer.writeCharacters(node.getNodeValue());
+				break;
+			}
+		}
+		writer.writeEndElement();
+	}
+
+	private static String prefix(Node node) {
+		return node.getPrefix() == null ? "" : node.getPrefix();
+	}
+
+	private static String uri(Node node) {
+		return node.getNamespaceURI() == null ? "" : node.getNamespaceURI();
+	}
+
+	private void writeJson(OutputStream stream) throws IOException {
+		final JsonGenerator generator = mapper.getFactory().createGenerator(stream, JsonEncoding.UTF8);
+
+		copy(mapper.<JsonNode> valueToTree(header), generator, "reports", new Hole() {
+			@Override
+			public void write() throws IOException {
+				generator.writeStartObject();
+				generator.writeArrayFieldStart("report");
+				for (final Part part : parts) {
+					copy(mapper.<JsonNode> valueToTree(report(part)), generator, "group", new Hole() {
+						@Override
+						public void write() throws IOException {
+							writeJson(part, generator);
+						}
+					});
+				}
+				generator.writeEndArray();
+				generator.writeEndObject();
+			}
+		});
+		generator.flush();
+	}
+
+	private void writeJson(final Part part, final JsonGenerator generator) throws IOException {
+		generator.writeStartArray();
+		for (final Entry<String, Indexes> entry : groups(part)) {
+			JsonNode group = mapper.<JsonNode> valueToTree(group(part, entry));
+			JsonNode list = group.get("groupList");
+			if ((list == null) || list.isNull()) {
+				generator.writeTree(group);
+			} else {
+				copy(group, generator, "groupList", new Hole() {
+					@Override
+					public void write() throws IOException {
+						generator.writeStartObject();
+						generator.writeArrayFieldStart("member");
+						Indexes indexes = entry.getValue();
+						for (int i = 0; i < indexes.size; i++) {
+							json.writeValue(generator, part.report.member(part.tags.get(indexes.values[i])));
+						}
+						generator.writeEndArray();
+						generator.writeEndObject();
+					}
+				});
+			}
+		}
+		generator.writeEndArray();
+	}
+
+	/**
+	 * Copies a JSON object to the generator. The value of the field with the
+	 * given name is written by the hole instead, if the field is missing it
+	 * is appended.
+	 */
+	private static void copy(JsonNode node, JsonGenerator generator, String name, Hole hole) throws IOException {
+		generator.writeStartObject();
+		boolean written = false;
+		for (Iterator<Entry<String, JsonNode>> iterator = node.fields(); iterator.hasNext();) {
+			Entry<String, JsonNode> field = iterator.next();
+			generator.writeFieldName(field.getKey());
+			if (field.getKey().equals(name)) {
+				write(hole);
+				written = true;
+			} else {
+				generator.writeTree(field.getValue());
+			}
+		}
+		if (!written) {
+			generator.writeFieldName(name);
+			write(hole);
+		}
+		generator.writeEndObject();
+	}
+
+	private static void write(Hole hole) throws IOException {
+		try {
+			hole.write();
+		} catch (JAXBException | XMLStreamException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Creates the report without groups
+	 */
+	private static ECReport report(Part part) {
+		ECReport report = new ECReport();
+		report.setReportName(part.report.getName());
+		return report;
+	}
+
+	/**
+	 * Retrieves the default group followed by the named groups
+	 */
+	private static List<Entry<String, Indexes>> groups(Part part) {
+		List<Entry<String, Indexes>> groups = new ArrayList<Entry<String, Indexes>>();
+		if (part.group.size > 0) {
+			groups.add(new AbstractMap.SimpleImmutableEntry<String, Indexes>(null, part.group));
+		}
+		groups.addAll(part.groups.entrySet());
+		return groups;
+	}
+
+	/**
+	 * Creates the group without members
+	 */
+	private static ECReportGroup group(Part part, Entry<String, Indexes> entry) {
+		ECReportGroup group = part.report.getGroup(entry.getKey());
+		if (part.report.getSpec().getOutput().isIncludeCount()) {
+			group.getGroupCount().setCount(entry.getValue().size);
+		}
+		if (!part.report.hasMembers()) {
+			group.setGroupList(null);
+		}
+		return group;
+	}
+}
@@ -0,0 +1,249 @@
+package havis.middleware.ale.core.report.ec;
+
+import havis.middleware.ale.base.operation.tag.Tag;
+
+import java.util.Arrays;
+
+/**
+ * Implements the generation stamped table of past and present tags by
+ * primary key. Each entry holds the tag of the previous cycle, the tag of the
+ * current cycle and the generation i.e. the cycle it was last seen in.
+ * Clearing the present tags only starts a new generation. Tags of the
+ * previous cycle which have not yet timed out are carried over lazily, when
+ * they are seen again or when the present tags are evaluated. Entries are
+ * kept in arrays in insertion order and located by open addressing with
+ * linear probing on the 64 bit hash of the key.
+ */
+class TagTable {
+
+	private PrimaryKey[] keys;
+	private long[] hashes;
+	private Tag[] past;
+	private Tag[] present;
+	private int[] seen;
+
+	/**
+	 * The slots, holding the entry index plus one or zero if empty
+	 */
+	private int[] slots;
+	private int size;
+
+	/**
+	 * The current generation
+	 */
+	private int generation = 1;
+
+	/**
+	 * The time the current generation started
+	 */
+	private long time;
+
+	/**
+	 * Creates a new instance
+	 */
+	TagTable() {
+		init(8);
+	}
+
+	private void init(int capacity) {
+		keys = new PrimaryKey[capacity];
+		hashes = new long[capacity];
+		past = new Tag[capacity];
+		present = new Tag[capacity];
+		seen = new int[capacity];
+		slots = new int[capacity * 2];
+		size = 0;
+	}
+
+	private static int spread(long hash) {
+		int h = (int) (hash ^ (hash >>> 32));
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the entry index of the key or a negative value to encode the
+	 * free slot
+	 */
+	private int find(PrimaryKey key, long hash) {
+		int mask = slots.length - 1;
+		for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+			int slot = slots[i];
+			if (slot == 0) {
+				return -i - 1;
+			}
+			if ((hashes[slot - 1] == hash) && keys[slot - 1].equals(key)) {
+				return slot - 1;
+			}
+		}
+	}
+
+	private void slot(int index) {
+		int mask = slots.length - 1;
+		int i = spread(hashes[index]) & mask;
+		while (slots[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		slots[i] = index + 1;
+	}
+
+	private void grow() {
+		int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		hashes = Arrays.copyOf(hashes, capacity);
+		past = Arrays.copyOf(past, capacity);
+		present = Arrays.copyOf(present, capacity);
+		seen = Arrays.copyOf(seen, capacity);
+		slots = new int[capacity * 2];
+		for (int i = 0; i < size; i++) {
+			slot(i);
+		}
+	}
+
+	/**
+	 * Returns the present tag of an entry. A past tag which has not timed out
+	 * at the start of the generation is carried over as cleared clone.
+	 *
+	 * @param index
+	 *            The entry index
+	 * @return The present tag or null
+	 */
+	Tag present(int index) {
+		if (seen[index] == generation) {
+			return present[index];
+		}
+		Tag tag = past[index];
+		if ((tag != null) && (time - tag.getLastTime().getTime() < tag.getTimeout())) {
+			tag = tag.clone();
+			tag.clear();
+			present[index] = tag;
+			seen[index] = generation;
+			return tag;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the past tag of an entry
+	 *
+	 * @param index
+	 *            The entry index
+	 * @return The past tag or null
+	 */
+	Tag past(int index) {
+		return past[index];
+	}
+
+	/**
+	 * Returns the key of an entry
+	 *
+	 * @param index
+	 *            The entry index
+	 * @return The key
+	 */
+	PrimaryKey key(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * Returns the number of entries, i.e. with a past or present tag
+	 *
+	 * @return The number of entries
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the present tag of the key
+	 *
+	 * @param key
+	 *            The key
+	 * @return The tag or null if key is unknown
+	 */
+	Tag get(PrimaryKey key) {
+		int index = find(key, key.hash());
+		return index < 0 ? null : present(index);
+	}
+
+	/**
+	 * Sets the present tag of the key
+	 *
+	 * @param key
+	 *            The key
+	 * @param tag
+	 *            The tag
+	 */
+	void put(PrimaryKey key, Tag tag) {
+		long hash = key.hash();
+		int index = find(key, hash);
+		if (index < 0) {
+			if (size == keys.length) {
+				grow();
+				index = find(key, hash);
+			}
+			keys[size] = key;
+			hashes[size] = hash;
+			past[size] = null;
+			slots[-index - 1] = size + 1;
+			index = size++;
+		}
+		present[index] = tag;
+		seen[index] = generation;
+	}
+
+	/**
+	 * Starts a new generation, i.e. clears the present tags
+	 *
+	 * @param time
+	 *            The start time of the generation
+	 */
+	void clear(long time) {
+		this.time = time;
+		generation++;
+	}
+
+	/**
+	 * Carries over all past tags which have not timed out
+	 */
+	void carry() {
+		for (int i = 0; i < size; i++) {
+			present(i);
+		}
+	}
+
+	/**
+	 * Makes the present tags the past tags and drops the entries without a
+	 * present tag. The present tags are kept until the next generation.
+	 */
+	void rotate() {
+		carry();
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			if (seen[i] == generation) {
+				keys[n] = keys[i];
+				hashes[n] = hashes[i];
+				past[n] = present[i];
+				present[n] = present[i];
+				seen[n] = generation;
+				n++;
+			}
+		}
+		if (n < size) {
+			Arrays.fill(keys, n, size, null);
+			Arrays.fill(past, n, size, null);
+			Arrays.fill(present, n, size, null);
+			size = n;
+			Arrays.fill(slots, 0);
+			for (int i = 0; i < size; i++) {
+				slot(i);
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries
+	 */
+	void reset() {
+		init(8);
+	}
+}
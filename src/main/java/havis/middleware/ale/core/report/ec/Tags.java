@@ -3,78 +3,197 @@ package havis.middleware.ale.core.report.ec;
 import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.core.report.IDatas;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
- * Implements the tags container
+ * Implements the tags container. The tags of the previous and the current
+ * cycle are kept in one generation stamped table. A clone is a snapshot of
+ * the additions, current tags and deletions, which are derived from the table
+ * in one pass.
  */
 public class Tags implements IDatas, Cloneable {
 
 	/**
-	 * Tags of the previous cycle
+	 * Tags of the previous and the current cycle, null on snapshots
 	 */
-	private Map<PrimaryKey, Tag> past;
+	private TagTable table;
 
 	/**
-	 * tags of the current cycle
+	 * The sets of a snapshot, null on the container itself
 	 */
-	private Map<PrimaryKey, Tag> present;
+	private Sets sets;
+
+	/**
+	 * The sets of tags to report
+	 */
+	private static class Sets {
+
+		/**
+		 * Tags of the current cycle not seen in the previous cycle
+		 */
+		final List<Tag> additions = new ArrayList<Tag>();
+
+		/**
+		 * Tags of the current cycle
+		 */
+		final List<Tag> current = new ArrayList<Tag>();
+
+		/**
+		 * Tags of the previous cycle not seen in the current cycle
+		 */
+		final List<Tag> deletions = new ArrayList<Tag>();
+
+		/**
+		 * Pairs of current and previous tag seen in both cycles
+		 */
+		final List<Tag> merges = new ArrayList<Tag>();
+	}
 
 	/**
 	 * Creates a new instance
 	 */
 	public Tags() {
-		init();
+		table = new TagTable();
 	}
 
-	public Map<PrimaryKey, Tag> getPast() {
-		return past;
+	private Tags(Sets sets) {
+		this.sets = sets;
 	}
 
-	public Map<PrimaryKey, Tag> getPresent() {
-		return present;
+	/**
+	 * Returns a copy of the tags of the previous cycle
+	 *
+	 * @return The tags by primary key
+	 */
+	public synchronized Map<PrimaryKey, Tag> getPast() {
+		Map<PrimaryKey, Tag> map = new LinkedHashMap<PrimaryKey, Tag>();
+		if (table != null) {
+			for (int i = 0; i < table.size(); i++) {
+				if (table.past(i) != null) {
+					map.put(table.key(i), table.past(i));
+				}
+			}
+		}
+		return map;
 	}
 
-	private void init() {
-		past = new LinkedHashMap<PrimaryKey, Tag>();
-		present = new LinkedHashMap<PrimaryKey, Tag>();
+	/**
+	 * Returns a copy of the tags of the current cycle
+	 *
+	 * @return The tags by primary key
+	 */
+	public synchronized Map<PrimaryKey, Tag> getPresent() {
+		Map<PrimaryKey, Tag> map = new LinkedHashMap<PrimaryKey, Tag>();
+		if (table != null) {
+			for (int i = 0; i < table.size(); i++) {
+				Tag tag = table.present(i);
+				if (tag != null) {
+					map.put(table.key(i), tag);
+				}
+			}
+		}
+		return map;
 	}
 
 	/**
-	 * Clears the present container and puts all tags from the past container,
-	 * which have not yet timed out, to the present container
+	 * Returns the tags of the current cycle, which were not seen in the
+	 * previous cycle
+	 *
+	 * @return The additions
 	 */
-	@Override
-    public void clear() {
-		long now = System.currentTimeMillis();
-		present = new LinkedHashMap<PrimaryKey, Tag>();
-		for (Entry<PrimaryKey, Tag> pair : past.entrySet()) {
-			if (now - pair.getValue().getLastTime().getTime() < pair.getValue()
-					.getTimeout()) {
-				Tag t = pair.getValue().clone();
-				t.clear();
-				present.put(pair.getKey(), t);
+	public List<Tag> getAdditions() {
+		return Collections.unmodifiableList(sets().additions);
+	}
+
+	/**
+	 * Returns the tags of the current cycle
+	 *
+	 * @return The current tags
+	 */
+	public List<Tag> getCurrent() {
+		return Collections.unmodifiableList(sets().current);
+	}
+
+	/**
+	 * Returns the tags of the previous cycle, which were not seen in the
+	 * current cycle
+	 *
+	 * @return The deletions
+	 */
+	public List<Tag> getDeletions() {
+		return Collections.unmodifiableList(sets().deletions);
+	}
+
+	/**
+	 * Merges the tags of the previous cycle into the tags of the current
+	 * cycle and clears the deleted tags. Called once before the reports are
+	 * evaluated.
+	 */
+	public void merge() {
+		Sets sets = sets();
+		for (int i = 0; i < sets.merges.size(); i += 2) {
+			sets.merges.get(i).merge(sets.merges.get(i + 1));
+		}
+		for (Tag tag : sets.deletions) {
+			tag.clear();
+		}
+	}
+
+	private Sets sets() {
+		return sets != null ? sets : evaluate();
+	}
+
+	/**
+	 * Derives the sets from the table in one pass
+	 */
+	private synchronized Sets evaluate() {
+		Sets sets = new Sets();
+		for (int i = 0; i < table.size(); i++) {
+			Tag present = table.present(i);
+			Tag past = table.past(i);
+			if (present != null) {
+				sets.current.add(present);
+				if (past != null) {
+					sets.merges.add(present);
+					sets.merges.add(past);
+				} else {
+					sets.additions.add(present);
+				}
+			} else if (past != null) {
+				sets.deletions.add(past);
 			}
 		}
+		return sets;
 	}
 
 	/**
-	 * Clears the past container and copies all tags
-	 * from the preset container to the past container
+	 * Clears the present container. All tags from the past container, which
+	 * have not yet timed out, will be carried over to the present container
 	 */
 	@Override
-    public void rotate() {
-		past = new LinkedHashMap<PrimaryKey, Tag>(present);
+	public void clear() {
+		table.clear(System.currentTimeMillis());
+	}
+
+	/**
+	 * Makes the tags of the present container the tags of the past
+	 * container
+	 */
+	@Override
+	public void rotate() {
+		table.rotate();
 	}
 
 	/**
 	 * Resets the past and present container
 	 */
 	@Override
-    public void reset() {
-		init();
+	public void reset() {
+		table.reset();
 	}
 
 	/**
@@ -85,7 +204,7 @@ public class Tags implements IDatas, Cloneable {
 	 * @return The output value
 	 */
 	public Tag get(PrimaryKey key) {
-		return present.get(key);
+		return table.get(key);
 	}
 
 	/**
@@ -94,11 +213,12 @@ public class Tags implements IDatas, Cloneable {
 	 * @return true if the key is in the list, false otherwise
 	 */
 	public boolean contains(PrimaryKey key) {
-		return present.containsKey(key);
+		return table.get(key) != null;
 	}
 
 	/**
-	 * Adds a new tag to present container
+	 * Adds a new tag to present container. The key must not be reused
+	 * afterwards, see {@link PrimaryKey#copy()}.
 	 *
 	 * @param key
 	 *            The key
@@ -106,28 +226,27 @@ public class Tags implements IDatas, Cloneable {
 	 *            The tag
 	 */
 	public void add(PrimaryKey key, Tag tag) {
-		present.put(key, tag);
+		table.put(key, tag);
 	}
 
 	/**
-	 * Clones the object
+	 * Returns a snapshot of the additions, current tags and deletions
 	 */
 	@Override
 	public Tags clone() {
-		try {
-			return (Tags) super.clone();
-		} catch (CloneNotSupportedException e) {
-			return null;
-		}
+		return new Tags(sets());
 	}
 
 	@Override
 	public String toString() {
-		return "Tags [past=" + past + ", present=" + present + "]";
+		if (sets != null) {
+			return "Tags [additions=" + sets.additions + ", current=" + sets.current + ", deletions=" + sets.deletions + "]";
+		}
+		return "Tags [past=" + getPast() + ", present=" + getPresent() + "]";
 	}
 
 	@Override
 	public void dispose() {
 		// nothing to do
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,365 @@
+package havis.middleware.ale.core.report.pattern;
+
+import havis.middleware.misc.TdtWrapper;
+import havis.middleware.tdt.EpcTagDataTranslationX;
+import havis.middleware.tdt.FieldX;
+import havis.middleware.tdt.LevelTypeList;
+import havis.middleware.tdt.LevelX;
+import havis.middleware.tdt.OptionX;
+import havis.middleware.tdt.SchemeX;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class describes the binary layout of a TDT scheme option, i.e. the
+ * constant bits like header and partition and the bit offset and length of
+ * each field. It is used to evaluate patterns directly on the EPC bits and to
+ * encode EPC bits without an URI round-trip.
+ */
+class EpcLayout {
+
+	/**
+	 * The bindings by level and prefix
+	 */
+	private static Map<String, List<Binding>> bindings = new ConcurrentHashMap<String, List<Binding>>();
+
+	/**
+	 * The layouts by binary option
+	 */
+	private static Map<OptionX, EpcLayout> layouts = new IdentityHashMap<OptionX, EpcLayout>();
+
+	/**
+	 * The total bit length
+	 */
+	final int length;
+
+	/**
+	 * The offset, length and value of each constant bit sequence
+	 */
+	final int[] constantOffset, constantLength;
+	final long[] constantValue;
+
+	/**
+	 * The offset and length of each field by name
+	 */
+	final Map<String, int[]> fields;
+
+	private EpcLayout(int length, int[] constantOffset, int[] constantLength, long[] constantValue, Map<String, int[]> fields) {
+		this.length = length;
+		this.constantOffset = constantOffset;
+		this.constantLength = constantLength;
+		this.constantValue = constantValue;
+		this.fields = fields;
+	}
+
+	/**
+	 * Binds the fields of an URI level option to the binary layout of the
+	 * same scheme option
+	 */
+	static class Binding {
+
+		/**
+		 * The URI level fields in order of the pattern parts
+		 */
+		final List<FieldX> fields;
+
+		/**
+		 * The binary layout
+		 */
+		final EpcLayout layout;
+
+		Binding(List<FieldX> fields, EpcLayout layout) {
+			this.fields = fields;
+			this.layout = layout;
+		}
+
+		/**
+		 * Indicates if this binding belongs to the URI level fields
+		 *
+		 * @param fields
+		 *            The URI level fields of an option
+		 * @return True if fields are the same, false otherwise
+		 */
+		boolean binds(Collection<FieldX> fields) {
+			if (fields.size() != this.fields.size())
+				return false;
+			Iterator<FieldX> i = this.fields.iterator();
+			for (FieldX field : fields) {
+				if (field != i.next())
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Returns the offset and length of the binary field which corresponds
+		 * to the URI field at index, if the field is a decimal number which
+		 * fits into a long value
+		 *
+		 * @param index
+		 *            The URI field index
+		 * @return The offset and length or null
+		 */
+		int[] numeric(int index) {
+			FieldX field = fields.get(index);
+			if ((field.getDecimalMinimum() != null) && (field.getDecimalMaximum() != null)) {
+				int[] position = layout.fields.get(field.getName());
+				if ((position != null) && (position[1] < 64)) {
+					return position;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Clears the cached layouts, i.e. after the TDT definitions were reset
+	 */
+	static void reset() {
+		bindings.clear();
+		synchronized (layouts) {
+			layouts.clear();
+		}
+	}
+
+	/**
+	 * Returns the bindings of all scheme options on level with prefix
+	 *
+	 * @param level
+	 *            The level
+	 * @param prefix
+	 *            The prefix i.e. urn:epc:id:sgtin
+	 * @return The bindings or null if any option could not be bound to a
+	 *         binary layout
+	 */
+	static List<Binding> bindings(LevelTypeList level, String prefix) {
+		String key = level + prefix;
+		List<Binding> list = bindings.get(key);
+		if (list == null) {
+			list = new ArrayList<Binding>();
+			for (EpcTagDataTranslationX translation : TdtWrapper.getTdt().getTdtDefinitions().getDefinitions()) {
+				for (SchemeX scheme : translation.getSchemes()) {
+					LevelX binary = null, uri = null;
+					for (LevelX l : scheme.getLevels()) {
+						if (l.getType() == LevelTypeList.BINARY) {
+							binary = l;
+						} else if ((l.getType() == level) && prefix.equals(l.getPrefixMatch())) {
+							uri = l;
+						}
+					}
+					if (uri != null) {
+						if (binary == null) {
+							list = null;
+							break;
+						}
+						for (OptionX option : uri.getOptions()) {
+							EpcLayout layout = null;
+							for (OptionX o : binary.getOptions()) {
+								if (Objects.equals(option.getOptionKey(), o.getOptionKey())) {
+									layout = layout(o);
+									break;
+								}
+							}
+							if (layout == null) {
+								list = null;
+								break;
+							}
+							list.add(new Binding(new ArrayList<FieldX>(option.getFields()), layout));
+						}
+					}
+					if (list == null)
+						break;
+				}
+				if (list == null)
+					break;
+			}
+			list = list == null ? Collections.<Binding> emptyList() : Collections.unmodifiableList(list);
+			bindings.put(key, list);
+		}
+		return list.isEmpty() ? null : list;
+	}
+
+	/**
+	 * Returns the layout of a binary option
+	 *
+	 * @param option
+	 *            The binary option
+	 * @return The layout or null if the option pattern is not supported
+	 */
+	static EpcLayout layout(OptionX option) {
+		synchronized (layouts) {
+			if (layouts.containsKey(option))
+				return layouts.get(option);
+			EpcLayout layout = parse(option.getPattern(), option.getFields());
+			layouts.put(option, layout);
+			return layout;
+		}
+	}
+
+	/**
+	 * Parses a binary option pattern like
+	 * <code>00110000([01]{3})101([01]{20})([01]{24})([01]{38})</code> with
+	 * constant bits and one group per field in order of the field sequence
+	 *
+	 * @param pattern
+	 *            The binary option pattern
+	 * @param fields
+	 *            The binary fields
+	 * @return The layout or null if pattern is not supported
+	 */
+	static EpcLayout parse(String pattern, Collection<FieldX> fields) {
+		if (pattern == null)
+			return null;
+		List<int[]> constants = new ArrayList<int[]>();
+		List<Long> values = new ArrayList<Long>();
+		Map<String, int[]> map = new HashMap<String, int[]>();
+		Iterator<FieldX> iterator = fields.iterator();
+		int offset = 0, start = -1;
+		long value = 0;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			switch (c) {
+			case '^':
+			case '$':
+				break;
+			case '0':
+			case '1':
+				if ((start < 0) || (offset - start == 64)) {
+					if (start >= 0) {
+						constants.add(new int[] { start, offset - start });
+						values.add(Long.valueOf(value));
+					}
+					start = offset;
+					value = 0;
+				}
+				value = (value << 1) | (c - '0');
+				offset++;
+				break;
+			case '(':
+				if (start >= 0) {
+					constants.add(new int[] { start, offset - start });
+					values.add(Long.valueOf(value));
+					start = -1;
+				}
+				if (!pattern.startsWith("([01]{", i) || !iterator.hasNext())
+					return null;
+				int end = pattern.indexOf("})", i);
+				if (end < 0)
+					return null;
+				int length;
+				try {
+					length = Integer.parseInt(pattern.substring(i + 6, end));
+				} catch (NumberFormatException e) {
+					return null;
+				}
+				map.put(iterator.next().getName(), new int[] { offset, length });
+				offset += length;
+				i = end + 1;
+				break;
+			default:
+				return null;
+			}
+		}
+		if (start >= 0) {
+			constants.add(new int[] { start, offset - start });
+			values.add(Long.valueOf(value));
+		}
+		if (iterator.hasNext())
+			return null;
+		int[] constantOffset = new int[constants.size()], constantLength = new int[constants.size()];
+		long[] constantValue = new long[constants.size()];
+		for (int i = 0; i < constants.size(); i++) {
+			constantOffset[i] = constants.get(i)[0];
+			constantLength[i] = constants.get(i)[1];
+			constantValue[i] = values.get(i).longValue();
+		}
+		return new EpcLayout(offset, constantOffset, constantLength, constantValue, map);
+	}
+
+	/**
+	 * Indicates if the EPC has the constant bits of this layout
+	 *
+	 * @param epc
+	 *            The EPC
+	 * @return True if EPC has this layout, false otherwise
+	 */
+	boolean matches(byte[] epc) {
+		if ((epc == null) || (epc.length * 8 < length))
+			return false;
+		for (int i = 0; i < constantOffset.length; i++) {
+			if (get(epc, constantOffset[i], constantLength[i]) != constantValue[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Creates the EPC with the constant bits of this layout
+	 *
+	 * @return The EPC or null if the bit length is not a multiple of 16
+	 */
+	byte[] create() {
+		if (length % 16 != 0)
+			return null;
+		byte[] epc = new byte[length / 8];
+		for (int i = 0; i < constantOffset.length; i++) {
+			set(epc, constantOffset[i], constantLength[i], constantValue[i]);
+		}
+		return epc;
+	}
+
+	/**
+	 * Returns up to 64 bits of data as unsigned value
+	 *
+	 * @param data
+	 *            The data
+	 * @param offset
+	 *            The bit offset
+	 * @param length
+	 *            The bit length, not greater than 64
+	 * @return The value
+	 */
+	static long get(byte[] data, int offset, int length) {
+		long value = 0;
+		int end = offset + length;
+		while (offset < end) {
+			int bit = offset & 7, count = Math.min(8 - bit, end - offset);
+			int b = (data[offset >> 3] & 0xFF) >> (8 - bit - count);
+			value = (value << count) | (b & ((1 << count) - 1));
+			offset += count;
+		}
+		return value;
+	}
+
+	/**
+	 * Sets up to 64 bits of data
+	 *
+	 * @param data
+	 *            The data
+	 * @param offset
+	 *            The bit offset
+	 * @param length
+	 *            The bit length, not greater than 64
+	 * @param value
+	 *            The value
+	 */
+	static void set(byte[] data, int offset, int length, long value) {
+		int end = offset + length;
+		while (end > offset) {
+			int bit = (end - 1) & 7, count = Math.min(bit + 1, end - offset);
+			int shift = 7 - bit, mask = ((1 << count) - 1) << shift;
+			data[(end - 1) >> 3] = (byte) ((data[(end - 1) >> 3] & ~mask) | (((int) value << shift) & mask));
+			value >>>= count;
+			end -= count;
+		}
+	}
+}
@@ -169,6 +169,59 @@ class Part {
 		}
 	}
 
+	/**
+	 * Tests if the given region of a string match to type an the internal
+	 * characteristics without creating a sub string
+	 *
+	 * @param s
+	 *            The string which contains the testing value
+	 * @param start
+	 *            The start index of the value, inclusive
+	 * @param end
+	 *            The end index of the value, exclusive
+	 * @return Returns true if part match otherwise false
+	 */
+	boolean match(String s, int start, int end) {
+		switch (type) {
+		case X:
+			return true;
+		case ASTERISK:
+			return true;
+		case VALUE:
+			return (value.length() == end - start) && s.regionMatches(start, value, 0, end - start);
+		case RANGE:
+			long num = parse(s, start, end);
+			return ((num >= min) && (num <= max));
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Parses the given region of a string as a positive decimal number
+	 *
+	 * @param s
+	 *            The string
+	 * @param start
+	 *            The start index, inclusive
+	 * @param end
+	 *            The end index, exclusive
+	 * @return The number or -1 if the region is empty, contains other
+	 *         characters than digits or exceeds the long range
+	 */
+	static long parse(String s, int start, int end) {
+		if ((end <= start) || (end - start > 18))
+			return -1;
+		long num = 0;
+		for (int i = start; i < end; i++) {
+			char c = s.charAt(i);
+			if ((c < '0') || (c > '9'))
+				return -1;
+			num = num * 10 + (c - '0');
+		}
+		return num;
+	}
+
 	/**
 	 * Returns the group name for this position depending an part type
 	 *
@@ -232,6 +285,24 @@ class Part {
 		}
 	}
 
+	/**
+	 * Retrieves the current numeric value. Make sure that next is true before
+	 * using value.
+	 *
+	 * @return The current value or -1 if not active or not numeric
+	 */
+	long getValue() {
+		if (Boolean.TRUE.equals(active)) {
+			if (type == PartType.VALUE) {
+				return parse(value, 0, value.length());
+			} else {
+				return current;
+			}
+		} else {
+			return -1;
+		}
+	}
+
 	/**
 	 * Returns if part has next value
 	 *
@@ -27,7 +27,10 @@ public class Pattern implements IPattern {
 	LevelTypeList level;
 	String prefix;
 	List<Part> parts;
+	Collection<FieldX> fields;
 	boolean init;
+	EpcLayout.Binding binding;
+	boolean bound;
 
 	/**
 	 * Creates pattern instance. Validate each part within pattern.
@@ -54,6 +57,8 @@ public class Pattern implements IPattern {
 		this.level = level;
 		// keep encoding
 		this.prefix = prefix;
+		// keep fields
+		this.fields = fields;
 		// validate parts
 		parts = createParts(type, suffixes, fields);
 	}
@@ -316,6 +321,45 @@ public class Pattern implements IPattern {
 		return prefix + ":" + Converter.join(name, '.');
 	}
 
+	/**
+	 * Returns the EPC of the current value as determined by the last call of
+	 * {@link #next()}. The EPC is encoded directly into the binary layout of
+	 * the TDT scheme option without an URI translation.
+	 *
+	 * @return The EPC or null if the layout does not support direct encoding
+	 */
+	public byte[] encode() {
+		if (!bound) {
+			if (level == LevelTypeList.TAG_ENCODING) {
+				List<EpcLayout.Binding> bindings = EpcLayout.bindings(level, prefix);
+				if (bindings != null) {
+					for (EpcLayout.Binding b : bindings) {
+						// tag encoding has to cover each binary field
+						if (b.binds(fields) && (b.layout.fields.size() == parts.size())) {
+							binding = b;
+							break;
+						}
+					}
+				}
+			}
+			bound = true;
+		}
+		if (binding != null) {
+			byte[] epc = binding.layout.create();
+			if (epc != null) {
+				for (int i = 0; i < parts.size(); i++) {
+					int[] position = binding.numeric(i);
+					long value = parts.get(i).getValue();
+					if ((position == null) || (value < 0))
+						return null;
+					EpcLayout.set(epc, position[0], position[1], value);
+				}
+				return epc;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Returns string representation of pattern
 	 *
@@ -0,0 +1,716 @@
+package havis.middleware.ale.core.report.pattern;
+
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.Tag.Property;
+import havis.middleware.ale.base.operation.tag.result.Result;
+import havis.middleware.tdt.FieldX;
+import havis.middleware.tdt.LevelTypeList;
+import havis.middleware.tdt.TdtTagInfo;
+import havis.middleware.tdt.TdtTranslationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class is used to compile a list of disjoint EPC {@link Pattern} once
+ * into an index. Patterns are grouped by level and prefix. Within each group
+ * the position with the most distinct values is used as key position, the
+ * values and ranges of this position are stored as sorted interval table. A
+ * tag is matched by a binary search in the interval table of its prefix and
+ * a verification of the few remaining candidates. Matching works directly on
+ * the tag URI without creating sub strings.
+ *
+ * If all patterns could be bound to the binary layout of their TDT scheme
+ * options, the patterns are additionally compiled to bit ranges per layout,
+ * and tags are matched on the EPC bits without any URI translation.
+ */
+class PatternIndex {
+
+	private final static Logger log = Logger.getLogger(PatternIndex.class.getName());
+
+	/**
+	 * The pattern groups by level and prefix
+	 */
+	private final Entry[] entries;
+
+	/**
+	 * The bit patterns by binary layout or null if patterns could not be
+	 * compiled to bits
+	 */
+	private final Layout[] layouts;
+
+	/**
+	 * Indicates if any entry needs the URI tag or URI id
+	 */
+	private final boolean tag, id;
+
+	private PatternIndex(Entry[] entries, Layout[] layouts) {
+		this.entries = entries;
+		this.layouts = layouts;
+		boolean tag = false, id = false;
+		for (Entry entry : entries) {
+			if (entry.level == LevelTypeList.TAG_ENCODING)
+				tag = true;
+			else
+				id = true;
+		}
+		this.tag = tag;
+		this.id = id;
+	}
+
+	/**
+	 * Compiles the patterns into a index
+	 *
+	 * @param patterns
+	 *            The disjoint patterns
+	 * @return The index or null if patterns are empty or contain other than
+	 *         EPC patterns
+	 */
+	static PatternIndex compile(Collection<IPattern> patterns) {
+		if (patterns.isEmpty())
+			return null;
+		Map<String, List<Pattern>> groups = new LinkedHashMap<String, List<Pattern>>();
+		for (IPattern pattern : patterns) {
+			if (pattern instanceof Pattern) {
+				Pattern p = (Pattern) pattern;
+				if ((p.level != LevelTypeList.TAG_ENCODING) && (p.level != LevelTypeList.PURE_IDENTITY))
+					return null;
+				String key = p.level + p.prefix;
+				List<Pattern> group = groups.get(key);
+				if (group == null)
+					groups.put(key, group = new ArrayList<Pattern>());
+				group.add(p);
+			} else {
+				return null;
+			}
+		}
+		List<Entry> entries = new ArrayList<Entry>();
+		for (List<Pattern> group : groups.values()) {
+			entries.add(new Entry(group));
+		}
+		return new PatternIndex(entries.toArray(new Entry[entries.size()]), Layout.compile(groups.values()));
+	}
+
+	/**
+	 * Returns the URI of the tag info for the level
+	 */
+	private static String uri(TdtTagInfo info, LevelTypeList level) throws TdtTranslationException {
+		return level == LevelTypeList.TAG_ENCODING ? info.getUriTag() : info.getUriId();
+	}
+
+	/**
+	 * Returns the bit patterns for the EPC
+	 *
+	 * @param epc
+	 *            The EPC
+	 * @return The bit patterns of the layout or null
+	 */
+	private Layout layout(byte[] epc) {
+		for (Layout layout : layouts) {
+			if (layout.layout.matches(epc))
+				return layout;
+		}
+		return null;
+	}
+
+	/**
+	 * Indicates if tag match to one pattern. Evaluates the EPC bits if
+	 * possible, the tag info otherwise.
+	 *
+	 * @param tag
+	 *            The tag
+	 * @return True if one pattern match, false otherwise
+	 */
+	boolean match(Tag tag) {
+		byte[] epc;
+		if ((layouts != null) && ((epc = tag.getEpc()) != null)) {
+			Layout layout = layout(epc);
+			if (layout == null)
+				return false;
+			if (layout.supported)
+				return layout.find(epc, null);
+		}
+		return match(tag.<TdtTagInfo> getProperty(Property.TAG_INFO));
+	}
+
+	/**
+	 * Indicates if tag info match to one pattern
+	 *
+	 * @param info
+	 *            The tag info
+	 * @return True if one pattern match, false otherwise
+	 */
+	boolean match(TdtTagInfo info) {
+		if (info != null) {
+			try {
+				String uriTag = tag ? info.getUriTag() : null;
+				String uriId = id ? info.getUriId() : null;
+				for (Entry entry : entries) {
+					if (entry.find(entry.level == LevelTypeList.TAG_ENCODING ? uriTag : uriId) != null)
+						return true;
+				}
+			} catch (TdtTranslationException e) {
+				log.log(Level.WARNING, "Failed to decode tag", e);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the group names of all matching patterns to the list. Locates the
+	 * matching patterns by the EPC bits if possible, by the tag info
+	 * otherwise.
+	 *
+	 * @param tag
+	 *            The tag
+	 * @param result
+	 *            The read result
+	 * @param names
+	 *            The group name list
+	 */
+	void name(Tag tag, Result result, List<String> names) {
+		TdtTagInfo info = tag.<TdtTagInfo> getProperty(Property.TAG_INFO);
+		byte[] epc;
+		if ((info != null) && (layouts != null) && ((epc = tag.getEpc()) != null)) {
+			Layout layout = layout(epc);
+			if (layout == null)
+				return;
+			if (layout.supported) {
+				List<Pattern> list = new ArrayList<Pattern>(1);
+				layout.find(epc, list);
+				for (Pattern pattern : list) {
+					String name = pattern.name(info, result);
+					if (name != null)
+						names.add(name);
+				}
+				return;
+			}
+		}
+		name(info, result, names);
+	}
+
+	/**
+	 * Adds the group names of all matching patterns to the list
+	 *
+	 * @param info
+	 *            The tag info
+	 * @param result
+	 *            The read result
+	 * @param names
+	 *            The group name list
+	 */
+	void name(TdtTagInfo info, Result result, List<String> names) {
+		if (info != null) {
+			for (Entry entry : entries) {
+				try {
+					Pattern pattern = entry.find(uri(info, entry.level));
+					if (pattern != null) {
+						String name = pattern.name(info, result);
+						if (name != null)
+							names.add(name);
+					}
+				} catch (TdtTranslationException e) {
+					log.log(Level.WARNING, "Failed to decode tag", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A sorted interval table which maps a value to the candidates of all
+	 * intervals containing the value
+	 */
+	static class Table {
+
+		private final static int[] EMPTY = new int[0];
+
+		/**
+		 * The sorted left bounds of the elementary intervals
+		 */
+		final long[] bounds;
+
+		/**
+		 * The candidate indices for each elementary interval
+		 */
+		final int[][] candidates;
+
+		/**
+		 * The indices without interval which have to be verified in each case
+		 */
+		final int[] fallback;
+
+		/**
+		 * Creates a new table
+		 *
+		 * @param intervals
+		 *            The interval of each index, null if index has no
+		 *            interval
+		 */
+		Table(long[][] intervals) {
+			TreeSet<Long> set = new TreeSet<Long>();
+			List<Integer> fallback = new ArrayList<Integer>();
+			for (int i = 0; i < intervals.length; i++) {
+				long[] interval = intervals[i];
+				if (interval == null) {
+					fallback.add(Integer.valueOf(i));
+				} else {
+					set.add(Long.valueOf(interval[0]));
+					if (interval[1] < Long.MAX_VALUE)
+						set.add(Long.valueOf(interval[1] + 1));
+				}
+			}
+			this.fallback = toArray(fallback);
+
+			bounds = new long[set.size()];
+			int i = 0;
+			for (Long bound : set) {
+				bounds[i++] = bound.longValue();
+			}
+			candidates = new int[bounds.length][];
+			for (i = 0; i < bounds.length; i++) {
+				List<Integer> list = new ArrayList<Integer>();
+				for (int j = 0; j < intervals.length; j++) {
+					long[] interval = intervals[j];
+					if ((interval != null) && (interval[0] <= bounds[i]) && (interval[1] >= bounds[i]))
+						list.add(Integer.valueOf(j));
+				}
+				candidates[i] = toArray(list);
+			}
+		}
+
+		private static int[] toArray(List<Integer> list) {
+			int[] array = list.isEmpty() ? EMPTY : new int[list.size()];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = list.get(i).intValue();
+			}
+			return array;
+		}
+
+		/**
+		 * Returns the candidates of all intervals containing the value
+		 *
+		 * @param value
+		 *            The value, negative if value is not numeric
+		 * @return The candidate indices
+		 */
+		int[] get(long value) {
+			if (value >= 0) {
+				int i = Arrays.binarySearch(bounds, value);
+				if (i < 0)
+					i = -i - 2;
+				if (i >= 0)
+					return candidates[i];
+			}
+			return EMPTY;
+		}
+
+		/**
+		 * Returns the number of distinct intervals
+		 */
+		static int distinct(long[][] intervals) {
+			List<String> distinct = new ArrayList<String>();
+			for (long[] interval : intervals) {
+				if (interval != null) {
+					String s = interval[0] + "-" + interval[1];
+					if (!distinct.contains(s))
+						distinct.add(s);
+				}
+			}
+			return distinct.size();
+		}
+	}
+
+	/**
+	 * A group of patterns with same level and prefix
+	 */
+	static class Entry {
+
+		final LevelTypeList level;
+		final String prefix;
+
+		/**
+		 * The patterns
+		 */
+		final Pattern[] patterns;
+
+		/**
+		 * The key position
+		 */
+		final int key;
+
+		/**
+		 * The interval table of the key position
+		 */
+		final Table table;
+
+		Entry(List<Pattern> patterns) {
+			Pattern first = patterns.get(0);
+			this.level = first.level;
+			this.prefix = first.prefix;
+			this.patterns = patterns.toArray(new Pattern[patterns.size()]);
+
+			int count = first.parts.size(), key = 0, max = -1;
+			for (Pattern pattern : patterns) {
+				if (pattern.parts.size() != count)
+					count = 1;
+			}
+			long[][] table = new long[this.patterns.length][];
+			for (int i = 0; i < count; i++) {
+				long[][] intervals = new long[this.patterns.length][];
+				for (int j = 0; j < intervals.length; j++) {
+					intervals[j] = interval(this.patterns[j].parts.get(i));
+				}
+				int distinct = Table.distinct(intervals);
+				if (distinct > max) {
+					max = distinct;
+					key = i;
+					table = intervals;
+				}
+			}
+			this.key = key;
+			this.table = new Table(table);
+		}
+
+		/**
+		 * Returns the numeric interval of a part
+		 *
+		 * @return The interval or null if part is a wildcard or a non numeric
+		 *         value
+		 */
+		static long[] interval(Part part) {
+			switch (part.type) {
+			case VALUE:
+				long value = Part.parse(part.value, 0, part.value.length());
+				return value < 0 ? null : new long[] { value, value };
+			case RANGE:
+				return new long[] { part.min, part.max };
+			default:
+				return null;
+			}
+		}
+
+		/**
+		 * Returns the matching pattern for the URI
+		 *
+		 * @param uri
+		 *            The tag URI
+		 * @return The matching pattern or null
+		 */
+		Pattern find(String uri) {
+			int length = prefix.length();
+			if ((uri == null) || (uri.length() <= length) || (uri.charAt(length) != ':') || !uri.startsWith(prefix))
+				return null;
+			// locate key part
+			int start = length + 1, end, index = 0;
+			while (true) {
+				end = end(uri, start);
+				if ((end < 0) || (index == key))
+					break;
+				if (end == uri.length())
+					return null;
+				start = end + 1;
+				index++;
+			}
+			if (end < 0)
+				return null;
+			for (int i : table.get(Part.parse(uri, start, end))) {
+				if (verify(patterns[i], uri))
+					return patterns[i];
+			}
+			for (int i : table.fallback) {
+				if (verify(patterns[i], uri))
+					return patterns[i];
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the end of the part which starts at index
+		 *
+		 * @return The end of the part or -1 if the URI contains a further
+		 *         colon
+		 */
+		static int end(String uri, int start) {
+			for (int i = start; i < uri.length(); i++) {
+				switch (uri.charAt(i)) {
+				case '.':
+					return i;
+				case ':':
+					return -1;
+				}
+			}
+			return uri.length();
+		}
+
+		/**
+		 * Verifies each part of the pattern on the URI
+		 */
+		boolean verify(Pattern pattern, String uri) {
+			List<Part> parts = pattern.parts;
+			int start = prefix.length() + 1, count = parts.size();
+			for (int i = 0; i < count; i++) {
+				int end = end(uri, start);
+				if (end < 0)
+					return false;
+				if (!parts.get(i).match(uri, start, end))
+					return false;
+				if (end == uri.length())
+					return i == count - 1;
+				start = end + 1;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * The patterns compiled to bit ranges for one binary layout
+	 */
+	static class Layout {
+
+		final EpcLayout layout;
+
+		/**
+		 * Indicates if all patterns could be compiled for this layout
+		 */
+		boolean supported = true;
+
+		/**
+		 * The compiled patterns
+		 */
+		Bits[] bits;
+
+		/**
+		 * The offset and length of the key field
+		 */
+		int offset, length;
+
+		/**
+		 * The interval table of the key field
+		 */
+		Table table;
+
+		Layout(EpcLayout layout) {
+			this.layout = layout;
+		}
+
+		/**
+		 * Compiles the pattern groups for each binary layout
+		 *
+		 * @param groups
+		 *            The pattern groups by level and prefix
+		 * @return The layouts or null if any group could not be bound to the
+		 *         binary layouts
+		 */
+		static Layout[] compile(Collection<List<Pattern>> groups) {
+			Map<EpcLayout, Layout> layouts = new IdentityHashMap<EpcLayout, Layout>();
+			Map<Layout, List<Bits>> lists = new IdentityHashMap<Layout, List<Bits>>();
+			for (List<Pattern> group : groups) {
+				Pattern first = group.get(0);
+				List<EpcLayout.Binding> bindings = EpcLayout.bindings(first.level, first.prefix);
+				if (bindings == null)
+					return null;
+				for (EpcLayout.Binding binding : bindings) {
+					Layout layout = layouts.get(binding.layout);
+					if (layout == null) {
+						layouts.put(binding.layout, layout = new Layout(binding.layout));
+						lists.put(layout, new ArrayList<Bits>());
+					}
+					for (Pattern pattern : group) {
+						Bits bits = Bits.compile(pattern, binding);
+						if (bits == null) {
+							layout.supported = false;
+						} else if (bits != Bits.NONE) {
+							lists.get(layout).add(bits);
+						}
+					}
+				}
+			}
+			for (Layout layout : layouts.values()) {
+				layout.init(lists.get(layout));
+			}
+			return layouts.values().toArray(new Layout[layouts.size()]);
+		}
+
+		/**
+		 * Initializes the key field and interval table
+		 */
+		void init(List<Bits> list) {
+			bits = list.toArray(new Bits[list.size()]);
+			long[][] table = new long[bits.length][];
+			int max = -1;
+			for (Bits b : bits) {
+				for (int i = 0; i < b.offset.length; i++) {
+					long[][] intervals = new long[bits.length][];
+					for (int j = 0; j < intervals.length; j++) {
+						intervals[j] = bits[j].interval(b.offset[i]);
+					}
+					int distinct = Table.distinct(intervals);
+					if (distinct > max) {
+						max = distinct;
+						offset = b.offset[i];
+						length = b.length[i];
+						table = intervals;
+					}
+				}
+			}
+			this.table = new Table(table);
+		}
+
+		/**
+		 * Finds the patterns which match the EPC
+		 *
+		 * @param epc
+		 *            The EPC
+		 * @param list
+		 *            The list to add all matching patterns to or null to
+		 *            stop at the first match
+		 * @return True if any pattern match, false otherwise
+		 */
+		boolean find(byte[] epc, List<Pattern> list) {
+			boolean match = false;
+			for (int i : table.get(length > 0 ? EpcLayout.get(epc, offset, length) : -1)) {
+				if (bits[i].match(epc)) {
+					if (list == null)
+						return true;
+					list.add(bits[i].pattern);
+					match = true;
+				}
+			}
+			for (int i : table.fallback) {
+				if (bits[i].match(epc)) {
+					if (list == null)
+						return true;
+					list.add(bits[i].pattern);
+					match = true;
+				}
+			}
+			return match;
+		}
+	}
+
+	/**
+	 * A pattern compiled to bit ranges for one binary layout
+	 */
+	static class Bits {
+
+		/**
+		 * Indicates that a pattern never matches a layout
+		 */
+		final static Bits NONE = new Bits(null, new int[0], new int[0], new long[0], new long[0]);
+
+		final Pattern pattern;
+		final int[] offset, length;
+		final long[] min, max;
+
+		Bits(Pattern pattern, int[] offset, int[] length, long[] min, long[] max) {
+			this.pattern = pattern;
+			this.offset = offset;
+			this.length = length;
+			this.min = min;
+			this.max = max;
+		}
+
+		/**
+		 * Compiles the pattern for the binding
+		 *
+		 * @param pattern
+		 *            The pattern
+		 * @param binding
+		 *            The binding of the URI fields to the binary layout
+		 * @return The compiled pattern, {@link #NONE} if pattern could never
+		 *         match the binding or null if pattern is not supported
+		 */
+		static Bits compile(Pattern pattern, EpcLayout.Binding binding) {
+			int count = pattern.parts.size();
+			if (count != binding.fields.size())
+				return NONE;
+			List<long[]> list = new ArrayList<long[]>();
+			for (int i = 0; i < count; i++) {
+				Part part = pattern.parts.get(i);
+				FieldX field = binding.fields.get(i);
+				int[] position = binding.numeric(i);
+				if (position == null) {
+					if (part.isWildcard())
+						continue;
+					return null;
+				}
+				long min = field.getMinimum().longValue(), max = field.getMaximum().longValue();
+				switch (part.type) {
+				case VALUE:
+					long value = Part.parse(part.value, 0, part.value.length());
+					if (value < 0)
+						return NONE;
+					if (field.getLength() != null) {
+						// URI value is padded to the field length
+						if (part.value.length() != field.getLength().intValue())
+							return NONE;
+					} else if ((part.value.length() > 1) && (part.value.charAt(0) == '0')) {
+						// URI value has no leading zeros
+						return NONE;
+					}
+					min = Math.max(min, value);
+					max = Math.min(max, value);
+					break;
+				case RANGE:
+					min = Math.max(min, part.min);
+					max = Math.min(max, part.max);
+					break;
+				default:
+					break;
+				}
+				if (min > max)
+					return NONE;
+				list.add(new long[] { position[0], position[1], min, max });
+			}
+			int[] offset = new int[list.size()], length = new int[list.size()];
+			long[] min = new long[list.size()], max = new long[list.size()];
+			for (int i = 0; i < list.size(); i++) {
+				long[] l = list.get(i);
+				offset[i] = (int) l[0];
+				length[i] = (int) l[1];
+				min[i] = l[2];
+				max[i] = l[3];
+			}
+			return new Bits(pattern, offset, length, min, max);
+		}
+
+		/**
+		 * Returns the interval of the field at offset
+		 *
+		 * @param offset
+		 *            The field offset
+		 * @return The interval or null if field is not compiled
+		 */
+		long[] interval(int offset) {
+			for (int i = 0; i < this.offset.length; i++) {
+				if (this.offset[i] == offset)
+					return new long[] { min[i], max[i] };
+			}
+			return null;
+		}
+
+		/**
+		 * Indicates if the EPC bits are within all ranges
+		 *
+		 * @param epc
+		 *            The EPC
+		 * @return True if pattern match, false otherwise
+		 */
+		boolean match(byte[] epc) {
+			for (int i = 0; i < offset.length; i++) {
+				long value = EpcLayout.get(epc, offset[i], length[i]);
+				if ((value < min[i]) || (value > max[i]))
+					return false;
+			}
+			return true;
+		}
+	}
+}
@@ -48,10 +48,12 @@ public class Patterns {
 
 	public static void reset() {
 		PATTERN = java.util.regex.Pattern.compile(Config.getInstance().getGlobal().getUrn().getPattern().trim());
+		EpcLayout.reset();
 	}
 
 	private CommonField field; // field
 	private Queue<IPattern> patterns; // pattern list
+	private PatternIndex index; // compiled pattern index
 
 	/**
 	 * Creates new patterns instance. Validates and keeps each pattern in list.
@@ -103,6 +105,10 @@ public class Patterns {
 					}
 				}
 				patterns = pattern(type, list, field);
+				// cache patterns will be consumed, compile only static patterns
+				if (type != PatternType.CACHE) {
+					index = PatternIndex.compile(patterns);
+				}
 			} else {
 				throw new ValidationException(
 						"Pattern list could not be null or empty");
@@ -318,6 +324,15 @@ public class Patterns {
 	 * @throws TdtTranslationException
 	 */
 	public Boolean match(Tag tag) {
+		PatternIndex index = this.index;
+		if (index != null) {
+			Result result = getResult(tag.getResult());
+			// check if all needed data for matching are available
+			if ((result != null) && (result.getState() != ResultState.SUCCESS)) {
+				return null;
+			}
+			return Boolean.valueOf(index.match(tag));
+		}
 		// call match for each pattern
 		for (IPattern pattern : patterns) {
 			Result result = getResult(tag.getResult());
@@ -359,6 +374,11 @@ public class Patterns {
 		List<String> name = new ArrayList<String>();
 		// check if tag was translated
 		if (tag.<TdtTagInfo>getProperty(Property.TAG_INFO) != null) {
+			PatternIndex index = this.index;
+			if (index != null) {
+				index.name(tag, getResult(tag.getResult()), name);
+				return name;
+			}
 			for (IPattern pattern : patterns) {
 				// add name to name list if pattern match
 				String n = pattern.name(tag.<TdtTagInfo>getProperty(Property.TAG_INFO),
@@ -406,6 +426,7 @@ public class Patterns {
 	}
 
 	public void clear() {
+		index = null;
 		patterns.clear();
 	}
 
@@ -414,6 +435,7 @@ public class Patterns {
 	 */
 	public void dispose() {
 		synchronized (this) {
+			index = null;
 			if (patterns != null) {
 				patterns.clear();
 			}
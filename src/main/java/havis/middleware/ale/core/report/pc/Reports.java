@@ -10,6 +10,8 @@ import havis.middleware.ale.core.report.IReports;
 import havis.middleware.ale.core.report.Initiation;
 import havis.middleware.ale.core.report.ReportsInfo;
 import havis.middleware.ale.core.report.Termination;
+import havis.middleware.ale.core.subscriber.DefaultSubscriberController;
+import havis.middleware.ale.core.subscriber.Payloads;
 import havis.middleware.ale.core.subscriber.SubscriberController;
 import havis.middleware.ale.core.subscriber.SubscriberListener;
 import havis.middleware.ale.exit.Exits;
@@ -27,11 +29,23 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import javax.xml.XMLConstants;
+import javax.xml.bind.annotation.XmlSchema;
+import javax.xml.namespace.QName;
+
 /**
  * This class implements the reports
  */
 public class Reports implements Task, IReports<PCReports, Events> {
 
+    private final static QName NAME;
+
+    static {
+        // the root element is in the namespace of the port cycle schema
+        XmlSchema schema = PCReports.class.getPackage().getAnnotation(XmlSchema.class);
+        NAME = new QName(schema != null ? schema.namespace() : XMLConstants.NULL_NS_URI, "PCReports");
+    }
+
     private String name;
     private PCSpec spec;
     private BlockingQueue<ReportsInfo<PCReports, Events>> queue;
@@ -222,9 +236,11 @@ public class Reports implements Task, IReports<PCReports, Events> {
 					Exits.Log.logp(Exits.Level.Detail, Exits.Core.Cycle.PortCycle.Name, Exits.Core.Cycle.PortCycle.Deliver,
 							"Cycle {0} delivered {1}", new Object[] { this.name, pcReports });
                     if (pcReports.getReports().getReport().size() > 0) {
-                        // deliver report to each subscriber
+                        // deliver report to each subscriber, encoded once per
+                        // format for stream subscribers
+                        Payloads payloads = Payloads.of(pcReports, NAME);
                         for (SubscriberController subscriber : info.getSubscribers()) {
-                            subscriber.enqueue(pcReports);
+                            DefaultSubscriberController.deliver(subscriber, pcReports, payloads);
                         }
                     } else {
                         // deliver report only to poll or immediate
@@ -0,0 +1,30 @@
+package havis.middleware.ale.core.subscriber;
+
+import havis.middleware.ale.base.exception.ImplementationException;
+import havis.middleware.ale.service.IReports;
+import havis.middleware.ale.subscriber.SubscriberConnector;
+
+import java.util.List;
+
+/**
+ * Subscriber connector which takes several consecutive report sets in one
+ * call. Batching is enabled for a subscriber by the properties
+ * {@value DefaultSubscriberController#BATCH_SIZE} and
+ * {@value DefaultSubscriberController#BATCH_LINGER}, otherwise the report
+ * sets are sent one by one.
+ */
+public interface BatchSubscriberConnector extends SubscriberConnector {
+
+	/**
+	 * Sends report sets in order. The report set which failed and all
+	 * following report sets will be sent again.
+	 *
+	 * @param reports
+	 *            The report sets, all of the same type
+	 * @return The number of report sets delivered before the first one which
+	 *         failed, the number of report sets if all were delivered
+	 * @throws ImplementationException
+	 *             if the delivery of the first report set failed
+	 */
+	int send(List<IReports> reports) throws ImplementationException;
+}
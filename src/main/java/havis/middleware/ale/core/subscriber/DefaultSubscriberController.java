@@ -6,6 +6,8 @@ import havis.middleware.ale.base.exception.InvalidURIException;
 import havis.middleware.ale.base.exception.ValidationException;
 import havis.middleware.ale.config.PropertiesType;
 import havis.middleware.ale.config.PropertyType;
+import havis.middleware.ale.core.config.Config;
+import havis.middleware.ale.core.cycle.TimingWheel;
 import havis.middleware.ale.exit.Exits;
 import havis.middleware.ale.service.IReports;
 import havis.middleware.ale.service.cc.CCReports;
@@ -16,11 +18,22 @@ import havis.middleware.utils.threading.Task;
 import havis.middleware.utils.threading.ThreadManager;
 import havis.util.monitor.TransportSource;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -37,6 +50,140 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class DefaultSubscriberController implements SubscriberController, TransportSource {
 
+	private static final String QUEUE_SIZE = "havis.middleware.ale.subscriber.queueSize";
+	private static final String OVERFLOW = "havis.middleware.ale.subscriber.overflow";
+	private static final String SPOOL_SIZE = "havis.middleware.ale.subscriber.spoolSize";
+	private static final String SPOOL_AGE = "havis.middleware.ale.subscriber.spoolAge";
+	private static final String SPOOL_SEGMENT_SIZE = "havis.middleware.ale.subscriber.spoolSegmentSize";
+	private static final String SPOOL_DIRECTORY = "havis.middleware.ale.subscriber.spoolDirectory";
+	private static final String RETRY_INTERVAL = "havis.middleware.ale.subscriber.retryInterval";
+	private static final String RETRY_LIMIT = "havis.middleware.ale.subscriber.retryLimit";
+
+	/**
+	 * Subscriber property for the maximum number of reports sent in one call
+	 * to a {@link BatchSubscriberConnector}
+	 */
+	public static final String BATCH_SIZE = "ale.batchSize";
+
+	/**
+	 * Subscriber property for the maximum time in milliseconds to wait for
+	 * further reports before an incomplete batch is sent
+	 */
+	public static final String BATCH_LINGER = "ale.batchLinger";
+
+	/**
+	 * The maximum number of reports delivered by one task before the task is
+	 * rescheduled
+	 */
+	private static final int DELIVERIES = 16;
+
+	/**
+	 * The number of reports kept in memory for each subscriber, can be set by
+	 * the system property {@value #QUEUE_SIZE}
+	 */
+	private static final int queueSize = Math.max(1, Integer.getInteger(QUEUE_SIZE, 1000).intValue());
+
+	/**
+	 * The behavior of a full queue, can be set by the system property
+	 * {@value #OVERFLOW}
+	 */
+	private static final Overflow overflow = Overflow.get(System.getProperty(OVERFLOW));
+
+	/**
+	 * The maximum size in bytes of the reports kept on disk after a failed
+	 * delivery or a queue overflow, can be set by the system property
+	 * {@value #SPOOL_SIZE}. Failed reports are dropped if set to 0.
+	 */
+	private static final long spoolSize = Long.getLong(SPOOL_SIZE, 64 * 1024 * 1024).longValue();
+
+	/**
+	 * The maximum age in milliseconds of a report kept after a failed
+	 * delivery, can be set by the system property {@value #SPOOL_AGE}. No
+	 * limit if set to 0.
+	 */
+	private static final long spoolAge = Long.getLong(SPOOL_AGE, 24 * 60 * 60 * 1000).longValue();
+
+	/**
+	 * The size in bytes of a spool segment file, can be set by the system
+	 * property {@value #SPOOL_SEGMENT_SIZE}
+	 */
+	private static final int spoolSegmentSize = Math.max(1024, Integer.getInteger(SPOOL_SEGMENT_SIZE, 1024 * 1024).intValue());
+
+	/**
+	 * The directory for reports kept on disk, can be set by the system
+	 * property {@value #SPOOL_DIRECTORY}. Defaults to "spool" next to the
+	 * configuration file. Each subscription has a directory of its own, which
+	 * is recovered when the subscription is created again.
+	 */
+	private static File spoolDirectory = new File(System.getProperty(SPOOL_DIRECTORY, new File(Config.getDirectory(), "spool").getPath()));
+
+	/**
+	 * The time in milliseconds between delivery attempts of the spooled
+	 * reports, can be set by the system property {@value #RETRY_INTERVAL}
+	 */
+	private static long retryInterval = Math.max(1, Long.getLong(RETRY_INTERVAL, 5000).longValue());
+
+	/**
+	 * The maximum number of delivery attempts of a report, can be set by the
+	 * system property {@value #RETRY_LIMIT}. The report is dropped afterwards
+	 * to let the following reports proceed. No limit if set to 0.
+	 */
+	private static int retryLimit = Math.max(0, Integer.getInteger(RETRY_LIMIT, 60).intValue());
+
+	/**
+	 * The behavior of a full subscriber queue
+	 */
+	public enum Overflow {
+		/**
+		 * Drop the oldest report to make room for the new report
+		 */
+		DROP_OLDEST,
+		/**
+		 * Drop all queued reports, only the latest report is delivered
+		 */
+		COALESCE,
+		/**
+		 * Write the new report to the spool and deliver it after the queued
+		 * reports
+		 */
+		SPILL;
+
+		/**
+		 * Retrieves the overflow policy by name, i.e. "drop-oldest"
+		 *
+		 * @param name
+		 *            The name
+		 * @return The policy, {@link #DROP_OLDEST} if name is null or unknown
+		 */
+		public static Overflow get(String name) {
+			if (name != null) {
+				for (Overflow overflow : values()) {
+					if (overflow.name().replace('_', '-').equalsIgnoreCase(name.trim())) {
+						return overflow;
+					}
+				}
+			}
+			return DROP_OLDEST;
+		}
+	}
+
+	/**
+	 * A queued report
+	 */
+	private static class Pending {
+		final Object reports;
+		final long time;
+
+		Pending(Object reports) {
+			this(reports, System.currentTimeMillis());
+		}
+
+		Pending(Object reports, long time) {
+			this.reports = reports;
+			this.time = time;
+		}
+	}
+
 	public interface Call {
 		void invoke() throws ValidationException, ImplementationException;
 	}
@@ -46,6 +193,8 @@ public class DefaultSubscriberController implements SubscriberController, Transp
 	private SubscriberConnector connector;
 	private Class<? extends IReports> reportClass;
 	private int count = 0;
+	private int batchSize = 1;
+	private long batchLinger = 0;
 
 	private Lock lock = new ReentrantLock();
 	private Lock counter = new ReentrantLock();
@@ -54,6 +203,33 @@ public class DefaultSubscriberController implements SubscriberController, Transp
 	private AtomicBoolean errorState = new AtomicBoolean(true);
 	private AtomicBoolean disposed = new AtomicBoolean(false);
 
+	/**
+	 * The reports to deliver, also the monitor for scheduling and spooling
+	 */
+	private final Deque<Pending> queue = new ArrayDeque<Pending>();
+	private boolean scheduled;
+
+	/**
+	 * The reports kept on disk, all of them are newer than the queued
+	 * reports. Guarded by the queue monitor.
+	 */
+	private Spool spool;
+	private File directory;
+	private TimingWheel.Timeout retry;
+
+	/**
+	 * The number of failed attempts to deliver the oldest report, only used
+	 * by the delivery task
+	 */
+	private int attempts;
+
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong spilled = new AtomicLong();
+	private final AtomicLong delivered = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong latencies = new AtomicLong();
+	private volatile long latency;
+
 	/**
 	 * Retrieves the active state of the the {@link SubscriberConnector T}"/>
 	 * implementation.
@@ -77,6 +253,29 @@ public class DefaultSubscriberController implements SubscriberController, Transp
 	 */
 	public DefaultSubscriberController(URI uri, PropertiesType properties, SubscriberConnector connector, Class<? extends IReports> reportClass)
 			throws ImplementationException, InvalidURIException {
+		this(null, uri, properties, connector, reportClass);
+	}
+
+	/**
+	 * Initializes a new instance of the {@link DefaultSubscriberController}
+	 * class and recovers the reports kept on disk for the subscription.
+	 * 
+	 * @param name
+	 *            The name of the cycle, identifies the subscription together
+	 *            with the URI and the report type
+	 * @param uri
+	 *            The notification URI to initialize the subscriber connector
+	 * @param properties
+	 *            The properties
+	 * @param connector
+	 *            The subscriber connector
+	 * @param reportClass
+	 *            The report type
+	 * @throws ALEException
+	 *             if the constructor was unable to create the instance.
+	 */
+	public DefaultSubscriberController(String name, URI uri, PropertiesType properties, SubscriberConnector connector,
+			Class<? extends IReports> reportClass) throws ImplementationException, InvalidURIException {
 		this.uri = uri;
 		this.reportClass = reportClass;
 		this.properties = new HashMap<>();
@@ -85,8 +284,14 @@ public class DefaultSubscriberController implements SubscriberController, Transp
 				this.properties.put(p.getName(), p.getValue());
 			}
 		}
+		// batch properties are handled here and not passed to the connector
+		this.batchSize = getProperty(this.properties.remove(BATCH_SIZE), BATCH_SIZE, 1);
+		this.batchLinger = getProperty(this.properties.remove(BATCH_LINGER), BATCH_LINGER, 0);
 		this.connector = connector;
 
+		this.directory = new File(spoolDirectory, UUID.nameUUIDFromBytes(
+				(reportClass.getSimpleName() + " " + name + " " + uri).getBytes(StandardCharsets.UTF_8)).toString());
+
 		lock.lock();
 		try {
 			init();
@@ -99,6 +304,43 @@ public class DefaultSubscriberController implements SubscriberController, Transp
 		} finally {
 			lock.unlock();
 		}
+		recover();
+	}
+
+	/**
+	 * Opens the spool if reports were kept on disk for the subscription
+	 */
+	private void recover() {
+		if (spoolSize > 0 && directory.isDirectory()) {
+			synchronized (queue) {
+				try {
+					spool = new Spool(directory, spoolSegmentSize, spoolSize, spoolAge);
+					if (spool.size() > 0) {
+						Exits.Log.logp(Exits.Level.Information, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+								"Subscriber {0} recovered {1} reports", new Object[] { uri.toString(), Integer.valueOf(spool.size()) });
+						schedule();
+					}
+				} catch (IOException e) {
+					Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+							"Subscriber {0} failed to recover reports: {1}", new Object[] { uri.toString(), e.getMessage(), e });
+				}
+			}
+		}
+	}
+
+	private static int getProperty(String value, String name, int defaultValue) throws InvalidURIException {
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			int result = Integer.parseInt(value.trim());
+			if (result >= defaultValue) {
+				return result;
+			}
+		} catch (NumberFormatException e) {
+			// fall through
+		}
+		throw new InvalidURIException("Invalid value '" + value + "' of property " + name);
 	}
 
 	/**
@@ -113,6 +355,11 @@ public class DefaultSubscriberController implements SubscriberController, Transp
 			((MessengerSubscriberConnector) this.connector).setReportClass(this.reportClass);
 		}
 		this.connector.init(this.uri, this.properties);
+		if (batchSize > 1 && this.connector instanceof StreamSubscriberConnector
+				&& ((StreamSubscriberConnector) this.connector).getFormat() != null) {
+			Exits.Log.logp(Exits.Level.Warning, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+					"Subscriber {0} batches reports, encoded reports are not streamed", new Object[] { this.uri.toString() });
+		}
 	}
 
 	@Override
@@ -169,59 +416,560 @@ public class DefaultSubscriberController implements SubscriberController, Transp
 		enqueueReport(reports);
 	}
 
-	private void enqueueReport(final IReports reports) {
+	/**
+	 * Retrieves the wire format of the connector. Batched reports are not
+	 * streamed, since a batch is handed to the connector as report objects
+	 *
+	 * @return The format or null if the connector takes report objects
+	 */
+	public Format getFormat() {
+		SubscriberConnector connector = this.connector;
+		if (batchSize == 1 && connector instanceof StreamSubscriberConnector) {
+			return ((StreamSubscriberConnector) connector).getFormat();
+		}
+		return null;
+	}
+
+	/**
+	 * Enqueues a report set encoded in the format of the connector. This
+	 * method uses the {@link ThreadManager} to deliver the report
+	 * asynchronously.
+	 *
+	 * @param data
+	 *            The encoded report set
+	 * @see #getFormat()
+	 */
+	public void enqueue(final ByteBuffer data) {
+		enqueueReport(data);
+	}
+
+	/**
+	 * Delivers a report set to a subscriber. A subscriber with a wire format
+	 * gets the report set encoded in its format, which is written once per
+	 * format for all subscribers of a report set, others get the report
+	 * objects.
+	 *
+	 * @param subscriber
+	 *            The subscriber
+	 * @param reports
+	 *            The report set
+	 * @param payloads
+	 *            The payloads of the report set
+	 * @see #getFormat()
+	 */
+	public static void deliver(SubscriberController subscriber, IReports reports, Payloads payloads) {
+		Format format = subscriber instanceof DefaultSubscriberController ? ((DefaultSubscriberController) subscriber).getFormat() : null;
+		if (format != null) {
+			DefaultSubscriberController controller = (DefaultSubscriberController) subscriber;
+			try {
+				controller.enqueue(payloads.get(format));
+			} catch (IOException e) {
+				controller.dec();
+				Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+						"Subscriber {0} failed to write reports: {1}", new Object[] { controller.getUri(), e.getMessage(), e });
+			}
+		} else if (reports instanceof ECReports) {
+			subscriber.enqueue((ECReports) reports);
+		} else if (reports instanceof CCReports) {
+			subscriber.enqueue((CCReports) reports);
+		} else if (reports instanceof PCReports) {
+			subscriber.enqueue((PCReports) reports);
+		}
+	}
+
+	private void enqueueReport(final Object reports) {
 		if (!disposed.get() && reports != null) {
-			ThreadManager.enqueue(new Task() {
-				@Override
-				public void run() {
-					// was in queue before, now running because of interrupt
-					// from dispose, end immediately
-					if (disposed.get()) {
-						dec();
-						return;
-					}
-					try {
-						while (!lock.tryLock(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+			synchronized (queue) {
+				Pending pending = new Pending(reports);
+				if (spool != null && spool.size() > 0 && store(pending)) {
+					// behind the reports on disk
+					pending = null;
+				} else if (queue.size() >= queueSize) {
+					if ((overflow == Overflow.SPILL || errorState.get()) && store(pending)) {
+						// behind the queued reports
+						pending = null;
+					} else if (overflow == Overflow.COALESCE) {
+						// keep only the latest report
+						while (!queue.isEmpty()) {
+							drop(queue.poll());
 						}
-					} catch (InterruptedException e) {
-						// abort sending
-						dec();
-						Thread.currentThread().interrupt();
-						return;
+					} else {
+						drop(queue.poll());
 					}
-					try {
-						if (!disposed.get()) {
-							if (reports instanceof ECReports) {
-								connector.send((ECReports) reports);
-							} else if (reports instanceof CCReports) {
-								connector.send((CCReports) reports);
-							} else if (reports instanceof PCReports) {
-								connector.send((PCReports) reports);
-							}
-							if (errorState.compareAndSet(true, false) && !first.compareAndSet(true, false)) {
-								Exits.Log.logp(Exits.Level.Information, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
-										"Subscriber {0} delivery error state was resolved", new Object[] { uri.toString(), reports });
-							}
+				}
+				if (pending != null) {
+					queue.add(pending);
+					// wake up a lingering batch
+					queue.notifyAll();
+				}
+				schedule();
+			}
+		}
+	}
+
+	/**
+	 * Schedules the delivery task if not yet done. Caller must hold the queue
+	 * monitor.
+	 */
+	private void schedule() {
+		if (!scheduled) {
+			scheduled = true;
+			submit();
+		}
+	}
+
+	private void submit() {
+		ThreadManager.enqueue(new Task() {
+			@Override
+			public void run() {
+				deliver();
+			}
+
+			@Override
+			public int getGroupId() {
+				return DefaultSubscriberController.this.hashCode();
+			}
+		});
+	}
+
+	/**
+	 * Delivers the queued reports one after another. Only one delivery task
+	 * runs per subscriber, so a slow subscriber occupies one thread at most.
+	 * The task is rescheduled after a number of reports to let the other
+	 * subscribers proceed. Consecutive reports are sent in one call if the
+	 * connector supports batches. The queue is refilled from the spool.
+	 */
+	private void deliver() {
+		for (int i = 0; i < DELIVERIES; i++) {
+			List<Pending> batch;
+			synchronized (queue) {
+				batch = batch();
+				if (batch.isEmpty()) {
+					scheduled = false;
+					return;
+				}
+			}
+			if (!(batch.size() == 1 ? send(batch.get(0)) : send(batch))) {
+				// retry scheduled or interrupted
+				return;
+			}
+		}
+		reschedule();
+	}
+
+	/**
+	 * Ends the delivery task and schedules it again if reports are pending
+	 */
+	private void reschedule() {
+		synchronized (queue) {
+			scheduled = false;
+			if (!disposed.get() && (!queue.isEmpty() || (spool != null && spool.size() > 0))) {
+				schedule();
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the next reports from the queue. Waits up to the batch linger
+	 * time for further reports until the batch is complete. Only report
+	 * objects of the same type are sent in one batch. Caller must hold the
+	 * queue monitor.
+	 *
+	 * @return The reports, empty if none is pending or the instance is
+	 *         disposed
+	 */
+	private List<Pending> batch() {
+		List<Pending> batch = new ArrayList<Pending>(1);
+		Pending pending = next();
+		if (pending != null) {
+			batch.add(pending);
+			if (batchSize > 1 && connector instanceof BatchSubscriberConnector && pending.reports instanceof IReports) {
+				Class<?> type = pending.reports.getClass();
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchLinger);
+				while (batch.size() < batchSize) {
+					pending = peek();
+					if (pending != null) {
+						if (pending.reports.getClass() != type) {
+							// sent with the next batch
+							break;
+						}
+						batch.add(queue.poll());
+					} else {
+						long remaining = deadline - System.nanoTime();
+						if (remaining <= 0 || disposed.get()) {
+							break;
 						}
-					} catch (Exception e) {
-						if (errorState.compareAndSet(false, true) || first.compareAndSet(true, false)) {
-							Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
-									"Subscriber {0} delivery entered error state: {1}", new Object[] { uri.toString(), e.getMessage(), reports });
+						try {
+							queue.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							break;
 						}
-					} finally {
-						lock.unlock();
-						dec();
 					}
 				}
+			}
+		}
+		return batch;
+	}
+
+	/**
+	 * Retrieves and removes the next report from the queue. Caller must hold
+	 * the queue monitor.
+	 *
+	 * @return The report or null if none is pending or the instance is
+	 *         disposed
+	 */
+	private Pending next() {
+		return peek() != null ? queue.poll() : null;
+	}
+
+	/**
+	 * Retrieves the next report from the queue without removing it, refills
+	 * the queue from the spool. Only one report is taken from the spool in
+	 * error state. Caller must hold the queue monitor.
+	 *
+	 * @return The report or null if none is pending or the instance is
+	 *         disposed
+	 */
+	private Pending peek() {
+		if (disposed.get()) {
+			return null;
+		}
+		if (queue.isEmpty() && spool != null) {
+			int size = errorState.get() ? 1 : queueSize;
+			while (queue.size() < size && spool.size() > 0) {
+				try {
+					Object reports = spool.peek();
+					if (reports != null) {
+						queue.add(new Pending(reports, spool.getTime()));
+						inc();
+					}
+				} catch (IOException e) {
+					dropped.incrementAndGet();
+					Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+							"Subscriber {0} failed to read spooled report: {1}", new Object[] { uri.toString(), e.getMessage(), e });
+				}
+				spool.remove();
+			}
+		}
+		return queue.peek();
+	}
+
+	/**
+	 * Appends a report to the spool. Caller must hold the queue monitor.
+	 *
+	 * @param pending
+	 *            The pending report
+	 * @return True if the report was spooled, false otherwise
+	 */
+	private boolean store(Pending pending) {
+		if (spoolSize > 0 && !disposed.get()) {
+			try {
+				spool().add(pending.reports, pending.time);
+				spilled.incrementAndGet();
+				dec();
+				return true;
+			} catch (IOException e) {
+				Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+						"Subscriber {0} failed to spool report: {1}", new Object[] { uri.toString(), e.getMessage(), e });
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Inserts reports in front of the spool. Caller must hold the queue
+	 * monitor.
+	 *
+	 * @param pendings
+	 *            The pending reports in order
+	 * @return True if the reports were spooled, false otherwise
+	 */
+	private boolean store(List<Pending> pendings) {
+		if (spoolSize > 0) {
+			try {
+				List<Object> reports = new ArrayList<Object>(pendings.size());
+				long[] times = new long[pendings.size()];
+				for (int i = 0; i < times.length; i++) {
+					reports.add(pendings.get(i).reports);
+					times[i] = pendings.get(i).time;
+				}
+				spool().addFirst(reports, times);
+				for (int i = 0; i < times.length; i++) {
+					dec();
+				}
+				return true;
+			} catch (IOException e) {
+				Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+						"Subscriber {0} failed to spool reports: {1}", new Object[] { uri.toString(), e.getMessage(), e });
+			}
+		}
+		return false;
+	}
 
+	private Spool spool() throws IOException {
+		if (spool == null) {
+			spool = new Spool(directory, spoolSegmentSize, spoolSize, spoolAge);
+		}
+		return spool;
+	}
+
+	/**
+	 * Keeps the reports which failed to be delivered in front of the queued
+	 * reports and schedules a retry. The oldest report is dropped after the
+	 * maximum number of attempts. Reports are dropped if they cannot be
+	 * spooled.
+	 *
+	 * @param pendings
+	 *            The pending reports which failed in order
+	 * @return False if a retry was scheduled, true otherwise
+	 */
+	private boolean retry(List<Pending> pendings) {
+		synchronized (queue) {
+			if (disposed.get()) {
+				for (int i = 0; i < pendings.size(); i++) {
+					dec();
+				}
+				return true;
+			}
+			pendings = new ArrayList<Pending>(pendings);
+			if (retryLimit > 0 && ++attempts >= retryLimit) {
+				attempts = 0;
+				Pending pending = pendings.remove(0);
+				dropped.incrementAndGet();
+				dec();
+				Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+						"Subscriber {0} dropped report after {1} delivery attempts", new Object[] { uri.toString(), Integer.valueOf(retryLimit),
+								pending.reports });
+			}
+			// the queued reports are older than the spooled reports
+			pendings.addAll(queue);
+			if (!pendings.isEmpty() && !store(pendings)) {
+				for (int i = 0; i < pendings.size(); i++) {
+					dec();
+				}
+				dropped.addAndGet(pendings.size());
+				queue.clear();
+				return true;
+			}
+			queue.clear();
+			// the task stays scheduled until the retry
+			retry = TimingWheel.getInstance().schedule(new Runnable() {
 				@Override
-				public int getGroupId() {
-					return DefaultSubscriberController.this.hashCode();
+				public void run() {
+					submit();
+				}
+			}, retryInterval);
+			return false;
+		}
+	}
+
+	/**
+	 * Sends a report to the connector by its type. Caller must hold the lock.
+	 */
+	private void invoke(Object reports) throws ImplementationException {
+		if (reports instanceof ECReports) {
+			connector.send((ECReports) reports);
+		} else if (reports instanceof CCReports) {
+			connector.send((CCReports) reports);
+		} else if (reports instanceof PCReports) {
+			connector.send((PCReports) reports);
+		} else if (reports instanceof ByteBuffer) {
+			((StreamSubscriberConnector) connector).send((ByteBuffer) reports);
+		}
+	}
+
+	/**
+	 * Sends a report to the connector
+	 *
+	 * @param pending
+	 *            The pending report
+	 * @return False if a retry was scheduled or sending was interrupted, true
+	 *         otherwise
+	 */
+	private boolean send(Pending pending) {
+		Object reports = pending.reports;
+		try {
+			while (!lock.tryLock(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+			}
+		} catch (InterruptedException e) {
+			// abort sending
+			dec();
+			Thread.currentThread().interrupt();
+			reschedule();
+			return false;
+		}
+		boolean sent = true;
+		try {
+			if (!disposed.get()) {
+				invoke(reports);
+				delivered.incrementAndGet();
+				attempts = 0;
+				latency = Math.max(0, System.currentTimeMillis() - pending.time);
+				latencies.addAndGet(latency);
+				if (errorState.compareAndSet(true, false) && !first.compareAndSet(true, false)) {
+					Exits.Log.logp(Exits.Level.Information, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+							"Subscriber {0} delivery error state was resolved", new Object[] { uri.toString(), reports });
+				}
+			}
+		} catch (Exception e) {
+			failed.incrementAndGet();
+			if (errorState.compareAndSet(false, true) || first.compareAndSet(true, false)) {
+				Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+						"Subscriber {0} delivery entered error state: {1}", new Object[] { uri.toString(), e.getMessage(), reports });
+			}
+			sent = false;
+		} finally {
+			lock.unlock();
+		}
+		if (sent) {
+			dec();
+			return true;
+		}
+		return retry(Collections.singletonList(pending));
+	}
+
+	/**
+	 * Sends a batch of reports to the connector in one call. Each report is
+	 * counted as delivered or failed on its own. The report which failed and
+	 * all following reports are kept for a retry.
+	 *
+	 * @param batch
+	 *            The pending reports of the same type
+	 * @return False if a retry was scheduled or sending was interrupted, true
+	 *         otherwise
+	 */
+	private boolean send(List<Pending> batch) {
+		try {
+			while (!lock.tryLock(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+			}
+		} catch (InterruptedException e) {
+			// abort sending
+			for (int i = 0; i < batch.size(); i++) {
+				dec();
+			}
+			Thread.currentThread().interrupt();
+			reschedule();
+			return false;
+		}
+		int count = batch.size();
+		try {
+			if (!disposed.get()) {
+				List<IReports> reports = new ArrayList<IReports>(batch.size());
+				for (Pending pending : batch) {
+					reports.add((IReports) pending.reports);
+				}
+				String message = "Report was not delivered";
+				try {
+					count = Math.max(0, Math.min(batch.size(), ((BatchSubscriberConnector) connector).send(reports)));
+				} catch (Exception e) {
+					count = 0;
+					message = e.getMessage();
+				}
+				long time = System.currentTimeMillis();
+				for (int i = 0; i < count; i++) {
+					latency = Math.max(0, time - batch.get(i).time);
+					latencies.addAndGet(latency);
+				}
+				delivered.addAndGet(count);
+				if (count > 0) {
+					attempts = 0;
 				}
-			});
+				if (count == batch.size()) {
+					if (errorState.compareAndSet(true, false) && !first.compareAndSet(true, false)) {
+						Exits.Log.logp(Exits.Level.Information, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+								"Subscriber {0} delivery error state was resolved", new Object[] { uri.toString() });
+					}
+				} else {
+					failed.incrementAndGet();
+					if (errorState.compareAndSet(false, true) || first.compareAndSet(true, false)) {
+						Exits.Log.logp(Exits.Level.Error, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+								"Subscriber {0} delivery entered error state after {1} of {2} reports: {3}", new Object[] { uri.toString(),
+										Integer.valueOf(count), Integer.valueOf(batch.size()), message });
+					}
+				}
+			}
+		} finally {
+			lock.unlock();
+			for (int i = 0; i < count; i++) {
+				dec();
+			}
+		}
+		return count == batch.size() || retry(batch.subList(count, batch.size()));
+	}
+
+	/**
+	 * Drops a queued report
+	 */
+	private void drop(Pending pending) {
+		if (pending != null) {
+			Exits.Log.logp(Exits.Level.Warning, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+					"Subscriber {0} queue overflow, dropped report ({1} in total)", new Object[] { uri.toString(),
+							Long.valueOf(dropped.incrementAndGet()) });
+			dec();
+		}
+	}
+
+	/**
+	 * Retrieves the number of reports waiting for delivery, including
+	 * spooled reports
+	 */
+	public int getQueueDepth() {
+		synchronized (queue) {
+			return queue.size() + (spool != null ? spool.size() : 0);
+		}
+	}
+
+	/**
+	 * Retrieves the number of reports dropped due to queue overflow, the
+	 * spool limits or the retry limit
+	 */
+	public long getDropped() {
+		synchronized (queue) {
+			return dropped.get() + (spool != null ? spool.getDropped() : 0);
 		}
 	}
 
+	/**
+	 * Retrieves the number of reports written to disk due to queue overflow
+	 * or error state
+	 */
+	public long getSpilled() {
+		return spilled.get();
+	}
+
+	/**
+	 * Retrieves the number of delivered reports
+	 */
+	public long getDelivered() {
+		return delivered.get();
+	}
+
+	/**
+	 * Retrieves the number of failed deliveries, a failed batch counts once
+	 * for the report which failed
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * Retrieves the time in milliseconds between enqueuing and delivery of
+	 * the last delivered report
+	 */
+	public long getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Retrieves the average time in milliseconds between enqueuing and
+	 * delivery of the reports
+	 */
+	public long getAverageLatency() {
+		long count = delivered.get();
+		return count > 0 ? latencies.get() / count : 0;
+	}
+
 	/**
 	 * Retrieves the notification URI for the {@link SubscriberConnector}
 	 * implementation.
@@ -275,12 +1023,51 @@ public class DefaultSubscriberController implements SubscriberController, Transp
 	}
 
 	/**
-	 * Disposes the instance and release all its resources.
+	 * Disposes the instance and release all its resources, i.e. on
+	 * unsubscribe. The reports which were not delivered are discarded.
 	 */
 	@Override
 	public void dispose() {
+		dispose(false);
+	}
+
+	/**
+	 * Disposes the instance and release all its resources.
+	 * 
+	 * @param keep
+	 *            whether to keep the reports which were not delivered on disk,
+	 *            i.e. on shutdown. They are recovered when the subscription is
+	 *            created again.
+	 */
+	public void dispose(boolean keep) {
 		await();
 		disposed.set(true);
+		synchronized (queue) {
+			queue.notifyAll();
+			List<Pending> pendings = new ArrayList<Pending>(queue);
+			if (!keep || pendings.isEmpty() || !store(pendings)) {
+				for (int i = 0; i < pendings.size(); i++) {
+					dec();
+				}
+			}
+			queue.clear();
+			if (retry != null) {
+				retry.cancel();
+			}
+			if (spool != null) {
+				if (!keep) {
+					int count = spool.size();
+					if (count > 0) {
+						Exits.Log.logp(Exits.Level.Information, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+								"Subscriber {0} discarded {1} spooled reports", new Object[] { uri.toString(), Integer.valueOf(count) });
+					}
+					spool.clear();
+				}
+				// removes the directory of an empty spool
+				spool.close();
+				spool = null;
+			}
+		}
 		if (connector != null) {
 			// interrupt all running threads
 			ThreadManager.interrupt(hashCode());
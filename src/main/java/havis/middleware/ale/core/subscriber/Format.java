@@ -0,0 +1,34 @@
+package havis.middleware.ale.core.subscriber;
+
+/**
+ * The wire formats in which reports can be written directly to a
+ * {@link StreamSubscriberConnector}
+ */
+public enum Format {
+	/**
+	 * XML as defined by the ALE schema
+	 */
+	XML,
+	/**
+	 * JSON as written by the default object mapper
+	 */
+	JSON;
+
+	/**
+	 * Retrieves the format by name, i.e. "json"
+	 *
+	 * @param name
+	 *            The name
+	 * @return The format or null if name is null or unknown
+	 */
+	public static Format get(String name) {
+		if (name != null) {
+			for (Format format : values()) {
+				if (format.name().equalsIgnoreCase(name.trim())) {
+					return format;
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -8,25 +8,50 @@ import havis.middleware.ale.service.IReports;
 import havis.middleware.ale.service.cc.CCReports;
 import havis.middleware.ale.service.ec.ECReports;
 import havis.middleware.ale.service.pc.PCReports;
-import havis.middleware.ale.subscriber.SubscriberConnector;
+import havis.transport.Future;
 import havis.transport.Messenger;
 import havis.transport.TransportException;
 import havis.transport.ValidationException;
 import havis.transport.common.CommonMessenger;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Bridge connector to transport backend
+ * Bridge connector to transport backend. Batches are pipelined, all reports
+ * of a batch are handed to the transport before waiting for the first result.
+ * Subscribers of the HTTP, HTTPS and TCP binding with the property
+ * {@value #FORMAT} take reports already encoded, which are written directly to
+ * the output stream of the connection, so each report set is encoded once for
+ * all subscribers of the same format. Report objects are handed to the
+ * transport.
  */
-public class MessengerSubscriberConnector implements SubscriberConnector {
+public class MessengerSubscriberConnector implements BatchSubscriberConnector, StreamSubscriberConnector {
+
+	/**
+	 * The property name of the wire format of the HTTP, HTTPS and TCP binding,
+	 * i.e. "xml" or "json". Reports are encoded by the transport if not set.
+	 */
+	public static final String FORMAT = "ale.format";
 
 	@SuppressWarnings("rawtypes")
 	private CommonMessenger messenger = new CommonMessenger();
 	private URI uri;
 	private Class<?> reportClass;
+	private Format format;
+	private int timeout;
 
 	public Class<?> getReportClass() {
 		return this.reportClass;
@@ -70,6 +95,16 @@ public class MessengerSubscriberConnector implements SubscriberConnector {
 		if (properties != null)
 			props.putAll(properties);
 
+		this.format = getFormat(uri, props.remove(FORMAT));
+		if (this.format != null) {
+			String value = props.get("tcp".equalsIgnoreCase(uri.getScheme()) ? Messenger.TCP_TIMEOUT_PROPERTY : Messenger.HTTP_TIMEOUT_PROPERTY);
+			try {
+				this.timeout = Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				throw new InvalidURIException("Invalid timeout '" + value + "'");
+			}
+		}
+
 		try {
 			messenger.init(this.reportClass, uri, props);
 		} catch (ValidationException e) {
@@ -77,6 +112,87 @@ public class MessengerSubscriberConnector implements SubscriberConnector {
 		}
 	}
 
+	/**
+	 * Determines the wire format of the HTTP, HTTPS and TCP binding
+	 *
+	 * @param uri
+	 *            The subscriber URI
+	 * @param name
+	 *            The format name given by the user or null
+	 * @return The format or null if the reports are encoded by the transport
+	 * @throws InvalidURIException
+	 *             if the format is unknown
+	 */
+	private static Format getFormat(URI uri, String name) throws InvalidURIException {
+		if (name == null) {
+			return null;
+		}
+		Format format = Format.get(name);
+		if (format == null) {
+			throw new InvalidURIException("Unknown format '" + name + "'");
+		}
+		String scheme = uri.getScheme();
+		if ("http".equalsIgnoreCase(scheme) || ("tcp".equalsIgnoreCase(scheme) && uri.getPort() > -1)
+				|| ("https".equalsIgnoreCase(scheme) && Config.getInstance().getGlobal().getSubscriber().isHttpsSecurity())) {
+			return format;
+		}
+		return null;
+	}
+
+	@Override
+	public Format getFormat() {
+		return this.format;
+	}
+
+	@Override
+	public void send(ByteBuffer data) throws ImplementationException {
+		try {
+			if ("tcp".equalsIgnoreCase(this.uri.getScheme())) {
+				try (Socket socket = new Socket()) {
+					socket.connect(new InetSocketAddress(this.uri.getHost(), this.uri.getPort()), this.timeout);
+					socket.setSoTimeout(this.timeout);
+					write(data, socket.getOutputStream());
+				}
+			} else {
+				HttpURLConnection connection = (HttpURLConnection) this.uri.toURL().openConnection();
+				connection.setConnectTimeout(this.timeout);
+				connection.setReadTimeout(this.timeout);
+				connection.setRequestMethod("POST");
+				connection.setDoOutput(true);
+				connection.setRequestProperty("Content-Type", this.format == Format.JSON ? "application/json; charset=UTF-8"
+						: "text/xml; charset=UTF-8");
+				// the connection does not buffer the body
+				connection.setFixedLengthStreamingMode(data.remaining());
+				try (OutputStream stream = connection.getOutputStream()) {
+					write(data, stream);
+				}
+				int code = connection.getResponseCode();
+				// release the connection for reuse
+				InputStream stream = code < 400 ? connection.getInputStream() : connection.getErrorStream();
+				if (stream != null) {
+					stream.close();
+				}
+				if (code / 100 != 2) {
+					throw new ImplementationException("Subscriber responded with " + code + " " + connection.getResponseMessage());
+				}
+			}
+		} catch (IOException e) {
+			throw new ImplementationException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the payload to the stream
+	 */
+	private static void write(ByteBuffer data, OutputStream stream) throws IOException {
+		ByteBuffer buffer = data.duplicate();
+		WritableByteChannel channel = Channels.newChannel(stream);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		stream.flush();
+	}
+
 	@Override
 	public void send(ECReports report) throws ImplementationException {
 		sendReport(report);
@@ -92,6 +208,30 @@ public class MessengerSubscriberConnector implements SubscriberConnector {
 		sendReport(report);
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public int send(List<IReports> reports) throws ImplementationException {
+		List<Future> futures = new ArrayList<>(reports.size());
+		int count = 0;
+		try {
+			for (IReports report : reports) {
+				futures.add(this.messenger.send(report));
+			}
+			for (Future future : futures) {
+				future.get();
+				count++;
+			}
+		} catch (TransportException e) {
+			if (count == 0) {
+				throw new ImplementationException(e.getMessage());
+			}
+		} catch (InterruptedException e) {
+			Exits.Log.logp(Exits.Level.Warning, Exits.Subscriber.Controller.Name, Exits.Subscriber.Controller.DeliverFailed,
+					"Subscriber {0} delivery was interrupted", new Object[] { this.uri.toString() });
+		}
+		return count;
+	}
+
 	@SuppressWarnings("unchecked")
 	private void sendReport(IReports report) throws ImplementationException {
 		try {
@@ -0,0 +1,191 @@
+package havis.middleware.ale.core.subscriber;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The encoded payloads of one report set. The report set is encoded once per
+ * wire format on first request and the same read only buffer is shared by
+ * all subscribers using that format. A payload is kept on the heap up to the
+ * limit set by the system property {@value #PAYLOAD_MEMORY}, larger payloads
+ * are written to a temporary file which is mapped into memory.
+ */
+public abstract class Payloads {
+
+	private static final String PAYLOAD_MEMORY = "havis.middleware.ale.subscriber.payloadMemory";
+
+	/**
+	 * The maximum size of a payload in bytes kept on the heap
+	 */
+	private static final int memory = Math.max(1024, Integer.getInteger(PAYLOAD_MEMORY, 1024 * 1024).intValue());
+
+	private final static ObjectMapper mapper = new ObjectMapper();
+	private final static Map<Class<?>, JAXBContext> contexts = new HashMap<Class<?>, JAXBContext>();
+
+	private final Map<Format, ByteBuffer> buffers = new EnumMap<Format, ByteBuffer>(Format.class);
+
+	/**
+	 * Output which keeps the bytes on the heap up to the memory limit and
+	 * moves them to a temporary file afterwards
+	 */
+	private static class Output extends OutputStream {
+		private byte[] bytes = new byte[8192];
+		private int count;
+		private File file;
+		private FileChannel channel;
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (channel == null && count + len > memory) {
+				file = File.createTempFile("payload", null);
+				channel = new RandomAccessFile(file, "rw").getChannel();
+				write(ByteBuffer.wrap(bytes, 0, count));
+				bytes = null;
+			}
+			if (channel != null) {
+				write(ByteBuffer.wrap(b, off, len));
+			} else {
+				if (count + len > bytes.length) {
+					bytes = Arrays.copyOf(bytes, Math.min(memory, Math.max(count + len, bytes.length * 2)));
+				}
+				System.arraycopy(b, off, bytes, count, len);
+				count += len;
+			}
+		}
+
+		private void write(ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+
+		/**
+		 * Retrieves the written bytes and releases the temporary file, the
+		 * mapping stays valid after the file is deleted
+		 */
+		ByteBuffer toBuffer() throws IOException {
+			if (channel == null) {
+				return ByteBuffer.wrap(bytes, 0, count).slice();
+			}
+			try {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				release();
+			}
+		}
+
+		/**
+		 * Removes the temporary file
+		 */
+		void release() throws IOException {
+			if (channel != null) {
+				try {
+					channel.close();
+				} finally {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the report set to the stream
+	 *
+	 * @param stream
+	 *            The stream
+	 * @param format
+	 *            The format
+	 * @throws IOException
+	 *             if writing failed
+	 */
+	public abstract void write(OutputStream stream, Format format) throws IOException;
+
+	/**
+	 * Retrieves the payload in the given format. Encodes the report set if
+	 * not yet done for the format.
+	 *
+	 * @param format
+	 *            The format
+	 * @return A read only buffer with its own position
+	 * @throws IOException
+	 *             if encoding failed
+	 */
+	public synchronized ByteBuffer get(Format format) throws IOException {
+		ByteBuffer buffer = buffers.get(format);
+		if (buffer == null) {
+			Output output = new Output();
+			try {
+				write(output, format);
+				buffer = output.toBuffer().asReadOnlyBuffer();
+			} finally {
+				output.release();
+			}
+			buffers.put(format, buffer);
+		}
+		return buffer.duplicate();
+	}
+
+	/**
+	 * Creates the payloads of a report object
+	 *
+	 * @param reports
+	 *            The report set
+	 * @param name
+	 *            The XML root element name
+	 * @return The payloads
+	 */
+	public static <T> Payloads of(final T reports, final QName name) {
+		return new Payloads() {
+			@Override
+			public void write(OutputStream stream, Format format) throws IOException {
+				switch (format) {
+				case XML:
+					try {
+						@SuppressWarnings("unchecked")
+						Class<T> type = (Class<T>) reports.getClass();
+						getContext(type).createMarshaller().marshal(new JAXBElement<T>(name, type, reports), stream);
+					} catch (JAXBException e) {
+						throw new IOException(e);
+					}
+					break;
+				case JSON:
+					mapper.writeValue(stream, reports);
+					break;
+				default:
+					throw new IOException("Unsupported format " + format);
+				}
+			}
+		};
+	}
+
+	private static JAXBContext getContext(Class<?> type) throws JAXBException {
+		synchronized (contexts) {
+			JAXBContext context = contexts.get(type);
+			if (context == null) {
+				context = JAXBContext.newInstance(type);
+				contexts.put(type, context);
+			}
+			return context;
+		}
+	}
+}
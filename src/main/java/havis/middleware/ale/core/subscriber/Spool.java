@@ -0,0 +1,428 @@
+package havis.middleware.ale.core.subscriber;
+
+import havis.middleware.ale.service.cc.CCReports;
+import havis.middleware.ale.service.ec.ECReports;
+import havis.middleware.ale.service.pc.PCReports;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Disk store of a subscriber. Reports which exceed the queue or failed to be
+ * delivered are appended to memory mapped segment files and replayed in
+ * order. The oldest segment is removed if the spool exceeds its size limit,
+ * reports exceeding the age limit are skipped on replay. Each record consists
+ * of the length, the time in milliseconds and the encoded report, the length
+ * of a replayed record is negated. The segments found in the directory are
+ * recovered on creation. Report objects are stored as JSON, encoded payloads
+ * as is.
+ */
+class Spool {
+
+	private final static ObjectMapper mapper = new ObjectMapper();
+
+	private final static byte PAYLOAD = 0;
+	private final static byte EC = 1;
+	private final static byte CC = 2;
+	private final static byte PC = 3;
+
+	private final static int HEADER = 12;
+
+	/**
+	 * A memory mapped segment file
+	 */
+	private static class Segment {
+		final File file;
+		final MappedByteBuffer buffer;
+		int read;
+		int count;
+
+		Segment(File file, int capacity) throws IOException {
+			this.file = file;
+			// the mapping stays valid after the file is closed
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			}
+		}
+
+		/**
+		 * Writes a record, the length is written last and followed by an
+		 * empty length if there is room, so that a record is only recovered
+		 * if written completely
+		 */
+		void put(long time, byte[] data) {
+			int position = buffer.position();
+			buffer.putLong(position + 4, time);
+			ByteBuffer duplicate = buffer.duplicate();
+			duplicate.position(position + HEADER);
+			duplicate.put(data);
+			int next = position + HEADER + data.length;
+			if (next + 4 <= buffer.capacity()) {
+				buffer.putInt(next, 0);
+			}
+			buffer.putInt(position, data.length);
+			buffer.position(next);
+			count++;
+		}
+
+		/**
+		 * Reads the records written before
+		 */
+		void recover() {
+			int position = 0;
+			read = -1;
+			while (position + HEADER <= buffer.capacity()) {
+				int length = buffer.getInt(position);
+				if (length == 0 || Math.abs(length) > buffer.capacity() - position - HEADER) {
+					break;
+				}
+				if (length > 0) {
+					if (read < 0) {
+						read = position;
+					}
+					count++;
+				}
+				position += HEADER + Math.abs(length);
+			}
+			if (read < 0) {
+				read = position;
+			}
+			buffer.position(position);
+		}
+
+		/**
+		 * Marks the oldest record as replayed
+		 */
+		void skip() {
+			int length = buffer.getInt(read);
+			buffer.putInt(read, -length);
+			read += HEADER + length;
+			count--;
+		}
+
+		void close() {
+			file.delete();
+		}
+	}
+
+	private final File directory;
+	private final int segmentSize;
+	private final long maxSize;
+	private final long maxAge;
+
+	private final Deque<Segment> segments = new ArrayDeque<Segment>();
+	private long first;
+	private long index;
+	private long size;
+	private int count;
+	private long dropped;
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param directory
+	 *            The directory, the segments found are recovered
+	 * @param segmentSize
+	 *            The size of a segment file in bytes
+	 * @param maxSize
+	 *            The maximum size of all segment files in bytes
+	 * @param maxAge
+	 *            The maximum age of a report in milliseconds, 0 for no limit
+	 * @throws IOException
+	 *             if the directory could not be created or a segment could
+	 *             not be recovered
+	 */
+	Spool(File directory, int segmentSize, long maxSize, long maxAge) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.maxSize = maxSize;
+		this.maxAge = maxAge;
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Failed to create spool directory " + directory);
+		}
+		recover();
+	}
+
+	/**
+	 * Recovers the segments in order of their index
+	 */
+	private void recover() throws IOException {
+		List<Long> indexes = new ArrayList<Long>();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				try {
+					indexes.add(Long.valueOf(file.getName()));
+				} catch (NumberFormatException e) {
+					file.delete();
+				}
+			}
+		}
+		Collections.sort(indexes);
+		for (Long i : indexes) {
+			File file = new File(directory, i.toString());
+			if (file.length() < HEADER || file.length() > Integer.MAX_VALUE) {
+				file.delete();
+				continue;
+			}
+			Segment segment = new Segment(file, (int) file.length());
+			segment.recover();
+			if (segment.count == 0) {
+				segment.close();
+				continue;
+			}
+			if (segments.isEmpty()) {
+				first = i.longValue();
+			}
+			segments.add(segment);
+			size += segment.buffer.capacity();
+			count += segment.count;
+			index = i.longValue() + 1;
+		}
+	}
+
+	/**
+	 * Returns the number of spooled reports
+	 */
+	synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of reports removed due to the size or age limit
+	 */
+	synchronized long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Appends a report. Removes the oldest segment if the size limit is
+	 * exceeded.
+	 *
+	 * @param reports
+	 *            The report objects or encoded payload
+	 * @param time
+	 *            The time of the report in milliseconds
+	 * @throws IOException
+	 *             if writing failed
+	 */
+	synchronized void add(Object reports, long time) throws IOException {
+		byte[] data = encode(reports);
+		int length = HEADER + data.length;
+		Segment tail = segments.peekLast();
+		if (tail == null || tail.buffer.remaining() < length) {
+			if (segments.isEmpty()) {
+				first = index;
+			}
+			tail = new Segment(new File(directory, Long.toString(index++)), Math.max(segmentSize, length));
+			segments.add(tail);
+			size += tail.buffer.capacity();
+		}
+		tail.put(time, data);
+		count++;
+		limit();
+	}
+
+	/**
+	 * Inserts reports in front of the spooled reports. The reports are written
+	 * to a new segment which precedes the other segments.
+	 *
+	 * @param reports
+	 *            The report objects or encoded payloads in order
+	 * @param times
+	 *            The times of the reports in milliseconds
+	 * @throws IOException
+	 *             if writing failed
+	 */
+	synchronized void addFirst(List<Object> reports, long[] times) throws IOException {
+		if (segments.isEmpty()) {
+			for (int i = 0; i < reports.size(); i++) {
+				add(reports.get(i), times[i]);
+			}
+			return;
+		}
+		List<byte[]> data = new ArrayList<byte[]>(reports.size());
+		int length = 0;
+		for (Object r : reports) {
+			byte[] bytes = encode(r);
+			data.add(bytes);
+			length += HEADER + bytes.length;
+		}
+		Segment head = new Segment(new File(directory, Long.toString(--first)), Math.max(segmentSize, length));
+		for (int i = 0; i < data.size(); i++) {
+			head.put(times[i], data.get(i));
+		}
+		segments.addFirst(head);
+		size += head.buffer.capacity();
+		count += head.count;
+		limit();
+	}
+
+	/**
+	 * Removes the oldest segments while the size limit is exceeded
+	 */
+	private void limit() {
+		while (size > maxSize && segments.size() > 1) {
+			Segment head = segments.poll();
+			dropped += head.count;
+			count -= head.count;
+			size -= head.buffer.capacity();
+			head.close();
+			first++;
+		}
+	}
+
+	/**
+	 * Retrieves the oldest report without removing it. Skips reports which
+	 * exceed the age limit.
+	 *
+	 * @return The report objects or encoded payload, null if empty
+	 * @throws IOException
+	 *             if decoding failed, the report has to be removed
+	 */
+	synchronized Object peek() throws IOException {
+		long limit = System.currentTimeMillis() - maxAge;
+		Segment head;
+		while ((head = segments.peek()) != null) {
+			if (head.count == 0) {
+				if (segments.size() > 1) {
+					segments.poll();
+					size -= head.buffer.capacity();
+					head.close();
+					first++;
+					continue;
+				}
+				// reuse the last segment
+				head.buffer.clear();
+				head.buffer.putInt(0, 0);
+				head.read = 0;
+				return null;
+			}
+			int length = head.buffer.getInt(head.read);
+			if (maxAge > 0 && head.buffer.getLong(head.read + 4) < limit) {
+				head.skip();
+				count--;
+				dropped++;
+				continue;
+			}
+			ByteBuffer buffer = head.buffer.duplicate();
+			buffer.position(head.read + HEADER);
+			byte[] data = new byte[length];
+			buffer.get(data);
+			return decode(data);
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieves the time of the oldest report
+	 *
+	 * @return The time in milliseconds, 0 if empty
+	 */
+	synchronized long getTime() {
+		Segment head = segments.peek();
+		return head != null && head.count > 0 ? head.buffer.getLong(head.read + 4) : 0;
+	}
+
+	/**
+	 * Removes the oldest report
+	 */
+	synchronized void remove() {
+		Segment head = segments.peek();
+		if (head != null && head.count > 0) {
+			head.skip();
+			count--;
+		}
+	}
+
+	/**
+	 * Releases the segments, the directory is removed if no report is left
+	 */
+	synchronized void close() {
+		if (count == 0) {
+			clear();
+			directory.delete();
+		}
+		segments.clear();
+	}
+
+	/**
+	 * Removes all spooled reports
+	 */
+	synchronized void clear() {
+		for (Segment segment : segments) {
+			segment.close();
+		}
+		segments.clear();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		size = 0;
+		count = 0;
+	}
+
+	/**
+	 * Encodes a report with a leading type byte
+	 *
+	 * @param reports
+	 *            The report objects or encoded payload
+	 * @return The bytes
+	 * @throws IOException
+	 *             if encoding failed
+	 */
+	static byte[] encode(Object reports) throws IOException {
+		byte type;
+		byte[] data;
+		if (reports instanceof ByteBuffer) {
+			ByteBuffer buffer = ((ByteBuffer) reports).duplicate();
+			type = PAYLOAD;
+			data = new byte[buffer.remaining()];
+			buffer.get(data);
+		} else {
+			type = reports instanceof ECReports ? EC : reports instanceof CCReports ? CC : PC;
+			data = mapper.writeValueAsBytes(reports);
+		}
+		byte[] bytes = new byte[data.length + 1];
+		bytes[0] = type;
+		System.arraycopy(data, 0, bytes, 1, data.length);
+		return bytes;
+	}
+
+	/**
+	 * Decodes a report encoded by {@link #encode(Object)}
+	 *
+	 * @param bytes
+	 *            The bytes
+	 * @return The report objects or encoded payload
+	 * @throws IOException
+	 *             if decoding failed
+	 */
+	static Object decode(byte[] bytes) throws IOException {
+		byte[] data = Arrays.copyOfRange(bytes, 1, bytes.length);
+		switch (bytes[0]) {
+		case PAYLOAD:
+			return ByteBuffer.wrap(data).asReadOnlyBuffer();
+		case EC:
+			return mapper.readValue(data, ECReports.class);
+		case CC:
+			return mapper.readValue(data, CCReports.class);
+		default:
+			return mapper.readValue(data, PCReports.class);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package havis.middleware.ale.core.subscriber;
+
+import havis.middleware.ale.base.exception.ImplementationException;
+import havis.middleware.ale.subscriber.SubscriberConnector;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Subscriber connector which takes event and command cycle reports already
+ * encoded in its wire format. Event cycle report sets are written directly
+ * from the tags of the cycle, so that the report objects are never built for
+ * such a subscriber. Each report set of an event, command or port cycle is
+ * encoded once per format and the payload is shared by all subscribers using
+ * that format.
+ */
+public interface StreamSubscriberConnector extends SubscriberConnector {
+
+	/**
+	 * Retrieves the wire format. Will be called after initialization.
+	 *
+	 * @return The format
+	 */
+	Format getFormat();
+
+	/**
+	 * Sends an encoded report set
+	 *
+	 * @param data
+	 *            The read only report set in the wire format of the connector
+	 * @throws ImplementationException
+	 *             if the delivery failed
+	 */
+	void send(ByteBuffer data) throws ImplementationException;
+}
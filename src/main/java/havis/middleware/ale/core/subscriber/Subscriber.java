@@ -177,12 +177,36 @@ public class Subscriber {
 	 */
 	public SubscriberController get(URI uri, PropertiesType properties, Class<? extends IReports> reportClass) throws ImplementationException,
 			InvalidURIException {
+		return get(null, uri, properties, reportClass);
+	}
+
+	/**
+	 * Create a instance for a specific {@link SubscriberConnectorType}
+	 * implementation for a subscription of a cycle. The reports kept on disk
+	 * for the subscription are recovered.
+	 * 
+	 * @param name
+	 *            The name of the cycle
+	 * @param uri
+	 *            The subscriber URI to select the requested type
+	 * @param properties
+	 *            The properties
+	 * @param reportClass
+	 *            The report type
+	 * @return The requested controller instance
+	 * @throws InvalidURIException
+	 *             If no subscriber connector for given scheme exists
+	 * @throws ImplementationException
+	 *             If the operation was unable to create a instance.
+	 */
+	public SubscriberController get(String name, URI uri, PropertiesType properties, Class<? extends IReports> reportClass)
+			throws ImplementationException, InvalidURIException {
 		String type = validateUri(uri).getScheme().toLowerCase();
 		SubscriberConnector connector = Connector.getFactory().newInstance(SubscriberConnector.class, type);
 		// look for connector by URI scheme
 		if (connector != null) {
 			try {
-				return new DefaultSubscriberController(uri, properties, connector, reportClass);
+				return new DefaultSubscriberController(name, uri, properties, connector, reportClass);
 			} catch (ImplementationException e) {
 				e.setReason("Failed to create instance of '" + type + "'. " + e.getReason());
 				throw e;
@@ -3,7 +3,9 @@ package havis.middleware.ale.host;
 import havis.middleware.ale.Connector;
 import havis.middleware.ale.base.annotation.EndpointMetadata;
 import havis.middleware.ale.base.exception.ALEException;
+import havis.middleware.ale.core.Execution;
 import havis.middleware.ale.core.Name;
+import havis.middleware.ale.core.TdtCache;
 import havis.middleware.ale.core.config.Config;
 import havis.middleware.ale.core.depot.service.cc.Association;
 import havis.middleware.ale.core.depot.service.cc.Cache;
@@ -336,6 +338,7 @@ public class Main implements ServiceSource {
 
 		Fields.reset();
 		Patterns.reset();
+		TdtCache.reset();
 		HttpTrigger.reset();
 		PortTrigger.reset();
 		RtcTrigger.reset();
@@ -425,6 +428,10 @@ public class Main implements ServiceSource {
 			httpServer.stop(0);
 		}
 
+		// write pending configuration changes
+		Config.flush();
+
 		ThreadManager.dispose();
+		Execution.getInstance().dispose();
 	}
 }
\ No newline at end of file
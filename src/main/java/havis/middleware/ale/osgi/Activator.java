@@ -5,9 +5,11 @@ import havis.middleware.ale.base.exception.ALEException;
 import havis.middleware.ale.base.exception.ImplementationException;
 import havis.middleware.ale.core.doc.ClasspathDocumentService;
 import havis.middleware.ale.core.manager.LR;
+import havis.middleware.ale.core.reader.SimulatorReaderConnector;
 import havis.middleware.ale.core.subscriber.MessengerSubscriberConnector;
 import havis.middleware.ale.host.Main;
 import havis.middleware.ale.reader.ImmutableReaderConnector;
+import havis.middleware.ale.reader.ReaderConnector;
 import havis.middleware.ale.service.doc.DocumentService;
 import havis.middleware.ale.service.mc.MC;
 import havis.middleware.ale.subscriber.SubscriberConnector;
@@ -59,6 +61,11 @@ public class Activator implements BundleActivator {
 						S messenger = (S) new MessengerSubscriberConnector();
 						return messenger;
 					}
+					if (ReaderConnector.class.equals(clazz) && SimulatorReaderConnector.TYPE.equals(type)) {
+						@SuppressWarnings("unchecked")
+						S simulator = (S) new SimulatorReaderConnector();
+						return simulator;
+					}
 					for (ServiceReference<S> reference : context.getServiceReferences(clazz, "(name=" + type + ")")) {
 						ServiceObjects<S> objects = context.getServiceObjects(reference);
 						if (objects != null) {
@@ -78,6 +85,9 @@ public class Activator implements BundleActivator {
 					if (SubscriberConnector.class.equals(clazz)) {
 						addTypes(context, Transporter.class, types);
 					}
+					if (ReaderConnector.class.equals(clazz)) {
+						types.add(SimulatorReaderConnector.TYPE);
+					}
 					addTypes(context, clazz, types);
 				} catch (InvalidSyntaxException e) {
 					throw new ImplementationException(e.getMessage());
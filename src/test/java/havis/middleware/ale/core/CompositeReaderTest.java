@@ -25,7 +25,10 @@ import havis.middleware.ale.service.lr.LRSpec;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
+import mockit.Deencapsulation;
 import mockit.Delegate;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
@@ -131,6 +134,59 @@ public class CompositeReaderTest {
         Assert.assertEquals(Integer.valueOf(49), reader.tagSmoothingHandler.lostTimeout);
     }
 
+    @Test
+    public void compositeReaderWithDeduplicationWindow(@Mocked final LR lr) throws ValidationException, ReaderLoopException, NoSuchNameException,
+            ImmutableReaderException, ImplementationException, InUseException {
+        LRSpec compositeSpec = new LRSpec();
+        compositeSpec.setReaders(new LRSpec.Readers());
+        compositeSpec.getReaders().getReader().add("sub1");
+        compositeSpec.getReaders().getReader().add("sub2");
+        compositeSpec.setProperties(new LRSpec.Properties());
+        compositeSpec.getProperties().getProperty().add(createProperty(CompositeReader.DEDUPLICATION_WINDOW, "20"));
+        compositeSpec.setIsComposite(Boolean.TRUE);
+
+        final CompositeReader sub1 = createCompositeReader("sub1");
+        sub1.lock();
+        final CompositeReader sub2 = createCompositeReader("sub2");
+        sub2.lock();
+
+        new NonStrictExpectations() {
+            {
+                lr.lock("sub1");
+                result = sub1;
+
+                lr.lock("sub2");
+                result = sub2;
+            }
+        };
+
+        CompositeReader reader = new CompositeReader("root", compositeSpec);
+        Assert.assertEquals(20, reader.deduplicationWindow);
+        Assert.assertNull(reader.tagSmoothingHandler);
+        ExecutorService executor = Deencapsulation.getField(reader, "deduplicationExecutor");
+        Assert.assertNotNull(executor);
+
+        // the executor is shut down without window
+        LRSpec compositeSpec2 = new LRSpec();
+        compositeSpec2.setReaders(compositeSpec.getReaders());
+        compositeSpec2.setProperties(new LRSpec.Properties());
+        compositeSpec2.getProperties().getProperty().add(createProperty(CompositeReader.DEDUPLICATION_WINDOW, "0"));
+        compositeSpec2.setIsComposite(Boolean.TRUE);
+        reader.update(compositeSpec2, false);
+        Assert.assertEquals(0, reader.deduplicationWindow);
+        Assert.assertNull(Deencapsulation.getField(reader, "deduplicationExecutor"));
+        Assert.assertTrue(executor.isShutdown());
+
+        compositeSpec.getProperties().getProperty().clear();
+        compositeSpec.getProperties().getProperty().add(createProperty(CompositeReader.DEDUPLICATION_WINDOW, "-1"));
+        try {
+            new CompositeReader("root2", compositeSpec);
+            Assert.fail("Expected ValidationException");
+        } catch (ValidationException e) {
+            // ignore
+        }
+    }
+
     @Test
     public void compositeReaderWithAntennaRestriction(@Mocked final LR lr, @Mocked final Reader readerManager, @Mocked final ReaderController controller)
             throws ValidationException, ReaderLoopException, NoSuchNameException, ImplementationException, ImmutableReaderException {
@@ -864,15 +920,69 @@ public class CompositeReaderTest {
         CompositeReader reader = new CompositeReader("root", compositeSpec);
         reader.define(operation, callback, "tag");
 
+        // the reads of both readers are merged by one deduplicator
+        Object deduplicator = sub1.getLastCall().get("define").get("callback");
+        Assert.assertTrue(deduplicator instanceof TagDeduplicator);
+        Assert.assertSame(callback, Deencapsulation.getField(deduplicator, "callback"));
+
         Assert.assertSame(operation, sub1.getLastCall().get("define").get("operation"));
-        Assert.assertSame(callback, sub1.getLastCall().get("define").get("callback"));
         Assert.assertEquals("tag-" + reader.guid, sub1.getLastCall().get("define").get("name"));
 
         Assert.assertSame(operation, sub2.getLastCall().get("define").get("operation"));
-        Assert.assertSame(callback, sub2.getLastCall().get("define").get("callback"));
+        Assert.assertSame(deduplicator, sub2.getLastCall().get("define").get("callback"));
         Assert.assertEquals("tag-" + reader.guid, sub2.getLastCall().get("define").get("name"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void defineTagOperationWithDeduplicationWindowUpdate(@Mocked final LR lr, @Mocked final TagOperation operation) throws Exception {
+        LRSpec compositeSpec = new LRSpec();
+        compositeSpec.setReaders(new LRSpec.Readers());
+        compositeSpec.getReaders().getReader().add("sub1");
+        compositeSpec.setProperties(new LRSpec.Properties());
+        compositeSpec.setIsComposite(Boolean.TRUE);
+
+        final DummyCompositeReader sub1 = new DummyCompositeReader("sub1");
+        sub1.lock();
+
+        final List<Tag> tags = new ArrayList<>();
+        final Caller<Tag> callback = new Caller<Tag>() {
+            @Override
+            public void invoke(Tag t, ReaderController controller) {
+                tags.add(t);
+            }
+        };
+
+        new NonStrictExpectations() {
+            {
+                lr.lock("sub1");
+                result = sub1;
+            }
+        };
+
+        CompositeReader reader = new CompositeReader("root", compositeSpec);
+        reader.define(operation, callback, "tag");
+        Caller<Tag> deduplicator = (Caller<Tag>) sub1.getLastCall().get("define").get("callback");
+
+        // passed through without window
+        Tag tag = new Tag(new byte[] { 0x01 });
+        deduplicator.invoke(tag, null);
+        Assert.assertEquals(Arrays.asList(tag), tags);
+
+        // the window of an update applies to the running operation
+        LRSpec compositeSpec2 = new LRSpec();
+        compositeSpec2.setReaders(compositeSpec.getReaders());
+        compositeSpec2.setProperties(new LRSpec.Properties());
+        compositeSpec2.getProperties().getProperty().add(createProperty(CompositeReader.DEDUPLICATION_WINDOW, "20"));
+        compositeSpec2.setIsComposite(Boolean.TRUE);
+        reader.update(compositeSpec2, false);
+        deduplicator = (Caller<Tag>) sub1.getLastCall().get("define").get("callback");
+        Assert.assertEquals(Long.valueOf(20), Deencapsulation.getField(deduplicator, "window"));
+        Assert.assertNotNull(Deencapsulation.getField(deduplicator, "executor"));
+
+        reader.undefine(operation, "tag");
+    }
+
     @Test
     public void defineTagOperationWithException(@Mocked final LR lr, @Mocked final TagOperation operation) throws Exception {
         LRSpec compositeSpec = new LRSpec();
@@ -913,7 +1023,7 @@ public class CompositeReaderTest {
 		}
 
         Assert.assertSame(operation, sub1.getLastCall().get("define").get("operation"));
-        Assert.assertSame(callback, sub1.getLastCall().get("define").get("callback"));
+        Assert.assertSame(callback, Deencapsulation.getField(sub1.getLastCall().get("define").get("callback"), "callback"));
         Assert.assertEquals("tag-" + reader.guid, sub1.getLastCall().get("define").get("name"));
         
         // undefine the first operation on error
@@ -0,0 +1,235 @@
+package havis.middleware.ale.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SerialExecutorTest {
+
+    @Test
+    public void order() throws InterruptedException {
+        ExecutorService carrier = Executors.newFixedThreadPool(4);
+        try {
+            List<ExecutorService> executors = new ArrayList<>();
+            final List<List<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                executors.add(new SerialExecutor(carrier));
+                results.add(Collections.synchronizedList(new ArrayList<Integer>()));
+            }
+            for (int n = 0; n < 1000; n++) {
+                for (int i = 0; i < executors.size(); i++) {
+                    final List<Integer> result = results.get(i);
+                    final Integer value = Integer.valueOf(n);
+                    executors.get(i).execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            result.add(value);
+                        }
+                    });
+                }
+            }
+            for (ExecutorService executor : executors) {
+                executor.shutdown();
+                Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+                Assert.assertTrue(executor.isTerminated());
+            }
+            for (List<Integer> result : results) {
+                Assert.assertEquals(1000, result.size());
+                for (int n = 0; n < 1000; n++) {
+                    Assert.assertEquals(n, result.get(n).intValue());
+                }
+            }
+        } finally {
+            carrier.shutdown();
+        }
+    }
+
+    @Test
+    public void failure() throws InterruptedException {
+        ExecutorService carrier = Executors.newFixedThreadPool(1);
+        try {
+            SerialExecutor executor = new SerialExecutor(carrier);
+            final CountDownLatch latch = new CountDownLatch(1);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException("failure");
+                }
+            });
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            carrier.shutdown();
+        }
+    }
+
+    @Test
+    public void shutdownNow() throws InterruptedException {
+        ExecutorService carrier = Executors.newFixedThreadPool(1);
+        try {
+            SerialExecutor executor = new SerialExecutor(carrier);
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch interrupted = new CountDownLatch(1);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                }
+            });
+            Runnable pending = new Runnable() {
+                @Override
+                public void run() {
+                }
+            };
+            executor.execute(pending);
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(Collections.singletonList(pending), executor.shutdownNow());
+            Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertTrue(executor.isShutdown());
+            try {
+                executor.execute(pending);
+                Assert.fail("Expected RejectedExecutionException");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+        } finally {
+            carrier.shutdown();
+        }
+    }
+
+    @Test
+    public void execution() throws Exception {
+        Execution execution = new Execution(Execution.Mode.SHARED, 2);
+        try {
+            Assert.assertEquals(Execution.Mode.SHARED, execution.getMode());
+            ExecutorService executor = execution.newSerialExecutor("test");
+            Assert.assertTrue(executor instanceof SerialExecutor);
+            Assert.assertEquals(Integer.valueOf(1), executor.submit(new java.util.concurrent.Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return Integer.valueOf(1);
+                }
+            }).get(5, TimeUnit.SECONDS));
+            executor.shutdown();
+
+            Thread thread = execution.newThread(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, "test");
+            Assert.assertEquals("test", thread.getName());
+        } finally {
+            execution.dispose();
+        }
+
+        Assert.assertEquals(Execution.Mode.THREAD, new Execution(Execution.Mode.THREAD, 1).getMode());
+        // falls back to shared mode before Java 21
+        Assert.assertNotEquals(Execution.Mode.THREAD, new Execution(Execution.Mode.VIRTUAL, 1).getMode());
+    }
+
+    @Test
+    public void timerExecution() throws Exception {
+        Execution execution = new Execution(Execution.Mode.THREAD, 1);
+        try {
+            ExecutorService first = execution.newTimerExecutor("first");
+            ExecutorService second = execution.newTimerExecutor("second");
+            // no thread of its own while idle
+            Assert.assertTrue(first instanceof SerialExecutor);
+            final List<Integer> result = Collections.synchronizedList(new ArrayList<Integer>());
+            final List<String> names = Collections.synchronizedList(new ArrayList<String>());
+            for (int n = 0; n < 100; n++) {
+                final Integer value = Integer.valueOf(n);
+                first.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        result.add(value);
+                        names.add(Thread.currentThread().getName());
+                    }
+                });
+            }
+            Assert.assertEquals("second", second.submit(new java.util.concurrent.Callable<String>() {
+                @Override
+                public String call() {
+                    return "second";
+                }
+            }).get(5, TimeUnit.SECONDS));
+            first.shutdown();
+            Assert.assertTrue(first.awaitTermination(5, TimeUnit.SECONDS));
+            for (int n = 0; n < 100; n++) {
+                Assert.assertEquals(Integer.valueOf(n), result.get(n));
+                Assert.assertTrue(names.get(n).startsWith("Execution timer "));
+            }
+            second.shutdown();
+        } finally {
+            execution.dispose();
+        }
+    }
+
+    @Test
+    public void executionSaturated() throws Exception {
+        // one carrier kept, two at most, one waiting task
+        Execution execution = new Execution(Execution.Mode.SHARED, 1, 2, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch queued = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 2; i++) {
+                execution.newSerialExecutor("busy").execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                        }
+                    }
+                });
+            }
+            // both carriers are busy
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            execution.newSerialExecutor("queued").execute(new Runnable() {
+                @Override
+                public void run() {
+                    queued.countDown();
+                }
+            });
+            Assert.assertEquals(1, queued.getCount());
+
+            // the queue is full, so the submitting thread runs the task
+            final Thread[] thread = new Thread[1];
+            execution.newSerialExecutor("rejected").execute(new Runnable() {
+                @Override
+                public void run() {
+                    thread[0] = Thread.currentThread();
+                }
+            });
+            Assert.assertSame(Thread.currentThread(), thread[0]);
+
+            release.countDown();
+            Assert.assertTrue(queued.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            execution.dispose();
+        }
+    }
+}
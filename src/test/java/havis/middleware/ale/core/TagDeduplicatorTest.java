@@ -0,0 +1,185 @@
+package havis.middleware.ale.core;
+
+import havis.middleware.ale.base.operation.tag.Sighting;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.reader.Caller;
+import havis.middleware.ale.core.reader.ReaderController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Mocked;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TagDeduplicatorTest {
+
+    private static Tag tag(byte epc, short antenna, int strength) {
+        Tag tag = new Tag(new byte[] { epc });
+        tag.setSighting(new Sighting("host", antenna, strength));
+        return tag;
+    }
+
+    @Test
+    public void deduplicate(@Mocked final ReaderController controller1, @Mocked final ReaderController controller2) throws InterruptedException {
+        final List<Tag> tags = new ArrayList<>();
+        final List<ReaderController> controllers = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        Caller<Tag> callback = new Caller<Tag>() {
+            @Override
+            public void invoke(Tag tag, ReaderController controller) {
+                synchronized (tags) {
+                    tags.add(tag);
+                    controllers.add(controller);
+                }
+                latch.countDown();
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TagDeduplicator deduplicator = new TagDeduplicator(50, callback, executor);
+            Tag strongest = tag((byte) 0x01, (short) 2, 5);
+            deduplicator.invoke(tag((byte) 0x01, (short) 1, 2), controller1);
+            deduplicator.invoke(strongest, controller2);
+            deduplicator.invoke(Arrays.asList(tag((byte) 0x02, (short) 1, 1), tag((byte) 0x01, (short) 1, 3)), controller1);
+
+            // held for the window
+            Assert.assertEquals(2, latch.getCount());
+            Assert.assertTrue("Expected callback", latch.await(500, TimeUnit.MILLISECONDS));
+
+            Assert.assertEquals(2, tags.size());
+            Assert.assertSame(strongest, tags.get(0));
+            Assert.assertSame(controller2, controllers.get(0));
+            Assert.assertArrayEquals(new byte[] { 0x02 }, tags.get(1).getEpc());
+            Assert.assertSame(controller1, controllers.get(1));
+
+            // a new window starts after the release
+            deduplicator.invoke(tag((byte) 0x01, (short) 1, 2), controller1);
+            Thread.sleep(100);
+            Assert.assertEquals(3, tags.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void dispose(@Mocked final ReaderController controller) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Caller<Tag> callback = new Caller<Tag>() {
+            @Override
+            public void invoke(Tag tag, ReaderController controller) {
+                latch.countDown();
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TagDeduplicator deduplicator = new TagDeduplicator(20, callback, executor);
+            deduplicator.invoke(tag((byte) 0x01, (short) 1, 2), controller);
+            deduplicator.dispose();
+            Assert.assertFalse("Expected no callback", latch.await(100, TimeUnit.MILLISECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void releaseOnExecutor(@Mocked final ReaderController controller) throws Exception {
+        final List<Tag> tags = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        Caller<Tag> callback = new Caller<Tag>() {
+            @Override
+            public void invoke(Tag tag, ReaderController controller) {
+                synchronized (tags) {
+                    tags.add(tag);
+                    threads.add(Thread.currentThread());
+                }
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Thread thread = executor.submit(new Callable<Thread>() {
+                @Override
+                public Thread call() {
+                    return Thread.currentThread();
+                }
+            }).get();
+            final TagDeduplicator deduplicator = new TagDeduplicator(1, callback, executor);
+            List<Tag> expected = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Tag tag = tag((byte) i, (short) 1, 1);
+                expected.add(tag);
+                deduplicator.invoke(tag, controller);
+                if (i % 20 == 0) {
+                    Thread.sleep(2);
+                }
+            }
+            long deadline = System.currentTimeMillis() + 1000;
+            while ((tags.size() < expected.size()) && (System.currentTimeMillis() < deadline)) {
+                Thread.sleep(10);
+            }
+            synchronized (tags) {
+                // in the order of the first read, from the executor only
+                Assert.assertEquals(expected, tags);
+                for (Thread t : threads) {
+                    Assert.assertSame(thread, t);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void setWindow(@Mocked final ReaderController controller) throws InterruptedException {
+        final List<Tag> tags = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Caller<Tag> callback = new Caller<Tag>() {
+            @Override
+            public void invoke(Tag tag, ReaderController controller) {
+                synchronized (tags) {
+                    tags.add(tag);
+                }
+                latch.countDown();
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TagDeduplicator deduplicator = new TagDeduplicator(10000, callback, executor);
+            Tag held = tag((byte) 0x01, (short) 1, 2);
+            deduplicator.invoke(held, controller);
+
+            // held tags are released without window
+            deduplicator.setWindow(0, executor);
+            Assert.assertTrue("Expected callback", latch.await(500, TimeUnit.MILLISECONDS));
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(500, TimeUnit.MILLISECONDS));
+
+            // passed through afterwards
+            Tag tag = tag((byte) 0x02, (short) 1, 2);
+            deduplicator.invoke(tag, controller);
+            Assert.assertEquals(Arrays.asList(held, tag), tags);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void isStronger() {
+        Tag tag = new Tag(new byte[] { 0x01 });
+        Assert.assertFalse(TagDeduplicator.isStronger(tag, tag((byte) 0x01, (short) 1, 2)));
+        Assert.assertTrue(TagDeduplicator.isStronger(tag((byte) 0x01, (short) 1, 2), tag));
+        Assert.assertTrue(TagDeduplicator.isStronger(tag((byte) 0x01, (short) 1, 3), tag((byte) 0x01, (short) 2, 2)));
+        Assert.assertFalse(TagDeduplicator.isStronger(tag((byte) 0x01, (short) 1, 2), tag((byte) 0x01, (short) 2, 2)));
+    }
+}
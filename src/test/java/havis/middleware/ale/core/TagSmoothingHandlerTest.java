@@ -3,6 +3,11 @@ package havis.middleware.ale.core;
 import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.core.reader.Caller;
 import havis.middleware.ale.core.reader.ReaderController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import mockit.Mocked;
 
 import org.junit.Assert;
@@ -138,4 +143,51 @@ public class TagSmoothingHandlerTest {
         Assert.assertSame(t1, lastTagSentToCycle.get());
         Assert.assertEquals(0, lastTagSentToCycle.get().getTimeout());
     }
+
+    @Test
+    public void transitions(@Mocked final ReaderController readerController) throws InterruptedException {
+        TagSmoothingHandler handler = new TagSmoothingHandler(Integer.valueOf(20), null, Integer.valueOf(2), Integer.valueOf(40));
+
+        final List<String> transitions = new ArrayList<>();
+        handler.setListener(new TagSmoothingHandler.Listener() {
+            @Override
+            public void observed(Tag tag) {
+                transitions.add("observed " + tag.getEpc()[0]);
+            }
+
+            @Override
+            public void lost(Tag tag) {
+                transitions.add("lost " + tag.getEpc()[0]);
+            }
+
+            @Override
+            public void glimpsed(Tag tag) {
+                transitions.add("glimpsed " + tag.getEpc()[0]);
+            }
+        });
+
+        final Caller<Tag> callback = new Caller<Tag>() {
+            @Override
+            public void invoke(Tag t, ReaderController controller) {
+            }
+        };
+
+        handler.process(new Tag(new byte[] { 0x01 }), callback, readerController);
+        handler.process(new Tag(new byte[] { 0x01 }), callback, readerController);
+        handler.process(new Tag(new byte[] { 0x02 }), callback, readerController);
+        for (int i = 0; i < 100; i++) {
+            handler.process(new Tag(new byte[] { 0x03, (byte) i }), callback, readerController);
+        }
+        Assert.assertEquals(102, handler.size());
+        Assert.assertEquals(Arrays.asList("observed 1"), transitions);
+
+        Thread.sleep(60);
+
+        // expired tags are removed while processing
+        handler.process(new Tag(new byte[] { 0x04 }), callback, readerController);
+        Assert.assertEquals(1, handler.size());
+        Assert.assertEquals(103, transitions.size());
+        Assert.assertTrue(transitions.contains("lost 1"));
+        Assert.assertTrue(transitions.contains("glimpsed 2"));
+    }
 }
@@ -0,0 +1,78 @@
+package havis.middleware.ale.core;
+
+import havis.middleware.tdt.TdtTagInfo;
+import havis.middleware.tdt.TdtTranslationException;
+import havis.middleware.utils.data.Converter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TdtCacheTest {
+
+    @Test
+    public void translateBytes() throws TdtTranslationException {
+        TdtCache cache = new TdtCache(16);
+        byte[] epc = Converter.hexToBytes("3074257bf7194e4000001a85");
+        TdtTagInfo info = cache.translate(epc);
+        Assert.assertEquals("urn:epc:tag:sgtin-96:3.0614141.812345.6789", info.getUriTag());
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        // same content, other array
+        Assert.assertSame(info, cache.translate(Converter.hexToBytes("3074257bf7194e4000001a85")));
+        Assert.assertEquals(1, cache.getHits());
+
+        // modifying the source array does not affect the cache
+        epc[11] = 0;
+        Assert.assertNotSame(info, cache.translate(epc));
+        Assert.assertSame(info, cache.translate(Converter.hexToBytes("3074257bf7194e4000001a85")));
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(2, cache.getSize());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.getSize());
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void translateUrn() throws TdtTranslationException {
+        TdtCache cache = new TdtCache(16);
+        TdtTagInfo info = cache.translate("urn:epc:tag:sgtin-96:3.0614141.812345.6789");
+        Assert.assertArrayEquals(Converter.hexToBytes("3074257bf7194e4000001a85"), info.getEpcData());
+        Assert.assertSame(info, cache.translate("urn:epc:tag:sgtin-96:3.0614141.812345.6789"));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void evict() throws TdtTranslationException {
+        TdtCache cache = new TdtCache(32);
+        for (int i = 0; i < 1000; i++) {
+            cache.translate("urn:epc:tag:sgtin-96:3.0614141.812345." + i);
+        }
+        Assert.assertTrue(cache.getSize() <= 32);
+        Assert.assertEquals(1000, cache.getMisses());
+    }
+
+    @Test
+    public void disabled() throws TdtTranslationException {
+        TdtCache cache = new TdtCache(0);
+        TdtTagInfo info = cache.translate("urn:epc:tag:sgtin-96:3.0614141.812345.6789");
+        Assert.assertNotSame(info, cache.translate("urn:epc:tag:sgtin-96:3.0614141.812345.6789"));
+        Assert.assertEquals(0, cache.getSize());
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(0, cache.getMisses());
+    }
+
+    @Test(expected = TdtTranslationException.class)
+    public void translateInvalid() throws TdtTranslationException {
+        TdtCache cache = new TdtCache(16);
+        try {
+            cache.translate("urn:epc:tag:unknown:1.2.3");
+        } finally {
+            Assert.assertEquals(0, cache.getSize());
+        }
+    }
+}
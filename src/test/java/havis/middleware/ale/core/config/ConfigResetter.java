@@ -1,5 +1,6 @@
 package havis.middleware.ale.core.config;
 
+import havis.middleware.ale.core.TdtCache;
 import havis.middleware.misc.TdtResetter;
 
 /**
@@ -8,6 +9,7 @@ import havis.middleware.misc.TdtResetter;
 public class ConfigResetter {
     public static void reset() {
     	TdtResetter.reset();
+    	TdtCache.reset();
         Config.reset();
         Config.getInstance();
     }
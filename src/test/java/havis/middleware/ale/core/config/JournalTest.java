@@ -0,0 +1,198 @@
+package havis.middleware.ale.core.config;
+
+import havis.middleware.ale.config.CacheType;
+import havis.middleware.ale.config.ConfigType;
+import havis.middleware.ale.config.EventCycleType;
+import havis.middleware.ale.config.SubscriberType;
+import havis.middleware.ale.config.SubscribersType;
+import havis.middleware.ale.service.cc.EPCCacheSpec;
+import havis.middleware.ale.service.cc.EPCPatternList;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JournalTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private File file;
+
+    @Before
+    public void before() throws IOException {
+        file = File.createTempFile("ale", ".journal");
+        file.delete();
+    }
+
+    @After
+    public void after() {
+        file.delete();
+    }
+
+    private ConfigType load() throws IOException {
+        return mapper.readValue(Config.class.getClassLoader().getResourceAsStream("havis/middleware/ale/core/config/default.json"), ConfigType.class);
+    }
+
+    private static CacheType cache(String name, String pattern) {
+        return new CacheType(name, Boolean.TRUE, new EPCCacheSpec(), new EPCPatternList(Arrays.asList(pattern)));
+    }
+
+    @Test
+    public void replay() throws IOException {
+        ConfigType config = load();
+        Journal journal = new Journal(file, mapper);
+        Assert.assertEquals(0, journal.replay(config, 1));
+
+        List<CacheType> caches = config.getService().getCc().getCaches().getCache();
+        CacheType a = cache("a", "urn:epc:pat:sgtin-96:3.0614141.812345.[1-100]");
+        caches.add(a);
+        Assert.assertTrue(journal.append(config, Journal.ADD, caches, 0, a));
+        CacheType b = cache("b", "urn:epc:pat:sgtin-96:3.0614141.812345.[1-100]");
+        caches.add(b);
+        Assert.assertTrue(journal.append(config, Journal.ADD, caches, 1, b));
+        b.setPatterns(new EPCPatternList(Arrays.asList("urn:epc:pat:sgtin-96:3.0614141.812345.[2-100]")));
+        Assert.assertTrue(journal.append(config, Journal.SET, caches, 1, b));
+        caches.remove(0);
+        Assert.assertTrue(journal.append(config, Journal.REMOVE, caches, 0, null));
+        Assert.assertTrue(journal.size() > 0);
+        journal.close();
+
+        ConfigType replayed = load();
+        Assert.assertEquals(4, new Journal(file, mapper).replay(replayed, 1));
+        List<CacheType> list = replayed.getService().getCc().getCaches().getCache();
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals("b", list.get(0).getName());
+        Assert.assertEquals(Arrays.asList("urn:epc:pat:sgtin-96:3.0614141.812345.[2-100]"), list.get(0).getPatterns().getPatterns().getPattern());
+    }
+
+    @Test
+    public void replaySubscriber() throws IOException {
+        ConfigType config = load();
+        Journal journal = new Journal(file, mapper);
+        journal.replay(config, 1);
+
+        List<EventCycleType> cycles = config.getService().getEc().getEventCycles().getEventCycle();
+        EventCycleType cycle = new EventCycleType();
+        cycle.setName("cycle");
+        cycle.setEnable(Boolean.TRUE);
+        cycle.setSubscribers(new SubscribersType());
+        cycles.add(cycle);
+        Assert.assertTrue(journal.append(config, Journal.ADD, cycles, 0, cycle));
+
+        List<SubscriberType> subscribers = cycle.getSubscribers().getSubscriber();
+        Assert.assertEquals("ec/0", Journal.path(config, subscribers));
+        SubscriberType subscriber = new SubscriberType();
+        subscriber.setUri("http://localhost:8080");
+        subscriber.setName(subscriber.getUri());
+        subscriber.setEnable(Boolean.TRUE);
+        subscribers.add(subscriber);
+        Assert.assertTrue(journal.append(config, Journal.ADD, subscribers, 0, subscriber));
+        journal.close();
+
+        ConfigType replayed = load();
+        Assert.assertEquals(2, new Journal(file, mapper).replay(replayed, 1));
+        List<EventCycleType> list = replayed.getService().getEc().getEventCycles().getEventCycle();
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals("cycle", list.get(0).getName());
+        Assert.assertEquals(1, list.get(0).getSubscribers().getSubscriber().size());
+        Assert.assertEquals("http://localhost:8080", list.get(0).getSubscribers().getSubscriber().get(0).getUri());
+    }
+
+    @Test
+    public void replayOtherSnapshot() throws IOException {
+        ConfigType config = load();
+        Journal journal = new Journal(file, mapper);
+        journal.replay(config, 1);
+        List<CacheType> caches = config.getService().getCc().getCaches().getCache();
+        CacheType a = cache("a", "urn:epc:pat:sgtin-96:3.0614141.812345.[1-100]");
+        caches.add(a);
+        journal.append(config, Journal.ADD, caches, 0, a);
+        journal.close();
+
+        // snapshot was written but journal was not reset
+        ConfigType replayed = load();
+        journal = new Journal(file, mapper);
+        Assert.assertEquals(0, journal.replay(replayed, 2));
+        Assert.assertEquals(0, replayed.getService().getCc().getCaches().getCache().size());
+        Assert.assertEquals(0, journal.size());
+    }
+
+    @Test
+    public void replayCorruptTail() throws IOException {
+        ConfigType config = load();
+        Journal journal = new Journal(file, mapper);
+        journal.replay(config, 1);
+        List<CacheType> caches = config.getService().getCc().getCaches().getCache();
+        CacheType a = cache("a", "urn:epc:pat:sgtin-96:3.0614141.812345.[1-100]");
+        caches.add(a);
+        journal.append(config, Journal.ADD, caches, 0, a);
+        long size = file.length();
+        CacheType b = cache("b", "urn:epc:pat:sgtin-96:3.0614141.812345.[1-100]");
+        caches.add(b);
+        journal.append(config, Journal.ADD, caches, 1, b);
+        journal.close();
+
+        // torn write
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(file.length() - 3);
+        }
+
+        ConfigType replayed = load();
+        Assert.assertEquals(1, new Journal(file, mapper).replay(replayed, 1));
+        Assert.assertEquals(1, replayed.getService().getCc().getCaches().getCache().size());
+        Assert.assertEquals(size, file.length());
+    }
+
+    @Test
+    public void flush() throws IOException {
+        ConfigType config = load();
+        Journal journal = new Journal(file, mapper);
+        journal.replay(config, 1);
+        Assert.assertNull(journal.flush());
+
+        List<CacheType> caches = config.getService().getCc().getCaches().getCache();
+        CacheType a = cache("a", "urn:epc:pat:sgtin-96:3.0614141.812345.[1-100]");
+        caches.add(a);
+        Assert.assertTrue(journal.append(config, Journal.ADD, caches, 0, a));
+        CacheType b = cache("b", "urn:epc:pat:sgtin-96:3.0614141.812345.[1-100]");
+        caches.add(b);
+        Assert.assertTrue(journal.append(config, Journal.ADD, caches, 1, b));
+        FileDescriptor descriptor = journal.flush();
+        Assert.assertTrue(descriptor.valid());
+        descriptor.sync();
+        journal.close();
+        Assert.assertFalse(descriptor.valid());
+
+        ConfigType replayed = load();
+        Assert.assertEquals(2, new Journal(file, mapper).replay(replayed, 1));
+    }
+
+    @Test
+    public void appendUnknownList() throws IOException {
+        ConfigType config = load();
+        Journal journal = new Journal(file, mapper);
+        journal.replay(config, 1);
+        Assert.assertFalse(journal.append(config, Journal.ADD, Arrays.asList("entry"), 0, "entry"));
+        Assert.assertEquals(0, journal.size());
+        Assert.assertNull(Journal.path(config, Arrays.asList("entry")));
+    }
+
+    @Test
+    public void pathMissingSection() throws IOException {
+        ConfigType config = load();
+        List<CacheType> caches = config.getService().getCc().getCaches().getCache();
+        config.getService().setPc(null);
+        config.getService().getCc().setRandoms(null);
+        Assert.assertEquals("cc.cache", Journal.path(config, caches));
+        Assert.assertNull(Journal.path(config, Arrays.asList("entry")));
+    }
+}
@@ -0,0 +1,119 @@
+package havis.middleware.ale.core.cycle;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IngestTest {
+
+    @Test
+    public void publish() {
+        Ingest<Integer> ingest = new Ingest<>(3, Ingest.Overflow.BLOCK);
+        Assert.assertEquals(4, ingest.getCapacity());
+        Assert.assertTrue(ingest.isEmpty());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(ingest.publish(Integer.valueOf(i)));
+        }
+        Assert.assertEquals(4, ingest.size());
+
+        // full
+        Assert.assertFalse(ingest.publish(Integer.valueOf(4)));
+        Assert.assertEquals(1, ingest.getBlocked());
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(Integer.valueOf(i), ingest.poll());
+        }
+        Assert.assertNull(ingest.poll());
+        Assert.assertTrue(ingest.isEmpty());
+        Assert.assertEquals(4, ingest.getPublished());
+        Assert.assertEquals(4, ingest.getDrained());
+        Assert.assertEquals(0, ingest.getDropped());
+    }
+
+    @Test
+    public void dropOldest() {
+        Ingest<Integer> ingest = new Ingest<>(2, Ingest.Overflow.DROP_OLDEST);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(ingest.publish(Integer.valueOf(i)));
+        }
+        Assert.assertEquals(3, ingest.getDropped());
+        Assert.assertEquals(Integer.valueOf(3), ingest.poll());
+        Assert.assertEquals(Integer.valueOf(4), ingest.poll());
+        Assert.assertNull(ingest.poll());
+    }
+
+    @Test
+    public void dropNewest() {
+        Ingest<Integer> ingest = new Ingest<>(2, Ingest.Overflow.DROP_NEWEST);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(ingest.publish(Integer.valueOf(i)));
+        }
+        Assert.assertEquals(3, ingest.getDropped());
+        Assert.assertEquals(Integer.valueOf(0), ingest.poll());
+        Assert.assertEquals(Integer.valueOf(1), ingest.poll());
+        Assert.assertNull(ingest.poll());
+    }
+
+    @Test
+    public void overflow() {
+        Assert.assertEquals(Ingest.Overflow.DROP_OLDEST, Ingest.Overflow.get("drop-oldest"));
+        Assert.assertEquals(Ingest.Overflow.DROP_NEWEST, Ingest.Overflow.get(" DROP-NEWEST"));
+        Assert.assertEquals(Ingest.Overflow.BLOCK, Ingest.Overflow.get("block"));
+        Assert.assertEquals(Ingest.Overflow.BLOCK, Ingest.Overflow.get("unknown"));
+        Assert.assertEquals(Ingest.Overflow.BLOCK, Ingest.Overflow.get(null));
+    }
+
+    @Test
+    public void concurrentPublish() throws InterruptedException {
+        final int producers = 4;
+        final int count = 10000;
+        final Ingest<Integer> ingest = new Ingest<>(64, Ingest.Overflow.BLOCK);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int offset = p * count;
+            threads[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        while (!ingest.publish(Integer.valueOf(offset + i))) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+
+        Set<Integer> received = new HashSet<>();
+        int[] last = new int[producers];
+        for (int p = 0; p < producers; p++) {
+            last[p] = -1;
+        }
+        while (received.size() < producers * count) {
+            Integer value = ingest.poll();
+            if (value != null) {
+                Assert.assertTrue(received.add(value));
+                // in order per producer
+                int p = value.intValue() / count;
+                Assert.assertTrue(value.intValue() > last[p]);
+                last[p] = value.intValue();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(ingest.isEmpty());
+        Assert.assertEquals(producers * count, ingest.getPublished());
+        Assert.assertEquals(producers * count, ingest.getDrained());
+    }
+}
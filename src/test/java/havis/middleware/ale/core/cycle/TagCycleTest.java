@@ -0,0 +1,194 @@
+package havis.middleware.ale.core.cycle;
+
+import havis.middleware.ale.base.State;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.TagOperation;
+import havis.middleware.ale.core.reader.ReaderController;
+import havis.middleware.ale.core.report.IDatas;
+import havis.middleware.ale.core.report.IReports;
+import havis.middleware.ale.core.report.Termination;
+import havis.middleware.ale.service.ec.ECReports;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TagCycleTest {
+
+	private static class Datas implements IDatas {
+		@Override
+		public void clear() {
+		}
+
+		@Override
+		public void rotate() {
+		}
+
+		@Override
+		public void reset() {
+		}
+
+		@Override
+		public IDatas clone() {
+			return this;
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	private static class Cycle extends TagCycle<Object, ECReports, IReports<ECReports, IDatas>, IDatas> {
+
+		final List<Tag> processed = Collections.synchronizedList(new ArrayList<Tag>());
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		Cycle() {
+			super("name", null);
+			state = State.ACTIVE;
+		}
+
+		@Override
+		protected void process(String reader, Tag tag, ReaderController controller) {
+			processed.add(tag);
+			latch.countDown();
+		}
+
+		@Override
+		protected void onNotifyStarted(String name, String reader, Tag tag) {
+		}
+
+		@Override
+		protected void onFiltered(String name, String reader, Tag tag) {
+		}
+
+		@Override
+		protected TagOperation getTagOperation() {
+			return null;
+		}
+
+		@Override
+		protected void onStateChanged(String name, State state) {
+		}
+
+		@Override
+		protected void onStartTriggered(String name, String trigger) {
+		}
+
+		@Override
+		protected void onStopTriggered(String name, String trigger) {
+		}
+
+		@Override
+		protected void onCycleStarted(String name) {
+		}
+
+		@Override
+		protected void onCycleFailed(String name, String message, Exception error) {
+		}
+
+		@Override
+		protected void onReportStarted(String name) {
+		}
+
+		@Override
+		protected void onEvaluateStarted(String name) {
+		}
+
+		@Override
+		protected List<String> getLogicalReaders() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		protected IDatas create() {
+			return new Datas();
+		}
+
+		@Override
+		protected Termination getInterval() {
+			return Termination.STABLE_SET;
+		}
+	}
+
+	@Test
+	public void publishWhileLockHolderDrained() throws InterruptedException {
+		final Cycle cycle = new Cycle();
+		final CountDownLatch drained = new CountDownLatch(1);
+		final CountDownLatch published = new CountDownLatch(1);
+
+		// the cycle thread drains and releases the lock without draining again
+		Thread holder = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				cycle.lock.lock();
+				try {
+					cycle.drain();
+					drained.countDown();
+					published.await();
+				} catch (InterruptedException e) {
+					// stop
+				} finally {
+					cycle.lock.unlock();
+				}
+			}
+		});
+		holder.start();
+		try {
+			Assert.assertTrue(drained.await(1, TimeUnit.SECONDS));
+
+			Tag tag = new Tag(new byte[] { 0x01 });
+			cycle.notify("reader", tag, null);
+			Assert.assertTrue(cycle.processed.isEmpty());
+			published.countDown();
+
+			Assert.assertTrue("Expected tag to be drained", cycle.latch.await(1, TimeUnit.SECONDS));
+			Assert.assertSame(tag, cycle.processed.get(0));
+			Assert.assertTrue(cycle.getIngest().isEmpty());
+		} finally {
+			holder.join();
+			cycle.executor.shutdown();
+		}
+	}
+
+	@Test
+	public void publishConcurrently() throws InterruptedException {
+		final Cycle cycle = new Cycle();
+		final int count = 1000;
+		Thread[] publishers = new Thread[4];
+		for (int i = 0; i < publishers.length; i++) {
+			publishers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < count; j++) {
+						cycle.notify("reader", new Tag(new byte[] { (byte) j }), null);
+					}
+				}
+			});
+			publishers[i].start();
+		}
+		// the cycle thread takes the lock in between
+		for (int i = 0; i < 100; i++) {
+			cycle.lock.lock();
+			try {
+				cycle.drain();
+			} finally {
+				cycle.lock.unlock();
+			}
+		}
+		for (Thread publisher : publishers) {
+			publisher.join();
+		}
+		long deadline = System.currentTimeMillis() + 1000;
+		while ((cycle.processed.size() < publishers.length * count) && (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(publishers.length * count, cycle.processed.size());
+		cycle.executor.shutdown();
+	}
+}
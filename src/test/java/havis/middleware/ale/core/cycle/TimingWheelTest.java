@@ -0,0 +1,97 @@
+package havis.middleware.ale.core.cycle;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+    @Test
+    public void schedule() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, 8);
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        TimingWheel.Timeout timeout = wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 50);
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertTrue(timeout.isExpired());
+        Assert.assertFalse(timeout.cancel());
+        Assert.assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    public void scheduleRounds() throws InterruptedException {
+        // more than one round of a wheel with 4 buckets of 5 ms
+        TimingWheel wheel = new TimingWheel(5, 4);
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, new Date(start + 100));
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Assert.assertTrue(System.currentTimeMillis() - start >= 95);
+    }
+
+    @Test
+    public void cancel() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, 8);
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        };
+        // reschedule as the interval timer does
+        TimingWheel.Timeout timeout = null;
+        for (int i = 0; i < 1000; i++) {
+            if (timeout != null) {
+                Assert.assertTrue(timeout.cancel());
+                Assert.assertTrue(timeout.isCancelled());
+            }
+            timeout = wheel.schedule(task, 20);
+        }
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 100);
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(1, count.get());
+        Assert.assertTrue(timeout.isExpired());
+        Assert.assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    public void failingTask() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, 8);
+        final CountDownLatch latch = new CountDownLatch(1);
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("failure");
+            }
+        }, 0);
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 10);
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+    }
+}
@@ -261,7 +261,7 @@ public class AssociationTest {
                 associations.define(specName, spec.getSpec(), list, false);
                 times = 1;
 
-                Config.serialize();
+                Config.add((List<AssociationType>) any, (AssociationType) any);
                 times = 1;
             }
         };
@@ -270,8 +270,8 @@ public class AssociationTest {
 
         new Verifications() {
             {
-                Config.serialize();
-                times = 2;
+                Config.update((List<?>) any, any);
+                times = 1;
             }
         };
     }
@@ -246,7 +246,7 @@ public class CacheTest {
                 caches.define(specName, spec.getSpec(), list, false);
                 times = 1;
 
-                Config.serialize();
+                Config.add((List<CacheType>) any, (CacheType) any);
                 times = 1;
             }
         };
@@ -255,8 +255,8 @@ public class CacheTest {
 
         new Verifications() {
             {
-                Config.serialize();
-                times = 2;
+                Config.update((List<?>) any, any);
+                times = 1;
             }
         };
     }
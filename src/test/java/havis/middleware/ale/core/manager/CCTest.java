@@ -0,0 +1,100 @@
+package havis.middleware.ale.core.manager;
+
+import havis.middleware.ale.core.config.ConfigResetter;
+import havis.middleware.ale.core.cycle.CommandCycle;
+import havis.middleware.ale.core.report.cc.data.Cache;
+import havis.middleware.ale.core.report.cc.data.Caches;
+import havis.middleware.ale.core.subscriber.SubscriberListener;
+import havis.middleware.ale.service.cc.CCReports;
+import havis.middleware.ale.service.cc.CCSpec;
+import havis.middleware.ale.service.cc.EPCCacheSpec;
+import havis.middleware.ale.service.cc.EPCCacheSpecExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import mockit.Delegate;
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import mockit.Verifications;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CCTest {
+
+	@BeforeClass
+	public static void init() {
+		ConfigResetter.reset();
+		ConfigResetter.disablePersistence();
+	}
+
+	@Before
+	public void reset() {
+		CC.getInstance().dispose();
+	}
+
+	@Test
+	public void getInstance() {
+		Assert.assertNotNull(CC.getInstance());
+	}
+
+	@Test
+	public void immediateUndefineCache(@Mocked final CommandCycle commandCycle, @Mocked final SubscriberListener<CCReports> subscriber) throws Exception {
+		CC cc = CC.getInstance();
+		final CCSpec spec = new CCSpec();
+		final CCReports report = new CCReports();
+
+		EPCCacheSpec cacheSpec = new EPCCacheSpec();
+		cacheSpec.setExtension(new EPCCacheSpecExtension());
+		Caches.getInstance().define("cache", cacheSpec, new ArrayList<>(Arrays.asList("urn:epc:pat:sgtin-96:3.0614141.812345.6790")), false);
+		final Cache cache = Caches.getInstance().get("cache");
+
+		new NonStrictExpectations() {
+			{
+				new SubscriberListener<CCReports>(1);
+				result = subscriber;
+
+				new CommandCycle(null, withEqual(spec));
+				result = commandCycle;
+
+				// the cycle uses the cache as long as it exists
+				commandCycle.start();
+				result = new Delegate<Void>() {
+					@SuppressWarnings("unused")
+					void start() {
+						cache.inc();
+					}
+				};
+
+				commandCycle.dispose();
+				result = new Delegate<Void>() {
+					@SuppressWarnings("unused")
+					void dispose() {
+						cache.dec();
+					}
+				};
+
+				subscriber.dequeue();
+				result = report;
+			}
+		};
+
+		Assert.assertSame(report, cc.immediate(spec));
+		// the idle cycle is kept
+		Assert.assertTrue(cache.isUsed());
+
+		Assert.assertEquals(Arrays.asList("urn:epc:pat:sgtin-96:3.0614141.812345.6790"), Caches.getInstance().undefine("cache", false));
+		Assert.assertFalse(cache.isUsed());
+		Assert.assertNull(Caches.getInstance().get("cache"));
+
+		new Verifications() {
+			{
+				commandCycle.dispose();
+				times = 1;
+			}
+		};
+	}
+}
@@ -392,17 +392,17 @@ public class ECIntegrationTest {
                 reader.get("001", "Test", (Map<String, String>) any);
                 result = controller;
 
-                subscriber.get(new URI("test://1"), null, ECReports.class);
+                subscriber.get(anyString, new URI("test://1"), null, ECReports.class);
                 result = c1;
                 c1.getURI();
                 result = new URI("test://1");
 
-                subscriber.get(new URI("test://2"), null, ECReports.class);
+                subscriber.get(anyString, new URI("test://2"), null, ECReports.class);
                 result = c2;
                 c2.getURI();
                 result = new URI("test://2");
 
-                subscriber.get(new URI("test://3"), null, ECReports.class);
+                subscriber.get(anyString, new URI("test://3"), null, ECReports.class);
                 result = c3;
                 c3.getURI();
                 result = new URI("test://3");
@@ -813,7 +813,7 @@ public class ECIntegrationTest {
                 controller.define((TagOperation) any, withCapture(callers), anyString);
                 controller.enable(with(scanDelegate));
 
-                subscriber.get(new URI(subscriberUrl), null, ECReports.class);
+                subscriber.get(anyString, new URI(subscriberUrl), null, ECReports.class);
                 result = c1;
 
                 c1.getURI();
@@ -975,7 +975,7 @@ public class ECIntegrationTest {
                 reader.get("001", "Test", (Map<String, String>) any);
                 result = controller;
 
-                subscriber.get(new URI("test:///"), null, ECReports.class);
+                subscriber.get(anyString, new URI("test:///"), null, ECReports.class);
                 result = c1;
 
                 c1.getURI();
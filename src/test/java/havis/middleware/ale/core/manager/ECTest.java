@@ -211,7 +211,7 @@ public class ECTest {
 				Subscriber.getInstance();
 				result = subscriber;
 
-				subscriber.get(withEqual(new URI("test://1")), props, ECReports.class);
+				subscriber.get(withEqual("name"), withEqual(new URI("test://1")), props, ECReports.class);
 				result = controller;
 
 			}
@@ -322,7 +322,7 @@ public class ECTest {
 				Subscriber.getInstance();
 				result = subscriber;
 
-				subscriber.get(withEqual(new URI("test://1")), null, ECReports.class);
+				subscriber.get(withEqual("name"), withEqual(new URI("test://1")), null, ECReports.class);
 				result = controller;
 
 				eventCycle.find(withEqual(new URI("test://1")));
@@ -485,7 +485,32 @@ public class ECTest {
 
 				subscriber.dequeue();
 				times = 1;
+			}
+		};
+
+		// the idle cycle is reused for the same specification
+		Assert.assertSame(report, ec.immediate(spec));
 
+		new Verifications() {
+			{
+				new EventCycle(null, withEqual(spec));
+				times = 1;
+
+				eventCycle.start();
+				times = 1;
+
+				eventCycle.add(withEqual(subscriber));
+				times = 2;
+
+				eventCycle.dispose();
+				times = 0;
+			}
+		};
+
+		ec.invalidate();
+
+		new Verifications() {
+			{
 				eventCycle.dispose();
 				times = 1;
 			}
@@ -665,13 +690,13 @@ public class ECTest {
 
 		new VerificationsInOrder() {
 			{
-				eventCycle1.dispose();
+				eventCycle1.dispose(true);
 				times = 1;
 
-				eventCycle2.dispose();
+				eventCycle2.dispose(true);
 				times = 1;
 
-				eventCycle3.dispose();
+				eventCycle3.dispose(true);
 				times = 1;
 			}
 		};
@@ -690,7 +715,7 @@ public class ECTest {
 				new EventCycle(withEqual("name3"), this.<ECSpec> withNotNull());
 				result = eventCycle3;
 
-				eventCycle1.dispose();
+				eventCycle1.dispose(true);
 				result = new IllegalStateException();
 			}
 		};
@@ -708,13 +733,13 @@ public class ECTest {
 
 		new VerificationsInOrder() {
 			{
-				eventCycle1.dispose();
+				eventCycle1.dispose(true);
 				times = 1;
 
-				eventCycle2.dispose();
+				eventCycle2.dispose(true);
 				times = 1;
 
-				eventCycle3.dispose();
+				eventCycle3.dispose(true);
 				times = 1;
 			}
 		};
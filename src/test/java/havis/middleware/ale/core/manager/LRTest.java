@@ -11,9 +11,11 @@ import havis.middleware.ale.base.exception.ReaderLoopException;
 import havis.middleware.ale.base.exception.ValidationException;
 import havis.middleware.ale.core.BaseReader;
 import havis.middleware.ale.core.CompositeReader;
+import havis.middleware.ale.core.ImmutableReader;
 import havis.middleware.ale.core.Name;
 import havis.middleware.ale.core.config.ConfigResetter;
 import havis.middleware.ale.core.depot.service.lr.LogicalReader;
+import havis.middleware.ale.reader.ImmutableReaderConnector;
 import havis.middleware.ale.service.lr.LRProperty;
 import havis.middleware.ale.service.lr.LRSpec;
 import havis.middleware.ale.service.rc.RCConfig;
@@ -206,6 +208,44 @@ public class LRTest {
 		};
 	}
 
+	@Test
+	public void defineImmutableReader(@Mocked final Name name,
+			@Mocked final ImmutableReader reader,
+			@Mocked final ImmutableReaderConnector connector,
+			@Mocked final LogicalReader depot) throws ValidationException,
+			DuplicateNameException, ImplementationException,
+			ImmutableReaderException {
+
+		new NonStrictExpectations() {
+			{
+				Name.isValid(withEqual("name"));
+				result = Boolean.TRUE;
+
+				depot.removeNonPersistent(withEqual("name"));
+				result = null;
+			}
+		};
+
+		final LR lr = LR.getInstance();
+		lr.add("name", connector);
+		List<String> names = lr.getNames();
+		Assert.assertTrue(names.size() == 1);
+		Assert.assertTrue(names.contains("name"));
+
+		new Verifications() {
+			{
+				new ImmutableReader(withEqual("name"), withSameInstance(connector), this.<LRSpec> withNull());
+				times = 1;
+
+				depot.addNonPersistent(withEqual("name"), this.<LRSpec> withNull());
+				times = 1;
+
+				depot.add(anyString, withInstanceOf(LRSpec.class));
+				times = 0;
+			}
+		};
+	}
+
 	private void defineSimpleReader(LR lr, final String name, boolean composite)
 			throws ValidationException, DuplicateNameException,
 			ImplementationException, ImmutableReaderException {
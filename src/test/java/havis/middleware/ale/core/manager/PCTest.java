@@ -212,7 +212,7 @@ public class PCTest {
 				Subscriber.getInstance();
 				result = subscriber;
 
-				subscriber.get(withEqual(new URI("test://1")), props, ECReports.class);
+				subscriber.get(withEqual("name"), withEqual(new URI("test://1")), props, ECReports.class);
 				result = controller;
 
 			}
@@ -323,7 +323,7 @@ public class PCTest {
 				Subscriber.getInstance();
 				result = subscriber;
 
-				subscriber.get(withEqual(new URI("test://1")), null, ECReports.class);
+				subscriber.get(withEqual("name"), withEqual(new URI("test://1")), null, ECReports.class);
 				result = controller;
 
 				portCycle.find(withEqual(new URI("test://1")));
@@ -486,7 +486,32 @@ public class PCTest {
 
 				subscriber.dequeue();
 				times = 1;
+			}
+		};
+
+		// the idle cycle is reused for the same specification
+		Assert.assertSame(report, pc.immediate(spec));
 
+		new Verifications() {
+			{
+				new PortCycle(null, withEqual(spec));
+				times = 1;
+
+				portCycle.start();
+				times = 1;
+
+				portCycle.add(withEqual(subscriber));
+				times = 2;
+
+				portCycle.dispose();
+				times = 0;
+			}
+		};
+
+		pc.invalidate();
+
+		new Verifications() {
+			{
 				portCycle.dispose();
 				times = 1;
 			}
@@ -763,13 +788,13 @@ public class PCTest {
 
 		new VerificationsInOrder() {
 			{
-				portCycle1.dispose();
+				portCycle1.dispose(true);
 				times = 1;
 
-				portCycle2.dispose();
+				portCycle2.dispose(true);
 				times = 1;
 
-				portCycle3.dispose();
+				portCycle3.dispose(true);
 				times = 1;
 			}
 		};
@@ -788,7 +813,7 @@ public class PCTest {
 				new PortCycle(withEqual("name3"), this.<PCSpec> withNotNull());
 				result = portCycle3;
 
-				portCycle1.dispose();
+				portCycle1.dispose(true);
 				result = new IllegalStateException();
 			}
 		};
@@ -806,13 +831,13 @@ public class PCTest {
 
 		new VerificationsInOrder() {
 			{
-				portCycle1.dispose();
+				portCycle1.dispose(true);
 				times = 1;
 
-				portCycle2.dispose();
+				portCycle2.dispose(true);
 				times = 1;
 
-				portCycle3.dispose();
+				portCycle3.dispose(true);
 				times = 1;
 			}
 		};
@@ -0,0 +1,66 @@
+package havis.middleware.ale.core.reader;
+
+import havis.middleware.ale.base.operation.tag.Tag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueuedCallbackHandlerTest {
+
+    @Test
+    public void notifyTagBatch() throws InterruptedException {
+        final QueuedCallbackHandler handler = new QueuedCallbackHandler("test", null, null);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<List<Tag>> received = Collections.synchronizedList(new ArrayList<List<Tag>>());
+
+        new Receiver<Tag>(handler, 1, null, null) {
+            @Override
+            public void receive(Tag tag) {
+                received.add(Arrays.asList(tag));
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                }
+            }
+
+            @Override
+            public void receive(List<Tag> list) {
+                received.add(new ArrayList<>(list));
+            }
+        };
+
+        Tag t0 = new Tag(new byte[] { 0x00 });
+        Tag t1 = new Tag(new byte[] { 0x01 });
+        Tag t2 = new Tag(new byte[] { 0x02 });
+        Tag t3 = new Tag(new byte[] { 0x03 });
+        Tag t4 = new Tag(new byte[] { 0x04 });
+        Tag t5 = new Tag(new byte[] { 0x05 });
+
+        handler.notify(1, t0);
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // pending while the first tag is received
+        handler.notify(1, t1);
+        handler.notify(1, t2);
+        handler.notify(1, t3);
+        handler.notify(2, t4); // no receiver
+        handler.notify(1, t5);
+
+        release.countDown();
+        handler.dispose();
+
+        Assert.assertEquals(3, received.size());
+        Assert.assertEquals(Arrays.asList(t0), received.get(0));
+        Assert.assertEquals(Arrays.asList(t1, t2, t3), received.get(1));
+        Assert.assertEquals(Arrays.asList(t5), received.get(2));
+    }
+}
@@ -14,6 +14,7 @@ import havis.middleware.ale.base.operation.tag.Filter;
 import havis.middleware.ale.base.operation.tag.OperationType;
 import havis.middleware.ale.base.operation.tag.Tag;
 import havis.middleware.ale.base.operation.tag.TagOperation;
+import havis.middleware.ale.base.operation.tag.result.ReadResult;
 import havis.middleware.ale.base.operation.tag.result.Result;
 import havis.middleware.ale.base.operation.tag.result.ResultState;
 import havis.middleware.ale.base.operation.tag.result.WriteResult;
@@ -25,6 +26,7 @@ import havis.util.monitor.Broker;
 import havis.util.monitor.Event;
 import havis.util.monitor.Source;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +35,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import mockit.Deencapsulation;
+import mockit.Delegate;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
 import mockit.Verifications;
@@ -166,6 +169,92 @@ public class ReaderControllerTest {
 		}
 	}
 
+	@Test
+	public void executeTagOperationPipelined(@Mocked final ReaderConnector connector) throws Exception {
+		final Map<String, String> properties = new HashMap<>();
+		properties.put(ReaderController.WINDOW, "2");
+		final ReaderController readerController = new ReaderController("reader", connector, properties);
+		final List<Filter> filter = Arrays.asList(new Filter(1, 56, 0, new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01, 0x01, 0x01 }));
+		final TagOperation operation1 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ,
+				new Field("epc", 1, 32, 56))), filter);
+		final TagOperation operation2 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ,
+				new Field("epc", 1, 32, 56))), filter);
+		final TagOperation operation3 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ,
+				new Field("epc", 1, 32, 56))), filter);
+
+		final Map<String, CountDownLatch> received = new HashMap<>();
+		received.put("1", new CountDownLatch(1));
+		received.put("2", new CountDownLatch(1));
+		received.put("3", new CountDownLatch(1));
+		final Map<String, Caller<Tag>> callers = new HashMap<>();
+		for (final String name : received.keySet()) {
+			callers.put(name, new Caller<Tag>() {
+				@Override
+				public void invoke(Tag tag, ReaderController controller) {
+					received.get(name).countDown();
+				}
+			});
+		}
+
+		final ByRef<Callback> callbackHolder = new ByRef<>(null);
+		new Verifications() {
+			{
+				Callback callback;
+				connector.setCallback(callback = withCapture());
+				callbackHolder.setValue(callback);
+			}
+		};
+
+		readerController.define(
+				new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ, new Field("epc", 1, 0, 56)))),
+				new Caller<Tag>() {
+					@Override
+					public void invoke(Tag tag, ReaderController controller) {
+						// ignore
+					}
+				}, "ignore");
+
+		readerController.execute("reader", operation1, callers.get("1"));
+		readerController.execute("reader", operation2, callers.get("2"));
+		readerController.execute("reader", operation3, callers.get("3"));
+		Thread.sleep(50); // wait for execution
+
+		// two operations in flight without results
+		new VerificationsInOrder() {
+			{
+				connector.executeTagOperation(2L, withSameInstance(operation1));
+				times = 1;
+				connector.executeTagOperation(3L, withSameInstance(operation2));
+				times = 1;
+			}
+		};
+		new Verifications() {
+			{
+				connector.executeTagOperation(4L, withSameInstance(operation3));
+				times = 0;
+			}
+		};
+
+		// results out of order are correlated by id
+		callbackHolder.getValue().notify(3L, new Tag(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01, 0x01, 0x01 }));
+		Assert.assertTrue("Expected callback", received.get("2").await(50, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(1, received.get("1").getCount());
+		Thread.sleep(50);
+
+		new Verifications() {
+			{
+				connector.executeTagOperation(4L, withSameInstance(operation3));
+				times = 1;
+			}
+		};
+
+		callbackHolder.getValue().notify(2L, new Tag(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01, 0x01, 0x01 }));
+		callbackHolder.getValue().notify(4L, new Tag(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01, 0x01, 0x01 }));
+		Assert.assertTrue("Expected callback", received.get("1").await(50, TimeUnit.MILLISECONDS));
+		Assert.assertTrue("Expected callback", received.get("3").await(50, TimeUnit.MILLISECONDS));
+		readerController.dispose();
+	}
+
 	@Test
 	public void executeTagOperationWithOptimization(@Mocked final ReaderConnector connector) throws Exception {
 		final String readerName = "reader";
@@ -809,6 +898,198 @@ public class ReaderControllerTest {
 		Assert.assertFalse("Expected no callback", callback3Received.getValue().await(20, TimeUnit.MILLISECONDS));
 	}
 
+	@Test
+	public void multiplexTagOperation(@Mocked final ReaderConnector connector) throws Exception {
+		final Map<String, String> properties = new HashMap<>();
+		properties.put(ReaderController.MULTIPLEX, "true");
+		final ReaderController readerController = new ReaderController("reader", connector, properties);
+		final TagOperation operation1 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ,
+				new Field("tid", 2, 0, 32))));
+		final TagOperation operation2 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ,
+				new Field("user", 3, 0, 16)), new havis.middleware.ale.base.operation.tag.Operation(2, OperationType.READ, new Field("tid", 2, 0, 32))));
+		final TagOperation operation3 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.WRITE,
+				new Field("user", 3, 0, 16), new byte[] { 0x01, 0x02 })));
+
+		final Map<String, Tag> received = new HashMap<>();
+		final CountDownLatch latch = new CountDownLatch(2);
+		final Map<String, Caller<Tag>> callers = new HashMap<>();
+		for (final String name : Arrays.asList("1", "2")) {
+			callers.put(name, new Caller<Tag>() {
+				@Override
+				public void invoke(Tag tag, ReaderController controller) {
+					received.put(name, tag);
+					latch.countDown();
+				}
+			});
+		}
+
+		final ByRef<Callback> callbackHolder = new ByRef<>(null);
+		new Verifications() {
+			{
+				Callback callback;
+				connector.setCallback(callback = withCapture());
+				callbackHolder.setValue(callback);
+			}
+		};
+
+		readerController.define(operation1, callers.get("1"), "reader1");
+		readerController.enable(operation1);
+		readerController.define(operation2, callers.get("2"), "reader2");
+		readerController.enable(operation2);
+		// not shareable
+		readerController.define(operation3, callers.get("2"), "reader2");
+
+		final List<TagOperation> defined = new ArrayList<>();
+		new VerificationsInOrder() {
+			{
+				connector.defineTagOperation(1L, withCapture(defined));
+				times = 1;
+				connector.enableTagOperation(1L);
+				times = 1;
+				connector.disableTagOperation(1L);
+				times = 1;
+				connector.undefineTagOperation(1L);
+				times = 1;
+				connector.defineTagOperation(1L, withCapture(defined));
+				times = 1;
+				connector.enableTagOperation(1L);
+				times = 1;
+				connector.defineTagOperation(2L, withSameInstance(operation3));
+				times = 1;
+			}
+		};
+		Assert.assertEquals(1, defined.get(0).getOperations().size());
+		// union of the fields
+		TagOperation operation = defined.get(1);
+		Assert.assertEquals(2, operation.getOperations().size());
+		Assert.assertEquals(2, operation.getOperations().get(0).getField().getBank());
+		Assert.assertEquals(3, operation.getOperations().get(1).getField().getBank());
+
+		Tag tag = new Tag(new byte[] { 0x01 });
+		tag.setTid(new byte[] { 0x01 });
+		Map<Integer, Result> result = new HashMap<>();
+		ReadResult tid = new ReadResult(ResultState.SUCCESS, new byte[] { 0x01, 0x02, 0x03, 0x04 });
+		ReadResult user = new ReadResult(ResultState.SUCCESS, new byte[] { 0x05, 0x06 });
+		result.put(Integer.valueOf(operation.getOperations().get(0).getId()), tid);
+		result.put(Integer.valueOf(operation.getOperations().get(1).getId()), user);
+		tag.setResult(result);
+		callbackHolder.getValue().notify(1L, tag);
+		Assert.assertTrue("Expected callback", latch.await(50, TimeUnit.MILLISECONDS));
+
+		// results are mapped to the ids of each operation
+		Assert.assertEquals(1, received.get("1").getResult().size());
+		Assert.assertSame(tid, received.get("1").getResult().get(Integer.valueOf(1)));
+		Assert.assertEquals(2, received.get("2").getResult().size());
+		Assert.assertSame(user, received.get("2").getResult().get(Integer.valueOf(1)));
+		Assert.assertSame(tid, received.get("2").getResult().get(Integer.valueOf(2)));
+
+		readerController.disable(operation1);
+		readerController.undefine(operation1, "reader1");
+		readerController.undefine(operation2, "reader2");
+
+		new Verifications() {
+			{
+				connector.disableTagOperation(1L);
+				times = 2;
+				connector.undefineTagOperation(1L);
+				times = 2;
+			}
+		};
+		readerController.dispose();
+	}
+
+	@Test
+	public void multiplexTagOperationRollback(@Mocked final ReaderConnector connector) throws Exception {
+		final Map<String, String> properties = new HashMap<>();
+		properties.put(ReaderController.MULTIPLEX, "true");
+		final ReaderController readerController = new ReaderController("reader", connector, properties);
+		final TagOperation operation1 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ,
+				new Field("tid", 2, 0, 32))));
+		final TagOperation operation2 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ,
+				new Field("user", 3, 0, 16))));
+		final TagOperation operation3 = new TagOperation(Arrays.asList(new havis.middleware.ale.base.operation.tag.Operation(1, OperationType.READ,
+				new Field("tid", 2, 0, 32))));
+
+		new NonStrictExpectations() {
+			{
+				connector.defineTagOperation(anyLong, withInstanceOf(TagOperation.class));
+				result = new Delegate<Void>() {
+					int count;
+
+					@SuppressWarnings("unused")
+					void defineTagOperation(long id, TagOperation operation) throws ValidationException {
+						// the union with the second member fails
+						if (++count == 2) {
+							throw new ValidationException("Field not supported");
+						}
+					}
+				};
+			}
+		};
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		readerController.define(operation1, new Caller<Tag>() {
+			@Override
+			public void invoke(Tag tag, ReaderController controller) {
+				latch.countDown();
+			}
+		}, "reader1");
+		readerController.enable(operation1);
+		try {
+			readerController.define(operation2, new Caller<Tag>() {
+				@Override
+				public void invoke(Tag tag, ReaderController controller) {
+				}
+			}, "reader2");
+			Assert.fail("Expected ValidationException");
+		} catch (ValidationException e) {
+			Assert.assertEquals("Field not supported", e.getMessage());
+		}
+		// no redefinition without a new field
+		readerController.define(operation3, new Caller<Tag>() {
+			@Override
+			public void invoke(Tag tag, ReaderController controller) {
+			}
+		}, "reader3");
+
+		final List<TagOperation> defined = new ArrayList<>();
+		new VerificationsInOrder() {
+			{
+				connector.defineTagOperation(1L, withCapture(defined));
+				times = 1;
+				connector.enableTagOperation(1L);
+				times = 1;
+				connector.disableTagOperation(1L);
+				times = 1;
+				connector.undefineTagOperation(1L);
+				times = 1;
+				connector.defineTagOperation(1L, withCapture(defined));
+				times = 2;
+				connector.enableTagOperation(1L);
+				times = 1;
+			}
+		};
+		Assert.assertEquals(3, defined.size());
+		Assert.assertEquals(2, defined.get(1).getOperations().size());
+		// the previous union is restored
+		Assert.assertEquals(1, defined.get(2).getOperations().size());
+		Assert.assertEquals(2, defined.get(2).getOperations().get(0).getField().getBank());
+
+		final ByRef<Callback> callbackHolder = new ByRef<>(null);
+		new Verifications() {
+			{
+				Callback callback;
+				connector.setCallback(callback = withCapture());
+				callbackHolder.setValue(callback);
+			}
+		};
+		Tag tag = new Tag(new byte[] { 0x01 });
+		tag.setTid(new byte[] { 0x01 });
+		callbackHolder.getValue().notify(1L, tag);
+		Assert.assertTrue("Expected callback", latch.await(50, TimeUnit.MILLISECONDS));
+		readerController.dispose();
+	}
+
 	@Test
 	public void testEqualTagOperation(@Mocked final ReaderConnector connector) throws Exception {
 		final Map<String, String> properties = new HashMap<>();
@@ -932,6 +1213,21 @@ public class ReaderControllerTest {
 			// ignore
 		}
 
+		properties = new HashMap<>();
+		properties.put(ReaderController.WINDOW, "0");
+		try {
+			readerController.update(properties);
+			Assert.fail("Expected ValidationException");
+		} catch (ValidationException e) {
+			// ignore
+		}
+
+		properties = new HashMap<>();
+		properties.put(ReaderController.WINDOW, "4");
+		readerController.update(properties);
+
+		Assert.assertEquals(Integer.valueOf(4), Deencapsulation.<Integer> getField(readerController, "window"));
+
 		properties = new HashMap<>();
 		properties.put(Property.Controller.OptimizeWriteOperations, "false");
 		properties.put(Property.Controller.Timeout, "5000");
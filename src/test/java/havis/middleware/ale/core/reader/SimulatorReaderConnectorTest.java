@@ -0,0 +1,185 @@
+package havis.middleware.ale.core.reader;
+
+import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.base.operation.port.Pin;
+import havis.middleware.ale.base.operation.port.Port;
+import havis.middleware.ale.base.operation.port.PortOperation;
+import havis.middleware.ale.base.operation.port.result.Result.State;
+import havis.middleware.ale.base.operation.tag.Field;
+import havis.middleware.ale.base.operation.tag.Operation;
+import havis.middleware.ale.base.operation.tag.OperationType;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.TagOperation;
+import havis.middleware.ale.base.operation.tag.result.ReadResult;
+import havis.middleware.ale.base.operation.tag.result.ResultState;
+import havis.middleware.ale.base.operation.tag.result.WriteResult;
+import havis.middleware.ale.reader.Callback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mockit.Mocked;
+import mockit.Verifications;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SimulatorReaderConnectorTest {
+
+	@Test
+	public void inventory(@Mocked final Callback callback) throws Exception {
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SimulatorReaderConnector.TAGS, "3");
+		properties.put(SimulatorReaderConnector.USER_MEMORY, "8");
+		properties.put(SimulatorReaderConnector.ANTENNAS, "0,1");
+		properties.put(SimulatorReaderConnector.RSSI_MIN, "-60");
+		properties.put(SimulatorReaderConnector.RSSI_MAX, "-50");
+		properties.put(SimulatorReaderConnector.SEED, "1");
+
+		SimulatorReaderConnector connector = new SimulatorReaderConnector();
+		connector.setProperties(properties);
+		connector.setCallback(callback);
+		connector.defineTagOperation(1, new TagOperation(Arrays.asList(new Operation(1, OperationType.READ, new Field("user", 3, 0, 16)), new Operation(2,
+				OperationType.READ, new Field("tid", 2, 0, 32))), null));
+
+		// not enabled
+		connector.inventory(3);
+		connector.enableTagOperation(1);
+		connector.inventory(3);
+
+		final List<Tag> tags = new ArrayList<>();
+		new Verifications() {
+			{
+				callback.notify(1L, withCapture(tags));
+				times = 3;
+			}
+		};
+
+		Set<Integer> serials = new HashSet<>();
+		for (Tag tag : tags) {
+			// SGTIN-96
+			Assert.assertEquals(12, tag.getEpc().length);
+			Assert.assertEquals((byte) 0x30, tag.getEpc()[0]);
+			serials.add(Integer.valueOf(tag.getEpc()[11]));
+			Assert.assertEquals((byte) 0xE2, tag.getTid()[0]);
+			Assert.assertEquals(2, tag.getSighting().getAntenna());
+			Assert.assertTrue(tag.getSighting().getStrength() >= -60 && tag.getSighting().getStrength() <= -50);
+			Assert.assertArrayEquals(new byte[2], ((ReadResult) tag.getResult().get(Integer.valueOf(1))).getData());
+			Assert.assertArrayEquals(Arrays.copyOf(tag.getTid(), 4), ((ReadResult) tag.getResult().get(Integer.valueOf(2))).getData());
+		}
+		Assert.assertEquals(new HashSet<>(Arrays.asList(Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(3))), serials);
+	}
+
+	@Test
+	public void executeTagOperation(@Mocked final Callback callback) throws Exception {
+		Map<String, String> properties = new HashMap<>();
+		properties.put(SimulatorReaderConnector.TAGS, "1");
+		properties.put(SimulatorReaderConnector.LATENCY, "20");
+
+		SimulatorReaderConnector connector = new SimulatorReaderConnector();
+		connector.setProperties(properties);
+		connector.setCallback(callback);
+		try {
+			connector.executeTagOperation(1, new TagOperation(Arrays.asList(new Operation(1, OperationType.READ, new Field("user", 3, 0, 16))), null));
+			Assert.fail("Expected ValidationException");
+		} catch (ValidationException e) {
+			// not connected
+		}
+
+		connector.connect();
+		try {
+			connector.executeTagOperation(1, new TagOperation(Arrays.asList(new Operation(1, OperationType.WRITE, new Field("user", 3, 0, 16), new byte[] {
+					0x12, 0x34 }), new Operation(2, OperationType.READ, new Field("user", 3, 8, 8)), new Operation(3, OperationType.READ, new Field("user", 3,
+					1024, 8)), new Operation(4, OperationType.READ, new Field("user", 3, 0, 8))), null));
+			new Verifications() {
+				{
+					// not before the latency
+					callback.notify(anyLong, withInstanceOf(Tag.class));
+					times = 0;
+				}
+			};
+			Thread.sleep(200);
+
+			final List<Tag> tags = new ArrayList<>();
+			new Verifications() {
+				{
+					callback.notify(1L, withCapture(tags));
+					times = 1;
+				}
+			};
+			Tag tag = tags.get(0);
+			Assert.assertTrue(tag.isCompleted());
+			Assert.assertEquals(ResultState.SUCCESS, ((WriteResult) tag.getResult().get(Integer.valueOf(1))).getState());
+			Assert.assertArrayEquals(new byte[] { 0x34 }, ((ReadResult) tag.getResult().get(Integer.valueOf(2))).getData());
+			Assert.assertEquals(ResultState.OUT_OF_RANGE_ERROR, tag.getResult().get(Integer.valueOf(3)).getState());
+			// not executed after failure
+			Assert.assertNull(tag.getResult().get(Integer.valueOf(4)));
+		} finally {
+			connector.disconnect();
+		}
+	}
+
+	@Test
+	public void executePortOperation(@Mocked final Callback callback) throws Exception {
+		SimulatorReaderConnector connector = new SimulatorReaderConnector();
+		connector.setCallback(callback);
+		connector.connect();
+		try {
+			Pin pin = new Pin(1, Pin.Type.OUTPUT);
+			connector.executePortOperation(1, new PortOperation(Arrays.asList(new havis.middleware.ale.base.operation.port.Operation("write",
+					havis.middleware.ale.base.operation.port.Operation.Type.WRITE, Byte.valueOf((byte) 1), null, pin),
+					new havis.middleware.ale.base.operation.port.Operation("read", havis.middleware.ale.base.operation.port.Operation.Type.READ, null, null,
+							pin))));
+			Thread.sleep(100);
+
+			final List<Port> ports = new ArrayList<>();
+			new Verifications() {
+				{
+					callback.notify(1L, withCapture(ports));
+					times = 1;
+				}
+			};
+			Port port = ports.get(0);
+			Assert.assertTrue(port.isCompleted());
+			Assert.assertEquals(2, port.getResult().size());
+			for (havis.middleware.ale.base.operation.port.result.Result result : port.getResult().values()) {
+				Assert.assertEquals(State.SUCCESS, result.getState());
+				if (result instanceof havis.middleware.ale.base.operation.port.result.ReadResult) {
+					Assert.assertEquals(1, ((havis.middleware.ale.base.operation.port.result.ReadResult) result).getData());
+				}
+			}
+		} finally {
+			connector.disconnect();
+		}
+	}
+
+	@Test
+	public void setPropertiesInvalid() {
+		SimulatorReaderConnector connector = new SimulatorReaderConnector();
+		for (String[] property : new String[][] { { SimulatorReaderConnector.TAGS, "-1" }, { SimulatorReaderConnector.READ_RATE, "fast" },
+				{ SimulatorReaderConnector.EPC_SCHEME, "SGTIN-198" }, { SimulatorReaderConnector.ANTENNAS, "0,0" },
+				{ SimulatorReaderConnector.RSSI_MAX, "-100" } }) {
+			Map<String, String> properties = new HashMap<>();
+			properties.put(property[0], property[1]);
+			try {
+				connector.setProperties(properties);
+				Assert.fail("Expected ValidationException for " + property[0]);
+			} catch (ValidationException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void readWrite() {
+		byte[] bank = new byte[4];
+		SimulatorReaderConnector.write(bank, 4, 12, new byte[] { (byte) 0xAB, (byte) 0xC0 });
+		Assert.assertArrayEquals(new byte[] { 0x0A, (byte) 0xBC, 0x00, 0x00 }, bank);
+		Assert.assertArrayEquals(new byte[] { (byte) 0xAB, (byte) 0xC0 }, SimulatorReaderConnector.read(bank, 4, 12));
+	}
+}
@@ -0,0 +1,104 @@
+package havis.middleware.ale.core.report.ec;
+
+import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.TagDecoder;
+import havis.middleware.ale.service.ec.ECFilterSpec;
+import havis.middleware.ale.service.ec.ECFilterSpec.IncludePatterns;
+import havis.middleware.ale.service.ec.ECGroupSpec;
+import havis.middleware.ale.service.ec.ECReport;
+import havis.middleware.ale.service.ec.ECReportGroup;
+import havis.middleware.ale.service.ec.ECReportOutputSpec;
+import havis.middleware.ale.service.ec.ECReportSetSpec;
+import havis.middleware.ale.service.ec.ECReportSpec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PlanTest {
+
+	private static ECReportSpec spec(String name, String set, String include, boolean includeTag) {
+		ECReportSpec spec = new ECReportSpec();
+		spec.setReportName(name);
+		ECFilterSpec filterSpec = new ECFilterSpec();
+		filterSpec.setIncludePatterns(new IncludePatterns());
+		filterSpec.getIncludePatterns().getIncludePattern().add(include);
+		spec.setFilterSpec(filterSpec);
+		ECReportSetSpec setSpec = new ECReportSetSpec();
+		setSpec.setSet(set);
+		spec.setReportSet(setSpec);
+		ECReportOutputSpec outSpec = new ECReportOutputSpec();
+		outSpec.setIncludeTag(Boolean.valueOf(includeTag));
+		outSpec.setIncludeEPC(Boolean.valueOf(!includeTag));
+		outSpec.setIncludeCount(Boolean.TRUE);
+		spec.setOutput(outSpec);
+		spec.setGroupSpec(new ECGroupSpec());
+		spec.getGroupSpec().getPattern().add("urn:epc:pat:sgtin-96:3.0614141.X.*");
+		return spec;
+	}
+
+	private static List<Tag> tags() {
+		List<Tag> tags = new ArrayList<Tag>();
+		for (int i = 0; i < 10; i++) {
+			tags.add(TagDecoder.getInstance().fromUrn("urn:epc:tag:sgtin-96:3.0614141." + (812345 + i % 3) + "." + i));
+		}
+		return tags;
+	}
+
+	@Test
+	public void createTest() throws ValidationException {
+		Report current = new Report(spec("current", "CURRENT", "urn:epc:pat:sgtin-96:3.0614141.812345.*", true));
+		Report additions = new Report(spec("additions", "ADDITIONS", "urn:epc:pat:sgtin-96:3.0614141.812346.*", false));
+		try {
+			Assert.assertNull(Plan.create(Arrays.asList(current, additions)));
+		} finally {
+			current.dispose();
+			additions.dispose();
+		}
+	}
+
+	@Test
+	public void cacheTest() throws ValidationException {
+		Report additions = new Report(spec("additions", "ADDITIONS", "urn:epc:pat:sgtin-96:3.0614141.*.*", true));
+		Report current = new Report(spec("current", "CURRENT", "urn:epc:pat:sgtin-96:3.0614141.*.*", true));
+		Report other = new Report(spec("other", "CURRENT", "urn:epc:pat:sgtin-96:3.0614141.812345.*", false));
+		try {
+			Plan plan = Plan.create(Arrays.asList(additions, current, other));
+			Assert.assertNotNull(plan);
+			Assert.assertEquals(2, plan.getFilters().size());
+			Assert.assertSame(additions, plan.getFilters().get(0));
+			Assert.assertSame(other, plan.getFilters().get(1));
+
+			List<Tag> tags = tags();
+			Plan.Cache cache = plan.cache(tags);
+			for (Tag tag : tags) {
+				Assert.assertEquals(additions.getFilter().match(tag), cache.match(current, tag));
+				Assert.assertEquals(other.getFilter().match(tag), cache.match(other, tag));
+				Assert.assertSame(cache.name(additions, tag), cache.name(current, tag));
+				Assert.assertSame(cache.member(additions, tag), cache.member(current, tag));
+				Assert.assertNotSame(cache.member(current, tag), cache.member(other, tag));
+			}
+
+			for (Report report : Arrays.asList(additions, current, other)) {
+				ECReport expected = report.get(tags);
+				ECReport actual = report.get(tags, cache);
+				Assert.assertEquals(expected.getGroup().size(), actual.getGroup().size());
+				for (int i = 0; i < expected.getGroup().size(); i++) {
+					ECReportGroup e = expected.getGroup().get(i);
+					ECReportGroup a = actual.getGroup().get(i);
+					Assert.assertEquals(e.getGroupName(), a.getGroupName());
+					Assert.assertEquals(e.getGroupCount().getCount(), a.getGroupCount().getCount());
+					Assert.assertEquals(e.getGroupList().getMember().size(), a.getGroupList().getMember().size());
+				}
+			}
+		} finally {
+			additions.dispose();
+			current.dispose();
+			other.dispose();
+		}
+	}
+}
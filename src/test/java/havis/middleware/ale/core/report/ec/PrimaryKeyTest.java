@@ -480,8 +480,7 @@ public class PrimaryKeyTest {
 
         PrimaryKey primaryKey2 = new PrimaryKey(tag2, null);
 
-        Assert.assertEquals(0, primaryKey1.hashCode()); // no result and no EPC
-        Assert.assertEquals(0, primaryKey2.hashCode()); // no result and no EPC
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash()); // no result and no EPC
 
         tag1 = new Tag(new byte[] { 0x30, 0x74, 0x25, 0x7B, (byte) 0xF7, 0x19, 0x4E, 0x40, 0x00, 0x00, 0x1A, (byte) 0x85 });
         tag1.setResult(new HashMap<Integer, Result>());
@@ -498,9 +497,10 @@ public class PrimaryKeyTest {
 
         PrimaryKey primaryKey3 = new PrimaryKey(tag3, null);
 
-        Assert.assertEquals(133627620, primaryKey1.hashCode());
-        Assert.assertEquals(1810790363, primaryKey2.hashCode());
-        Assert.assertEquals(-329323106, primaryKey3.hashCode());
+        Assert.assertEquals(primaryKey1.hash(), new PrimaryKey(tag1, fields).hash());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey3.hash());
+        Assert.assertNotEquals(primaryKey2.hash(), primaryKey3.hash());
 
         List<CommonField> fields = new ArrayList<>();
         CommonField field = new CommonField();
@@ -522,9 +522,10 @@ public class PrimaryKeyTest {
 
         primaryKey3 = new PrimaryKey(tag3, fields);
 
-        Assert.assertEquals(133627620, primaryKey1.hashCode());
-        Assert.assertEquals(1810790363, primaryKey2.hashCode());
-        Assert.assertEquals(-329323106, primaryKey3.hashCode());
+        Assert.assertEquals(primaryKey1.hash(), new PrimaryKey(tag1, fields).hash());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey3.hash());
+        Assert.assertNotEquals(primaryKey2.hash(), primaryKey3.hash());
 
         boolean extended = Tag.isExtended();
         try {
@@ -553,9 +554,9 @@ public class PrimaryKeyTest {
 
             primaryKey3 = new PrimaryKey(tag3, fields);
 
-            Assert.assertEquals(133627620, primaryKey1.hashCode());
-            Assert.assertEquals(1810790363, primaryKey2.hashCode());
-            Assert.assertEquals(-329323106, primaryKey3.hashCode());
+            Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash());
+            Assert.assertNotEquals(primaryKey1.hash(), primaryKey3.hash());
+            Assert.assertNotEquals(primaryKey2.hash(), primaryKey3.hash());
         } finally {
             Tag.setExtended(extended);
         }
@@ -577,8 +578,7 @@ public class PrimaryKeyTest {
 
         primaryKey2 = new PrimaryKey(tag2, fields);
 
-        Assert.assertEquals(0, primaryKey1.hashCode()); // result, but no data to hash
-        Assert.assertEquals(0, primaryKey2.hashCode()); // no result
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash()); // result, but no data vs. no result
 
         fields = new ArrayList<>();
         field = new CommonField();
@@ -599,8 +599,7 @@ public class PrimaryKeyTest {
 
         primaryKey2 = new PrimaryKey(tag2, fields);
 
-        Assert.assertEquals(0, primaryKey1.hashCode()); // no data
-        Assert.assertEquals(0, primaryKey2.hashCode()); // no data
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash()); // no data, but other results
 
         fields = new ArrayList<>();
         field = new CommonField();
@@ -621,8 +620,7 @@ public class PrimaryKeyTest {
 
         primaryKey2 = new PrimaryKey(tag2, fields);
 
-        Assert.assertEquals(0, primaryKey1.hashCode()); // no data
-        Assert.assertEquals(0, primaryKey2.hashCode()); // no data
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash()); // no data, but other results
 
         fields = new ArrayList<>();
         field = new CommonField();
@@ -651,9 +649,10 @@ public class PrimaryKeyTest {
 
         primaryKey3 = new PrimaryKey(tag3, fields);
 
-        Assert.assertEquals(133627620, primaryKey1.hashCode());
-        Assert.assertEquals(1810790363, primaryKey2.hashCode());
-        Assert.assertEquals(-329323106, primaryKey3.hashCode());
+        Assert.assertEquals(primaryKey1.hash(), new PrimaryKey(tag1, fields).hash());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey3.hash());
+        Assert.assertNotEquals(primaryKey2.hash(), primaryKey3.hash());
 
         fields = new ArrayList<>();
         field = new CommonField();
@@ -682,9 +681,10 @@ public class PrimaryKeyTest {
 
         primaryKey3 = new PrimaryKey(tag3, fields);
 
-        Assert.assertEquals(742988006, primaryKey1.hashCode());
-        Assert.assertEquals(-842757462, primaryKey2.hashCode());
-        Assert.assertEquals(582873917, primaryKey3.hashCode());
+        Assert.assertEquals(primaryKey1.hash(), new PrimaryKey(tag1, fields).hash());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey3.hash());
+        Assert.assertNotEquals(primaryKey2.hash(), primaryKey3.hash());
 
         fields = new ArrayList<>();
         field = new CommonField();
@@ -714,9 +714,9 @@ public class PrimaryKeyTest {
 
         primaryKey3 = new PrimaryKey(tag3, fields);
 
-        Assert.assertEquals(-419248627, primaryKey1.hashCode());
-        Assert.assertEquals(-419248627, primaryKey2.hashCode());
-        Assert.assertEquals(-36095473, primaryKey3.hashCode());
+        Assert.assertEquals(primaryKey1.hash(), primaryKey2.hash());
+        Assert.assertEquals(primaryKey1.hashCode(), primaryKey2.hashCode());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey3.hash());
 
         fields = new ArrayList<>();
         field = new CommonField();
@@ -739,7 +739,40 @@ public class PrimaryKeyTest {
 
         primaryKey2 = new PrimaryKey(tag2, fields);
 
-        Assert.assertEquals(1697040329, primaryKey1.hashCode());
-        Assert.assertEquals(294797628, primaryKey2.hashCode());
+        Assert.assertNotEquals(primaryKey1.hash(), primaryKey2.hash());
+    }
+
+    @Test
+    public void setAndCopy() {
+        List<CommonField> fields = new ArrayList<>();
+        CommonField field = new CommonField();
+        field.setName("field");
+        field.setOffset(4);
+        field.setLength(72);
+        fields.add(field);
+
+        Tag tag1 = new Tag();
+        Map<Integer, Result> result = new HashMap<Integer, Result>();
+        result.put(Integer.valueOf(1), new ReadResult(ResultState.SUCCESS, new byte[] { 0x30, 0x74, 0x25, 0x7B, (byte) 0xF7, 0x19, 0x4E, 0x40, 0x00, 0x0F }));
+        tag1.setResult(result);
+
+        Tag tag2 = new Tag();
+        result = new HashMap<Integer, Result>();
+        // differs in the bits before the offset and after the length only
+        result.put(Integer.valueOf(1), new ReadResult(ResultState.SUCCESS, new byte[] { 0x70, 0x74, 0x25, 0x7B, (byte) 0xF7, 0x19, 0x4E, 0x40, 0x00, 0x0E }));
+        tag2.setResult(result);
+
+        PrimaryKey probe = new PrimaryKey();
+        PrimaryKey primaryKey1 = probe.set(tag1, fields).copy();
+        Assert.assertEquals(primaryKey1, probe);
+        Assert.assertEquals(primaryKey1, probe.set(tag2, fields));
+        Assert.assertEquals(primaryKey1.hash(), probe.hash());
+
+        // bit within the length
+        ((ReadResult) tag2.getResult().get(Integer.valueOf(1))).getData()[8] = 0x01;
+        Assert.assertNotEquals(primaryKey1, probe.set(tag2, fields));
+
+        // copy is not affected by reuse
+        Assert.assertEquals(primaryKey1, new PrimaryKey(tag1, fields));
     }
 }
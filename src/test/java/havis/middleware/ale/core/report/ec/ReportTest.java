@@ -1,11 +1,16 @@
 package havis.middleware.ale.core.report.ec;
 
 import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.TagDecoder;
 import havis.middleware.ale.core.field.FieldDatatype;
 import havis.middleware.ale.core.field.FieldFormat;
 import havis.middleware.ale.service.ECFieldSpec;
 import havis.middleware.ale.service.ec.ECFilterSpec;
 import havis.middleware.ale.service.ec.ECFilterSpec.IncludePatterns;
+import havis.middleware.ale.service.ec.ECGroupSpec;
+import havis.middleware.ale.service.ec.ECReport;
+import havis.middleware.ale.service.ec.ECReportGroup;
 import havis.middleware.ale.service.ec.ECReportOutputFieldSpec;
 import havis.middleware.ale.service.ec.ECReportOutputFieldSpecExtension;
 import havis.middleware.ale.service.ec.ECReportOutputSpec;
@@ -17,6 +22,7 @@ import havis.middleware.ale.service.ec.ECReportSpecExtension;
 import havis.middleware.ale.service.ec.ECReportSpecExtension.StatProfileNames;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Assert;
@@ -327,4 +333,48 @@ public class ReportTest {
 		Assert.assertEquals(0, actual.getFields().get(0).getLength());
 		Assert.assertEquals(16, actual.getFields().get(0).getOffset());
 	}
+
+	@Test
+	public void collectAndMergeTest() throws ValidationException {
+		ECReportSpec input = new ECReportSpec();
+		input.setReportName("test");
+		input.setFilterSpec(new ECFilterSpec());
+		ECReportSetSpec setSpec = new ECReportSetSpec();
+		setSpec.setSet("CURRENT");
+		input.setReportSet(setSpec);
+		ECReportOutputSpec outSpec = new ECReportOutputSpec();
+		outSpec.setIncludeTag(Boolean.TRUE);
+		outSpec.setIncludeCount(Boolean.TRUE);
+		input.setOutput(outSpec);
+		input.setGroupSpec(new ECGroupSpec());
+		input.getGroupSpec().getPattern().add("urn:epc:pat:sgtin-96:3.0614141.X.*");
+
+		Report report = new Report(input);
+		try {
+			List<Tag> tags = new ArrayList<Tag>();
+			for (int i = 0; i < 10; i++) {
+				tags.add(TagDecoder.getInstance().fromUrn("urn:epc:tag:sgtin-96:3.0614141." + (812345 + i % 3) + "." + i));
+			}
+
+			ECReport expected = report.get(tags);
+			ECReport actual = report.merge(Arrays.asList(report.collect(tags.subList(0, 4), null), report.collect(tags.subList(4, 5), null),
+					report.collect(tags.subList(5, 10), null)));
+
+			Assert.assertEquals("test", actual.getReportName());
+			Assert.assertEquals(3, expected.getGroup().size());
+			Assert.assertEquals(expected.getGroup().size(), actual.getGroup().size());
+			for (int i = 0; i < expected.getGroup().size(); i++) {
+				ECReportGroup e = expected.getGroup().get(i);
+				ECReportGroup a = actual.getGroup().get(i);
+				Assert.assertEquals(e.getGroupName(), a.getGroupName());
+				Assert.assertEquals(e.getGroupCount().getCount(), a.getGroupCount().getCount());
+				Assert.assertEquals(e.getGroupList().getMember().size(), a.getGroupList().getMember().size());
+				for (int j = 0; j < e.getGroupList().getMember().size(); j++) {
+					Assert.assertEquals(e.getGroupList().getMember().get(j).getTag().getValue(), a.getGroupList().getMember().get(j).getTag().getValue());
+				}
+			}
+		} finally {
+			report.dispose();
+		}
+	}
 }
@@ -0,0 +1,209 @@
+package havis.middleware.ale.core.report.ec;
+
+import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.core.TagDecoder;
+import havis.middleware.ale.core.subscriber.Format;
+import havis.middleware.ale.service.ec.ECFilterSpec;
+import havis.middleware.ale.service.ec.ECGroupSpec;
+import havis.middleware.ale.service.ec.ECReportOutputSpec;
+import havis.middleware.ale.service.ec.ECReportSetSpec;
+import havis.middleware.ale.service.ec.ECReportSpec;
+import havis.middleware.ale.service.ec.ECReports;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ReportsWriterTest {
+
+	private static Report report(boolean includeTag) throws ValidationException {
+		ECReportSpec spec = new ECReportSpec();
+		spec.setReportName("test");
+		spec.setFilterSpec(new ECFilterSpec());
+		ECReportSetSpec setSpec = new ECReportSetSpec();
+		setSpec.setSet("CURRENT");
+		spec.setReportSet(setSpec);
+		ECReportOutputSpec outSpec = new ECReportOutputSpec();
+		outSpec.setIncludeTag(Boolean.valueOf(includeTag));
+		outSpec.setIncludeCount(Boolean.TRUE);
+		spec.setOutput(outSpec);
+		spec.setGroupSpec(new ECGroupSpec());
+		spec.getGroupSpec().getPattern().add("urn:epc:pat:sgtin-96:3.0614141.X.*");
+		return new Report(spec);
+	}
+
+	private static List<Tag> tags() {
+		List<Tag> tags = new ArrayList<Tag>();
+		for (int i = 0; i < 10; i++) {
+			tags.add(TagDecoder.getInstance().fromUrn("urn:epc:tag:sgtin-96:3.0614141." + (812345 + i % 3) + "." + i));
+		}
+		return tags;
+	}
+
+	private static ECReports header(Date date) {
+		return new ECReports(new BigDecimal(1), date, "test", date, "ALEID", 1000, "REPEAT_PERIOD", null, "DURATION", null);
+	}
+
+	private static byte[] bytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	@Test
+	public void writeJson() throws Exception {
+		for (boolean includeTag : new boolean[] { true, false }) {
+			Report report = report(includeTag);
+			try {
+				List<Tag> tags = tags();
+				Date date = new Date();
+
+				ECReports expected = header(date);
+				expected.setReports(new ECReports.Reports());
+				expected.getReports().getReport().add(report.get(tags));
+
+				ReportsWriter writer = new ReportsWriter(header(date), null);
+				writer.add(report, tags);
+				Assert.assertEquals(1, writer.size());
+
+				ObjectMapper mapper = new ObjectMapper();
+				Assert.assertEquals(mapper.readTree(mapper.writeValueAsBytes(expected)), mapper.readTree(bytes(writer.get(Format.JSON))));
+			} finally {
+				report.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void writeXml() throws Exception {
+		for (boolean includeTag : new boolean[] { true, false }) {
+			Report report = report(includeTag);
+			try {
+				List<Tag> tags = tags();
+				Date date = new Date();
+
+				ECReports expected = header(date);
+				expected.setReports(new ECReports.Reports());
+				expected.getReports().getReport().add(report.get(tags));
+				ByteArrayOutputStream stream = new ByteArrayOutputStream();
+				JAXBContext.newInstance(ECReports.class).createMarshaller()
+						.marshal(new JAXBElement<ECReports>(new QName("urn:epcglobal:ale:xsd:1", "ECReports"), ECReports.class, expected), stream);
+
+				ReportsWriter writer = new ReportsWriter(header(date), null);
+				writer.add(report, tags);
+				Assert.assertEquals(1, writer.size());
+
+				Element actual = parse(bytes(writer.get(Format.XML))).getDocumentElement();
+				assertEquals(parse(stream.toByteArray()).getDocumentElement(), actual);
+				Assert.assertEquals(10, actual.getElementsByTagName("member").getLength());
+			} finally {
+				report.dispose();
+			}
+		}
+	}
+
+	private static Document parse(byte[] bytes) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		return factory.newDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * Compares the elements, attributes and text, namespace declarations and
+	 * prefixes may differ
+	 */
+	private static void assertEquals(Element expected, Element actual) {
+		Assert.assertEquals(expected.getNamespaceURI(), actual.getNamespaceURI());
+		Assert.assertEquals(expected.getLocalName(), actual.getLocalName());
+		Assert.assertEquals(attributes(expected), attributes(actual));
+		List<Node> expectedChildren = children(expected);
+		List<Node> actualChildren = children(actual);
+		Assert.assertEquals(expectedChildren.size(), actualChildren.size());
+		for (int i = 0; i < expectedChildren.size(); i++) {
+			Node e = expectedChildren.get(i);
+			Node a = actualChildren.get(i);
+			Assert.assertEquals(e.getNodeType(), a.getNodeType());
+			if (e.getNodeType() == Node.ELEMENT_NODE) {
+				assertEquals((Element) e, (Element) a);
+			} else {
+				Assert.assertEquals(e.getNodeValue().trim(), a.getNodeValue().trim());
+			}
+		}
+	}
+
+	private static Map<String, String> attributes(Element element) {
+		Map<String, String> map = new HashMap<String, String>();
+		NamedNodeMap attributes = element.getAttributes();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			Attr attribute = (Attr) attributes.item(i);
+			if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())) {
+				map.put("{" + attribute.getNamespaceURI() + "}" + attribute.getLocalName(), attribute.getValue());
+			}
+		}
+		return map;
+	}
+
+	private static List<Node> children(Element element) {
+		List<Node> children = new ArrayList<Node>();
+		for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if (node.getNodeType() == Node.ELEMENT_NODE || node.getNodeType() == Node.TEXT_NODE && node.getNodeValue().trim().length() > 0) {
+				children.add(node);
+			}
+		}
+		return children;
+	}
+
+	@Test
+	public void shared() throws Exception {
+		Report report = report(true);
+		try {
+			ReportsWriter writer = new ReportsWriter(header(new Date()), null);
+			writer.add(report, tags());
+			ByteBuffer first = writer.get(Format.JSON);
+			ByteBuffer second = writer.get(Format.JSON);
+			Assert.assertTrue(first.isReadOnly());
+			Assert.assertNotSame(first, second);
+			Assert.assertArrayEquals(bytes(first), bytes(second));
+			Assert.assertEquals(0, first.remaining());
+			Assert.assertEquals(0, second.remaining());
+			Assert.assertTrue(writer.get(Format.JSON).remaining() > 0);
+		} finally {
+			report.dispose();
+		}
+	}
+
+	@Test
+	public void empty() throws Exception {
+		Report report = report(true);
+		try {
+			ReportsWriter writer = new ReportsWriter(header(new Date()), null);
+			writer.add(report, new ArrayList<Tag>());
+			Assert.assertEquals(0, writer.size());
+		} finally {
+			report.dispose();
+		}
+	}
+}
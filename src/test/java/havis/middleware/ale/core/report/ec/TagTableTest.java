@@ -0,0 +1,104 @@
+package havis.middleware.ale.core.report.ec;
+
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.result.Result;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TagTableTest {
+
+    private static Tag tag(int i) {
+        Tag tag = new Tag(new byte[] { 0x30, (byte) (i >> 16), (byte) (i >> 8), (byte) i });
+        tag.setResult(new HashMap<Integer, Result>());
+        return tag;
+    }
+
+    @Test
+    public void putAndGet() {
+        TagTable table = new TagTable();
+        PrimaryKey probe = new PrimaryKey();
+        for (int i = 0; i < 1000; i++) {
+            Tag tag = tag(i);
+            Assert.assertNull(table.get(probe.set(tag, null)));
+            table.put(probe.copy(), tag);
+        }
+        Assert.assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            Tag tag = tag(i);
+            Assert.assertEquals(tag, table.get(probe.set(tag, null)));
+        }
+        Assert.assertNull(table.get(probe.set(tag(1000), null)));
+
+        Tag tag = tag(1);
+        table.put(new PrimaryKey(tag, null), tag);
+        Assert.assertSame(tag, table.get(new PrimaryKey(tag, null)));
+        Assert.assertEquals(1000, table.size());
+
+        table.reset();
+        Assert.assertEquals(0, table.size());
+        Assert.assertNull(table.get(new PrimaryKey(tag, null)));
+    }
+
+    @Test
+    public void generations() {
+        TagTable table = new TagTable();
+        for (int i = 0; i < 100; i++) {
+            Tag tag = tag(i);
+            table.put(new PrimaryKey(tag, null), tag);
+        }
+        table.rotate();
+        Assert.assertEquals(100, table.size());
+        table.clear(System.currentTimeMillis());
+
+        // new generation, past tags timed out
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNull(table.get(new PrimaryKey(tag(i), null)));
+            Assert.assertEquals(tag(i), table.past(i));
+            Assert.assertNull(table.present(i));
+        }
+
+        // see even tags again, each entry keeps its position
+        for (int i = 0; i < 100; i += 2) {
+            Tag tag = tag(i);
+            table.put(new PrimaryKey(tag, null), tag);
+        }
+        Assert.assertEquals(100, table.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i % 2 == 0 ? tag(i) : null, table.present(i));
+        }
+
+        // odd tags are dropped
+        table.rotate();
+        Assert.assertEquals(50, table.size());
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(new PrimaryKey(tag(i * 2), null), table.key(i));
+            Assert.assertEquals(tag(i * 2), table.past(i));
+            Assert.assertSame(table.past(i), table.get(new PrimaryKey(tag(i * 2), null)));
+        }
+        Assert.assertNull(table.get(new PrimaryKey(tag(1), null)));
+    }
+
+    @Test
+    public void carry() {
+        TagTable table = new TagTable();
+        Tag tag = tag(1);
+        tag.setTimeout(60000);
+        table.put(new PrimaryKey(tag, null), tag);
+        table.rotate();
+        table.clear(System.currentTimeMillis());
+
+        Tag clone = table.get(new PrimaryKey(tag, null));
+        Assert.assertNotNull(clone);
+        Assert.assertNotSame(tag, clone);
+        Assert.assertEquals(0, clone.getCount());
+        // carried over once per generation
+        Assert.assertSame(clone, table.get(new PrimaryKey(tag, null)));
+        Assert.assertSame(tag, table.past(0));
+
+        table.rotate();
+        Assert.assertSame(clone, table.past(0));
+    }
+}
@@ -7,6 +7,7 @@ import havis.middleware.ale.core.TagDecoder;
 import havis.middleware.ale.core.config.ConfigResetter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.junit.Assert;
@@ -21,6 +22,12 @@ public class TagsTest {
 		ConfigResetter.disablePersistence();
 	}
 
+	private static Tag tag(int epc) {
+		Tag tag = new Tag(new byte[] { (byte) epc });
+		tag.setResult(new HashMap<Integer, Result>());
+		return tag;
+	}
+
 	@Test
 	public void tags() {
 		Tags tags = new Tags();
@@ -32,37 +39,25 @@ public class TagsTest {
 	@Test
 	public void clear() throws Exception {
 		Tags tags = new Tags();
-		Tag tag1 = new Tag(new byte[] { 0x01 });
-		tag1.setResult(new HashMap<Integer, Result>());
+		Tag tag1 = tag(0x01);
 		tag1.getSightings().put("reader1", new ArrayList<Sighting>());
 		tag1.setTimeout(1000);
 		PrimaryKey pk1 = new PrimaryKey(tag1, null);
-		Tag tag2 = new Tag(new byte[] { 0x02 });
-		tag2.setResult(new HashMap<Integer, Result>());
+		Tag tag2 = tag(0x02);
 		tag2.setTimeout(0);
 		PrimaryKey pk2 = new PrimaryKey(tag2, null);
-		Tag tag3 = new Tag(new byte[] { 0x03 });
-		tag3.setResult(new HashMap<Integer, Result>());
+		Tag tag3 = tag(0x03);
 		tag3.setTimeout(0);
 		PrimaryKey pk3 = new PrimaryKey(tag3, null);
 
-		Tag tag4 = new Tag(new byte[] { 0x04 });
-		tag4.setResult(new HashMap<Integer, Result>());
-		PrimaryKey pk4 = new PrimaryKey(tag4, null);
-		Tag tag5 = new Tag(new byte[] { 0x05 });
-		tag5.setResult(new HashMap<Integer, Result>());
-		PrimaryKey pk5 = new PrimaryKey(tag5, null);
-		Tag tag6 = new Tag(new byte[] { 0x06 });
-		tag6.setResult(new HashMap<Integer, Result>());
-		PrimaryKey pk6 = new PrimaryKey(tag6, null);
-
-		tags.getPast().put(pk1, tag1);
-		tags.getPast().put(pk2, tag2);
-		tags.getPast().put(pk3, tag3);
+		tags.add(pk1, tag1);
+		tags.add(pk2, tag2);
+		tags.add(pk3, tag3);
+		tags.rotate();
 
-		tags.getPresent().put(pk4, tag4);
-		tags.getPresent().put(pk5, tag5);
-		tags.getPresent().put(pk6, tag6);
+		Tag tag4 = tag(0x04);
+		PrimaryKey pk4 = new PrimaryKey(tag4, null);
+		tags.add(pk4, tag4);
 
 		Thread.sleep(10);
 
@@ -76,9 +71,12 @@ public class TagsTest {
 		Assert.assertEquals(1, tags.getPresent().size());
 		Assert.assertEquals(tag1, tags.getPresent().get(pk1));
 		Assert.assertNotSame(tag1, tags.getPresent().get(pk1));
+		Assert.assertNull(tags.get(pk2));
+		Assert.assertNull(tags.get(pk4));
 
 		// clone must be reset
-		Tag clone = tags.getPresent().get(pk1);
+		Tag clone = tags.get(pk1);
+		Assert.assertSame(clone, tags.getPresent().get(pk1));
 		Assert.assertEquals(0, clone.getCount());
 		Assert.assertNull(clone.getFirstTime());
 		Assert.assertEquals(0, clone.getSightings().size());
@@ -87,33 +85,29 @@ public class TagsTest {
 	@Test
 	public void rotate() throws Exception {
 		Tags tags = new Tags();
-		Tag tag1 = new Tag(new byte[] { 0x01 });
-		tag1.setResult(new HashMap<Integer, Result>());
+		Tag tag1 = tag(0x01);
 		PrimaryKey pk1 = new PrimaryKey(tag1, null);
-		Tag tag2 = new Tag(new byte[] { 0x02 });
-		tag2.setResult(new HashMap<Integer, Result>());
+		Tag tag2 = tag(0x02);
 		PrimaryKey pk2 = new PrimaryKey(tag2, null);
-		Tag tag3 = new Tag(new byte[] { 0x03 });
-		tag3.setResult(new HashMap<Integer, Result>());
+		Tag tag3 = tag(0x03);
 		PrimaryKey pk3 = new PrimaryKey(tag3, null);
 
-		Tag tag4 = new Tag(new byte[] { 0x04 });
-		tag4.setResult(new HashMap<Integer, Result>());
+		tags.add(pk1, tag1);
+		tags.add(pk2, tag2);
+		tags.add(pk3, tag3);
+		tags.rotate();
+		tags.clear();
+
+		Tag tag4 = tag(0x04);
 		PrimaryKey pk4 = new PrimaryKey(tag4, null);
-		Tag tag5 = new Tag(new byte[] { 0x05 });
-		tag5.setResult(new HashMap<Integer, Result>());
+		Tag tag5 = tag(0x05);
 		PrimaryKey pk5 = new PrimaryKey(tag5, null);
-		Tag tag6 = new Tag(new byte[] { 0x06 });
-		tag6.setResult(new HashMap<Integer, Result>());
+		Tag tag6 = tag(0x06);
 		PrimaryKey pk6 = new PrimaryKey(tag6, null);
 
-		tags.getPast().put(pk1, tag1);
-		tags.getPast().put(pk2, tag2);
-		tags.getPast().put(pk3, tag3);
-
-		tags.getPresent().put(pk4, tag4);
-		tags.getPresent().put(pk5, tag5);
-		tags.getPresent().put(pk6, tag6);
+		tags.add(pk4, tag4);
+		tags.add(pk5, tag5);
+		tags.add(pk6, tag6);
 
 		tags.rotate();
 
@@ -131,15 +125,14 @@ public class TagsTest {
 	@Test
 	public void reset() throws Exception {
 		Tags tags = new Tags();
-		Tag tag1 = new Tag(new byte[] { 0x01 });
-		tag1.setResult(new HashMap<Integer, Result>());
+		Tag tag1 = tag(0x01);
 		PrimaryKey pk1 = new PrimaryKey(tag1, null);
-		Tag tag2 = new Tag(new byte[] { 0x02 });
-		tag2.setResult(new HashMap<Integer, Result>());
+		Tag tag2 = tag(0x02);
 		PrimaryKey pk2 = new PrimaryKey(tag2, null);
 
-		tags.getPast().put(pk1, tag1);
-		tags.getPresent().put(pk2, tag2);
+		tags.add(pk1, tag1);
+		tags.rotate();
+		tags.add(pk2, tag2);
 
 		tags.reset();
 
@@ -150,15 +143,15 @@ public class TagsTest {
 	@Test
 	public void get() throws Exception {
 		Tags tags = new Tags();
-		Tag tag1 = new Tag(new byte[] { 0x01 });
-		tag1.setResult(new HashMap<Integer, Result>());
+		Tag tag1 = tag(0x01);
 		PrimaryKey pk1 = new PrimaryKey(tag1, null);
-		Tag tag2 = new Tag(new byte[] { 0x02 });
-		tag2.setResult(new HashMap<Integer, Result>());
+		Tag tag2 = tag(0x02);
 		PrimaryKey pk2 = new PrimaryKey(tag2, null);
 
-		tags.getPast().put(pk1, tag1);
-		tags.getPresent().put(pk2, tag2);
+		tags.add(pk1, tag1);
+		tags.rotate();
+		tags.clear();
+		tags.add(pk2, tag2);
 
 		Assert.assertSame(tag2, tags.get(pk2));
 		Assert.assertNull(tags.get(pk1));
@@ -167,15 +160,15 @@ public class TagsTest {
 	@Test
 	public void contains() throws Exception {
 		Tags tags = new Tags();
-		Tag tag1 = new Tag(new byte[] { 0x01 });
-		tag1.setResult(new HashMap<Integer, Result>());
+		Tag tag1 = tag(0x01);
 		PrimaryKey pk1 = new PrimaryKey(tag1, null);
-		Tag tag2 = new Tag(new byte[] { 0x02 });
-		tag2.setResult(new HashMap<Integer, Result>());
+		Tag tag2 = tag(0x02);
 		PrimaryKey pk2 = new PrimaryKey(tag2, null);
 
-		tags.getPast().put(pk1, tag1);
-		tags.getPresent().put(pk2, tag2);
+		tags.add(pk1, tag1);
+		tags.rotate();
+		tags.clear();
+		tags.add(pk2, tag2);
 
 		Assert.assertTrue(tags.contains(pk2));
 		Assert.assertFalse(tags.contains(pk1));
@@ -184,11 +177,9 @@ public class TagsTest {
 	@Test
 	public void add() throws Exception {
 		Tags tags = new Tags();
-		Tag tag1 = new Tag(new byte[] { 0x01 });
-		tag1.setResult(new HashMap<Integer, Result>());
+		Tag tag1 = tag(0x01);
 		PrimaryKey pk1 = new PrimaryKey(tag1, null);
-		Tag tag2 = new Tag(new byte[] { 0x02 });
-		tag2.setResult(new HashMap<Integer, Result>());
+		Tag tag2 = tag(0x02);
 		PrimaryKey pk2 = new PrimaryKey(tag2, null);
 
 		tags.add(pk1, tag1);
@@ -204,33 +195,64 @@ public class TagsTest {
 	@Test
 	public void cloneTest() throws Exception {
 		Tags tags = new Tags();
-		Tag tag1 = new Tag(new byte[] { 0x01 });
-		tag1.setResult(new HashMap<Integer, Result>());
+		Tag tag1 = tag(0x01);
 		PrimaryKey pk1 = new PrimaryKey(tag1, null);
-		Tag tag2 = new Tag(new byte[] { 0x02 });
-		tag2.setResult(new HashMap<Integer, Result>());
+		Tag tag2 = tag(0x02);
 		PrimaryKey pk2 = new PrimaryKey(tag2, null);
+		Tag tag3 = tag(0x03);
+		PrimaryKey pk3 = new PrimaryKey(tag3, null);
 
-		tags.getPast().put(pk1, tag1);
-		tags.getPresent().put(pk2, tag2);
+		tags.add(pk1, tag1);
+		tags.add(pk2, tag2);
+		tags.rotate();
+		tags.clear();
+		Tag tag2Again = tag(0x02);
+		tags.add(pk2, tag2Again);
+		tags.add(pk3, tag3);
 
 		Tags clone = tags.clone();
 
 		Assert.assertNotSame(tags, clone);
-		Assert.assertSame(tags.getPast(), clone.getPast());
-		Assert.assertSame(tags.getPresent(), clone.getPresent());
+		Assert.assertEquals(Arrays.asList(tag3), clone.getAdditions());
+		Assert.assertEquals(Arrays.asList(tag2Again, tag3), clone.getCurrent());
+		Assert.assertEquals(Arrays.asList(tag1), clone.getDeletions());
+
+		// snapshot is not affected by the next cycle
+		tags.rotate();
+		tags.clear();
+		tags.add(pk1, tag1);
+		Assert.assertEquals(Arrays.asList(tag3), clone.getAdditions());
+		Assert.assertEquals(Arrays.asList(tag2Again, tag3), clone.getCurrent());
+		Assert.assertEquals(Arrays.asList(tag1), clone.getDeletions());
+	}
+
+	@Test
+	public void merge() throws Exception {
+		Tags tags = new Tags();
+		Tag tag1 = tag(0x01);
+		tag1.getSightings().put("reader1", new ArrayList<Sighting>());
+		PrimaryKey pk1 = new PrimaryKey(tag1, null);
+
+		tags.add(pk1, tag1);
+		tags.rotate();
+		tags.clear();
+
+		Tags clone = tags.clone();
+		Assert.assertEquals(Arrays.asList(tag1), clone.getDeletions());
+		clone.merge();
+		Assert.assertEquals(0, tag1.getSightings().size());
 	}
 
 	@Test
 	public void toStringTest() {
 		Tags tags = new Tags();
 		Tag tag1 = TagDecoder.getInstance().enable(new Tag(new byte[] { 0x01 }));
-		Tag tag2 = TagDecoder.getInstance().enable(new Tag(new byte[] { 0x01 }));
-		tags.getPresent().put(new PrimaryKey(tag1, null), tag1);
-		tags.getPast().put(new PrimaryKey(tag2, null), tag2);
+		tags.add(new PrimaryKey(tag1, null), tag1);
+		tags.rotate();
 
 		Assert.assertEquals(
 				"Tags [past={PrimaryKey [tag=urn:epc:raw:8.x01, fields=null]=urn:epc:raw:8.x01}, present={PrimaryKey [tag=urn:epc:raw:8.x01, fields=null]=urn:epc:raw:8.x01}]",
 				tags.toString());
+		Assert.assertEquals("Tags [additions=[], current=[urn:epc:raw:8.x01], deletions=[]]", tags.clone().toString());
 	}
 }
@@ -0,0 +1,110 @@
+package havis.middleware.ale.core.report.pattern;
+
+import havis.middleware.ale.core.TagDecoder;
+import havis.middleware.tdt.FieldX;
+import havis.middleware.tdt.LevelTypeList;
+import havis.middleware.utils.data.Converter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EpcLayoutTest {
+
+    @Test
+    public void parseTest(@Mocked final FieldX filter, @Mocked final FieldX company, @Mocked final FieldX item, @Mocked final FieldX serial) {
+        new NonStrictExpectations() {
+            {
+                filter.getName();
+                result = "filter";
+                company.getName();
+                result = "gs1companyprefix";
+                item.getName();
+                result = "itemref";
+                serial.getName();
+                result = "serial";
+            }
+        };
+        EpcLayout layout = EpcLayout.parse("^00110000([01]{3})101([01]{24})([01]{20})([01]{38})$", Arrays.asList(filter, company, item, serial));
+        Assert.assertNotNull(layout);
+        Assert.assertEquals(96, layout.length);
+        Assert.assertArrayEquals(new int[] { 0, 11 }, layout.constantOffset);
+        Assert.assertArrayEquals(new int[] { 8, 3 }, layout.constantLength);
+        Assert.assertArrayEquals(new long[] { 0x30, 5 }, layout.constantValue);
+        Assert.assertArrayEquals(new int[] { 8, 3 }, layout.fields.get("filter"));
+        Assert.assertArrayEquals(new int[] { 14, 24 }, layout.fields.get("gs1companyprefix"));
+        Assert.assertArrayEquals(new int[] { 38, 20 }, layout.fields.get("itemref"));
+        Assert.assertArrayEquals(new int[] { 58, 38 }, layout.fields.get("serial"));
+
+        Assert.assertTrue(layout.matches(Converter.hexToBytes("3074257bf7194e4000001a85")));
+        Assert.assertFalse(layout.matches(Converter.hexToBytes("3064257bf7194e4000001a85")));
+        Assert.assertFalse(layout.matches(Converter.hexToBytes("3174257bf7194e4000001a85")));
+        Assert.assertFalse(layout.matches(Converter.hexToBytes("3074257bf7194e40")));
+        Assert.assertFalse(layout.matches(null));
+
+        byte[] epc = layout.create();
+        EpcLayout.set(epc, 8, 3, 3);
+        EpcLayout.set(epc, 14, 24, 614141);
+        EpcLayout.set(epc, 38, 20, 812345);
+        EpcLayout.set(epc, 58, 38, 6789);
+        Assert.assertArrayEquals(Converter.hexToBytes("3074257bf7194e4000001a85"), epc);
+    }
+
+    @Test
+    public void parseUnsupportedTest(@Mocked final FieldX field) {
+        Assert.assertNull(EpcLayout.parse(null, Arrays.asList(field)));
+        Assert.assertNull(EpcLayout.parse("00110000([01]{3})", Arrays.asList(field, field)));
+        Assert.assertNull(EpcLayout.parse("00110000([01]{3})([01]{3})", Arrays.asList(field)));
+        Assert.assertNull(EpcLayout.parse("00110000([01]*)", Arrays.asList(field)));
+        Assert.assertNull(EpcLayout.parse("00110000[01]{3}", Arrays.asList(field)));
+    }
+
+    @Test
+    public void getSetTest() {
+        byte[] data = Converter.hexToBytes("3074257bf7194e4000001a85");
+        Assert.assertEquals(0x30, EpcLayout.get(data, 0, 8));
+        Assert.assertEquals(3, EpcLayout.get(data, 8, 3));
+        Assert.assertEquals(5, EpcLayout.get(data, 11, 3));
+        Assert.assertEquals(614141, EpcLayout.get(data, 14, 24));
+        Assert.assertEquals(812345, EpcLayout.get(data, 38, 20));
+        Assert.assertEquals(6789, EpcLayout.get(data, 58, 38));
+        Assert.assertEquals(0x3074257BF7194E40L, EpcLayout.get(data, 0, 64));
+
+        EpcLayout.set(data, 58, 38, 1);
+        Assert.assertEquals(1, EpcLayout.get(data, 58, 38));
+        Assert.assertEquals(812345, EpcLayout.get(data, 38, 20));
+    }
+
+    @Test
+    public void bindingsTest() {
+        List<EpcLayout.Binding> bindings = EpcLayout.bindings(LevelTypeList.TAG_ENCODING, "urn:epc:tag:sgtin-96");
+        Assert.assertNotNull(bindings);
+        Assert.assertEquals(7, bindings.size());
+        byte[] epc = TagDecoder.getInstance().fromUrn("urn:epc:tag:sgtin-96:3.0614141.812345.6789").getEpc();
+        int matches = 0;
+        for (EpcLayout.Binding binding : bindings) {
+            if (binding.layout.matches(epc)) {
+                matches++;
+                Assert.assertEquals(614141, EpcLayout.get(epc, binding.numeric(1)[0], binding.numeric(1)[1]));
+            }
+        }
+        Assert.assertEquals(1, matches);
+        Assert.assertSame(bindings, EpcLayout.bindings(LevelTypeList.TAG_ENCODING, "urn:epc:tag:sgtin-96"));
+        Assert.assertNull(EpcLayout.bindings(LevelTypeList.TAG_ENCODING, "urn:epc:tag:unknown"));
+    }
+
+    @Test
+    public void encodeTest() throws Exception {
+        Pattern pattern = Patterns.pattern(PatternType.CACHE, "urn:epc:pat:sgtin-96:3.0614141.812345.[6789-6790]");
+        Assert.assertEquals("urn:epc:tag:sgtin-96:3.0614141.812345.6789", pattern.next());
+        Assert.assertArrayEquals(TagDecoder.getInstance().decodeUrn("urn:epc:tag:sgtin-96:3.0614141.812345.6789"), pattern.encode());
+        Assert.assertEquals("urn:epc:tag:sgtin-96:3.0614141.812345.6790", pattern.next());
+        Assert.assertArrayEquals(TagDecoder.getInstance().decodeUrn("urn:epc:tag:sgtin-96:3.0614141.812345.6790"), pattern.encode());
+        Assert.assertNull(pattern.next());
+    }
+}
@@ -0,0 +1,136 @@
+package havis.middleware.ale.core.report.pattern;
+
+import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.base.operation.tag.Tag;
+import havis.middleware.ale.base.operation.tag.Tag.Property;
+import havis.middleware.ale.core.TagDecoder;
+import havis.middleware.tdt.TdtTagInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PatternIndexTest {
+
+    private static TdtTagInfo info(String urn) {
+        return TagDecoder.getInstance().fromUrn(urn).<TdtTagInfo> getProperty(Property.TAG_INFO);
+    }
+
+    private static boolean linear(Queue<IPattern> patterns, TdtTagInfo info) {
+        for (IPattern pattern : patterns) {
+            if (pattern.match(info, null))
+                return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void compileTest() throws ValidationException {
+        Assert.assertNull(PatternIndex.compile(new ArrayList<IPattern>()));
+        Assert.assertNotNull(PatternIndex.compile(Patterns.pattern(PatternType.FILTER,
+                Arrays.asList("urn:epc:pat:sgtin-96:3.0614141.000001.*"))));
+    }
+
+    @Test
+    public void matchTest() throws ValidationException {
+        Queue<IPattern> patterns = Patterns.pattern(PatternType.FILTER, Arrays.asList(
+                "urn:epc:pat:sgtin-96:3.0614141.000001.*",
+                "urn:epc:pat:sgtin-96:3.0614141.[000010-000020].*",
+                "urn:epc:pat:sgtin-96:3.0614141.000030.[100-200]",
+                "urn:epc:pat:sgtin-96:3.0614142.*.*",
+                "urn:epc:idpat:sgtin:0614141.000040.*"));
+        PatternIndex index = PatternIndex.compile(patterns);
+        for (String urn : new String[] {
+                "urn:epc:tag:sgtin-96:3.0614141.000001.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000002.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000009.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000010.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000015.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000020.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000021.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000030.99",
+                "urn:epc:tag:sgtin-96:3.0614141.000030.100",
+                "urn:epc:tag:sgtin-96:3.0614141.000030.201",
+                "urn:epc:tag:sgtin-96:1.0614142.000030.201",
+                "urn:epc:tag:sgtin-96:1.0614141.000040.1",
+                "urn:epc:tag:sgtin-96:1.0614141.000041.1",
+                "urn:epc:tag:sscc-96:3.0614141.1234567890" }) {
+            TdtTagInfo info = info(urn);
+            Assert.assertEquals(urn, Boolean.valueOf(linear(patterns, info)), Boolean.valueOf(index.match(info)));
+        }
+        Assert.assertFalse(index.match(null));
+    }
+
+    @Test
+    public void matchBitsTest() throws ValidationException {
+        Queue<IPattern> patterns = Patterns.pattern(PatternType.FILTER, Arrays.asList(
+                "urn:epc:pat:sgtin-96:3.0614141.000001.*",
+                "urn:epc:pat:sgtin-96:3.0614141.[000010-000020].*",
+                "urn:epc:pat:sgtin-96:3.0614141.000030.[100-200]",
+                "urn:epc:pat:sgtin-96:3.061414.0000050.*",
+                "urn:epc:pat:sgtin-96:3.0614142.*.*",
+                "urn:epc:idpat:sgtin:0614141.000040.*"));
+        PatternIndex index = PatternIndex.compile(patterns);
+        for (String urn : new String[] {
+                "urn:epc:tag:sgtin-96:3.0614141.000001.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000002.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000010.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000020.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000021.1",
+                "urn:epc:tag:sgtin-96:3.0614141.000030.99",
+                "urn:epc:tag:sgtin-96:3.0614141.000030.100",
+                "urn:epc:tag:sgtin-96:3.0614141.000030.201",
+                "urn:epc:tag:sgtin-96:3.061414.0000050.1",
+                "urn:epc:tag:sgtin-96:3.0061414.000050.1",
+                "urn:epc:tag:sgtin-96:1.0614142.000030.201",
+                "urn:epc:tag:sgtin-96:3.0614142.000030.201",
+                "urn:epc:tag:sgtin-96:1.0614141.000040.1",
+                "urn:epc:tag:sgtin-96:1.0614141.000041.1",
+                "urn:epc:tag:sscc-96:3.0614141.1234567890" }) {
+            Tag tag = TagDecoder.getInstance().fromUrn(urn);
+            Assert.assertEquals(urn, Boolean.valueOf(linear(patterns, tag.<TdtTagInfo> getProperty(Property.TAG_INFO))),
+                    Boolean.valueOf(index.match(tag)));
+        }
+    }
+
+    @Test
+    public void nameTest() throws ValidationException {
+        PatternIndex index = PatternIndex.compile(Patterns.pattern(PatternType.GROUP, Arrays.asList(
+                "urn:epc:pat:sgtin-96:3.0614141.X.*",
+                "urn:epc:pat:sgtin-96:3.0614142.[000010-000020].*")));
+        List<String> names = new ArrayList<>();
+        index.name(info("urn:epc:tag:sgtin-96:3.0614141.000001.1"), null, names);
+        Assert.assertEquals(Arrays.asList("urn:epc:pat:sgtin-96:3.0614141.000001.*"), names);
+
+        names.clear();
+        index.name(info("urn:epc:tag:sgtin-96:3.0614142.000011.1"), null, names);
+        Assert.assertEquals(Arrays.asList("urn:epc:pat:sgtin-96:3.0614142.[10-20].*"), names);
+
+        names.clear();
+        index.name(info("urn:epc:tag:sgtin-96:3.0614143.000011.1"), null, names);
+        Assert.assertTrue(names.isEmpty());
+
+        names.clear();
+        index.name(TagDecoder.getInstance().fromUrn("urn:epc:tag:sgtin-96:3.0614142.000011.1"), null, names);
+        Assert.assertEquals(Arrays.asList("urn:epc:pat:sgtin-96:3.0614142.[10-20].*"), names);
+    }
+
+    @Test
+    public void findTest() throws ValidationException {
+        PatternIndex.Entry entry = new PatternIndex.Entry(Arrays.asList(
+                Patterns.pattern(PatternType.FILTER, "urn:epc:pat:sgtin-96:3.0614141.000001.*"),
+                Patterns.pattern(PatternType.FILTER, "urn:epc:pat:sgtin-96:3.0614141.000002.*")));
+        Assert.assertEquals(2, entry.key);
+        Assert.assertNotNull(entry.find("urn:epc:tag:sgtin-96:3.0614141.000001.1"));
+        Assert.assertNull(entry.find("urn:epc:tag:sgtin-96:3.0614141.000003.1"));
+        Assert.assertNull(entry.find("urn:epc:tag:sgtin-96:3.0614141.000001"));
+        Assert.assertNull(entry.find("urn:epc:tag:sgtin-96:3.0614141.000001.1.1"));
+        Assert.assertNull(entry.find("urn:epc:tag:sgtin-96:3.0614141:000001.1"));
+        Assert.assertNull(entry.find("urn:epc:tag:sgtin-96"));
+        Assert.assertNull(entry.find(null));
+    }
+}
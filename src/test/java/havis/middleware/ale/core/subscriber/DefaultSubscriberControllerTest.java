@@ -0,0 +1,355 @@
+package havis.middleware.ale.core.subscriber;
+
+import havis.middleware.ale.base.exception.ImplementationException;
+import havis.middleware.ale.config.PropertiesType;
+import havis.middleware.ale.config.PropertyType;
+import havis.middleware.ale.service.IReports;
+import havis.middleware.ale.service.cc.CCReports;
+import havis.middleware.ale.service.ec.ECReports;
+import havis.middleware.ale.service.pc.PCReports;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import mockit.Deencapsulation;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultSubscriberControllerTest {
+
+	private static class Connector implements BatchSubscriberConnector, StreamSubscriberConnector {
+
+		final List<Object> sent = Collections.synchronizedList(new ArrayList<Object>());
+		final List<Integer> batches = Collections.synchronizedList(new ArrayList<Integer>());
+		volatile int delivering = Integer.MAX_VALUE;
+		volatile int failing;
+
+		@Override
+		public void init(URI uri, Map<String, String> properties) {
+		}
+
+		private void fail() throws ImplementationException {
+			if (failing > 0) {
+				failing--;
+				throw new ImplementationException("Connection refused");
+			}
+		}
+
+		@Override
+		public void send(ECReports reports) throws ImplementationException {
+			fail();
+			sent.add(reports);
+		}
+
+		@Override
+		public void send(CCReports reports) {
+			sent.add(reports);
+		}
+
+		@Override
+		public void send(PCReports reports) {
+			sent.add(reports);
+		}
+
+		@Override
+		public Format getFormat() {
+			return Format.XML;
+		}
+
+		@Override
+		public void send(ByteBuffer data) {
+			sent.add(data);
+		}
+
+		@Override
+		public int send(List<IReports> reports) throws ImplementationException {
+			batches.add(Integer.valueOf(reports.size()));
+			fail();
+			int count = Math.min(delivering, reports.size());
+			// deliver only once partially
+			delivering = Integer.MAX_VALUE;
+			sent.addAll(reports.subList(0, count));
+			return count;
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	private File directory;
+	private File spoolDirectory;
+	private long retryInterval;
+	private int retryLimit;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("spool").toFile();
+		spoolDirectory = Deencapsulation.getField(DefaultSubscriberController.class, "spoolDirectory");
+		retryInterval = Deencapsulation.<Long> getField(DefaultSubscriberController.class, "retryInterval").longValue();
+		retryLimit = Deencapsulation.<Integer> getField(DefaultSubscriberController.class, "retryLimit").intValue();
+		Deencapsulation.setField(DefaultSubscriberController.class, "spoolDirectory", directory);
+		Deencapsulation.setField(DefaultSubscriberController.class, "retryInterval", Long.valueOf(10));
+	}
+
+	@After
+	public void tearDown() {
+		Deencapsulation.setField(DefaultSubscriberController.class, "spoolDirectory", spoolDirectory);
+		Deencapsulation.setField(DefaultSubscriberController.class, "retryInterval", Long.valueOf(retryInterval));
+		Deencapsulation.setField(DefaultSubscriberController.class, "retryLimit", Integer.valueOf(retryLimit));
+		delete(directory);
+	}
+
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+
+	private static PropertiesType properties(String size, String linger) {
+		PropertiesType properties = new PropertiesType();
+		PropertyType property = new PropertyType();
+		property.setName(DefaultSubscriberController.BATCH_SIZE);
+		property.setValue(size);
+		properties.getProperty().add(property);
+		property = new PropertyType();
+		property.setName(DefaultSubscriberController.BATCH_LINGER);
+		property.setValue(linger);
+		properties.getProperty().add(property);
+		return properties;
+	}
+
+	private static void await(DefaultSubscriberController controller, int delivered) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 2000;
+		while (controller.getDelivered() < delivered && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(delivered, controller.getDelivered());
+	}
+
+	private static List<String> names(List<Object> reports) {
+		List<String> names = new ArrayList<>();
+		for (Object report : reports) {
+			names.add(((ECReports) report).getSpecName());
+		}
+		return names;
+	}
+
+	private static List<String> enqueue(DefaultSubscriberController controller, int count) {
+		List<String> reports = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			ECReports report = new ECReports();
+			report.setSpecName(Integer.toString(i));
+			reports.add(report.getSpecName());
+			controller.inc();
+			controller.enqueue(report);
+		}
+		return reports;
+	}
+
+	@Test
+	public void batch() throws Exception {
+		Connector connector = new Connector();
+		DefaultSubscriberController controller = new DefaultSubscriberController(new URI("test://batch"), properties("3", "500"), connector,
+				ECReports.class);
+		try {
+			long start = System.currentTimeMillis();
+			List<String> reports = enqueue(controller, 7);
+			await(controller, 7);
+			// the last batch is sent after the linger time
+			Assert.assertTrue(System.currentTimeMillis() - start >= 500);
+			Assert.assertEquals(Arrays.asList(Integer.valueOf(3), Integer.valueOf(3)), connector.batches);
+			Assert.assertEquals(reports, names(connector.sent));
+			Assert.assertEquals(0, controller.getFailed());
+			Assert.assertEquals(0, controller.getQueueDepth());
+		} finally {
+			controller.dispose();
+		}
+	}
+
+	@Test
+	public void batchPartiallyDelivered() throws Exception {
+		Connector connector = new Connector();
+		connector.delivering = 1;
+		DefaultSubscriberController controller = new DefaultSubscriberController(new URI("test://partial"), properties("3", "500"), connector,
+				ECReports.class);
+		try {
+			List<String> reports = enqueue(controller, 3);
+			await(controller, 3);
+			Assert.assertEquals(Integer.valueOf(3), connector.batches.get(0));
+			// the undelivered reports are replayed from the spool in order
+			Assert.assertEquals(reports, names(connector.sent));
+			Assert.assertEquals(1, controller.getFailed());
+			Assert.assertEquals(0, controller.getDropped());
+			Assert.assertEquals(0, controller.getQueueDepth());
+		} finally {
+			controller.dispose();
+		}
+	}
+
+	@Test
+	public void batchFailed() throws Exception {
+		Connector connector = new Connector();
+		connector.failing = 1;
+		DefaultSubscriberController controller = new DefaultSubscriberController(new URI("test://failed"), properties("3", "500"), connector,
+				ECReports.class);
+		try {
+			List<String> reports = enqueue(controller, 3);
+			await(controller, 3);
+			Assert.assertEquals(reports, names(connector.sent));
+			// counted once for the report which failed
+			Assert.assertEquals(1, controller.getFailed());
+			Assert.assertEquals(0, controller.getQueueDepth());
+		} finally {
+			controller.dispose();
+		}
+	}
+
+	@Test
+	public void batchPayload() throws Exception {
+		Connector connector = new Connector();
+		DefaultSubscriberController controller = new DefaultSubscriberController(new URI("test://payload"), properties("3", "100"), connector,
+				ECReports.class);
+		try {
+			ECReports first = new ECReports();
+			ByteBuffer data = ByteBuffer.wrap(new byte[] { 0x01 });
+			ECReports second = new ECReports();
+			controller.inc();
+			controller.enqueue(first);
+			controller.inc();
+			controller.enqueue(data);
+			controller.inc();
+			controller.enqueue(second);
+			await(controller, 3);
+			// payloads are not part of a batch
+			Assert.assertEquals(Arrays.<Object> asList(first, data, second), connector.sent);
+			Assert.assertEquals(0, controller.getFailed());
+		} finally {
+			controller.dispose();
+		}
+	}
+
+	@Test
+	public void batchHttp() throws Exception {
+		PropertiesType properties = properties("3", "100");
+		PropertyType property = new PropertyType();
+		property.setName(MessengerSubscriberConnector.FORMAT);
+		property.setValue("xml");
+		properties.getProperty().add(property);
+		DefaultSubscriberController controller = new DefaultSubscriberController(new URI("http://localhost:8080/batch"), properties,
+				new MessengerSubscriberConnector(), ECReports.class);
+		try {
+			// batched reports are handed to the transport
+			Assert.assertNull(controller.getFormat());
+		} finally {
+			controller.dispose();
+		}
+
+		properties.getProperty().remove(0);
+		controller = new DefaultSubscriberController(new URI("http://localhost:8080/batch"), properties, new MessengerSubscriberConnector(),
+				ECReports.class);
+		try {
+			Assert.assertEquals(Format.XML, controller.getFormat());
+		} finally {
+			controller.dispose();
+		}
+	}
+
+	@Test
+	public void recover() throws Exception {
+		Connector connector = new Connector();
+		connector.failing = Integer.MAX_VALUE;
+		DefaultSubscriberController controller = new DefaultSubscriberController("name", new URI("test://recover"), null, connector,
+				ECReports.class);
+		List<String> reports;
+		try {
+			reports = enqueue(controller, 3);
+			long deadline = System.currentTimeMillis() + 2000;
+			while (controller.getQueueDepth() < 3 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			Assert.assertEquals(3, controller.getQueueDepth());
+		} finally {
+			// shutdown
+			controller.dispose(true);
+		}
+		Assert.assertEquals(1, directory.listFiles().length);
+
+		// the same subscription delivers the reports kept on disk
+		connector = new Connector();
+		controller = new DefaultSubscriberController("name", new URI("test://recover"), null, connector, ECReports.class);
+		try {
+			await(controller, 3);
+			Assert.assertEquals(reports, names(connector.sent));
+			Assert.assertEquals(0, controller.getQueueDepth());
+		} finally {
+			controller.dispose();
+		}
+		Assert.assertEquals(0, directory.listFiles().length);
+	}
+
+	@Test
+	public void discard() throws Exception {
+		Connector connector = new Connector();
+		connector.failing = Integer.MAX_VALUE;
+		DefaultSubscriberController controller = new DefaultSubscriberController("name", new URI("test://discard"), null, connector,
+				ECReports.class);
+		try {
+			enqueue(controller, 3);
+			long deadline = System.currentTimeMillis() + 2000;
+			while (controller.getQueueDepth() < 3 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			Assert.assertEquals(3, controller.getQueueDepth());
+		} finally {
+			// unsubscribe
+			controller.dispose();
+		}
+		Assert.assertEquals(0, directory.listFiles().length);
+
+		// nothing is replayed when subscribing again
+		connector = new Connector();
+		controller = new DefaultSubscriberController("name", new URI("test://discard"), null, connector, ECReports.class);
+		try {
+			Thread.sleep(50);
+			Assert.assertTrue(connector.sent.isEmpty());
+			Assert.assertEquals(0, controller.getQueueDepth());
+		} finally {
+			controller.dispose();
+		}
+	}
+
+	@Test
+	public void retryLimit() throws Exception {
+		Deencapsulation.setField(DefaultSubscriberController.class, "retryLimit", Integer.valueOf(3));
+		Connector connector = new Connector();
+		connector.failing = 3;
+		DefaultSubscriberController controller = new DefaultSubscriberController(new URI("test://limit"), null, connector, ECReports.class);
+		try {
+			List<String> reports = enqueue(controller, 2);
+			await(controller, 1);
+			// the first report was dropped after three attempts
+			Assert.assertEquals(reports.subList(1, 2), names(connector.sent));
+			Assert.assertEquals(3, controller.getFailed());
+			Assert.assertEquals(1, controller.getDropped());
+			Assert.assertEquals(0, controller.getQueueDepth());
+		} finally {
+			controller.dispose();
+		}
+	}
+}
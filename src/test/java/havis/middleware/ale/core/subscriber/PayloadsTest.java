@@ -0,0 +1,87 @@
+package havis.middleware.ale.core.subscriber;
+
+import havis.middleware.ale.service.cc.CCReports;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PayloadsTest {
+
+    @Test
+    public void encodeOnce() throws IOException {
+        final AtomicInteger count = new AtomicInteger();
+        Payloads payloads = new Payloads() {
+            @Override
+            public void write(OutputStream stream, Format format) throws IOException {
+                count.incrementAndGet();
+                stream.write(format.name().getBytes());
+            }
+        };
+        ByteBuffer first = payloads.get(Format.JSON);
+        ByteBuffer second = payloads.get(Format.JSON);
+        Assert.assertEquals(1, count.get());
+        Assert.assertTrue(first.isReadOnly());
+        first.get();
+        Assert.assertEquals(4, second.remaining());
+        Assert.assertEquals(3, payloads.get(Format.XML).remaining());
+        Assert.assertEquals(2, count.get());
+    }
+
+    @Test
+    public void large() throws IOException {
+        Payloads payloads = new Payloads() {
+            @Override
+            public void write(OutputStream stream, Format format) throws IOException {
+                // exceeds the memory limit, the payload is kept in a file
+                byte[] bytes = new byte[1000];
+                for (int i = 0; i < 3000; i++) {
+                    Arrays.fill(bytes, (byte) i);
+                    stream.write(bytes);
+                }
+            }
+        };
+        ByteBuffer buffer = payloads.get(Format.XML);
+        Assert.assertTrue(buffer.isReadOnly());
+        Assert.assertEquals(3000000, buffer.remaining());
+        for (int i = 0; i < 3000; i++) {
+            Assert.assertEquals((byte) i, buffer.get(i * 1000));
+            Assert.assertEquals((byte) i, buffer.get(i * 1000 + 999));
+        }
+    }
+
+    @Test
+    public void of() throws IOException {
+        Date date = new Date();
+        CCReports reports = new CCReports(new BigDecimal(1), date, "test", date, "ALEID", 1000, "REQUESTED", null, "DURATION", null);
+        Payloads payloads = Payloads.of(reports, new QName("urn:epcglobal:ale:xsd:1", "CCReports"));
+        String xml = new String(bytes(payloads.get(Format.XML)), "UTF-8");
+        Assert.assertTrue(xml.contains("CCReports"));
+        Assert.assertTrue(xml.contains("specName=\"test\""));
+        String json = new String(bytes(payloads.get(Format.JSON)), "UTF-8");
+        Assert.assertTrue(json.contains("\"specName\":\"test\""));
+    }
+
+    @Test
+    public void format() {
+        Assert.assertEquals(Format.XML, Format.get("xml"));
+        Assert.assertEquals(Format.JSON, Format.get(" JSON"));
+        Assert.assertNull(Format.get("csv"));
+        Assert.assertNull(Format.get(null));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
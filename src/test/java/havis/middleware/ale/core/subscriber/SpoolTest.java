@@ -0,0 +1,194 @@
+package havis.middleware.ale.core.subscriber;
+
+import havis.middleware.ale.service.ec.ECReports;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpoolTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("spool").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void replay() throws IOException {
+        Spool spool = new Spool(directory, 64, 1024, 0);
+        Assert.assertEquals(0, spool.size());
+        Assert.assertNull(spool.peek());
+
+        long time = System.currentTimeMillis();
+        for (byte i = 0; i < 10; i++) {
+            spool.add(ByteBuffer.wrap(new byte[] { i, i, i, i, i, i, i, i }), time);
+        }
+        Assert.assertEquals(10, spool.size());
+        // 21 bytes per record, three records per segment
+        Assert.assertEquals(4, directory.listFiles().length);
+
+        for (byte i = 0; i < 10; i++) {
+            ByteBuffer buffer = (ByteBuffer) spool.peek();
+            Assert.assertEquals(i, buffer.get());
+            // peek does not remove
+            Assert.assertEquals(i, ((ByteBuffer) spool.peek()).get());
+            spool.remove();
+        }
+        Assert.assertEquals(0, spool.size());
+        Assert.assertNull(spool.peek());
+        Assert.assertEquals(1, directory.listFiles().length);
+        Assert.assertEquals(0, spool.getDropped());
+
+        // the last segment is reused
+        spool.add(ByteBuffer.wrap(new byte[] { 42 }), time);
+        Assert.assertEquals(42, ((ByteBuffer) spool.peek()).get());
+        Assert.assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void size() throws IOException {
+        Spool spool = new Spool(directory, 64, 128, 0);
+        long time = System.currentTimeMillis();
+        for (byte i = 0; i < 9; i++) {
+            spool.add(ByteBuffer.wrap(new byte[] { i, i, i, i, i, i, i, i }), time);
+        }
+        // the oldest segment was removed
+        Assert.assertEquals(6, spool.size());
+        Assert.assertEquals(3, spool.getDropped());
+        Assert.assertEquals(2, directory.listFiles().length);
+        Assert.assertEquals(3, ((ByteBuffer) spool.peek()).get());
+    }
+
+    @Test
+    public void age() throws IOException {
+        Spool spool = new Spool(directory, 64, 1024, 1000);
+        long time = System.currentTimeMillis();
+        spool.add(ByteBuffer.wrap(new byte[] { 1 }), time - 2000);
+        spool.add(ByteBuffer.wrap(new byte[] { 2 }), time - 1500);
+        spool.add(ByteBuffer.wrap(new byte[] { 3 }), time);
+        Assert.assertEquals(3, ((ByteBuffer) spool.peek()).get());
+        Assert.assertEquals(1, spool.size());
+        Assert.assertEquals(2, spool.getDropped());
+    }
+
+    @Test
+    public void large() throws IOException {
+        Spool spool = new Spool(directory, 64, 1024, 0);
+        spool.add(ByteBuffer.wrap(new byte[100]), System.currentTimeMillis());
+        Assert.assertEquals(100, ((ByteBuffer) spool.peek()).remaining());
+    }
+
+    @Test
+    public void clear() throws IOException {
+        Spool spool = new Spool(directory, 64, 1024, 0);
+        spool.add(ByteBuffer.wrap(new byte[] { 1 }), System.currentTimeMillis());
+        spool.clear();
+        Assert.assertEquals(0, spool.size());
+        Assert.assertNull(spool.peek());
+        Assert.assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void reports() throws IOException {
+        Spool spool = new Spool(directory, 1024, 4096, 0);
+        Date date = new Date();
+        spool.add(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), date.getTime());
+        spool.add(new ECReports(new BigDecimal(1), date, "test", date, "ALEID", 1000, "REQUESTED", null, "DURATION", null), date.getTime());
+
+        ByteBuffer buffer = (ByteBuffer) spool.peek();
+        Assert.assertTrue(buffer.isReadOnly());
+        Assert.assertEquals(3, buffer.remaining());
+        Assert.assertEquals(date.getTime(), spool.getTime());
+        spool.remove();
+
+        ECReports reports = (ECReports) spool.peek();
+        Assert.assertEquals("test", reports.getSpecName());
+        spool.remove();
+        Assert.assertEquals(0, spool.size());
+    }
+
+    @Test
+    public void recover() throws IOException {
+        Spool spool = new Spool(directory, 64, 1024, 0);
+        long time = System.currentTimeMillis();
+        for (byte i = 0; i < 5; i++) {
+            spool.add(ByteBuffer.wrap(new byte[] { i, i, i, i, i, i, i, i }), time + i);
+        }
+        spool.remove();
+        spool.close();
+
+        // the replayed record is not recovered
+        spool = new Spool(directory, 64, 1024, 0);
+        Assert.assertEquals(4, spool.size());
+        for (byte i = 1; i < 5; i++) {
+            Assert.assertEquals(time + i, spool.getTime());
+            Assert.assertEquals(i, ((ByteBuffer) spool.peek()).get());
+            spool.remove();
+        }
+        Assert.assertNull(spool.peek());
+
+        // reports are appended behind the recovered segments
+        spool.add(ByteBuffer.wrap(new byte[] { 5 }), time);
+        spool.close();
+        spool = new Spool(directory, 64, 1024, 0);
+        Assert.assertEquals(1, spool.size());
+        Assert.assertEquals(5, ((ByteBuffer) spool.peek()).get());
+    }
+
+    @Test
+    public void addFirst() throws IOException {
+        Spool spool = new Spool(directory, 64, 1024, 0);
+        long time = System.currentTimeMillis();
+        spool.add(ByteBuffer.wrap(new byte[] { 1 }), time);
+        spool.add(ByteBuffer.wrap(new byte[] { 2 }), time);
+        spool.addFirst(Arrays.<Object> asList(ByteBuffer.wrap(new byte[] { 8 }), ByteBuffer.wrap(new byte[] { 9 })), new long[] { time, time });
+        Assert.assertEquals(4, spool.size());
+        Assert.assertEquals(2, directory.listFiles().length);
+        spool.close();
+
+        // the order is kept on recovery
+        spool = new Spool(directory, 64, 1024, 0);
+        for (byte i : new byte[] { 8, 9, 1, 2 }) {
+            Assert.assertEquals(i, ((ByteBuffer) spool.peek()).get());
+            spool.remove();
+        }
+        Assert.assertEquals(0, spool.size());
+    }
+
+    @Test
+    public void close() throws IOException {
+        Spool spool = new Spool(directory, 64, 1024, 0);
+        spool.add(ByteBuffer.wrap(new byte[] { 1 }), System.currentTimeMillis());
+        spool.close();
+        Assert.assertTrue(directory.isDirectory());
+
+        spool = new Spool(directory, 64, 1024, 0);
+        spool.peek();
+        spool.remove();
+        spool.close();
+        // nothing left to recover
+        Assert.assertFalse(directory.exists());
+    }
+}